@@ -20,6 +20,7 @@ import ai.metaheuristic.api.data.BaseParams;
 import ai.metaheuristic.api.data.ParamsVersion;
 import ai.metaheuristic.commons.S;
 import ai.metaheuristic.commons.exceptions.ParamsProcessingException;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,20 +41,35 @@ public class BaseJsonUtils<T extends BaseParams> {
     @NonNull
     private final ParamsJsonUtilsFactory FACTORY;
 
-    private static final ObjectMapper mapper;
-    static {
+    @NonNull
+    private final ObjectMapper objectMapper;
+
+    private static final ObjectMapper mapper = createMapper();
+
+    // null fields aren't written, is used for params which aren't stored, i.e. in communication between processor and dispatcher
+    private static final ObjectMapper compactMapper = createMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private static ObjectMapper createMapper() {
         ObjectMapper m = new ObjectMapper();
         m.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
         m.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        mapper = m;
+        return m;
     }
 
     public static ObjectMapper getMapper() {
         return mapper;
     }
 
+    public static ObjectMapper getCompactMapper() {
+        return compactMapper;
+    }
 
     public BaseJsonUtils(@NonNull Map<Integer, AbstractParamsJsonUtils> map, @NonNull AbstractParamsJsonUtils defJsonUtils) {
+        this(map, defJsonUtils, mapper);
+    }
+
+    public BaseJsonUtils(@NonNull Map<Integer, AbstractParamsJsonUtils> map, @NonNull AbstractParamsJsonUtils defJsonUtils, @NonNull ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
         map.forEach((k,v)-> {
             if (k!=v.getVersion()) {
                 throw new IllegalStateException(S.f("Version is different, class: %s", v.getClass()));
@@ -108,7 +124,7 @@ public class BaseJsonUtils<T extends BaseParams> {
 
     private String toStringInternal(BaseParams baseParams) {
         try {
-            return mapper.writeValueAsString(baseParams);
+            return objectMapper.writeValueAsString(baseParams);
         }
         catch (JsonProcessingException e) {
             throw new ParamsProcessingException("Error: " + e.getMessage(), e);
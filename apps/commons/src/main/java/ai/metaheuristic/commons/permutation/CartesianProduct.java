@@ -0,0 +1,83 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.commons.permutation;
+
+/**
+ * Index-addressable cartesian product of dimensions with specified sizes.
+ * Items of product aren't materialized, the item with any index can be decoded to indexes of values in each dimension.
+ * The first dimension is changing fastest.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:20 AM
+ */
+public class CartesianProduct {
+
+    private final int[] sizes;
+    private final long size;
+
+    public CartesianProduct(int... sizes) {
+        this.sizes = sizes.clone();
+        long total = sizes.length==0 ? 0 : 1;
+        for (int s : sizes) {
+            if (s<0) {
+                throw new IllegalArgumentException("size of dimension can't be negative: " + s);
+            }
+            total = Math.multiplyExact(total, s);
+        }
+        this.size = total;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return sizes.length;
+    }
+
+    /**
+     * @param index index of item, 0 <= index < size()
+     * @param indexes array with length equals to dimensions(), will be filled with indexes of values
+     * @return indexes
+     */
+    public int[] decode(long index, int[] indexes) {
+        if (index<0 || index>=size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        long rest = index;
+        for (int i = 0; i < sizes.length; i++) {
+            indexes[i] = (int) (rest % sizes[i]);
+            rest /= sizes[i];
+        }
+        return indexes;
+    }
+
+    /**
+     * Moves indexes to the next item in place
+     *
+     * @return false if indexes were pointed to the last item
+     */
+    public boolean next(int[] indexes) {
+        for (int i = 0; i < sizes.length; i++) {
+            if (++indexes[i] < sizes[i]) {
+                return true;
+            }
+            indexes[i] = 0;
+        }
+        return false;
+    }
+}
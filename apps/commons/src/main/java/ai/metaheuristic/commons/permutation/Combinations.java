@@ -0,0 +1,95 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.commons.permutation;
+package ai.metaheuristic.commons.permutation;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Index-addressable read-only list of all non-empty combinations of items, i.e. all combinations of size 1, then of size 2 and so on.
+ * Combinations of the same size are in lexicographic order of indexes of items,
+ * so the order is the same as in Permutation.printCombination() which is called for r = 1..n.
+ * Combinations aren't materialized, a combination is created with each call of get().
+ *
+ * @author Serge
+ * Date: 10/20/2026
+ * Time: 8:40 PM
+ */
+public class Combinations<T> extends AbstractList<List<T>> implements RandomAccess {
+
+    // 2^31 - 1 combinations is the max size of List
+    public static final int MAX_ITEMS = 30;
+
+    private final List<T> items;
+    // binomial[n][k] - number of combinations of k items from n
+    private final int[][] binomial;
+    private final int size;
+
+    public Combinations(List<T> items) {
+        if (items.size()>MAX_ITEMS) {
+            throw new IllegalArgumentException("Too many items for combinations, max: " + MAX_ITEMS + ", actual: " + items.size());
+        }
+        this.items = new ArrayList<>(items);
+        final int n = this.items.size();
+        this.binomial = new int[n + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            binomial[i][0] = 1;
+            for (int k = 1; k <= i; k++) {
+                binomial[i][k] = binomial[i - 1][k - 1] + (k < i ? binomial[i - 1][k] : 0);
+            }
+        }
+        this.size = (1 << n) - 1;
+    }
+
+    @Override
+    public List<T> get(int index) {
+        if (index<0 || index>=size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        final int n = items.size();
+        int rest = index;
+        int r = 1;
+        while (rest >= binomial[n][r]) {
+            rest -= binomial[n][r];
+            r++;
+        }
+        // rest is the index of combination of size r in lexicographic order
+        List<T> combination = new ArrayList<>(r);
+        int item = 0;
+        for (int position = 0; position < r; position++) {
+            while (true) {
+                // number of combinations which start with this item at this position
+                int count = binomial[n - item - 1][r - position - 1];
+                if (rest < count) {
+                    break;
+                }
+                rest -= count;
+                item++;
+            }
+            combination.add(items.get(item));
+            item++;
+        }
+        return combination;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
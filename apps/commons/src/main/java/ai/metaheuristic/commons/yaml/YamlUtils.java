@@ -33,6 +33,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 @Slf4j
 public class YamlUtils {
@@ -42,8 +44,14 @@ public class YamlUtils {
     // Different threads may not call the same instance.
     // Threads must have separate Yaml instances.
 
+    // construction of Yaml with Representer and Constructor is costly, so instances are cached per thread
+    private static final ThreadLocal<Map<Class<?>, Yaml>> YAMLS = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * returned instance is cached for current thread and must not be passed to other threads
+     */
     public static Yaml init(Class<?> clazz) {
-        return initWithTags(clazz, new Class[]{clazz}, null);
+        return YAMLS.get().computeIfAbsent(clazz, c -> initWithTags(c, new Class[]{c}, null));
     }
 
     public static Yaml initWithTags(Class<?> clazz, Class<?>[] clazzMap, @Nullable TypeDescription customTypeDescription) {
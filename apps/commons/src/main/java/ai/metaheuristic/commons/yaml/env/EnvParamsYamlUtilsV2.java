@@ -53,7 +53,8 @@ public class EnvParamsYamlUtilsV2
         trg.mirrors.putAll(src.mirrors);
         trg.envs.putAll(src.envs);
         src.disk.stream().map(o->new EnvParamsYaml.DiskStorage(o.code, o.path)).collect(Collectors.toCollection(() -> trg.disk));
-        src.processors.stream().map(o->new EnvParamsYaml.Processor(o.code, o.tags)).collect(Collectors.toCollection(()->trg.processors));
+        src.processors.stream().map(o->new EnvParamsYaml.Processor(o.code, o.tags, o.slots)).collect(Collectors.toCollection(()->trg.processors));
+        trg.envSlots.putAll(src.envSlots);
 
         trg.checkIntegrity();
         return trg;
@@ -48,6 +48,15 @@ public class EnvParamsYamlV2 implements BaseParams {
         public String code;
         @Nullable
         public String tags;
+
+        // max number of tasks which can be executed concurrently by this processor, 1 if not specified
+        @Nullable
+        public Integer slots;
+
+        public ProcessorV2(String code, @Nullable String tags) {
+            this.code = code;
+            this.tags = tags;
+        }
     }
 
     public final Map<String, String> mirrors = new ConcurrentHashMap<>();
@@ -55,4 +64,7 @@ public class EnvParamsYamlV2 implements BaseParams {
     public final List<DiskStorageV2> disk = new ArrayList<>();
     public final List<ProcessorV2> processors = new ArrayList<>();
 
+    // max number of functions with specific env which can be executed concurrently by all processors, key is a code of env
+    public final Map<String, Integer> envSlots = new ConcurrentHashMap<>();
+
 }
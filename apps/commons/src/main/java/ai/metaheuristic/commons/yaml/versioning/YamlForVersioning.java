@@ -18,6 +18,7 @@ package ai.metaheuristic.commons.yaml.versioning;
 
 import ai.metaheuristic.api.ConstsApi;
 import ai.metaheuristic.api.data.ParamsVersion;
+import org.springframework.lang.Nullable;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.nodes.Tag;
@@ -30,11 +31,99 @@ import org.yaml.snakeyaml.representer.Representer;
  */
 public class YamlForVersioning {
 
+    private static final String VERSION_KEY = "version:";
+
+    // Yaml instances aren't thread-safe
+    private static final ThreadLocal<Yaml> YAML_FOR_VERSION = ThreadLocal.withInitial(YamlForVersioning::getYamlForVersion);
+
     public static ParamsVersion getParamsVersion(String s) {
-        ParamsVersion yamlVersion = getYamlForVersion().load(s);
+        Integer version = findVersion(s);
+        if (version!=null) {
+            return new ParamsVersion(version);
+        }
+        ParamsVersion yamlVersion = YAML_FOR_VERSION.get().load(s);
         return yamlVersion==null ? ConstsApi.PARAMS_VERSION_1 : yamlVersion;
     }
 
+    /**
+     * Looks for a top-level 'version: N' line without parsing of yaml.
+     * Keys of nested objects and content of block scalars are always indented, so they can't be matched.
+     *
+     * @return null if version wasn't found or yaml isn't in a simple block form, full parsing must be used in that case
+     */
+    @Nullable
+    static Integer findVersion(String s) {
+        Integer version = null;
+        final int length = s.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = s.indexOf('\n', pos);
+            if (end==-1) {
+                end = length;
+            }
+            if (pos==0) {
+                char c = firstNonSpace(s, 0, end);
+                // flow style, document markers, directives and tags are left for the parser
+                if (c=='{' || c=='-' || c=='%' || c=='!') {
+                    return null;
+                }
+            }
+            if (s.startsWith(VERSION_KEY, pos)) {
+                if (version!=null) {
+                    return null;
+                }
+                version = parseInt(s, pos + VERSION_KEY.length(), end);
+                if (version==null) {
+                    return null;
+                }
+            }
+            pos = end + 1;
+        }
+        return version;
+    }
+
+    private static char firstNonSpace(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c!=' ' && c!='\t' && c!='\r') {
+                return c;
+            }
+        }
+        return ' ';
+    }
+
+    @Nullable
+    private static Integer parseInt(String s, int from, int to) {
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c>='0' && c<='9') {
+                if (digits>=9) {
+                    return null;
+                }
+                value = value*10 + (c - '0');
+                digits++;
+            }
+            else if (c==' ' || c=='\t' || c=='\r') {
+                if (digits>0) {
+                    // only trailing spaces are allowed after value
+                    for (int j = i; j < to; j++) {
+                        char c1 = s.charAt(j);
+                        if (c1!=' ' && c1!='\t' && c1!='\r') {
+                            return null;
+                        }
+                    }
+                    break;
+                }
+            }
+            else {
+                return null;
+            }
+        }
+        return digits==0 ? null : value;
+    }
+
     private static Yaml getYamlForVersion() {
         Representer representer = new Representer();
         representer.getPropertyUtils().setSkipMissingProperties(true);
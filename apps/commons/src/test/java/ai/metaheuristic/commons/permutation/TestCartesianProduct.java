@@ -0,0 +1,69 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.commons.permutation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:40 AM
+ */
+public class TestCartesianProduct {
+
+    @Test
+    public void testDecodeAndNext() {
+        CartesianProduct product = new CartesianProduct(2, 3, 4);
+        assertEquals(24, product.size());
+
+        int[] indexes = new int[product.dimensions()];
+        int[] decoded = new int[product.dimensions()];
+        Set<String> all = new HashSet<>();
+        for (long i = 0; i < product.size(); i++) {
+            assertArrayEquals(indexes, product.decode(i, decoded));
+            all.add(indexes[0] + "-" + indexes[1] + "-" + indexes[2]);
+            assertEquals(i < product.size() - 1, product.next(indexes));
+        }
+        assertEquals(24, all.size());
+        assertArrayEquals(new int[]{0, 0, 0}, indexes);
+
+        // the first dimension is changing fastest
+        assertArrayEquals(new int[]{1, 0, 0}, product.decode(1, decoded));
+        assertArrayEquals(new int[]{0, 1, 0}, product.decode(2, decoded));
+        assertArrayEquals(new int[]{1, 2, 3}, product.decode(23, decoded));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new CartesianProduct().size());
+        assertEquals(0, new CartesianProduct(3, 0, 2).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> new CartesianProduct(3).decode(3, new int[1]));
+    }
+
+    @Test
+    public void testHugeProduct() {
+        CartesianProduct product = new CartesianProduct(1000, 1000, 1000, 1000);
+        assertEquals(1_000_000_000_000L, product.size());
+        assertArrayEquals(new int[]{999, 999, 999, 999}, product.decode(product.size() - 1, new int[4]));
+
+        assertThrows(ArithmeticException.class, () -> new CartesianProduct(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.commons.permutation;
+package ai.metaheuristic.commons.permutation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/20/2026
+ * Time: 9:10 PM
+ */
+public class TestCombinations {
+
+    @Test
+    public void testSameOrderAsPermutation() {
+        for (int n = 0; n <= 7; n++) {
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                items.add(i * 10);
+            }
+            List<List<Integer>> expected = new ArrayList<>();
+            Permutation<Integer> permutation = new Permutation<>();
+            for (int r = 1; r <= n; r++) {
+                permutation.printCombination(items, r, expected::add);
+            }
+
+            Combinations<Integer> combinations = new Combinations<>(items);
+            assertEquals(expected.size(), combinations.size());
+            for (int i = 0; i < combinations.size(); i++) {
+                assertEquals(expected.get(i), combinations.get(i), "n: " + n + ", index: " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testBounds() {
+        Combinations<String> combinations = new Combinations<>(List.of("a", "b", "c"));
+        assertEquals(7, combinations.size());
+        assertEquals(List.of("a"), combinations.get(0));
+        assertEquals(List.of("a", "b", "c"), combinations.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> combinations.get(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> combinations.get(-1));
+
+        assertTrue(new Combinations<>(List.of()).isEmpty());
+    }
+
+    @Test
+    public void testMaxItems() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < Combinations.MAX_ITEMS; i++) {
+            items.add(i);
+        }
+        Combinations<Integer> combinations = new Combinations<>(items);
+        assertEquals((1 << Combinations.MAX_ITEMS) - 1, combinations.size());
+        assertEquals(items, combinations.get(combinations.size() - 1));
+
+        items.add(Combinations.MAX_ITEMS);
+        assertThrows(IllegalArgumentException.class, () -> new Combinations<>(items));
+    }
+}
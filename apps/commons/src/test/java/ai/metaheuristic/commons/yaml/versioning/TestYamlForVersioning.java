@@ -0,0 +1,53 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.commons.yaml.versioning;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:20 PM
+ */
+public class TestYamlForVersioning {
+
+    @Test
+    public void testFindVersion() {
+        assertEquals(3, YamlForVersioning.findVersion("task:\n  version: 7\n  code: aaa\nversion: 3\n"));
+        assertEquals(12, YamlForVersioning.findVersion("version: 12  \r\nkey: value"));
+        assertEquals(2, YamlForVersioning.findVersion("key: |\n  version: 5\nversion: 2"));
+
+        // these cases must be resolved by full parsing
+        assertNull(YamlForVersioning.findVersion("key: value\n"));
+        assertNull(YamlForVersioning.findVersion("{version: 2}"));
+        assertNull(YamlForVersioning.findVersion("---\nversion: 2"));
+        assertNull(YamlForVersioning.findVersion("version: '2'"));
+        assertNull(YamlForVersioning.findVersion("version: 2 # comment"));
+        assertNull(YamlForVersioning.findVersion("version: 2\nversion: 3"));
+    }
+
+    @Test
+    public void testGetParamsVersion() {
+        assertEquals(3, YamlForVersioning.getParamsVersion("key: value\nversion: 3\n").getActualVersion());
+        assertEquals(2, YamlForVersioning.getParamsVersion("{key: value, version: 2}").getActualVersion());
+        assertEquals(2, YamlForVersioning.getParamsVersion("version: '2'").getActualVersion());
+        assertEquals(1, YamlForVersioning.getParamsVersion("key: value").getActualVersion());
+    }
+}
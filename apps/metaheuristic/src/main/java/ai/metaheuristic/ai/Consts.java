@@ -46,6 +46,10 @@ public class Consts {
     public static final String KEEP_ALIVE_REST_URL = "/keep-alive";
     public static final String UPLOAD_REST_URL = "/upload";
     public static final String VARIABLE_STATUS_REST_URL = "/variable-status";
+    public static final String UPLOAD_SESSION_REST_URL = "/upload-session";
+    // min size of chunk for uploading of variables by chunks, a smaller size would produce too many chunks
+    public static final long UPLOAD_MIN_CHUNK_SIZE = 64 * 1024;
+    public static final String LONG_POLL_REST_URL = "/long-poll";
     public static final String REST_ASSET_URL = "/rest/v1/asset";
 
     public static final MediaType APPLICATION_JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON.getType(), MediaType.APPLICATION_JSON.getSubtype(), StandardCharsets.UTF_8);
@@ -92,6 +96,7 @@ public class Consts {
     public static final String COMPANIES_CACHE = "companies";
     public static final String ACCOUNTS_CACHE = "accounts";
     public static final String EXEC_CONTEXT_CACHE = "exec_contexts";
+    public static final String EXEC_CONTEXT_GRAPHS_CACHE = "exec_context_graphs";
     public static final String PROCESSORS_CACHE = "processors";
     public static final String BATCHES_CACHE = "batches";
     public static final String EXPERIMENTS_CACHE = "experiments";
@@ -109,6 +114,14 @@ public class Consts {
 
     public static final String HEADER_MH_IS_LAST_CHUNK = "mh-is-last-chunk";
     public static final String HEADER_MH_CHUNK_SIZE = "mh-chunk-size";
+    // SHA-256 checksum of the whole content which is delivered with ranged requests
+    public static final String HEADER_MH_CONTENT_SHA256 = "mh-content-sha256";
+    // format of body of request or response in communication between processor and dispatcher, yaml if absent
+    public static final String HEADER_MH_COMM_FORMAT = "mh-comm-format";
+    // formats of communication which are supported by dispatcher
+    public static final String HEADER_MH_COMM_FORMATS = "mh-comm-formats";
+    // is sent by dispatcher which can hold a request for new tasks until a task will be registered
+    public static final String HEADER_MH_LONG_POLL = "mh-long-poll";
     public static final String RESOURCES_TO_CLEAN = "mh-to-clean";
 
     public static final String META_PREDICTED_DATA = "mh-predicted-data";
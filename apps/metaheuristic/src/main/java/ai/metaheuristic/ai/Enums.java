@@ -15,6 +15,8 @@
  */
 package ai.metaheuristic.ai;
 
+import org.springframework.lang.Nullable;
+
 public final class Enums {
 
     public enum DispatcherSelectionStrategy { alphabet, priority }
@@ -211,4 +213,28 @@ public final class Enums {
     public enum AuthType {
         basic, oauth
     }
+
+    public enum CommFormat {
+        yaml, json;
+
+        public static CommFormat from(@Nullable String format) {
+            return json.toString().equals(format) ? json : yaml;
+        }
+    }
+
+    /**
+     * where payloads of variables, global variables, functions and cached variables are stored
+     * db - BLOB in db, disk - content-addressed local storage, s3 - S3-compatible object storage
+     */
+    public enum VariableStorageType {
+        db, disk, s3
+    }
+
+    /**
+     * what to do with an event when a queue of event bus is still full after waiting of publisher
+     * reject - EventBusOverflowException is thrown to publisher, drop - the event is skipped with warning
+     */
+    public enum EventBusOverflowPolicy {
+        reject, drop
+    }
 }
@@ -15,6 +15,7 @@
  */
 package ai.metaheuristic.ai;
 
+import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
 import ai.metaheuristic.ai.exceptions.GlobalConfigurationException;
 import ai.metaheuristic.ai.utils.EnvProperty;
 import ai.metaheuristic.api.EnumsApi;
@@ -108,6 +109,10 @@ public class Globals {
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.public-key')) }")
     public String dispatcherPublicKeyStr;
 
+    // collect statistics of waiting for locks and of holding of locks, locking is a few times slower with statistics
+    @Value("${mh.lock-statistics:#{false}}")
+    public boolean lockStatistics = false;
+
     @Value("${mh.dispatcher.enabled:#{false}}")
     public boolean dispatcherEnabled = true;
 
@@ -117,6 +122,45 @@ public class Globals {
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.max-tasks-per-exec-context'), 1, 100000, 5000) }")
     public int maxTasksPerExecContext;
 
+    // max number of task vertices over all graphs of execContexts which are kept decoded in memory
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.resident-graphs.max-vertices'), 10000, 100000000, 2000000) }")
+    public int residentGraphsMaxVertices;
+
+    // max number of states of tasks over all execContexts which are kept in memory
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.resident-task-states.max-states'), 10000, 200000000, 5000000) }")
+    public int residentTaskStatesMax;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.max-tasks-per-request'), 1, 100, 10) }")
+    public int maxTasksPerRequest;
+
+    // max time in seconds for holding of processor's request for a new task, 0 - long-poll is disabled
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.long-poll-timeout'), 0, 60, 25) }")
+    public int longPollTimeout;
+
+    // number of partitions of event bus, events of one execContext are always processed in the same partition
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.event-bus.partitions'), 1, 64, 8) }")
+    public int eventBusPartitions;
+
+    // max number of events which are waiting in one partition of event bus
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.event-bus.queue-size'), 100, 1000000, 10000) }")
+    public int eventBusQueueSize;
+
+    // max time in milliseconds of waiting of publisher for a free space in a queue of event bus, 0 - don't wait
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.event-bus.max-wait'), 0, 60000, 1000) }")
+    public int eventBusMaxWait;
+
+    // reject or drop, what to do with an event when a queue is still full after waiting
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.event-bus.overflow-policy')) }")
+    public @Nullable String eventBusOverflowPolicyStr;
+
+    // max time in seconds of processing of already queued events at shutdown
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.event-bus.shutdown-timeout'), 1, 600, 30) }")
+    public int eventBusShutdownTimeout;
+
+    // max number of instances of sub-processes which splitters create within one transaction
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.task-producing.batch-size'), 10, 100000, 1000) }")
+    public int taskProducingBatchSize;
+
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.dispatcher.global-variable-table-rows-limit'), 5, 100, 20) }")
     public int globalVariableRowsLimit;
 
@@ -150,6 +194,35 @@ public class Globals {
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.chunk-size')) }")
     public String chunkSizeStr;
 
+    // max size of local cache of variables which were prepared for delivering to processors
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.delivery-cache-size')) }")
+    public @Nullable String deliveryCacheSizeStr;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.type')) }")
+    public @Nullable String variableStorageTypeStr;
+
+    // dir for content-addressed storage, dispatcherDir/storage by default
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).toFile( environment.getProperty('mh.dispatcher.variable-storage.dir' )) }")
+    public @Nullable File variableStorageDir;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.endpoint')) }")
+    public @Nullable String s3Endpoint;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.region')) }")
+    public @Nullable String s3Region;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.bucket')) }")
+    public @Nullable String s3Bucket;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.prefix')) }")
+    public @Nullable String s3Prefix;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.access-key')) }")
+    public @Nullable String s3AccessKey;
+
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.variable-storage.s3.secret-key')) }")
+    public @Nullable String s3SecretKey;
+
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.dispatcher.asset.mode')) }")
     public @Nullable String assetModeStr;
 
@@ -188,9 +261,29 @@ public class Globals {
     @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.processor.task-console-output-max-lines'), 1000, 100000, 1000) }")
     public int taskConsoleOutputMaxLines;
 
+    // max size of console log of function, after that the log will be rotated
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).strIfNotBlankElseNull( environment.getProperty('mh.processor.console-log.max-size')) }")
+    public @Nullable String consoleLogMaxSizeStr;
+
+    // rotated console logs will be compressed with gzip
+    @Value("${mh.processor.console-log.compress:#{false}}")
+    public boolean consoleLogCompress = false;
+
     @Value("${mh.processor.init-core-number:#{1}}")
     public int initCoreNumber;
 
+    // max number of chunks of one variable or function which are downloaded in parallel
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.processor.download.threads-per-variable'), 1, 16, 4) }")
+    public int downloadThreadsPerVariable;
+
+    // max number of chunks which are downloaded in parallel from one dispatcher
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.processor.download.threads-per-dispatcher'), 1, 64, 8) }")
+    public int downloadThreadsPerDispatcher;
+
+    // max number of chunks of one variable which are uploaded in parallel
+    @Value("#{ T(ai.metaheuristic.ai.utils.EnvProperty).minMax( environment.getProperty('mh.processor.upload.threads-per-variable'), 1, 16, 4) }")
+    public int uploadThreadsPerVariable;
+
 
     // some fields
     public File dispatcherTempDir;
@@ -202,10 +295,14 @@ public class Globals {
     public PublicKey dispatcherPublicKey = null;
 
     public Long chunkSize = null;
+    public Long deliveryCacheSize = null;
+    public Long consoleLogMaxSize = null;
 
     public EnumsApi.OS os = EnumsApi.OS.unknown;
     public List<String> allowedOrigins;
     public EnumsApi.DispatcherAssetMode assetMode = EnumsApi.DispatcherAssetMode.local;
+    public Enums.VariableStorageType variableStorageType = Enums.VariableStorageType.db;
+    public Enums.EventBusOverflowPolicy eventBusOverflowPolicy = Enums.EventBusOverflowPolicy.reject;
 
     // TODO 2019-07-28 need to handle this case
     //  https://stackoverflow.com/questions/37436927/utf-8-encoding-of-application-properties-attributes-in-spring-boot
@@ -227,6 +324,7 @@ public class Globals {
         }
 
         initSchedulerThreadNumber();
+        CommonSync.setStatisticsEnabled(lockStatistics);
 
         String origins = env.getProperty("MH_CORS_ALLOWED_ORIGINS");
         if (!S.b(origins)) {
@@ -255,6 +353,34 @@ public class Globals {
         }
         chunkSize = Objects.requireNonNull(tempChunkSize);
 
+        Long tempDeliveryCacheSize = parseChunkSizeValue(deliveryCacheSizeStr);
+        // 5gb by default
+        deliveryCacheSize = tempDeliveryCacheSize!=null ? tempDeliveryCacheSize : parseChunkSizeValue("5g");
+
+        Long tempConsoleLogMaxSize = parseChunkSizeValue(consoleLogMaxSizeStr);
+        // 100mb by default
+        consoleLogMaxSize = tempConsoleLogMaxSize!=null ? tempConsoleLogMaxSize : parseChunkSizeValue("100m");
+
+        if (!S.b(variableStorageTypeStr)) {
+            try {
+                variableStorageType = Enums.VariableStorageType.valueOf(variableStorageTypeStr);
+            } catch (Throwable th) {
+                throw new GlobalConfigurationException("Wrong value of variableStorageType, must be one of "+ Arrays.toString(Enums.VariableStorageType.values()) + ", " +
+                        "actual value: " + variableStorageTypeStr);
+            }
+        }
+        if (!S.b(eventBusOverflowPolicyStr)) {
+            try {
+                eventBusOverflowPolicy = Enums.EventBusOverflowPolicy.valueOf(eventBusOverflowPolicyStr);
+            } catch (Throwable th) {
+                throw new GlobalConfigurationException("Wrong value of eventBusOverflowPolicy, must be one of "+ Arrays.toString(Enums.EventBusOverflowPolicy.values()) + ", " +
+                        "actual value: " + eventBusOverflowPolicyStr);
+            }
+        }
+        if (variableStorageType==Enums.VariableStorageType.s3 && (S.b(s3Endpoint) || S.b(s3Bucket) || S.b(s3AccessKey) || S.b(s3SecretKey))) {
+            throw new GlobalConfigurationException("mh.dispatcher.variable-storage.type is s3 but endpoint, bucket, access-key or secret-key of s3 storage wasn't configured");
+        }
+
         if (!S.b(env.getProperty("MH_DISPATCHER_ASSET_MODE"))) {
             assetModeStr = env.getProperty("MH_DISPATCHER_ASSET_MODE");
         }
@@ -535,6 +661,15 @@ public class Globals {
         log.info("'\toldThreadNumber: {}", oldThreadNumber);
         log.info("'\tschedulerThreadNumber: {}", schedulerThreadNumber);
         log.info("'\teventThreadNumber: {}", eventThreadNumber);
+        log.info("'\tresidentGraphsMaxVertices: {}", residentGraphsMaxVertices);
+        log.info("'\tresidentTaskStatesMax: {}", residentTaskStatesMax);
+        log.info("'\tlockStatistics: {}", lockStatistics);
+        log.info("'\teventBusPartitions: {}", eventBusPartitions);
+        log.info("'\teventBusQueueSize: {}", eventBusQueueSize);
+        log.info("'\teventBusMaxWait: {}", eventBusMaxWait);
+        log.info("'\teventBusOverflowPolicy: {}", eventBusOverflowPolicy);
+        log.info("'\teventBusShutdownTimeout: {}", eventBusShutdownTimeout);
+        log.info("'\ttaskProducingBatchSize: {}", taskProducingBatchSize);
         log.info("'\tallowedOrigins: {}", allowedOriginsStr);
         log.info("'\tbranding: {}", branding);
         log.info("'\tisUnitTesting: {}", isUnitTesting);
@@ -549,6 +684,11 @@ public class Globals {
         log.info("'\tassetSourceUrl: {}", assetSourceUrl);
         log.info("'\tassetSyncTimeout: {}", assetSyncTimeout);
         log.info("'\tchunkSize: {}", chunkSize);
+        log.info("'\tdeliveryCacheSize: {}", deliveryCacheSize);
+        log.info("'\tvariableStorageType: {}", variableStorageType);
+        log.info("'\tvariableStorageDir: {}", variableStorageDir!=null ? variableStorageDir.getAbsolutePath() : "<default>");
+        log.info("'\ts3Endpoint: {}", s3Endpoint);
+        log.info("'\ts3Bucket: {}", s3Bucket);
         log.info("'\tresourceRowsLimit: {}", globalVariableRowsLimit);
         log.info("'\texperimentRowsLimit: {}", experimentRowsLimit);
         log.info("'\tsourceCodeRowsLimit: {}", sourceCodeRowsLimit);
@@ -557,6 +697,11 @@ public class Globals {
         log.info("'\taccountRowsLimit: {}", accountRowsLimit);
         log.info("'\tprocessorEnabled: {}", processorEnabled);
         log.info("'\tprocessorDir: {}", processorDir !=null ? processorDir.getAbsolutePath() : "<processor dir is null>");
+        log.info("'\tconsoleLogMaxSize: {}", consoleLogMaxSize);
+        log.info("'\tconsoleLogCompress: {}", consoleLogCompress);
+        log.info("'\tdownloadThreadsPerVariable: {}", downloadThreadsPerVariable);
+        log.info("'\tdownloadThreadsPerDispatcher: {}", downloadThreadsPerDispatcher);
+        log.info("'\tuploadThreadsPerVariable: {}", uploadThreadsPerVariable);
     }
 
     // TODO 2019-07-20 should method createTempFileForDispatcher() be moved to other class/package?
@@ -17,11 +17,17 @@ package ai.metaheuristic.ai;
 
 import ai.metaheuristic.ai.dispatcher.batch.BatchService;
 import ai.metaheuristic.ai.dispatcher.commons.ArtifactCleanerAtDispatcher;
+import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
+import ai.metaheuristic.ai.dispatcher.event.ExecContextEventBusService;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextCache;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextSchedulerService;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextStatusService;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextTopLevelService;
+import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphCache;
 import ai.metaheuristic.ai.dispatcher.exec_context_task_state.ExecContextTaskStateTopLevelService;
 import ai.metaheuristic.ai.dispatcher.exec_context_variable_state.ExecContextVariableStateTopLevelService;
 import ai.metaheuristic.ai.dispatcher.long_running.LongRunningTopLevelService;
+import ai.metaheuristic.ai.dispatcher.processor.ProcessorCache;
 import ai.metaheuristic.ai.dispatcher.replication.ReplicationService;
 import ai.metaheuristic.ai.dispatcher.task.TaskCheckCachingTopLevelService;
 import ai.metaheuristic.ai.dispatcher.thread.DeadLockDetector;
@@ -46,6 +52,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 public class Schedulers {
 
@@ -66,6 +73,11 @@ public class Schedulers {
         private final TaskCheckCachingTopLevelService taskCheckCachingTopLevelService;
         private final ExecContextTaskStateTopLevelService execContextTaskStateTopLevelService;
         private final LongRunningTopLevelService longRunningTopLevelService;
+        private final ExecContextCache execContextCache;
+        private final ExecContextGraphCache execContextGraphCache;
+        private final ExecContextEventBusService execContextEventBusService;
+        private final ProcessorCache processorCache;
+        private final ExecContextStatusService execContextStatusService;
 
         // Dispatcher schedulers
 
@@ -222,6 +234,35 @@ public class Schedulers {
             }
             longRunningTopLevelService.updateStateForLongRunning();
         }
+
+        @Scheduled(initialDelay = 30_000, fixedDelay = 60_000 )
+        public void reconcileExecContextStatuses() {
+            if (globals.isUnitTesting) {
+                return;
+            }
+            if (!globals.dispatcherEnabled) {
+                return;
+            }
+            execContextStatusService.reconcile();
+        }
+
+        @Scheduled(initialDelay = 60_000, fixedDelay = 300_000 )
+        public void logCacheStatistics() {
+            if (globals.isUnitTesting) {
+                return;
+            }
+            if (!globals.dispatcherEnabled) {
+                return;
+            }
+            log.info("Statistics of caches:\n\t{}\n\t{}\n\t{}",
+                    execContextCache.getStats(), processorCache.getStats(), execContextGraphCache.getStats());
+            if (CommonSync.isStatisticsEnabled()) {
+                log.info("Statistics of locks:\n\t{}",
+                        CommonSync.getAllStats().stream().map(Object::toString).collect(Collectors.joining("\n\t")));
+            }
+            log.info("Statistics of event bus:\n\t{}",
+                    execContextEventBusService.getStats().stream().map(Object::toString).collect(Collectors.joining("\n\t")));
+        }
     }
 
     // Processor schedulers
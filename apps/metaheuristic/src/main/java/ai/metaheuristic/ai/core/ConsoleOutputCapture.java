@@ -0,0 +1,191 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Capturing of console output of external process.
+ *
+ * Output is copied with a big buffer into a log file, which is rotated when its size exceeds the limit.
+ * The last lines are kept in a ring buffer, so the log file doesn't need to be re-read after finishing of process.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 6:30 AM
+ */
+@Slf4j
+public class ConsoleOutputCapture implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // the rest of too long line will be skipped in the tail
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    public static final int MAX_ROTATED_FILES = 3;
+
+    private final File consoleLogFile;
+    // 0 - without limit
+    private final long maxSize;
+    private final boolean compress;
+    private final int maxLines;
+
+    private OutputStream os;
+    private long written = 0;
+
+    private final ArrayDeque<String> lines;
+    private final ByteArrayOutputStream currLine = new ByteArrayOutputStream();
+
+    public ConsoleOutputCapture(File consoleLogFile, long maxSize, boolean compress, int maxLines) throws IOException {
+        this.consoleLogFile = consoleLogFile;
+        this.maxSize = maxSize;
+        this.compress = compress;
+        this.maxLines = maxLines;
+        this.lines = new ArrayDeque<>(Math.min(maxLines, 1024));
+        this.os = new FileOutputStream(consoleLogFile);
+    }
+
+    public void copy(InputStream is) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            write(buffer, 0, read);
+        }
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        collectLines(bytes, offset, length);
+        int off = offset;
+        int len = length;
+        while (len > 0) {
+            if (maxSize > 0 && written >= maxSize) {
+                rotate();
+            }
+            int size = maxSize > 0 ? (int) Math.min(len, maxSize - written) : len;
+            os.write(bytes, off, size);
+            written += size;
+            off += size;
+            len -= size;
+        }
+    }
+
+    /**
+     * @return last lines of console output, each line is trimmed
+     */
+    public String getLastLines() {
+        StringBuilder sb = new StringBuilder();
+        // the last line without eol is counted as a line too
+        int skip = currLine.size() > 0 && lines.size() == maxLines ? 1 : 0;
+        for (String line : lines) {
+            if (skip-- > 0) {
+                continue;
+            }
+            sb.append(line).append('\n');
+        }
+        if (currLine.size() > 0) {
+            sb.append(toLine(currLine.toByteArray(), 0, currLine.size())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void collectLines(byte[] bytes, int offset, int length) {
+        final int end = offset + length;
+        // only last maxLines lines of this block can get into the tail, so previous lines aren't decoded at all
+        int start = offset;
+        int count = 0;
+        for (int i = end - 1; i >= offset; i--) {
+            if (bytes[i] == '\n' && ++count > maxLines) {
+                start = i + 1;
+                currLine.reset();
+                break;
+            }
+        }
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == '\n') {
+                if (currLine.size() > 0) {
+                    appendToCurrLine(bytes, lineStart, i - lineStart);
+                    addLine(toLine(currLine.toByteArray(), 0, currLine.size()));
+                    currLine.reset();
+                }
+                else {
+                    addLine(toLine(bytes, lineStart, Math.min(i - lineStart, MAX_LINE_LENGTH)));
+                }
+                lineStart = i + 1;
+            }
+        }
+        appendToCurrLine(bytes, lineStart, end - lineStart);
+    }
+
+    private void appendToCurrLine(byte[] bytes, int offset, int length) {
+        int size = Math.min(length, MAX_LINE_LENGTH - currLine.size());
+        if (size > 0) {
+            currLine.write(bytes, offset, size);
+        }
+    }
+
+    private void addLine(String line) {
+        if (lines.size() == maxLines) {
+            lines.removeFirst();
+        }
+        lines.addLast(line);
+    }
+
+    private static String toLine(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, Charset.defaultCharset()).trim();
+    }
+
+    private void rotate() throws IOException {
+        os.close();
+        final String ext = compress ? ".gz" : "";
+        File last = rotatedFile(MAX_ROTATED_FILES, ext);
+        if (last.exists() && !last.delete()) {
+            log.warn("#012.010 Can't delete file {}", last.getAbsolutePath());
+        }
+        for (int i = MAX_ROTATED_FILES - 1; i > 0; i--) {
+            File f = rotatedFile(i, ext);
+            if (f.exists()) {
+                Files.move(f.toPath(), rotatedFile(i + 1, ext).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (compress) {
+            try (InputStream is = new FileInputStream(consoleLogFile);
+                 OutputStream gzip = new GZIPOutputStream(new FileOutputStream(rotatedFile(1, ext)), BUFFER_SIZE)) {
+                is.transferTo(gzip);
+            }
+        }
+        else {
+            Files.move(consoleLogFile.toPath(), rotatedFile(1, ext).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        os = new FileOutputStream(consoleLogFile);
+        written = 0;
+    }
+
+    public File rotatedFile(int idx, String ext) {
+        return new File(consoleLogFile.getParentFile(), consoleLogFile.getName() + '.' + idx + ext);
+    }
+
+    @Override
+    public void close() throws IOException {
+        os.close();
+    }
+}
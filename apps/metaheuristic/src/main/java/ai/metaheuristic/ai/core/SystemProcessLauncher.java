@@ -26,6 +26,9 @@ import java.io.*;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,9 +46,27 @@ public class SystemProcessLauncher {
         public InputStream is;
     }
 
+    // one thread for checking of timeouts of all processes
+    private static final ScheduledExecutorService TIMEOUT_CHECKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mh-process-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
     public static FunctionApiData.SystemExecResult execCommand(
             List<String> cmd, File execDir, File consoleLogFile, @Nullable Long timeoutBeforeTerminate, String functionCode,
             @Nullable final DispatcherSchedule schedule, int taskConsoleOutputMaxLines) throws IOException, InterruptedException {
+        return execCommand(cmd, execDir, consoleLogFile, timeoutBeforeTerminate, functionCode, schedule, taskConsoleOutputMaxLines, 0, false);
+    }
+
+    /**
+     * @param consoleLogMaxSize max size of console log file, after that the file will be rotated, 0 - without limit
+     * @param consoleLogCompress rotated files of console log will be compressed with gzip
+     */
+    public static FunctionApiData.SystemExecResult execCommand(
+            List<String> cmd, File execDir, File consoleLogFile, @Nullable Long timeoutBeforeTerminate, String functionCode,
+            @Nullable final DispatcherSchedule schedule, int taskConsoleOutputMaxLines,
+            long consoleLogMaxSize, boolean consoleLogCompress) throws IOException, InterruptedException {
 //        log.warn("Start executing a system process in dir {}", execDir.getAbsolutePath());
         log.info("Exec info:");
         log.info("\tcmd: {}", cmd);
@@ -69,63 +90,41 @@ public class SystemProcessLauncher {
         pb.redirectErrorStream(true);
         final Process process = pb.start();
 
-        Thread timeoutThread = null;
+        ScheduledFuture<?> timeoutChecker = null;
         final StreamHolder streamHolder = new StreamHolder();
         int exitCode;
 
-        final StringBuilder timeoutMessage = new StringBuilder();
         final AtomicBoolean isTerminated = new AtomicBoolean(false);
         final AtomicBoolean isInactivePeriod = new AtomicBoolean(false);
-        try (final FileOutputStream fos = new FileOutputStream(consoleLogFile);
-                BufferedOutputStream bos = new BufferedOutputStream(fos)) {
-            final AtomicBoolean isRun = new AtomicBoolean(false);
-            final AtomicBoolean isDone = new AtomicBoolean(false);
+        final String console;
+        try (ConsoleOutputCapture capture = new ConsoleOutputCapture(consoleLogFile, consoleLogMaxSize, consoleLogCompress, taskConsoleOutputMaxLines)) {
             final Thread reader = new Thread(() -> {
                 try {
                     log.info("thread #" + Thread.currentThread().getId() + ", start receiving stream from external process");
                     streamHolder.is = process.getInputStream();
-                    int c;
-                    isRun.set(true);
-                    while ((c = streamHolder.is.read()) != -1) {
-                        bos.write(c);
-                    }
+                    capture.copy(streamHolder.is);
                 }
                 catch (IOException e) {
                     log.error("Error collect data from output stream", e);
                 }
-                finally {
-                    isDone.set(true);
-                }
             });
             reader.start();
 
             if (timeout.get()>0) {
                 final long terminateAt = System.currentTimeMillis() + timeout.get();
-                timeoutThread = new Thread(() -> {
+                timeoutChecker = TIMEOUT_CHECKER.scheduleWithFixedDelay(() -> {
                     try {
-                        while (!isRun.get()) {
-                            log.info("thread #" + Thread.currentThread().getId() + " is waiting for reader thread, time - " + new Date());
-                            Thread.sleep(TimeUnit.MILLISECONDS.toMillis(500));
+                        if (isTerminated.get() || !process.isAlive()) {
+                            return;
                         }
-                        log.info("thread #" + Thread.currentThread().getId() + ", time before sleep - " + new Date());
-                        while (true) {
-                            Thread.sleep(TimeUnit.SECONDS.toMillis(2));
-                            if (System.currentTimeMillis() > terminateAt) {
-                                break;
-                            }
-                            // case when SchedulePolicy is strict
-                            if (schedule!=null && schedule.isCurrentTimeInactive()) {
-                                isInactivePeriod.set(true);
-                                break;
-                            }
-                            // normal termination of the reader thread. We don't need to terminate any application
-                            if (isDone.get()) {
-                                log.info("A reader thread stopped the execution in a normal way");
-                                return;
-                            }
+                        // case when SchedulePolicy is strict
+                        if (schedule!=null && schedule.isCurrentTimeInactive()) {
+                            isInactivePeriod.set(true);
                         }
-                        log.info("thread #" + Thread.currentThread().getId() + ", time before destroy - " + new Date());
-
+                        else if (System.currentTimeMillis() <= terminateAt) {
+                            return;
+                        }
+                        log.info("Process will be destroyed, time before destroy - " + new Date());
                         final LinkedList<ProcessHandle> handles = new LinkedList<>();
                         collectHandlers(handles, process.toHandle());
                         log.info("Processes to destroy");
@@ -133,19 +132,18 @@ public class SystemProcessLauncher {
                             log.info("\t{}", handle);
                         }
                         destroy(handles);
-                        timeoutMessage.append(String.format(TIMEOUT_MESSAGE, timeoutBeforeTerminate));
                         isTerminated.set(true);
-                        log.info("thread #" + Thread.currentThread().getId() + ", time after destroy - " + new Date());
-                    } catch (InterruptedException e) {
-                        // this is a normal operation so it'll be debug level
-                        log.debug("thread #" + Thread.currentThread().getId() + ", current thread was interrupted");
+                        log.info("Process was destroyed, time after destroy - " + new Date());
+                    } catch (Throwable th) {
+                        // an exception would cancel the further checking of timeout
+                        log.error("Error while checking of timeout", th);
                     }
-                });
-                timeoutThread.start();
+                }, 2, 2, TimeUnit.SECONDS);
             }
 
             exitCode = process.waitFor();
             reader.join();
+            console = capture.getLastLines();
         }
         finally {
             try {
@@ -156,13 +154,8 @@ public class SystemProcessLauncher {
             catch(Throwable th) {
                 log.warn("Error with closing InputStream", th);
             }
-            try {
-                if (timeoutThread!=null && timeoutThread.isAlive()) {
-                    timeoutThread.interrupt();
-                }
-            }
-            catch(Throwable th) {
-                log.warn("Error with interrupting InputStream", th);
+            if (timeoutChecker!=null) {
+                timeoutChecker.cancel(false);
             }
         }
         if (isInactivePeriod.get()) {
@@ -174,11 +167,11 @@ public class SystemProcessLauncher {
         log.debug("'\tdestroyed with timeout: {}", isTerminated.get());
         log.debug("'\tcmd: {}", cmd);
         log.debug("'\texecDir: {}", execDir.getAbsolutePath());
-        String console = readLastLines(taskConsoleOutputMaxLines, consoleLogFile) + '\n' + timeoutMessage;
+        String consoleWithTimeout = console + '\n' + (isTerminated.get() ? String.format(TIMEOUT_MESSAGE, timeoutBeforeTerminate) : "");
 
-        log.debug("'\tconsole output:\n{}", console);
+        log.debug("'\tconsole output:\n{}", consoleWithTimeout);
 //        log.warn("Finish executing a system process in dir {}", execDir.getAbsolutePath());
-        return new FunctionApiData.SystemExecResult(functionCode, exitCode==0, exitCode, console);
+        return new FunctionApiData.SystemExecResult(functionCode, exitCode==0, exitCode, consoleWithTimeout);
     }
 
     public static void collectHandlers(List<ProcessHandle> handles, ProcessHandle handle) {
@@ -198,25 +191,4 @@ public class SystemProcessLauncher {
             }
         }
     }
-
-    private static String readLastLines(int maxSize, File consoleLogFile) throws IOException {
-        LinkedList<String> lines = new LinkedList<>();
-        String inputLine;
-        try(FileReader fileReader = new FileReader(consoleLogFile); BufferedReader in = new BufferedReader(fileReader) ) {
-            while ((inputLine = in.readLine()) != null) {
-                inputLine = inputLine.trim();
-                if (lines.size()==maxSize) {
-                    lines.removeFirst();
-                }
-                lines.add(inputLine);
-            }
-        }
-        StringBuilder sb = new StringBuilder();
-        for (String line : lines) {
-            sb.append(line).append('\n');
-        }
-        return sb.toString();
-    }
-
-
 }
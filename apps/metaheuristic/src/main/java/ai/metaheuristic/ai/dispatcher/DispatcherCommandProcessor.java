@@ -16,6 +16,7 @@
 
 package ai.metaheuristic.ai.dispatcher;
 
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextTopLevelService;
 import ai.metaheuristic.ai.dispatcher.processor.ProcessorTransactionService;
 import ai.metaheuristic.ai.dispatcher.task.TaskProviderTopLevelService;
@@ -32,6 +33,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * @author Serge
  * Date: 8/29/2019
@@ -43,6 +46,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class DispatcherCommandProcessor {
 
+    private final Globals globals;
     private final TaskService taskService;
     private final ExecContextTopLevelService execContextTopLevelService;
     private final TaskTopLevelService taskTopLevelService;
@@ -56,7 +60,21 @@ public class DispatcherCommandProcessor {
         response.resendTaskOutputs = checkForMissingOutputResources(request);
         processResendTaskOutputResourceResult(request);
         response.reportResultDelivering = processReportTaskProcessingResult(request);
-        response.assignedTask = processRequestTask(request);
+        assignTasks(request, response);
+    }
+
+    /**
+     * is used also for assigning of tasks to processor which is waiting with long-poll request
+     */
+    public void assignTasks(ProcessorCommParamsYaml.ProcessorRequest request, DispatcherCommParamsYaml.DispatcherResponse response) {
+        List<DispatcherCommParamsYaml.AssignedTask> assignedTasks = processRequestTask(request);
+        if (request.requestTask!=null && request.requestTask.freeSlots!=null) {
+            response.assignedTasks = assignedTasks.isEmpty() ? null : assignedTasks;
+        }
+        else {
+            // processor which doesn't report free slots can't accept more than one task
+            response.assignedTask = assignedTasks.isEmpty() ? null : assignedTasks.get(0);
+        }
     }
 
     // processing at dispatcher side
@@ -96,33 +114,41 @@ public class DispatcherCommandProcessor {
         return cmd1;
     }
 
+    /**
+     * @return max number of tasks which can be assigned with one request of processor
+     */
+    public static int getMaxTasks(@Nullable Integer freeSlots, int maxTasksPerRequest) {
+        return freeSlots==null ? 1 : Math.max(1, Math.min(freeSlots, maxTasksPerRequest));
+    }
+
     // processing at dispatcher side
-    @Nullable
-    private DispatcherCommParamsYaml.AssignedTask processRequestTask(ProcessorCommParamsYaml.ProcessorRequest request) {
+    private List<DispatcherCommParamsYaml.AssignedTask> processRequestTask(ProcessorCommParamsYaml.ProcessorRequest request) {
         if (request.requestTask==null || Boolean.FALSE.equals(request.requestTask.newTask) ||
                 request.processorCommContext==null || S.b(request.processorCommContext.processorId)) {
-            return null;
+            return List.of();
         }
         checkProcessorId(request);
 
-        DispatcherCommParamsYaml.AssignedTask assignedTask;
+        final int maxTasks = getMaxTasks(request.requestTask.freeSlots, globals.maxTasksPerRequest);
+        final Long processorId = Long.parseLong(request.processorCommContext.processorId);
+        List<DispatcherCommParamsYaml.AssignedTask> assignedTasks;
         try {
-            assignedTask = taskProviderService.findTask(Long.parseLong(request.processorCommContext.processorId), request.requestTask.isAcceptOnlySigned());
+            assignedTasks = taskProviderService.findTasks(processorId, request.requestTask.isAcceptOnlySigned(), maxTasks);
         } catch (ObjectOptimisticLockingFailureException e) {
             log.error("#997.045 ObjectOptimisticLockingFailureException", e);
             log.error("#997.047 Lets try requesting a new task one more time");
             try {
-                assignedTask = taskProviderService.findTask(Long.parseLong(request.processorCommContext.processorId), request.requestTask.isAcceptOnlySigned());
+                assignedTasks = taskProviderService.findTasks(processorId, request.requestTask.isAcceptOnlySigned(), maxTasks);
             } catch (ObjectOptimisticLockingFailureException e1) {
                 log.error("#997.048 ObjectOptimisticLockingFailureException again", e1);
-                assignedTask = null;
+                assignedTasks = List.of();
             }
         }
 
-        if (assignedTask!=null) {
+        for (DispatcherCommParamsYaml.AssignedTask assignedTask : assignedTasks) {
             log.info("#997.050 Assign task #{} to processor #{}", assignedTask.getTaskId(), request.processorCommContext.processorId);
         }
-        return assignedTask;
+        return assignedTasks;
     }
 
     private void checkProcessorId(ProcessorCommParamsYaml.ProcessorRequest request) {
@@ -39,7 +39,7 @@ import java.sql.Blob;
 @EqualsAndHashCode(of = {"cacheProcessId", "variableName"})
 @ToString(exclude={"data"})
 @NoArgsConstructor
-public class CacheVariable implements Serializable {
+public class CacheVariable implements Serializable, PayloadHolder {
     private static final long serialVersionUID = -1541017259044013865L;
 
     @Id
@@ -69,4 +69,9 @@ public class CacheVariable implements Serializable {
     @Lob
     public Blob data;
 
+    // reference to payload in external storage, if null then payload is stored in field 'data'
+    @Nullable
+    @Column(name = "STORAGE_REF")
+    public String storageRef;
+
 }
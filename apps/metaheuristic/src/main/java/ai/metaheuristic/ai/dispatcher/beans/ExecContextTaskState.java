@@ -18,6 +18,7 @@ package ai.metaheuristic.ai.dispatcher.beans;
 
 import ai.metaheuristic.ai.yaml.exec_context_task_state.ExecContextTaskStateParamsYaml;
 import ai.metaheuristic.ai.yaml.exec_context_task_state.ExecContextTaskStateParamsYamlUtils;
+import ai.metaheuristic.api.EnumsApi;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -28,6 +29,8 @@ import org.springframework.lang.Nullable;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Serge
@@ -38,7 +41,7 @@ import java.io.Serializable;
 @Table(name = "MH_EXEC_CONTEXT_TASK_STATE")
 @Data
 @NoArgsConstructor
-@ToString(exclude = {"ecpy"})
+@ToString(exclude = {"ecpy", "uncommittedStates"})
 @Cacheable
 @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ExecContextTaskState implements Serializable {
@@ -75,6 +78,11 @@ public class ExecContextTaskState implements Serializable {
     @Nullable
     private ExecContextTaskStateParamsYaml ecpy = null;
 
+    // states of tasks which were changed in current Tx and weren't committed yet
+    @Transient
+    @JsonIgnore
+    public final Map<Long, EnumsApi.TaskExecState> uncommittedStates = new HashMap<>();
+
     @JsonIgnore
     public ExecContextTaskStateParamsYaml getExecContextTaskStateParamsYaml() {
         if (ecpy ==null) {
@@ -0,0 +1,53 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.dispatcher.beans;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Append-only log of changes of task states. Records are folded into MH_EXEC_CONTEXT_TASK_STATE.PARAMS
+ * and removed at the moment of compaction
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:40 PM
+ */
+@Entity
+@Table(name = "MH_EXEC_CONTEXT_TASK_STATE_CHANGE")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecContextTaskStateChange implements Serializable {
+    private static final long serialVersionUID = 2389624155108617329L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(name = "EXEC_CONTEXT_TASK_STATE_ID")
+    public Long execContextTaskStateId;
+
+    @Column(name = "TASK_ID")
+    public Long taskId;
+
+    @Column(name = "EXEC_STATE")
+    public int execState;
+}
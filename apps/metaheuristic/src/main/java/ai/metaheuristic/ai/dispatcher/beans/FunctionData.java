@@ -20,6 +20,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.springframework.lang.Nullable;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -32,7 +33,7 @@ import java.sql.Timestamp;
 @EqualsAndHashCode(of = {"functionCode"})
 @ToString(exclude={"data", "bytes"})
 @NoArgsConstructor
-public class FunctionData implements Serializable {
+public class FunctionData implements Serializable, PayloadHolder {
     private static final long serialVersionUID = 7768428475142175426L;
 
     @Id
@@ -52,6 +53,11 @@ public class FunctionData implements Serializable {
     @Lob
     private Blob data;
 
+    // reference to payload in external storage, if null then payload is stored in field 'data'
+    @Nullable
+    @Column(name = "STORAGE_REF")
+    private String storageRef;
+
     @Transient
     public byte[] bytes;
 
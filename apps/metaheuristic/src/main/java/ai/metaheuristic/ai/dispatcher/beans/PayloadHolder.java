@@ -0,0 +1,41 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.beans;
+
+import org.springframework.lang.Nullable;
+
+import java.sql.Blob;
+
+/**
+ * Entity with payload which is stored either as BLOB in db or in external storage
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:20 AM
+ */
+public interface PayloadHolder {
+
+    @Nullable
+    Blob getData();
+
+    void setData(@Nullable Blob data);
+
+    @Nullable
+    String getStorageRef();
+
+    void setStorageRef(@Nullable String storageRef);
+}
@@ -34,7 +34,7 @@ import java.sql.Timestamp;
 @EqualsAndHashCode(of = {"id", "version"})
 @ToString(exclude={"data", "bytes"})
 @NoArgsConstructor
-public class Variable implements Serializable {
+public class Variable implements Serializable, ContentChecksumHolder {
     private static final long serialVersionUID = 7768428475142175426L;
 
     @Id
@@ -69,6 +69,20 @@ public class Variable implements Serializable {
     @Lob
     private Blob data;
 
+    // reference to payload in external storage, if null then payload is stored in field 'data'
+    @Nullable
+    @Column(name = "STORAGE_REF")
+    private String storageRef;
+
+    // SHA-256 and length of payload, both are null if variable is nullified or wasn't initialized yet
+    @Nullable
+    @Column(name = "CONTENT_SHA256")
+    public String contentSha256;
+
+    @Nullable
+    @Column(name = "CONTENT_LENGTH")
+    public Long contentLength;
+
     @Nullable
     @Column(name = "FILENAME")
     public String filename;
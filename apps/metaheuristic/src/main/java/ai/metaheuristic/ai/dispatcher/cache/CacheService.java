@@ -23,11 +23,13 @@ import ai.metaheuristic.ai.dispatcher.event.ResourceCloseTxEvent;
 import ai.metaheuristic.ai.dispatcher.repositories.CacheProcessRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.GlobalVariableRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.dispatcher.variable.SimpleVariable;
 import ai.metaheuristic.ai.dispatcher.variable.VariableService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
 import ai.metaheuristic.ai.exceptions.VariableCommonException;
 import ai.metaheuristic.ai.exceptions.VariableDataNotFoundException;
+import ai.metaheuristic.ai.utils.CollectionUtils;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
@@ -44,7 +46,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.sql.Blob;
+import java.util.*;
 import java.util.function.Function;
 
 /**
@@ -65,6 +67,7 @@ public class CacheService {
     private final VariableService variableService;
     private final VariableRepository variableRepository;
     private final GlobalVariableRepository globalVariableRepository;
+    private final VariableStorageService variableStorageService;
     private final ApplicationEventPublisher eventPublisher;
 
     public void storeVariables(TaskParamsYaml tpy, ExecContextParamsYaml.FunctionDefinition function) {
@@ -132,13 +135,19 @@ public class CacheService {
     }
 
     public CacheData.Key getKey(TaskParamsYaml tpy, ExecContextParamsYaml.FunctionDefinition function) {
-        return getKey(tpy, function, variableService::getVariableDataAsString, variableRepository::getDataAsStreamById, globalVariableRepository::getDataAsStreamById);
+        return getKey(tpy, function, variableService::getVariableDataAsString, this::getVariableChecksums, this::getGlobalVariableChecksums);
     }
 
+    /**
+     * @param variableChecksums SHA-256 and length of local variables, are requested for all inputs of task at once
+     * @param globalVariableChecksums SHA-256 and length of global variables, are requested for all inputs of task at once
+     */
     public static CacheData.Key getKey(
             TaskParamsYaml tpy,
             ExecContextParamsYaml.FunctionDefinition function,
-            Function<Long, String> variableAsString, Function<Long, Blob> variableAsStream, Function<Long, Blob> globalVariableAsStream) {
+            Function<Long, String> variableAsString,
+            Function<List<Long>, Map<Long, CacheData.Sha256PlusLength>> variableChecksums,
+            Function<List<Long>, Map<Long, CacheData.Sha256PlusLength>> globalVariableChecksums) {
 
         String params = S.b(tpy.task.function.params) ? "" : tpy.task.function.params;
         if (!S.b(function.params)) {
@@ -150,42 +159,101 @@ public class CacheService {
                 fullKey.inline.putAll(tpy.task.inline);
             }
         }
+        List<Long> variableIds = new ArrayList<>();
+        List<Long> globalVariableIds = new ArrayList<>();
         for (TaskParamsYaml.InputVariable input : tpy.task.inputs) {
             if (input.context== EnumsApi.VariableContext.array) {
                 String data = variableAsString.apply(input.id);
                 VariableArrayParamsYaml vapy = VariableArrayParamsYamlUtils.BASE_YAML_UTILS.to(data);
                 for (VariableArrayParamsYaml.Variable variable : vapy.array) {
                     if (variable.dataType== EnumsApi.DataType.variable) {
-                        long variableId = Long.parseLong(variable.id);
-                        fullKey.inputs.add(getSha256Length(variableId, variableAsStream));
+                        variableIds.add(Long.parseLong(variable.id));
                     }
                     else {
-                        fullKey.inputs.add(getSha256Length(input.id, globalVariableAsStream));
+                        globalVariableIds.add(input.id);
                     }
                 }
             }
             else {
                 if (input.context== EnumsApi.VariableContext.local) {
-                    fullKey.inputs.add(getSha256Length(input.id, variableAsStream));
+                    variableIds.add(input.id);
                 }
                 else {
-                    fullKey.inputs.add(getSha256Length(input.id, globalVariableAsStream));
+                    globalVariableIds.add(input.id);
                 }
             }
         }
+        addChecksums(fullKey, variableIds, variableChecksums, EnumsApi.VariableContext.local);
+        addChecksums(fullKey, globalVariableIds, globalVariableChecksums, EnumsApi.VariableContext.global);
         fullKey.inputs.sort(CacheData.SHA_256_PLUS_LENGTH_COMPARATOR);
         return fullKey;
     }
 
-    private static CacheData.Sha256PlusLength getSha256Length(Long variableId, Function<Long, Blob> function) {
+    private static void addChecksums(
+            CacheData.Key fullKey, List<Long> ids, Function<List<Long>, Map<Long, CacheData.Sha256PlusLength>> checksumsFunc,
+            EnumsApi.VariableContext context) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, CacheData.Sha256PlusLength> checksums = checksumsFunc.apply(ids);
+        for (Long id : ids) {
+            CacheData.Sha256PlusLength checksum = checksums.get(id);
+            if (checksum==null) {
+                String es = S.f("#611.320 Data for variableId #%d wasn't found", id);
+                log.warn(es);
+                throw new VariableDataNotFoundException(id, context, es);
+            }
+            fullKey.inputs.add(checksum);
+        }
+    }
+
+    private Map<Long, CacheData.Sha256PlusLength> getVariableChecksums(List<Long> ids) {
+        return getChecksums(ids, variableRepository::getContentChecksums, variableStorageService::getVariableAsStream, variableRepository::setContentChecksum);
+    }
+
+    private Map<Long, CacheData.Sha256PlusLength> getGlobalVariableChecksums(List<Long> ids) {
+        return getChecksums(ids, globalVariableRepository::getContentChecksums, variableStorageService::getGlobalVariableAsStream, globalVariableRepository::setContentChecksum);
+    }
+
+    /**
+     * SHA-256 and length are calculated when a variable is stored. For variables which were stored before introducing
+     * of this metadata the checksum is calculated from data and is persisted for next requests.
+     */
+    private static Map<Long, CacheData.Sha256PlusLength> getChecksums(
+            List<Long> ids, Function<List<Long>, List<Object[]>> checksumsFunc, Function<Long, InputStream> variableAsStream,
+            ChecksumUpdater checksumUpdater) {
+
+        Map<Long, CacheData.Sha256PlusLength> checksums = new HashMap<>();
+        for (List<Long> page : CollectionUtils.parseAsPages(new ArrayList<>(new LinkedHashSet<>(ids)), 500)) {
+            for (Object[] obj : checksumsFunc.apply(page)) {
+                if (obj[1]!=null && obj[2]!=null) {
+                    checksums.put(((Number)obj[0]).longValue(), new CacheData.Sha256PlusLength((String)obj[1], ((Number)obj[2]).longValue()));
+                }
+            }
+        }
+        for (Long id : ids) {
+            if (!checksums.containsKey(id)) {
+                CacheData.Sha256PlusLength checksum = getSha256Length(id, variableAsStream);
+                checksumUpdater.update(id, checksum.sha256, checksum.length);
+                checksums.put(id, checksum);
+            }
+        }
+        return checksums;
+    }
+
+    private interface ChecksumUpdater {
+        void update(Long id, String sha256, Long length);
+    }
+
+    private static CacheData.Sha256PlusLength getSha256Length(Long variableId, Function<Long, InputStream> function) {
         try {
-            Blob blob = function.apply(variableId);
-            if (blob==null) {
-                String es = S.f("#611.320 Data for variableId #%d wasn't found", variableId);
+            InputStream stream = function.apply(variableId);
+            if (stream==null) {
+                String es = S.f("#611.330 Data for variableId #%d wasn't found", variableId);
                 log.warn(es);
                 throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.local, es);
             }
-            try (InputStream is = blob.getBinaryStream(); CountingInputStream cis = new CountingInputStream(is)) {
+            try (InputStream is = stream; CountingInputStream cis = new CountingInputStream(is)) {
                 String sha256 = Checksum.getChecksum(EnumsApi.HashAlgo.SHA256, cis);
                 long length = cis.getBytesRead();
                 return new CacheData.Sha256PlusLength(sha256, length);
@@ -193,7 +261,7 @@ public class CacheService {
         } catch (CommonErrorWithDataException e) {
             throw e;
         } catch (Throwable e) {
-            String es = "#611.340 Error while storing data to file";
+            String es = "#611.340 Error while calculating checksum of variable";
             log.error(es, e);
             throw new VariableCommonException(es, variableId);
         }
@@ -18,26 +18,20 @@ package ai.metaheuristic.ai.dispatcher.cache;
 
 import ai.metaheuristic.ai.dispatcher.beans.CacheVariable;
 import ai.metaheuristic.ai.dispatcher.repositories.CacheVariableRepository;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.exceptions.VariableDataNotFoundException;
 import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.commons.S;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.hibernate.Hibernate;
-import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
-import java.sql.Blob;
-import java.sql.SQLException;
 
 /**
  * @author Serge
@@ -50,20 +44,16 @@ import java.sql.SQLException;
 @RequiredArgsConstructor
 public class CacheVariableService {
 
-    private final EntityManager em;
     private final CacheVariableRepository cacheVariableRepository;
+    private final VariableStorageService variableStorageService;
 
     @Transactional(readOnly = true)
-    public void storeToFile(Long variableId, File trgFile) throws IOException, SQLException {
-        Blob blob = cacheVariableRepository.getDataAsStreamById(variableId);
-        if (blob==null) {
+    public void storeToFile(Long variableId, File trgFile) {
+        if (!variableStorageService.storeCacheVariableToFile(variableId, trgFile)) {
             String es = S.f("#173.020 Data for variableId #%d wasn't found", variableId);
             log.warn(es);
             throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.local, es);
         }
-        try (InputStream is = blob.getBinaryStream()) {
-            FileUtils.copyInputStreamToFile(is, trgFile);
-        }
     }
 
     public CacheVariable createInitialized(Long cacheProcessId, InputStream is, long size, String variable) {
@@ -87,7 +77,7 @@ public class CacheVariableService {
             data.nullified = true;
         }
         else {
-            data.data = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
+            variableStorageService.store(data, is, size);
             data.nullified = false;
         }
 
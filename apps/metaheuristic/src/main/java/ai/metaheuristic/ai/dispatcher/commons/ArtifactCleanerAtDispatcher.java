@@ -24,6 +24,7 @@ import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextSyncService;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextTopLevelService;
 import ai.metaheuristic.ai.dispatcher.repositories.*;
 import ai.metaheuristic.ai.dispatcher.source_code.SourceCodeCache;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.dispatcher.task.TaskTransactionalService;
 import ai.metaheuristic.ai.dispatcher.variable.VariableService;
 import ai.metaheuristic.ai.utils.CollectionUtils;
@@ -58,6 +59,7 @@ public class ArtifactCleanerAtDispatcher {
     private final TaskTransactionalService taskTransactionalService;
     private final VariableService variableService;
     private final VariableRepository variableRepository;
+    private final VariableStorageService variableStorageService;
 
     public void fixedDelay() {
         TxUtils.checkTxNotExists();
@@ -67,6 +69,7 @@ public class ArtifactCleanerAtDispatcher {
         deleteOrphanExecContexts();
         deleteOrphanTasks();
         deleteOrphanVariables();
+        variableStorageService.deleteOrphanPayloads();
     }
 
     private void deleteOrphanBatches() {
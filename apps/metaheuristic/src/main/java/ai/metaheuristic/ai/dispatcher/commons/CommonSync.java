@@ -16,38 +16,269 @@
 
 package ai.metaheuristic.ai.dispatcher.commons;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
 /**
+ * Registry of locks by id.
+ *
+ * Locks are kept in ConcurrentHashMap with weak values, so getting of lock doesn't contend on a global monitor
+ * and a lock is released when it isn't used anymore, without a periodic sweep of the whole map.
+ * A lock can't be collected while it's held because the holder keeps a reference to ReadLock or WriteLock
+ * and each of them keeps a reference to its ReentrantReadWriteLock.
+ *
+ * The time of waiting for a lock and the time of holding of WriteLock are collected for each family of ids
+ * only if statistics is enabled, collecting makes locking a few times slower.
+ * Instances are registered with weak references, so an instance which isn't used anymore can be collected.
+ *
  * @author Serge
  * Date: 8/14/2020
  * Time: 3:24 PM
  */
 public class CommonSync<T> {
 
-    private static final long TEN_MINUTES_TO_MILLS = TimeUnit.MINUTES.toMillis(10);
-    private static final long ONE_HOUR_TO_MILLS = TimeUnit.HOURS.toMillis(1);
+    private static final List<WeakReference<CommonSync<?>>> INSTANCES = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean statisticsEnabled = false;
 
     @Data
-    public static class TimedLock {
-        public long mills;
-        public ReentrantReadWriteLock lock;
+    @AllArgsConstructor
+    public static class Stats {
+        public String family;
+        public int locks;
+        public long acquisitions;
+        public long waitNanos;
+        public long maxWaitNanos;
+        public long writeAcquisitions;
+        public long holdNanos;
+        public long maxHoldNanos;
+
+        @Override
+        public String toString() {
+            return String.format("%s: locks: %d, acquisitions: %d, avg wait: %d us, max wait: %d ms, avg write hold: %d us, max write hold: %d ms",
+                    family, locks, acquisitions,
+                    acquisitions==0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos / acquisitions), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                    writeAcquisitions==0 ? 0 : TimeUnit.NANOSECONDS.toMicros(holdNanos / writeAcquisitions), TimeUnit.NANOSECONDS.toMillis(maxHoldNanos));
+        }
+    }
+
+    private final class LockRef extends WeakReference<KeyedLock> {
+        final T id;
+
+        LockRef(T id, KeyedLock lock, ReferenceQueue<KeyedLock> queue) {
+            super(lock, queue);
+            this.id = id;
+        }
+    }
+
+    private final class KeyedLock extends ReentrantReadWriteLock {
+        private final InstrumentedReadLock readLock = new InstrumentedReadLock(this);
+        private final InstrumentedWriteLock writeLock = new InstrumentedWriteLock(this);
+
+        @Override
+        public ReentrantReadWriteLock.ReadLock readLock() {
+            return readLock;
+        }
+
+        @Override
+        public ReentrantReadWriteLock.WriteLock writeLock() {
+            return writeLock;
+        }
+    }
+
+    private final class InstrumentedReadLock extends ReentrantReadWriteLock.ReadLock {
+        // keeps the lock reachable while the view is in use
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        private final KeyedLock owner;
+
+        InstrumentedReadLock(KeyedLock owner) {
+            super(owner);
+            this.owner = owner;
+        }
+
+        @Override
+        public void lock() {
+            if (!statisticsEnabled) {
+                super.lock();
+                return;
+            }
+            long start = System.nanoTime();
+            super.lock();
+            onAcquired(start);
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!statisticsEnabled) {
+                super.lockInterruptibly();
+                return;
+            }
+            long start = System.nanoTime();
+            super.lockInterruptibly();
+            onAcquired(start);
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            if (statisticsEnabled) {
+                acquisitions.increment();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!statisticsEnabled) {
+                return super.tryLock(timeout, unit);
+            }
+            long start = System.nanoTime();
+            if (!super.tryLock(timeout, unit)) {
+                return false;
+            }
+            onAcquired(start);
+            return true;
+        }
+    }
+
+    private final class InstrumentedWriteLock extends ReentrantReadWriteLock.WriteLock {
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        private final KeyedLock owner;
+        // is accessed only by the thread which holds this lock, 0 if the time of holding isn't measured
+        private long lockedOn = 0;
+
+        InstrumentedWriteLock(KeyedLock owner) {
+            super(owner);
+            this.owner = owner;
+        }
+
+        @Override
+        public void lock() {
+            if (!statisticsEnabled) {
+                super.lock();
+                return;
+            }
+            // the lock is free most of the time, so the time of waiting is measured only when the lock is busy.
+            // tryLock() doesn't change the order of acquiring because the lock isn't fair
+            if (super.tryLock()) {
+                onWriteAcquired(0);
+                return;
+            }
+            long start = System.nanoTime();
+            super.lock();
+            onWriteAcquired(start);
+        }
 
-        public TimedLock(ReentrantReadWriteLock lock) {
-            this.mills = System.currentTimeMillis();
-            this.lock = lock;
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!statisticsEnabled) {
+                super.lockInterruptibly();
+                return;
+            }
+            long start = System.nanoTime();
+            super.lockInterruptibly();
+            onWriteAcquired(start);
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            if (statisticsEnabled) {
+                onWriteAcquired(0);
+            }
+            return true;
         }
+
+        @Override
+        public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!statisticsEnabled) {
+                return super.tryLock(timeout, unit);
+            }
+            long start = System.nanoTime();
+            if (!super.tryLock(timeout, unit)) {
+                return false;
+            }
+            onWriteAcquired(start);
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (lockedOn!=0 && getHoldCount()==1) {
+                long hold = System.nanoTime() - lockedOn;
+                lockedOn = 0;
+                holdNanos.add(hold);
+                updateMax(maxHoldNanos, hold);
+            }
+            super.unlock();
+        }
+
+        /**
+         * @param start the moment when waiting for the lock was started or 0 if the lock was acquired without waiting
+         */
+        private void onWriteAcquired(long start) {
+            if (getHoldCount()!=1) {
+                // reentrant acquiring
+                acquisitions.increment();
+                return;
+            }
+            lockedOn = System.nanoTime();
+            writeAcquisitions.increment();
+            if (start==0) {
+                acquisitions.increment();
+            }
+            else {
+                onAcquired(start, lockedOn);
+            }
+        }
+    }
+
+    private final String family;
+    private final Map<T, LockRef> map = new ConcurrentHashMap<>(100);
+    private final ReferenceQueue<KeyedLock> queue = new ReferenceQueue<>();
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder writeAcquisitions = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+    private final AtomicLong maxHoldNanos = new AtomicLong();
+
+    public CommonSync() {
+        this("common");
     }
 
-    private long lastCheckMills = 0L;
-    private final Map<T, TimedLock> map = new HashMap<>(100);
+    public CommonSync(String family) {
+        this.family = family;
+        INSTANCES.removeIf(o -> o.get()==null);
+        INSTANCES.add(new WeakReference<>(this));
+    }
+
+    public static void setStatisticsEnabled(boolean enabled) {
+        statisticsEnabled = enabled;
+    }
+
+    public static boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
 
     public ReentrantReadWriteLock.WriteLock getWriteLock(T id) {
         return getLock(id).writeLock();
@@ -57,28 +288,71 @@ public class CommonSync<T> {
         return getLock(id).readLock();
     }
 
-    public synchronized ReentrantReadWriteLock getLock(T id) {
-        if (System.currentTimeMillis() - lastCheckMills > TEN_MINUTES_TO_MILLS) {
-            lastCheckMills = System.currentTimeMillis();
-            List<T> ids = new ArrayList<>();
-            for (Map.Entry<T, TimedLock> entry : map.entrySet()) {
-                if (id.equals(entry.getKey())) {
-                    entry.getValue().mills = System.currentTimeMillis();
-                    continue;
-                }
-                if (System.currentTimeMillis() - entry.getValue().mills > ONE_HOUR_TO_MILLS) {
-                    ids.add(entry.getKey());
-                }
+    public ReentrantReadWriteLock getLock(T id) {
+        expungeStaleLocks();
+
+        LockRef ref = map.get(id);
+        KeyedLock lock = ref==null ? null : ref.get();
+        if (lock!=null) {
+            return lock;
+        }
+        final KeyedLock newLock = new KeyedLock();
+        final LockRef newRef = new LockRef(id, newLock, queue);
+        while (true) {
+            LockRef current = map.putIfAbsent(id, newRef);
+            if (current==null) {
+                return newLock;
+            }
+            lock = current.get();
+            if (lock!=null) {
+                return lock;
             }
-            for (T idForRemoving : ids) {
-                map.remove(idForRemoving);
+            // the previous lock was collected but its entry wasn't expunged yet
+            if (map.replace(id, current, newRef)) {
+                return newLock;
             }
         }
+    }
 
-        final TimedLock timedLock = map.computeIfAbsent(id, o -> new TimedLock(new ReentrantReadWriteLock()));
-        timedLock.mills = System.currentTimeMillis();
-        return timedLock.lock;
+    public int size() {
+        expungeStaleLocks();
+        return map.size();
     }
 
+    public Stats getStats() {
+        return new Stats(family, size(), acquisitions.sum(), waitNanos.sum(), maxWaitNanos.get(),
+                writeAcquisitions.sum(), holdNanos.sum(), maxHoldNanos.get());
+    }
 
+    public static List<Stats> getAllStats() {
+        INSTANCES.removeIf(o -> o.get()==null);
+        return INSTANCES.stream().map(Reference::get).filter(Objects::nonNull).map(CommonSync::getStats).collect(Collectors.toList());
+    }
+
+    private void onAcquired(long start) {
+        onAcquired(start, System.nanoTime());
+    }
+
+    private void onAcquired(long start, long acquiredOn) {
+        long wait = acquiredOn - start;
+        acquisitions.increment();
+        waitNanos.add(wait);
+        updateMax(maxWaitNanos, wait);
+    }
+
+    // the shared value is read first, so threads don't contend on it when the maximum isn't changed
+    private static void updateMax(AtomicLong max, long value) {
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeStaleLocks() {
+        Reference<? extends KeyedLock> ref;
+        while ((ref = queue.poll()) != null) {
+            LockRef lockRef = (LockRef) ref;
+            map.remove(lockRef.id, lockRef);
+        }
+    }
 }
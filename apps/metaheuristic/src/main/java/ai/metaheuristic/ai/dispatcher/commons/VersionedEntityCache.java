@@ -0,0 +1,302 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.commons;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache of entities with @Version field.
+ *
+ * Inside of Tx an entity is always loaded with EntityManager, so it stays managed and is served by
+ * the second-level cache of Hibernate. Outside of Tx a copy of committed snapshot is returned, so a cached instance
+ * is never changed by callers.
+ *
+ * A snapshot is put to cache only after commit and only if its version isn't older than the cached one.
+ * A snapshot which was loaded before an invalidation of the same entity won't be put, so a stale entity can't overwrite
+ * the result of concurrent saving or deleting. Invalidations of other entities don't affect loading. If a stale snapshot is still used for saving,
+ * this will be detected by optimistic locking.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 11:20 AM
+ */
+@Slf4j
+public class VersionedEntityCache<T> {
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        public String name;
+        public int size;
+        public long hits;
+        public long misses;
+        public long txLoads;
+        public long evictions;
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total==0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: size: %d, hits: %d, misses: %d, hit ratio: %.2f, loads in tx: %d, evictions: %d",
+                    name, size, hits, misses, hitRatio(), txLoads, evictions);
+        }
+    }
+
+    // loads of one entity which are in progress, exists only while there is at least one load
+    private static class PendingLoads {
+        int count = 0;
+        // is incremented with each invalidation of entity
+        long invalidations = 0;
+    }
+
+    private static class LoadToken {
+        final Long id;
+        final long invalidations;
+
+        LoadToken(Long id, long invalidations) {
+            this.id = id;
+            this.invalidations = invalidations;
+        }
+    }
+
+    private static class Snapshot<T> {
+        final T entity;
+        @Nullable final Long version;
+
+        Snapshot(T entity, @Nullable Long version) {
+            this.entity = entity;
+            this.version = version;
+        }
+    }
+
+    private final String name;
+    private final Function<T, Long> idFunc;
+    private final Function<T, Long> versionFunc;
+    private final UnaryOperator<T> copyFunc;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong txLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // access-ordered, the least recently used entities are evicted first
+    private final LinkedHashMap<Long, Snapshot<T>> entries;
+
+    // key - id of entity, a snapshot which was loaded before an invalidation of this entity is discarded.
+    // guarded by the lock of entries
+    private final Map<Long, PendingLoads> pendingLoads = new HashMap<>();
+
+    /**
+     * @param versionFunc returns value of @Version field, may return null
+     * @param copyFunc creates a detached copy of entity, copy must not share mutable state with original
+     */
+    public VersionedEntityCache(String name, int maxSize, Function<T, Long> idFunc, Function<T, Long> versionFunc, UnaryOperator<T> copyFunc) {
+        this.name = name;
+        this.idFunc = idFunc;
+        this.versionFunc = versionFunc;
+        this.copyFunc = copyFunc;
+        this.entries = new LinkedHashMap<>(100, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot<T>> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Nullable
+    public T findById(Long id, Function<Long, Optional<T>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            txLoads.incrementAndGet();
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return loader.apply(id).orElse(null);
+            }
+            final LoadToken token = startLoad(id);
+            final T entity;
+            try {
+                entity = loader.apply(id).orElse(null);
+            }
+            catch (Throwable th) {
+                finishLoad(token, null);
+                throw th;
+            }
+            // the state of managed entity will be the same as committed one only after commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finishLoad(token, status==STATUS_COMMITTED ? entity : null);
+                }
+            });
+            return entity;
+        }
+
+        Snapshot<T> snapshot;
+        synchronized (entries) {
+            snapshot = entries.get(id);
+        }
+        if (snapshot!=null) {
+            hits.incrementAndGet();
+            return copyFunc.apply(snapshot.entity);
+        }
+        misses.incrementAndGet();
+        final LoadToken token = startLoad(id);
+        T entity = null;
+        try {
+            entity = loader.apply(id).orElse(null);
+        }
+        finally {
+            finishLoad(token, entity);
+        }
+        return entity==null ? null : copyFunc.apply(entity);
+    }
+
+    /**
+     * Must be called after saving of entity in Tx. Cache will be updated with the saved entity after commit
+     */
+    public void onSave(T entity) {
+        final Long id = idFunc.apply(entity);
+        evict(id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status==STATUS_COMMITTED) {
+                    // version was incremented at the moment of flushing
+                    put(entity);
+                }
+                else {
+                    evict(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Must be called before deleting of entity in Tx
+     */
+    public void onDelete(Long id) {
+        evict(id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(id);
+            }
+        });
+    }
+
+    public void evict(Long id) {
+        synchronized (entries) {
+            PendingLoads pending = pendingLoads.get(id);
+            if (pending!=null) {
+                pending.invalidations++;
+            }
+            entries.remove(id);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (PendingLoads pending : pendingLoads.values()) {
+                pending.invalidations++;
+            }
+            entries.clear();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(name, size, hits.get(), misses.get(), txLoads.get(), evictions.get());
+    }
+
+    private LoadToken startLoad(Long id) {
+        synchronized (entries) {
+            PendingLoads pending = pendingLoads.computeIfAbsent(id, o -> new PendingLoads());
+            pending.count++;
+            return new LoadToken(id, pending.invalidations);
+        }
+    }
+
+    /**
+     * @param entity loaded entity or null if entity wasn't found or must not be cached
+     */
+    private void finishLoad(LoadToken token, @Nullable T entity) {
+        @Nullable final T copy = entity==null ? null : copyFunc.apply(entity);
+        synchronized (entries) {
+            PendingLoads pending = pendingLoads.get(token.id);
+            if (pending==null) {
+                return;
+            }
+            if (--pending.count==0) {
+                pendingLoads.remove(token.id);
+            }
+            if (copy!=null && pending.invalidations==token.invalidations) {
+                putCopy(copy);
+            }
+        }
+    }
+
+    private void put(T entity) {
+        final T copy = copyFunc.apply(entity);
+        synchronized (entries) {
+            putCopy(copy);
+        }
+    }
+
+    /**
+     * must be called under the lock of entries
+     */
+    private void putCopy(T copy) {
+        final Long id = idFunc.apply(copy);
+        final Long version = versionFunc.apply(copy);
+        if (id==null) {
+            return;
+        }
+        Snapshot<T> old = entries.get(id);
+        if (old!=null && old.version!=null && (version==null || version < old.version)) {
+            log.debug("#462.010 {}: version {} of entity #{} is older than cached one {}", name, version, id, old.version);
+            return;
+        }
+        entries.put(id, new Snapshot<>(copy, version));
+    }
+}
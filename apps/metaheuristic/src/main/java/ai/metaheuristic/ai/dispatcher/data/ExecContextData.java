@@ -107,6 +107,19 @@ public class ExecContextData {
         public EnumsApi.TaskExecState state;
     }
 
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TaskWithStateAndContext {
+        public Long taskId;
+        public EnumsApi.TaskExecState state;
+        public String taskContextId;
+    }
+
+    /**
+     * Vertices are shared between the resident graph of ExecContextGraphCache and its copies which are made for changing,
+     * so a vertex must not be changed after it was added to graph
+     */
     @Data
     @EqualsAndHashCode(of = "taskId")
     @NoArgsConstructor
@@ -124,6 +137,20 @@ public class ExecContextData {
         }
     }
 
+    /**
+     * A new task for adding to graph. Parents can be tasks which are already in graph
+     * or tasks which are placed before this one in the same list of new tasks
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class NewTaskVertex {
+        public Long taskId;
+        public String taskContextId;
+        public List<Long> parentTaskIds;
+        public EnumsApi.TaskExecState state;
+    }
+
     @Data
     @EqualsAndHashCode(of = "id")
     @NoArgsConstructor
@@ -16,7 +16,9 @@
 
 package ai.metaheuristic.ai.dispatcher.data;
 
+import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.dispatcher.beans.Processor;
+import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.BaseDataClass;
 import ai.metaheuristic.api.data.OperationStatusRest;
 import lombok.AllArgsConstructor;
@@ -25,9 +27,12 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Slice;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ProcessorData {
 
@@ -93,4 +98,34 @@ public class ProcessorData {
         }
     }
 
+    /**
+     * Immutable capabilities of processor which are compiled from ProcessorStatusYaml.
+     * Is used for assigning of tasks without parsing of Processor.status
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ProcessorCapability {
+        public final Long processorId;
+        @Nullable
+        public final Long version;
+        // codes of functions which are in state Enums.FunctionState.ready
+        public final Set<String> readyFunctions;
+        // key - code of env, value - interpreter
+        public final Map<String, String> envs;
+        // env.yaml wasn't reported by processor
+        public final boolean envEmpty;
+        @Nullable
+        public final String tags;
+        @Nullable
+        public final EnumsApi.OS os;
+        @Nullable
+        public final Enums.GitStatus gitStatus;
+        public final int taskParamsVersion;
+        public final List<Long> taskIds;
+
+        public boolean isFunctionReady(String functionCode) {
+            return readyFunctions.contains(functionCode);
+        }
+    }
+
 }
@@ -41,4 +41,12 @@ public class TaskData {
             this.error = error;
         }
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExecContextIdAndTaskId {
+        public Long execContextId;
+        public Long taskId;
+    }
 }
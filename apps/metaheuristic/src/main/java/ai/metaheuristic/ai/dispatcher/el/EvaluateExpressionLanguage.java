@@ -21,6 +21,7 @@ import ai.metaheuristic.ai.dispatcher.data.InternalFunctionData;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextVariableService;
 import ai.metaheuristic.ai.dispatcher.internal_functions.InternalFunctionVariableService;
 import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
+import ai.metaheuristic.ai.dispatcher.variable.SimpleVariable;
 import ai.metaheuristic.ai.dispatcher.variable.VariableService;
 import ai.metaheuristic.ai.dispatcher.variable.VariableUtils;
 import ai.metaheuristic.ai.dispatcher.variable_global.GlobalVariableService;
@@ -34,6 +35,12 @@ import org.apache.commons.io.FileUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.*;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
@@ -42,7 +49,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.util.List;
+import java.util.*;
 
 import static ai.metaheuristic.ai.Enums.InternalFunctionProcessing.system_error;
 
@@ -59,12 +66,104 @@ public class EvaluateExpressionLanguage {
 
     // https://docs.spring.io/spring-framework/docs/current/reference/html/core.html#expressions
 
+    private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    // parts of expression which can be compiled to bytecode will be compiled after several evaluations, others are interpreted
+    private static final ExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, EvaluateExpressionLanguage.class.getClassLoader()));
+
+    @AllArgsConstructor
+    public static class ParsedExpression {
+        public final Expression expression;
+        // names of variables which are referenced in expression
+        public final Set<String> names;
+    }
+
+    // key is the text of expression, so the same condition of different processes and source codes is parsed only once
+    private static final LinkedHashMap<String, ParsedExpression> expressions = new LinkedHashMap<>(100, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedExpression> eldest) {
+            return size() > MAX_CACHED_EXPRESSIONS;
+        }
+    };
+
     @AllArgsConstructor
     public static class MhContext {
         public final String taskContextId;
         public final Long execContextId;
     }
 
+    // accessor is cached in nodes of parsed expression, so it must work only with context which was passed as a parameter
+    private static final PropertyAccessor PROPERTY_ACCESSOR = new PropertyAccessor() {
+        @Nullable
+        @Override
+        public Class<?>[] getSpecificTargetClasses() {
+            return null;
+        }
+
+        @Override
+        public boolean canRead(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
+            return true;
+        }
+
+        @Override
+        public TypedValue read(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
+            VariableUtils.VariableHolder variableHolder = ((MhEvalContext) context).getVariableHolder(name);
+            return new TypedValue(variableHolder);
+        }
+
+        @Override
+        public boolean canWrite(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
+            return true;
+        }
+
+        @Override
+        public void write(EvaluationContext context, @Nullable Object target, String name, @Nullable Object newValue) throws AccessException {
+            ((MhEvalContext) context).setVariableValue(name, newValue);
+        }
+    };
+
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS = List.of(PROPERTY_ACCESSOR);
+
+    private static final List<ConstructorResolver> CONSTRUCTOR_RESOLVERS = List.of(new ConstructorResolver() {
+        @Nullable
+        @Override
+        public ConstructorExecutor resolve(EvaluationContext context, String typeName, List<TypeDescriptor> argumentTypes) throws AccessException {
+            return null;
+        }
+    });
+
+    private static final List<MethodResolver> METHOD_RESOLVERS = List.of(new MethodResolver() {
+        @Nullable
+        @Override
+        public MethodExecutor resolve(EvaluationContext context, Object targetObject, String name, List<TypeDescriptor> argumentTypes) throws AccessException {
+            return null;
+        }
+    });
+
+    private static final BeanResolver BEAN_RESOLVER = new BeanResolver() {
+        @Override
+        public Object resolve(EvaluationContext context, String beanName) throws AccessException {
+            //noinspection ConstantConditions
+            return null;
+        }
+    };
+
+    private static final TypeLocator TYPE_LOCATOR = typeName -> String.class;
+
+    private static final TypeConverter TYPE_CONVERTER = new TypeConverter() {
+        @Override
+        public boolean canConvert(@Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public Object convertValue(@Nullable Object value, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return null;
+        }
+    };
+
     public static class MhEvalContext implements EvaluationContext {
         public final String taskContextId;
         public final Long execContextId;
@@ -74,6 +173,9 @@ public class EvaluateExpressionLanguage {
         public final VariableRepository variableRepository;
         public final ExecContextVariableService execContextVariableService;
 
+        private final TypedValue rootObject;
+        private final Map<String, VariableUtils.VariableHolder> holders = new HashMap<>();
+
         public MhEvalContext(String taskContextId, Long execContextId, InternalFunctionVariableService internalFunctionVariableService,
                              GlobalVariableService globalVariableService, VariableService variableService,
                              ExecContextVariableService execContextVariableService, VariableRepository variableRepository) {
@@ -84,252 +186,105 @@ public class EvaluateExpressionLanguage {
             this.variableService = variableService;
             this.execContextVariableService = execContextVariableService;
             this.variableRepository = variableRepository;
+            this.rootObject = new TypedValue(new MhContext(taskContextId, execContextId));
         }
 
         @Override
         public TypedValue getRootObject() {
-            return new TypedValue(new MhContext(taskContextId, execContextId));
+            return rootObject;
         }
 
         @Override
         public List<PropertyAccessor> getPropertyAccessors() {
-            PropertyAccessor pa = new PropertyAccessor() {
-                @Nullable
-                @Override
-                public Class<?>[] getSpecificTargetClasses() {
-                    return null;
-                }
-
-                @Override
-                public boolean canRead(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
-                    return true;
-                }
-
-                @Override
-                public TypedValue read(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
-                    VariableUtils.VariableHolder variableHolder = getVariableHolder(name);
-                    return new TypedValue(variableHolder);
-                }
-
-                @Override
-                public boolean canWrite(EvaluationContext context, @Nullable Object target, String name) throws AccessException {
-                    return true;
-                }
-
-                @SuppressWarnings("ConstantConditions")
-                @Override
-                public void write(EvaluationContext context, @Nullable Object target, String name, @Nullable Object newValue) throws AccessException {
-                    VariableUtils.VariableHolder variableHolderOutput = getVariableHolder(name);
-                    if (variableHolderOutput.globalVariable!=null) {
-                        throw new InternalFunctionException(
-                                new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                        "#509.030 global variable '"+ name+"' can't be used as output variable"));
-                    }
-                    if (variableHolderOutput.variable==null) {
-                        throw new InternalFunctionException(
-                                new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                        "#509.035 variable '"+ name+"' wasn't found"));
-                    }
-
-                    if (newValue==null) {
-                        // TODO 2021-06-30 add a check that a variable can be set as null. this check must be added outside of this code
-                        variableService.setVariableAsNull(variableHolderOutput.variable.id);
-                        int i=0;
-                        return;
-                    }
-
-                    VariableUtils.VariableHolder variableHolderInput = null;
-                    Integer intValue = null;
-                    String strValue = null;
-                    if (newValue instanceof VariableUtils.VariableHolder){
-                        variableHolderInput = (VariableUtils.VariableHolder) newValue;
-                    }
-                    else if (newValue instanceof Integer) {
-                        intValue = (Integer) newValue;
-                    }
-                    else if (newValue instanceof String) {
-                        strValue = (String)newValue;
-                    }
-                    else {
-                        throw new InternalFunctionException(system_error, "#509.025 not supported type: " + newValue.getClass());
-                    }
-                    try {
-                        if (variableHolderInput!=null) {
-                            File tempDir = null;
-                            try {
-                                tempDir = DirUtils.createTempDir("mh-evaluation-");
-                                if (tempDir == null) {
-                                    throw new InternalFunctionException(
-                                            new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                                    "#509.050 can't create a temporary file"));
-                                }
-                                File tempFile = File.createTempFile("input-", ".bin", tempDir);
-                                if (variableHolderInput.globalVariable != null) {
-                                    globalVariableService.storeToFileWithTx(variableHolderInput.globalVariable.id, tempFile);
-                                } else if (variableHolderInput.variable != null) {
-                                    variableService.storeToFileWithTx(variableHolderInput.variable.id, tempFile);
-                                } else {
-                                    throw new InternalFunctionException(
-                                            new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                                    "#509.052 both local and global variables are null"));
-                                }
-                                try (InputStream is = new FileInputStream(tempFile)) {
-                                    variableService.updateWithTx(is, tempFile.length(), variableHolderOutput.variable.id);
-                                }
-                            } finally {
-                                if (tempDir!=null) {
-                                    FileUtils.deleteQuietly(tempDir);
-                                }
-                            }
-                        }
-                        else if (intValue!=null) {
-                            byte[] bytes = intValue.toString().getBytes();
-                            try (InputStream is = new ByteArrayInputStream(bytes)) {
-                                variableService.storeData(is, bytes.length, variableHolderOutput.variable.id, null);
-                            }
-                        }
-                        else if (strValue!=null) {
-                            byte[] bytes = strValue.getBytes();
-                            try (InputStream is = new ByteArrayInputStream(bytes)) {
-                                variableService.storeData(is, bytes.length, variableHolderOutput.variable.id, null);
-                            }
-                        }
-                        else {
-                            throw new InternalFunctionException(
-                                    new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                            "#509.025 not supported type: " + newValue.getClass()));
-                        }
-                    }
-                    catch (InternalFunctionException e) {
-                        throw e;
-                    }
-                    catch (Throwable th) {
-                        final String es = "#509.055 error " + th.getMessage();
-                        log.error(es, th);
-                        throw new InternalFunctionException(
-                                new InternalFunctionData.InternalFunctionProcessingResult(system_error, es));
-                    }
-                    int i=0;
-                }
-            };
-            return List.of(pa);
+            return PROPERTY_ACCESSORS;
         }
 
         @Override
         public List<ConstructorResolver> getConstructorResolvers() {
-            ConstructorResolver cr = new ConstructorResolver() {
-                @Nullable
-                @Override
-                public ConstructorExecutor resolve(EvaluationContext context, String typeName, List<TypeDescriptor> argumentTypes) throws AccessException {
-                    return null;
-                }
-            };
-            return List.of(cr);
+            return CONSTRUCTOR_RESOLVERS;
         }
 
         @Override
         public List<MethodResolver> getMethodResolvers() {
-            MethodResolver mr = new MethodResolver() {
-                @Nullable
-                @Override
-                public MethodExecutor resolve(EvaluationContext context, Object targetObject, String name, List<TypeDescriptor> argumentTypes) throws AccessException {
-                    return null;
-                }
-            };
-            return List.of(mr);
+            return METHOD_RESOLVERS;
         }
 
         @Nullable
         @Override
         public BeanResolver getBeanResolver() {
-            return new BeanResolver() {
-                @Override
-                public Object resolve(EvaluationContext context, String beanName) throws AccessException {
-                    //noinspection ConstantConditions
-                    return null;
-                }
-            };
+            return BEAN_RESOLVER;
         }
 
         @Override
         public TypeLocator getTypeLocator() {
-            return typeName -> String.class;
+            return TYPE_LOCATOR;
         }
 
         @Override
         public TypeConverter getTypeConverter() {
-            return new TypeConverter() {
-                @Override
-                public boolean canConvert(@Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
-                    return false;
-                }
+            return TYPE_CONVERTER;
+        }
+
+        private final TypeComparator typeComparator = new TypeComparator() {
+            @Override
+            public boolean canCompare(@Nullable Object firstObject, @Nullable Object secondObject) {
+                return firstObject!=null && secondObject!=null;
+            }
 
-                @Nullable
-                @Override
-                public Object convertValue(@Nullable Object value, @Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
-                    return null;
+            @Override
+            public int compare(@Nullable Object firstObject, @Nullable Object secondObject) throws EvaluationException {
+                if (firstObject==null || secondObject==null) {
+                    throw new EvaluationException("(firstObject==null || secondObject==null)");
                 }
-            };
-//            return new StandardTypeConverter();
-        }
+                Integer firstValue = getValue(firstObject);
+                Integer secondValue = getValue(secondObject);
+                final int compare = firstValue.compareTo(secondValue);
+                return compare;
+            }
+        };
 
         @Override
         public TypeComparator getTypeComparator() {
-            return new TypeComparator() {
-                @Override
-                public boolean canCompare(@Nullable Object firstObject, @Nullable Object secondObject) {
-                    return firstObject!=null && secondObject!=null;
-                }
+            return typeComparator;
+        }
 
-                @Override
-                public int compare(@Nullable Object firstObject, @Nullable Object secondObject) throws EvaluationException {
-                    if (firstObject==null || secondObject==null) {
-                        throw new EvaluationException("(firstObject==null || secondObject==null)");
-                    }
-                    Integer firstValue = getValue(firstObject);
-                    Integer secondValue = getValue(secondObject);
-                    final int compare = firstValue.compareTo(secondValue);
-                    return compare;
+        private final OperatorOverloader operatorOverloader = new OperatorOverloader() {
+            @Override
+            public boolean overridesOperation(Operation operation, @Nullable Object leftOperand, @Nullable Object rightOperand) throws EvaluationException {
+                return isOkClass(leftOperand) && isOkClass(rightOperand);
+            }
+
+            @Override
+            public Object operate(Operation operation, @Nullable Object leftOperand, @Nullable Object rightOperand) throws EvaluationException {
+                if (leftOperand==null || rightOperand==null) {
+                    throw new InternalFunctionException(
+                            new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                    "#509.100 (leftOperand==null || rightOperand==null)"));
                 }
-            };
-        }
+                Integer leftValue = getValue(leftOperand);
+                Integer rightValue = getValue(rightOperand);
+                switch (operation) {
+                    case ADD:
+                        return leftValue + rightValue;
+                    case SUBTRACT:
+                        return leftValue - rightValue;
+                    case DIVIDE:
+                        return leftValue / rightValue;
+                    case MULTIPLY:
+                        return leftValue * rightValue;
+                    case MODULUS:
+                        return leftValue % rightValue;
+                    case POWER:
+                        return leftValue ^ rightValue;
+                }
+                throw new EvaluationException(S.f("Not supported operation %s, left: %, right: %s",
+                        operation, leftOperand.getClass(), rightOperand.getClass()));
+            }
+        };
 
         @Override
         public OperatorOverloader getOperatorOverloader() {
-            OperatorOverloader ool = new OperatorOverloader() {
-                @Override
-                public boolean overridesOperation(Operation operation, @Nullable Object leftOperand, @Nullable Object rightOperand) throws EvaluationException {
-                    return isOkClass(leftOperand) && isOkClass(rightOperand);
-                }
-
-                @Override
-                public Object operate(Operation operation, @Nullable Object leftOperand, @Nullable Object rightOperand) throws EvaluationException {
-                    if (leftOperand==null || rightOperand==null) {
-                        throw new InternalFunctionException(
-                                new InternalFunctionData.InternalFunctionProcessingResult(system_error,
-                                        "#509.100 (leftOperand==null || rightOperand==null)"));
-                    }
-                    Integer leftValue = getValue(leftOperand);
-                    Integer rightValue = getValue(rightOperand);
-                    switch (operation) {
-                        case ADD:
-                            return leftValue + rightValue;
-                        case SUBTRACT:
-                            return leftValue - rightValue;
-                        case DIVIDE:
-                            return leftValue / rightValue;
-                        case MULTIPLY:
-                            return leftValue * rightValue;
-                        case MODULUS:
-                            return leftValue % rightValue;
-                        case POWER:
-                            return leftValue ^ rightValue;
-                    }
-                    throw new EvaluationException(S.f("Not supported operation %s, left: %, right: %s",
-                            operation, leftOperand.getClass(), rightOperand.getClass()));
-                }
-            };
-            return ool;
+            return operatorOverloader;
         }
 
         private Integer getValue(Object operand) {
@@ -373,7 +328,144 @@ public class EvaluateExpressionLanguage {
             return op instanceof VariableUtils.VariableHolder || op instanceof Integer;
         }
 
+        @SuppressWarnings("ConstantConditions")
+        public void setVariableValue(String name, @Nullable Object newValue) {
+            VariableUtils.VariableHolder variableHolderOutput = getVariableHolder(name);
+            // the state of variable will be changed, so it will be discovered again with the next access
+            holders.remove(name);
+            if (variableHolderOutput.globalVariable!=null) {
+                throw new InternalFunctionException(
+                        new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                "#509.030 global variable '"+ name+"' can't be used as output variable"));
+            }
+            if (variableHolderOutput.variable==null) {
+                throw new InternalFunctionException(
+                        new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                "#509.035 variable '"+ name+"' wasn't found"));
+            }
+
+            if (newValue==null) {
+                // TODO 2021-06-30 add a check that a variable can be set as null. this check must be added outside of this code
+                variableService.setVariableAsNull(variableHolderOutput.variable.id);
+                int i=0;
+                return;
+            }
+
+            VariableUtils.VariableHolder variableHolderInput = null;
+            Integer intValue = null;
+            String strValue = null;
+            if (newValue instanceof VariableUtils.VariableHolder){
+                variableHolderInput = (VariableUtils.VariableHolder) newValue;
+            }
+            else if (newValue instanceof Integer) {
+                intValue = (Integer) newValue;
+            }
+            else if (newValue instanceof String) {
+                strValue = (String)newValue;
+            }
+            else {
+                throw new InternalFunctionException(system_error, "#509.025 not supported type: " + newValue.getClass());
+            }
+            try {
+                if (variableHolderInput!=null) {
+                    File tempDir = null;
+                    try {
+                        tempDir = DirUtils.createTempDir("mh-evaluation-");
+                        if (tempDir == null) {
+                            throw new InternalFunctionException(
+                                    new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                            "#509.050 can't create a temporary file"));
+                        }
+                        File tempFile = File.createTempFile("input-", ".bin", tempDir);
+                        if (variableHolderInput.globalVariable != null) {
+                            globalVariableService.storeToFileWithTx(variableHolderInput.globalVariable.id, tempFile);
+                        } else if (variableHolderInput.variable != null) {
+                            variableService.storeToFileWithTx(variableHolderInput.variable.id, tempFile);
+                        } else {
+                            throw new InternalFunctionException(
+                                    new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                            "#509.052 both local and global variables are null"));
+                        }
+                        try (InputStream is = new FileInputStream(tempFile)) {
+                            variableService.updateWithTx(is, tempFile.length(), variableHolderOutput.variable.id);
+                        }
+                    } finally {
+                        if (tempDir!=null) {
+                            FileUtils.deleteQuietly(tempDir);
+                        }
+                    }
+                }
+                else if (intValue!=null) {
+                    byte[] bytes = intValue.toString().getBytes();
+                    try (InputStream is = new ByteArrayInputStream(bytes)) {
+                        variableService.storeData(is, bytes.length, variableHolderOutput.variable.id, null);
+                    }
+                }
+                else if (strValue!=null) {
+                    byte[] bytes = strValue.getBytes();
+                    try (InputStream is = new ByteArrayInputStream(bytes)) {
+                        variableService.storeData(is, bytes.length, variableHolderOutput.variable.id, null);
+                    }
+                }
+                else {
+                    throw new InternalFunctionException(
+                            new InternalFunctionData.InternalFunctionProcessingResult(system_error,
+                                    "#509.025 not supported type: " + newValue.getClass()));
+                }
+            }
+            catch (InternalFunctionException e) {
+                throw e;
+            }
+            catch (Throwable th) {
+                final String es = "#509.055 error " + th.getMessage();
+                log.error(es, th);
+                throw new InternalFunctionException(
+                        new InternalFunctionData.InternalFunctionProcessingResult(system_error, es));
+            }
+        }
+
+        /**
+         * Local variables with specified names are found with one query for all internal contexts of task.
+         * Variables which weren't found here will be discovered with the first access as usual.
+         * Variables with the same name in the same context are an error, as with discovering of variables one by one.
+         */
+        public void prefetchVariables(Collection<String> names) {
+            if (names.isEmpty()) {
+                return;
+            }
+            final List<String> contextIds = new ArrayList<>();
+            for (String contextId = taskContextId; !S.b(contextId); contextId = VariableUtils.getParentContext(contextId)) {
+                contextIds.add(contextId);
+            }
+            if (contextIds.isEmpty()) {
+                return;
+            }
+            final Map<String, List<SimpleVariable>> variables = new HashMap<>();
+            for (SimpleVariable v : variableRepository.findByExecContextIdAndNamesAndTaskContextIds(execContextId, names, contextIds)) {
+                variables.computeIfAbsent(v.variable + '|' + v.taskContextId, o -> new ArrayList<>(1)).add(v);
+            }
+            for (String name : names) {
+                // the nearest internal context has a priority, the same as in VariableService.findVariableInAllInternalContexts()
+                for (String contextId : contextIds) {
+                    List<SimpleVariable> vs = variables.get(name + '|' + contextId);
+                    if (vs!=null) {
+                        if (vs.size()>1) {
+                            throw new InternalFunctionException(
+                                    new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken,
+                                            "#509.160 Too many variables with the same name at top-level context, name: "+ name + ", context: " + contextId));
+                        }
+                        holders.put(name, new VariableUtils.VariableHolder(vs.get(0)));
+                        break;
+                    }
+                }
+            }
+        }
+
         public VariableUtils.VariableHolder getVariableHolder(String name) {
+            VariableUtils.VariableHolder holder = holders.get(name);
+            if (holder!=null) {
+                return holder;
+            }
             List<VariableUtils.VariableHolder> holders = internalFunctionVariableService.discoverVariables(
                     execContextId, taskContextId, name);
             if (holders.size()>1) {
@@ -383,25 +475,60 @@ public class EvaluateExpressionLanguage {
             }
 
             VariableUtils.VariableHolder variableHolder = holders.get(0);
+            this.holders.put(name, variableHolder);
             return variableHolder;
         }
     }
 
+    public static ParsedExpression parse(String expression) {
+        synchronized (expressions) {
+            ParsedExpression parsed = expressions.get(expression);
+            if (parsed!=null) {
+                return parsed;
+            }
+        }
+        SpelExpression exp = (SpelExpression) PARSER.parseExpression(expression);
+        Set<String> names = new LinkedHashSet<>();
+        collectNames(exp.getAST(), names);
+        ParsedExpression parsed = new ParsedExpression(exp, names);
+        synchronized (expressions) {
+            expressions.put(expression, parsed);
+        }
+        return parsed;
+    }
+
+    private static void collectNames(SpelNode node, Set<String> names) {
+        if (node instanceof PropertyOrFieldReference) {
+            names.add(((PropertyOrFieldReference) node).getName());
+        }
+        else if (node instanceof VariableReference) {
+            // toStringAST() of variable reference is '#name'
+            String name = node.toStringAST().substring(1);
+            if (!"this".equals(name) && !"root".equals(name)) {
+                names.add(name);
+            }
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectNames(node.getChild(i), names);
+        }
+    }
+
     @Nullable
     public static Object evaluate(
             String taskContextId, String expression, Long execContextId, InternalFunctionVariableService internalFunctionVariableService,
             GlobalVariableService globalVariableService, VariableService variableService, ExecContextVariableService execContextVariableService,
             VariableRepository variableRepository
     ) {
-
-        ExpressionParser parser = new SpelExpressionParser();
+        ParsedExpression parsed = parse(expression);
 
         EvaluateExpressionLanguage.MhEvalContext mhEvalContext = new EvaluateExpressionLanguage.MhEvalContext(
                 taskContextId, execContextId, internalFunctionVariableService, globalVariableService, variableService,
                 execContextVariableService, variableRepository);
+        // variables are prefetched for each evaluation, not once per execContext, because tasks which were processed
+        // between evaluations create and change variables, so holders which were fetched earlier could be stale
+        mhEvalContext.prefetchVariables(parsed.names);
 
-        Expression exp = parser.parseExpression(expression);
-        Object obj = exp.getValue(mhEvalContext);
+        Object obj = parsed.expression.getValue(mhEvalContext);
         return obj;
     }
 }
@@ -54,37 +54,42 @@ public class EventBusService {
     public final DispatcherParamsTopLevelService dispatcherParamsTopLevelService;
     public final ExecContextTopLevelService execContextTopLevelService;
     public final ExecContextVariableStateTopLevelService execContextVariableStateTopLevelService;
+    public final ExecContextEventBusService execContextEventBusService;
 
-    @Async
     @EventListener
     public void registerVariableState(VariableUploadedEvent event) {
-        try {
-            log.debug("call EventBusService.registerVariableStates(execContextId:#{}, taskId:#{}, variableId:#{}, nullified:{})", event.execContextId, event.taskId, event.variableId, event.nullified);
-            execContextVariableStateTopLevelService.registerVariableState(event);
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        execContextEventBusService.submit(event.execContextId, () -> {
+            try {
+                log.debug("call EventBusService.registerVariableStates(execContextId:#{}, taskId:#{}, variableId:#{}, nullified:{})", event.execContextId, event.taskId, event.variableId, event.nullified);
+                execContextVariableStateTopLevelService.registerVariableState(event);
+            } catch (Throwable th) {
+                log.error("Error, need to investigate ", th);
+            }
+        });
     }
 
-    @Async
     @EventListener
     public void registerCreatedTask(TaskCreatedEvent event) {
-        try {
-            execContextVariableStateTopLevelService.registerCreatedTask(event);
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        execContextEventBusService.submit(event.taskVariablesInfo.execContextId, () -> {
+            try {
+                execContextVariableStateTopLevelService.registerCreatedTask(event);
+            } catch (Throwable th) {
+                log.error("Error, need to investigate ", th);
+            }
+        });
     }
 
-    @Async
     @EventListener
     public void checkTaskCanBeFinished(CheckTaskCanBeFinishedEvent event) {
-        try {
-            log.debug("call EventBusService.checkTaskCanBeFinished(execContextId:#{}, taskId:#{})", event.execContextId, event.taskId);
-            taskFinishingTopLevelService.checkTaskCanBeFinished(event.taskId);
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        execContextEventBusService.submit(event.execContextId,
+                new PartitionedEventBus.Key(CheckTaskCanBeFinishedEvent.class, event.taskId), () -> {
+            try {
+                log.debug("call EventBusService.checkTaskCanBeFinished(execContextId:#{}, taskId:#{})", event.execContextId, event.taskId);
+                taskFinishingTopLevelService.checkTaskCanBeFinished(event.taskId);
+            } catch (Throwable th) {
+                log.error("Error, need to investigate ", th);
+            }
+        });
     }
 
     @Async
@@ -0,0 +1,82 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.event;
+
+import ai.metaheuristic.ai.Globals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing of events which are related to execContext. Events of one execContext are processed in order of publishing,
+ * different execContexts are processed in parallel.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 9:50 AM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class ExecContextEventBusService {
+
+    private final Globals globals;
+
+    private PartitionedEventBus eventBus;
+
+    @PostConstruct
+    public void init() {
+        eventBus = new PartitionedEventBus("mh-ec-event", globals.eventBusPartitions, globals.eventBusQueueSize,
+                globals.eventBusMaxWait, globals.eventBusOverflowPolicy);
+    }
+
+    @PreDestroy
+    public void onExit() {
+        // threads of bus are daemons, so already queued events must be processed before the context will be closed
+        try {
+            if (!eventBus.shutdownAndWait(TimeUnit.SECONDS.toMillis(globals.eventBusShutdownTimeout))) {
+                log.warn("#463.010 Not all events were processed within {} seconds, stats: {}", globals.eventBusShutdownTimeout, eventBus.getStats());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("#463.020 Waiting of processing of events was interrupted");
+        }
+    }
+
+    /**
+     * @throws ai.metaheuristic.ai.exceptions.EventBusOverflowException if the queue is full and mh.dispatcher.event-bus.overflow-policy is reject
+     */
+    public void submit(Long execContextId, Runnable action) {
+        eventBus.submit(execContextId, action);
+    }
+
+    public void submit(Long execContextId, @Nullable PartitionedEventBus.Key coalescingKey, Runnable action) {
+        eventBus.submit(execContextId, coalescingKey, action);
+    }
+
+    public List<PartitionedEventBus.Stats> getStats() {
+        return eventBus.getStats();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.event;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.exceptions.EventBusOverflowException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event pipeline with partitions. Events with the same key of partition (i.e. execContextId) are processed
+ * one by one in order of submitting, events from different partitions are processed in parallel.
+ *
+ * Each partition has a bounded queue. When a queue is full, a submitter waits for a free space for maxWaitMillis and after that
+ * the event is rejected with EventBusOverflowException or dropped, according to overflowPolicy, so a submitter which holds
+ * a lock needed by handler can't be deadlocked and a queue never grows over its capacity.
+ * Workers of this bus never wait because a handler can publish new events, the policy is applied to them immediately.
+ *
+ * An event with the coalescing key isn't queued if the event with the same key is already waiting in this partition.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 9:10 AM
+ */
+@Slf4j
+public class PartitionedEventBus {
+
+    @Data
+    @AllArgsConstructor
+    public static class Key {
+        public final Class<?> type;
+        public final Long id;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        public String name;
+        public int partition;
+        public int depth;
+        public int maxDepth;
+        public long submitted;
+        public long processed;
+        public long coalesced;
+        public long overflowed;
+        public long waitNanos;
+        public long maxWaitNanos;
+        public long execNanos;
+
+        @Override
+        public String toString() {
+            return String.format("%s-%d: depth: %d, max depth: %d, submitted: %d, processed: %d, coalesced: %d, overflowed: %d, avg wait: %d us, max wait: %d ms, avg exec: %d us",
+                    name, partition, depth, maxDepth, submitted, processed, coalesced, overflowed,
+                    processed==0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos / processed), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                    processed==0 ? 0 : TimeUnit.NANOSECONDS.toMicros(execNanos / processed));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Item {
+        final Runnable action;
+        @Nullable
+        final Key key;
+        final long submittedOn;
+    }
+
+    private final class Partition implements Runnable {
+        private final int idx;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final ArrayDeque<Item> queue = new ArrayDeque<>();
+        private final Set<Key> pendingKeys = new HashSet<>();
+
+        private int maxDepth = 0;
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder overflowed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder execNanos = new LongAdder();
+
+        private Partition(int idx) {
+            this.idx = idx;
+        }
+
+        private void submit(@Nullable Key key, Runnable action) throws InterruptedException {
+            lock.lock();
+            try {
+                if (key!=null && pendingKeys.contains(key)) {
+                    coalesced.increment();
+                    return;
+                }
+                if (queue.size()>=capacity) {
+                    if (CURRENT_BUS.get()!=PartitionedEventBus.this) {
+                        long nanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                        while (queue.size()>=capacity && nanos>0) {
+                            nanos = notFull.awaitNanos(nanos);
+                        }
+                        // the same event could be queued while we were waiting
+                        if (key!=null && pendingKeys.contains(key)) {
+                            coalesced.increment();
+                            return;
+                        }
+                    }
+                    if (queue.size()>=capacity) {
+                        overflowed.increment();
+                        if (overflowPolicy==Enums.EventBusOverflowPolicy.drop) {
+                            log.warn("#458.050 Queue {}-{} is full, capacity: {}, event was dropped", name, idx, capacity);
+                            return;
+                        }
+                        throw new EventBusOverflowException("#458.060 Queue " + name + "-" + idx + " is full, capacity: " + capacity);
+                    }
+                }
+                queue.addLast(new Item(action, key, System.nanoTime()));
+                if (key!=null) {
+                    pendingKeys.add(key);
+                }
+                submitted.increment();
+                maxDepth = Math.max(maxDepth, queue.size());
+                notEmpty.signal();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Nullable
+        private Item take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (queue.isEmpty()) {
+                    if (shutdown) {
+                        return null;
+                    }
+                    notEmpty.await();
+                }
+                Item item = queue.pollFirst();
+                // the key is released before processing, so an event which was submitted during processing won't be lost
+                if (item.key!=null) {
+                    pendingKeys.remove(item.key);
+                }
+                notFull.signal();
+                return item;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            CURRENT_BUS.set(PartitionedEventBus.this);
+            Item item;
+            try {
+                while ((item = take())!=null) {
+                    long start = System.nanoTime();
+                    long wait = start - item.submittedOn;
+                    waitNanos.add(wait);
+                    if (wait > maxWaitNanos.get()) {
+                        maxWaitNanos.accumulateAndGet(wait, Math::max);
+                    }
+                    try {
+                        item.action.run();
+                    } catch (Throwable th) {
+                        log.error("#458.020 Error while processing of event, need to investigate ", th);
+                    }
+                    execNanos.add(System.nanoTime() - start);
+                    processed.increment();
+                }
+            } catch (InterruptedException e) {
+                // shutdown
+            }
+        }
+
+        private Stats getStats() {
+            int depth;
+            int max;
+            lock.lock();
+            try {
+                depth = queue.size();
+                max = maxDepth;
+            }
+            finally {
+                lock.unlock();
+            }
+            return new Stats(name, idx, depth, max, submitted.sum(), processed.sum(), coalesced.sum(), overflowed.sum(),
+                    waitNanos.sum(), maxWaitNanos.get(), execNanos.sum());
+        }
+    }
+
+    private static final ThreadLocal<PartitionedEventBus> CURRENT_BUS = new ThreadLocal<>();
+
+    private final String name;
+    private final int capacity;
+    private final long maxWaitMillis;
+    private final Enums.EventBusOverflowPolicy overflowPolicy;
+    private final Partition[] partitions;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean shutdown = false;
+
+    public PartitionedEventBus(String name, int partitionNumber, int capacity, long maxWaitMillis, Enums.EventBusOverflowPolicy overflowPolicy) {
+        if (partitionNumber<1 || capacity<1) {
+            throw new IllegalArgumentException("#458.010 partitionNumber and capacity must be positive, " + partitionNumber + ", " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.maxWaitMillis = maxWaitMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.partitions = new Partition[partitionNumber];
+        for (int i = 0; i < partitionNumber; i++) {
+            partitions[i] = new Partition(i);
+            Thread t = new Thread(partitions[i], name + '-' + i);
+            t.setDaemon(true);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    public void submit(@Nullable Long partitionKey, Runnable action) {
+        submit(partitionKey, null, action);
+    }
+
+    /**
+     * @param partitionKey events with the same partitionKey are processed in order of submitting
+     * @param coalescingKey the event won't be queued if the event with the same key is waiting already, null for events which must not be coalesced
+     * @throws EventBusOverflowException if the queue is full and overflowPolicy is reject
+     */
+    public void submit(@Nullable Long partitionKey, @Nullable Key coalescingKey, Runnable action) {
+        if (shutdown) {
+            log.warn("#458.030 Event bus {} was already shut down, event will be skipped", name);
+            return;
+        }
+        try {
+            partitions[partitionOf(partitionKey)].submit(coalescingKey, action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("#458.040 Submitting of event was interrupted");
+        }
+    }
+
+    int partitionOf(@Nullable Long partitionKey) {
+        if (partitionKey==null) {
+            return 0;
+        }
+        long h = partitionKey * 0x9E3779B97F4A7C15L;
+        return (int) ((h ^ (h >>> 32)) & Integer.MAX_VALUE) % partitions.length;
+    }
+
+    public List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            stats.add(partition.getStats());
+        }
+        return stats;
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        for (Partition partition : partitions) {
+            partition.lock.lock();
+            try {
+                partition.notEmpty.signalAll();
+            }
+            finally {
+                partition.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return true if all queued events were processed before timeout
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public boolean shutdownAndWait(long timeoutMillis) throws InterruptedException {
+        shutdown();
+        long end = System.currentTimeMillis() + timeoutMillis;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, end - System.currentTimeMillis()));
+        }
+        return threads.stream().noneMatch(Thread::isAlive);
+    }
+}
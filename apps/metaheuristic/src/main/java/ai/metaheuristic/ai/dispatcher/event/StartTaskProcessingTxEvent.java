@@ -16,8 +16,11 @@
 
 package ai.metaheuristic.ai.dispatcher.event;
 
+import ai.metaheuristic.ai.dispatcher.data.TaskData;
 import lombok.AllArgsConstructor;
 
+import java.util.List;
+
 /**
  * @author Serge
  * Date: 12/20/2020
@@ -25,10 +28,9 @@ import lombok.AllArgsConstructor;
  */
 @AllArgsConstructor
 public class StartTaskProcessingTxEvent {
-    public final Long execContextId;
-    public final Long taskId;
+    public final List<TaskData.ExecContextIdAndTaskId> tasks;
 
     public StartTaskProcessingEvent to() {
-        return new StartTaskProcessingEvent(execContextId, taskId);
+        return new StartTaskProcessingEvent(tasks);
     }
 }
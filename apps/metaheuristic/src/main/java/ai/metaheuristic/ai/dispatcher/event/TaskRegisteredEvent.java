@@ -0,0 +1,36 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.event;
+
+import lombok.AllArgsConstructor;
+import org.springframework.lang.Nullable;
+
+/**
+ * Task was registered in TaskQueue or tasks in TaskQueue became available for assigning to processor,
+ * i.e. groups of tasks were locked, a task was reset or a group was released
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 5:10 AM
+ */
+@AllArgsConstructor
+public class TaskRegisteredEvent {
+    public final Long execContextId;
+    // null if it's about a group of tasks, not about a concrete task
+    @Nullable
+    public final Long taskId;
+}
@@ -16,8 +16,11 @@
 
 package ai.metaheuristic.ai.dispatcher.event;
 
+import ai.metaheuristic.ai.dispatcher.data.TaskData;
 import lombok.AllArgsConstructor;
 
+import java.util.List;
+
 /**
  * @author Serge
  * Date: 2/27/2021
@@ -25,10 +28,9 @@ import lombok.AllArgsConstructor;
  */
 @AllArgsConstructor
 public class UnAssignTaskTxEvent {
-    public final Long execContextId;
-    public final Long taskId;
+    public final List<TaskData.ExecContextIdAndTaskId> tasks;
 
     public UnAssignTaskEvent to() {
-        return new UnAssignTaskEvent(execContextId, taskId);
+        return new UnAssignTaskEvent(tasks);
     }
 }
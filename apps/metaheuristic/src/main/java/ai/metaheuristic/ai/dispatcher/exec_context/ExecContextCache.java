@@ -16,7 +16,9 @@
 
 package ai.metaheuristic.ai.dispatcher.exec_context;
 
+import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
+import ai.metaheuristic.ai.dispatcher.commons.VersionedEntityCache;
 import ai.metaheuristic.ai.dispatcher.repositories.ExecContextRepository;
 import ai.metaheuristic.ai.utils.TxUtils;
 import lombok.RequiredArgsConstructor;
@@ -38,15 +40,20 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ExecContextCache {
 
+    private static final int MAX_SIZE = 1000;
+
     private final ExecContextRepository execContextRepository;
     private final ExecContextSyncService execContextSyncService;
+    private final ExecContextStatusService execContextStatusService;
+
+    private final VersionedEntityCache<ExecContextImpl> cache = new VersionedEntityCache<>(
+            Consts.EXEC_CONTEXT_CACHE, MAX_SIZE, o->o.id, o->o.version==null ? null : o.version.longValue(), ExecContextCache::copy);
 
-//    @CacheEvict(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, allEntries = true)
     public void clearCache() {
         TxUtils.checkTxExists();
+        cache.clear();
     }
 
-//    @CachePut(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, key = "#result.id")
     public ExecContextImpl save(ExecContextImpl execContext) {
         TxUtils.checkTxExists();
         // execContext.id is null for a newly created bean
@@ -65,12 +72,15 @@ public class ExecContextCache {
             }
         }
 */
-        return execContextRepository.save(execContext);
+        ExecContextImpl result = execContextRepository.save(execContext);
+        cache.onSave(result);
+        return result;
     }
 
-//    @CacheEvict(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, key = "#execContext.id")
     public void delete(ExecContextImpl execContext) {
         TxUtils.checkTxExists();
+        cache.onDelete(execContext.id);
+        execContextStatusService.onDeleted(execContext.id);
         try {
             execContextRepository.deleteById(execContext.id);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -78,9 +88,10 @@ public class ExecContextCache {
         }
     }
 
-//    @CacheEvict(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, key = "#execContextId")
     public void delete(Long execContextId) {
         TxUtils.checkTxExists();
+        cache.onDelete(execContextId);
+        execContextStatusService.onDeleted(execContextId);
         try {
             execContextRepository.deleteById(execContextId);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -88,9 +99,10 @@ public class ExecContextCache {
         }
     }
 
-//    @CacheEvict(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, key = "#execContextId")
     public void deleteById(Long execContextId) {
         TxUtils.checkTxExists();
+        cache.onDelete(execContextId);
+        execContextStatusService.onDeleted(execContextId);
         try {
             execContextRepository.deleteById(execContextId);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -98,9 +110,32 @@ public class ExecContextCache {
         }
     }
 
+    /**
+     * @return managed instance if there is an active Tx, or a detached copy otherwise
+     */
     @Nullable
-//    @Cacheable(cacheNames = {Consts.EXEC_CONTEXT_CACHE}, unless="#result==null")
     public ExecContextImpl findById(Long id) {
-        return execContextRepository.findById(id).orElse(null);
+        return cache.findById(id, execContextRepository::findById);
+    }
+
+    public VersionedEntityCache.Stats getStats() {
+        return cache.getStats();
+    }
+
+    private static ExecContextImpl copy(ExecContextImpl ec) {
+        ExecContextImpl copy = new ExecContextImpl();
+        copy.id = ec.id;
+        copy.version = ec.version;
+        copy.sourceCodeId = ec.sourceCodeId;
+        copy.companyId = ec.companyId;
+        copy.createdOn = ec.createdOn;
+        copy.completedOn = ec.completedOn;
+        copy.setParams(ec.getParams());
+        copy.valid = ec.valid;
+        copy.state = ec.state;
+        copy.execContextGraphId = ec.execContextGraphId;
+        copy.execContextTaskStateId = ec.execContextTaskStateId;
+        copy.execContextVariableStateId = ec.execContextVariableStateId;
+        return copy;
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.exec_context;
+
+import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostUpdate;
+
+/**
+ * Pushes the state of ExecContextImpl to ExecContextStatusService with each flushing of bean,
+ * so changes which were made with dirty-checking only are registered as well.
+ *
+ * The instance is created by Hibernate with SpringBeanContainer.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 1:05 PM
+ */
+public class ExecContextStateListener {
+
+    @Autowired
+    @Nullable
+    private ObjectProvider<ExecContextStatusService> execContextStatusService;
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(ExecContextImpl execContext) {
+        if (execContextStatusService==null || execContext.id==null) {
+            return;
+        }
+        execContextStatusService.ifAvailable(s -> s.onStateChanged(execContext.id, execContext.state));
+    }
+}
@@ -16,32 +16,36 @@
 
 package ai.metaheuristic.ai.dispatcher.exec_context;
 
-import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
-import ai.metaheuristic.ai.dispatcher.event.CheckTaskCanBeFinishedTxEvent;
-import ai.metaheuristic.ai.dispatcher.event.TaskCreatedEvent;
-import ai.metaheuristic.ai.dispatcher.event.VariableUploadedEvent;
 import ai.metaheuristic.ai.dispatcher.repositories.ExecContextRepository;
-import ai.metaheuristic.ai.utils.JsonUtils;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml;
-import ai.metaheuristic.ai.yaml.exec_context.ExecContextParamsYamlUtils;
 import ai.metaheuristic.api.EnumsApi;
-import ai.metaheuristic.api.data.exec_context.ExecContextApiData;
-import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml.*;
+import static ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml.ExecContextStatus;
 
 /**
+ * Registry of states of execContexts.
+ * States are pushed after commit of each change of ExecContextImpl (see ExecContextStateListener) and after deleting,
+ * so processors get STOPPED or FINISHED state with the next request. The periodic reconciliation with db corrects
+ * any possible drift.
+ *
+ * All execContexts are kept, not only active ones, because a processor treats an absent execContext as deleted one
+ * and removes its tasks. There are only id and state for each execContext.
+ *
+ * Reads are lock-free, the list of statuses for processors is rebuilt lazily after a change.
+ *
  * @author Serge
  * Date: 10/27/2020
  * Time: 3:51 PM
@@ -52,35 +56,151 @@ import static ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveRespons
 @RequiredArgsConstructor
 public class ExecContextStatusService {
 
+    private static class StateEntry {
+        final EnumsApi.ExecContextState state;
+        // the sequence number of change, is used to detect changes which were made during reconciliation
+        final long seq;
+
+        StateEntry(EnumsApi.ExecContextState state, long seq) {
+            this.state = state;
+            this.seq = seq;
+        }
+    }
+
     private final ExecContextRepository execContextRepository;
 
-    private ExecContextStatus cachedStatus = null;
-    private long updatedOn = 0L;
-    private static final long TTL_FOR_STATUS = TimeUnit.SECONDS.toMillis(10);
+    private final Map<Long, StateEntry> states = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+    // ids of deleted execContexts with the sequence number of deletion
+    private final Map<Long, Long> deleted = new ConcurrentHashMap<>();
 
-    public synchronized ExecContextStatus getExecContextStatuses() {
-        if (cachedStatus==null) {
-            resetStatus();
+    private volatile boolean initialized = false;
+    @Nullable
+    private volatile ExecContextStatus cachedStatus = null;
+
+    public ExecContextStatus getExecContextStatuses() {
+        ExecContextStatus status = cachedStatus;
+        if (status!=null) {
+            return status;
+        }
+        synchronized (this) {
+            if (!initialized) {
+                reconcile();
+            }
+            status = cachedStatus;
+            if (status==null) {
+                status = new ExecContextStatus();
+                for (Map.Entry<Long, StateEntry> e : states.entrySet()) {
+                    status.statuses.add(new ExecContextStatus.SimpleStatus(e.getKey(), e.getValue().state));
+                }
+                cachedStatus = status;
+            }
+            return status;
         }
-        if (System.currentTimeMillis() - updatedOn > TTL_FOR_STATUS) {
-            resetStatus();
+    }
+
+    /**
+     * @return state of execContext or null if execContext doesn't exist
+     */
+    @Nullable
+    public EnumsApi.ExecContextState getState(Long execContextId) {
+        if (!initialized) {
+            getExecContextStatuses();
         }
-        return cachedStatus;
+        StateEntry entry = states.get(execContextId);
+        return entry==null ? null : entry.state;
+    }
+
+    public boolean isStarted(Long execContextId) {
+        return getState(execContextId)==EnumsApi.ExecContextState.STARTED;
     }
 
-    private void resetStatus() {
+    /**
+     * State will be registered after commit of current Tx or immediately if there isn't any Tx
+     */
+    public void onStateChanged(Long execContextId, int state) {
+        final EnumsApi.ExecContextState execState = EnumsApi.ExecContextState.toState(state);
+        afterCommit(() -> setState(execContextId, execState));
+    }
 
-        cachedStatus = new ExecContextStatus();
+    public void onDeleted(Long execContextId) {
+        afterCommit(() -> remove(execContextId));
+    }
 
-        execContextRepository.findAllExecStates()
-                .stream()
-                .map(o -> toSimpleStatus((Long)o[0], (Integer)o[1]))
-                .collect(Collectors.toCollection(()->cachedStatus.statuses));
+    /**
+     * Replaces the registered states with states from db. States which were changed during loading are kept.
+     */
+    public void reconcile() {
+        final long before = seq.get();
+        List<Object[]> objs = execContextRepository.findAllExecStates();
 
-        updatedOn = System.currentTimeMillis();
+        synchronized (this) {
+            Set<Long> ids = new HashSet<>();
+            int changed = 0;
+            for (Object[] obj : objs) {
+                Long id = ((Number) obj[0]).longValue();
+                ids.add(id);
+                if (isChangedAfter(id, before)) {
+                    continue;
+                }
+                EnumsApi.ExecContextState state = EnumsApi.ExecContextState.toState(((Number) obj[1]).intValue());
+                StateEntry old = states.get(id);
+                if (old==null || old.state!=state) {
+                    states.put(id, new StateEntry(state, before));
+                    changed++;
+                }
+            }
+            for (Long id : states.keySet()) {
+                if (!ids.contains(id) && !isChangedAfter(id, before)) {
+                    states.remove(id);
+                    changed++;
+                }
+            }
+            deleted.values().removeIf(o -> o <= before);
+            if (changed>0) {
+                if (initialized) {
+                    log.info("#709.010 States of {} execContexts were corrected with reconciliation", changed);
+                }
+                cachedStatus = null;
+            }
+            initialized = true;
+        }
     }
 
-    private static ExecContextStatus.SimpleStatus toSimpleStatus(Long execContextId, Integer execSate) {
-        return new ExecContextStatus.SimpleStatus(execContextId, EnumsApi.ExecContextState.toState(execSate));
+    private boolean isChangedAfter(Long id, long before) {
+        StateEntry entry = states.get(id);
+        if (entry!=null && entry.seq > before) {
+            return true;
+        }
+        Long deletedSeq = deleted.get(id);
+        return deletedSeq!=null && deletedSeq > before;
+    }
+
+    private synchronized void setState(Long execContextId, EnumsApi.ExecContextState state) {
+        deleted.remove(execContextId);
+        StateEntry old = states.put(execContextId, new StateEntry(state, seq.incrementAndGet()));
+        if (old==null || old.state!=state) {
+            cachedStatus = null;
+        }
+    }
+
+    private synchronized void remove(Long execContextId) {
+        deleted.put(execContextId, seq.incrementAndGet());
+        if (states.remove(execContextId)!=null) {
+            cachedStatus = null;
+        }
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
     }
 }
@@ -41,7 +41,7 @@ import java.util.function.Supplier;
 @Slf4j
 public class ExecContextSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("execContext");
 
     public void checkWriteLockPresent(Long execContextId) {
         if (!getWriteLock(execContextId).isHeldByCurrentThread()) {
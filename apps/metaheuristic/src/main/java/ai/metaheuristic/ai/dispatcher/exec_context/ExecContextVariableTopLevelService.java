@@ -157,7 +157,43 @@ public class ExecContextVariableTopLevelService {
             try(OutputStream os = new FileOutputStream(variableFile)) {
                 IOUtils.copy(file.getInputStream(), os, 64000);
             }
+        }
+        catch (Throwable th) {
+            DirUtils.deleteAsync(tempDir);
+            final String error = "#440.282 can't store the result, Error: " + th.toString();
+            log.error(error, th);
+            return new UploadResult(Enums.UploadVariableStatus.GENERAL_ERROR, error);
+        }
+        try {
+            return storeVariableFromFile(variableFile, execContextId, taskId, variableId);
+        }
+        finally {
+            DirUtils.deleteAsync(tempDir);
+        }
+    }
+
+    /**
+     * Storing of variable which was uploaded with chunks. The file won't be deleted
+     */
+    public UploadResult uploadVariableFromFile(File variableFile, Long taskId, Long variableId) {
+        TxUtils.checkTxNotExists();
 
+        if (variableFile.length()==0) {
+            return new UploadResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#440.430 file has zero length");
+        }
+        Long execContextId = taskRepository.getExecContextId(taskId);
+        if (execContextId==null) {
+            final String es = "#440.440 Task "+taskId+" is obsolete and was already deleted";
+            log.warn(es);
+            return new UploadResult(Enums.UploadVariableStatus.TASK_NOT_FOUND, es);
+        }
+
+        eventPublisher.publishEvent(new TaskCommunicationEvent(taskId));
+        return storeVariableFromFile(variableFile, execContextId, taskId, variableId);
+    }
+
+    private UploadResult storeVariableFromFile(File variableFile, Long execContextId, Long taskId, Long variableId) {
+        try {
             UploadResult uploadResult = variableSyncService.getWithSync(variableId, () -> {
                 SimpleVariable v = variableRepository.findByIdAsSimple(variableId);
                 if (v == null) {
@@ -220,10 +256,6 @@ public class ExecContextVariableTopLevelService {
             log.error(error, th);
             return new UploadResult(Enums.UploadVariableStatus.GENERAL_ERROR, error);
         }
-        finally {
-            DirUtils.deleteAsync(tempDir);
-        }
-
     }
 
     /**
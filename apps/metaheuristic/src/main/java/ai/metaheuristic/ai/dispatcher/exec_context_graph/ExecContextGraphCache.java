@@ -16,15 +16,26 @@
 
 package ai.metaheuristic.ai.dispatcher.exec_context_graph;
 
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextGraph;
+import ai.metaheuristic.ai.dispatcher.commons.VersionedEntityCache;
+import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.repositories.ExecContextGraphRepository;
 import ai.metaheuristic.ai.utils.TxUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DirectedAcyclicGraph;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * @author Serge
  * Date: 3/17/2021
@@ -36,15 +47,135 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ExecContextGraphCache {
 
+    private static final int MAX_SIZE = 100;
+
+    private final Globals globals;
     private final ExecContextGraphRepository execContextGraphRepository;
 
+    private final VersionedEntityCache<ExecContextGraph> cache = new VersionedEntityCache<>(
+            Consts.EXEC_CONTEXT_GRAPHS_CACHE, MAX_SIZE, o->o.id, o->o.version==null ? null : o.version.longValue(), ExecContextGraphCache::copy);
+
+    /**
+     * Decoded graph which is shared between readers, must not be changed.
+     * Validity of entry is checked by version of ExecContextGraph and by hash of its params,
+     * so a rolled-back change of graph will be detected as well
+     */
+    private static class ResidentGraph {
+        final Integer version;
+        final int paramsLength;
+        final int paramsHash;
+        final DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph;
+        final int vertices;
+
+        ResidentGraph(@Nullable Integer version, String params, DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
+            this.version = version;
+            this.paramsLength = params.length();
+            this.paramsHash = params.hashCode();
+            this.graph = graph;
+            this.vertices = graph.vertexSet().size();
+        }
+
+        boolean isValidFor(ExecContextGraph ecg) {
+            String params = ecg.getParams();
+            return Objects.equals(version, ecg.version) && paramsLength==params.length() && paramsHash==params.hashCode();
+        }
+    }
+
+    // access-ordered, the least recently used graphs are evicted first
+    private final LinkedHashMap<Long, ResidentGraph> graphs = new LinkedHashMap<>(100, 0.75f, true);
+    private int residentVertices = 0;
+
     public ExecContextGraph save(ExecContextGraph execContextGraph) {
         TxUtils.checkTxExists();
-        return execContextGraphRepository.save(execContextGraph);
+        ExecContextGraph result = execContextGraphRepository.save(execContextGraph);
+        cache.onSave(result);
+        return result;
     }
 
+    /**
+     * @return decoded graph of execContextGraph. This instance is shared and must be used only for reading
+     */
+    public DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> getGraph(ExecContextGraph execContextGraph) {
+        if (execContextGraph.id==null) {
+            return ExecContextGraphCodec.decode(execContextGraph.getExecContextGraphParamsYaml().graph);
+        }
+        synchronized (graphs) {
+            ResidentGraph rg = graphs.get(execContextGraph.id);
+            if (rg!=null && rg.isValidFor(execContextGraph)) {
+                return rg.graph;
+            }
+        }
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = ExecContextGraphCodec.decode(execContextGraph.getExecContextGraphParamsYaml().graph);
+        putGraph(execContextGraph.id, execContextGraph.version, execContextGraph.getParams(), graph);
+        return graph;
+    }
+
+    /**
+     * @param graph must not be changed after this call
+     */
+    public void putGraph(Long execContextGraphId, @Nullable Integer version, String params, DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
+        ResidentGraph rg = new ResidentGraph(version, params, graph);
+        // max number of task vertices over all resident graphs
+        final int maxVertices = globals.residentGraphsMaxVertices;
+        if (rg.vertices > maxVertices) {
+            evictGraph(execContextGraphId);
+            return;
+        }
+        synchronized (graphs) {
+            ResidentGraph old = graphs.put(execContextGraphId, rg);
+            if (old!=null) {
+                residentVertices -= old.vertices;
+            }
+            residentVertices += rg.vertices;
+
+            Iterator<Map.Entry<Long, ResidentGraph>> it = graphs.entrySet().iterator();
+            while (residentVertices > maxVertices && it.hasNext()) {
+                Map.Entry<Long, ResidentGraph> e = it.next();
+                if (e.getKey().equals(execContextGraphId)) {
+                    continue;
+                }
+                residentVertices -= e.getValue().vertices;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Must be called before deleting of ExecContextGraph in Tx
+     */
+    public void onDelete(Long execContextGraphId) {
+        cache.onDelete(execContextGraphId);
+        evictGraph(execContextGraphId);
+    }
+
+    public void evictGraph(Long execContextGraphId) {
+        cache.evict(execContextGraphId);
+        synchronized (graphs) {
+            ResidentGraph old = graphs.remove(execContextGraphId);
+            if (old!=null) {
+                residentVertices -= old.vertices;
+            }
+        }
+    }
+
+    /**
+     * @return managed instance if there is an active Tx, or a detached copy otherwise
+     */
     @Nullable
     public ExecContextGraph findById(Long id) {
-        return execContextGraphRepository.findById(id).orElse(null);
+        return cache.findById(id, execContextGraphRepository::findById);
+    }
+
+    public VersionedEntityCache.Stats getStats() {
+        return cache.getStats();
+    }
+
+    private static ExecContextGraph copy(ExecContextGraph ecg) {
+        ExecContextGraph copy = new ExecContextGraph();
+        copy.id = ecg.id;
+        copy.version = ecg.version;
+        copy.execContextId = ecg.execContextId;
+        copy.setParams(ecg.getParams());
+        return copy;
     }
 }
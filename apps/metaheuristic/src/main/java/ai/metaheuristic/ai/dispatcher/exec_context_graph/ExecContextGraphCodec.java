@@ -0,0 +1,218 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.exec_context_graph;
+
+import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Base64;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DirectedAcyclicGraph;
+import org.jgrapht.nio.Attribute;
+import org.jgrapht.nio.DefaultAttribute;
+import org.jgrapht.nio.dot.DOTExporter;
+import org.jgrapht.nio.dot.DOTImporter;
+import org.jgrapht.util.SupplierUtil;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary representation of task graph of ExecContext.
+ * DOT format is used only for export and for converting of graphs which were stored in ExecContextGraphParamsYaml v1
+ *
+ * Layout of binary data (before deflating and encoding with Base64):
+ *  - format version, byte
+ *  - count of distinct taskContextIds, then taskContextIds
+ *  - count of vertices, then for each vertex - delta of taskId from the previous one and index of its taskContextId
+ *  - count of edges, then for each edge - indexes of source and target vertices
+ *
+ * all numbers are stored as var-ints, order of vertices and edges is preserved
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 4:10 PM
+ */
+@Slf4j
+public class ExecContextGraphCodec {
+
+    private static final String TASK_CONTEXT_ID_ATTR = "ctxid";
+    private static final int FORMAT_VERSION = 1;
+    private static final int NO_CONTEXT = 0;
+
+    public static DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> createGraph() {
+        return new DirectedAcyclicGraph<>(ExecContextData.TaskVertex::new, SupplierUtil.DEFAULT_EDGE_SUPPLIER, false);
+    }
+
+    @SneakyThrows
+    public static String encode(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
+        if (graph.vertexSet().isEmpty()) {
+            return "";
+        }
+        // index 0 is reserved for null taskContextId
+        Map<String, Integer> contexts = new LinkedHashMap<>();
+        Map<Long, Integer> vertexIdx = new HashMap<>(graph.vertexSet().size()*2);
+        for (ExecContextData.TaskVertex v : graph.vertexSet()) {
+            if (v.taskContextId!=null) {
+                contexts.computeIfAbsent(v.taskContextId, o -> contexts.size() + 1);
+            }
+            vertexIdx.put(v.taskId, vertexIdx.size());
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(baos))) {
+            out.writeByte(FORMAT_VERSION);
+
+            writeVarLong(out, contexts.size());
+            for (String context : contexts.keySet()) {
+                out.writeUTF(context);
+            }
+
+            writeVarLong(out, graph.vertexSet().size());
+            long prevId = 0;
+            for (ExecContextData.TaskVertex v : graph.vertexSet()) {
+                writeVarLong(out, zigZag(v.taskId - prevId));
+                writeVarLong(out, v.taskContextId==null ? NO_CONTEXT : contexts.get(v.taskContextId));
+                prevId = v.taskId;
+            }
+
+            writeVarLong(out, graph.edgeSet().size());
+            for (DefaultEdge edge : graph.edgeSet()) {
+                writeVarLong(out, vertexIdx.get(graph.getEdgeSource(edge).taskId));
+                writeVarLong(out, vertexIdx.get(graph.getEdgeTarget(edge).taskId));
+            }
+        }
+        return Base64.encodeBase64String(baos.toByteArray());
+    }
+
+    @SneakyThrows
+    /**
+     * @param data binary graph, or graph in DOT format which was stored in ExecContextGraphParamsYaml v1
+     */
+    public static DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> decode(String data) {
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = createGraph();
+        if (data.isBlank()) {
+            return graph;
+        }
+        // Base64 doesn't contain '{', a graph in DOT format always contains it
+        if (data.indexOf('{')!=-1) {
+            return importDot(data);
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(Base64.decodeBase64(data))))) {
+            int formatVersion = in.readByte();
+            if (formatVersion!=FORMAT_VERSION) {
+                throw new IllegalStateException("#706.020 Unsupported version of binary graph: " + formatVersion);
+            }
+
+            int contextCount = (int) readVarLong(in);
+            String[] contexts = new String[contextCount + 1];
+            for (int i = 1; i <= contextCount; i++) {
+                contexts[i] = in.readUTF();
+            }
+
+            int vertexCount = (int) readVarLong(in);
+            ExecContextData.TaskVertex[] vertices = new ExecContextData.TaskVertex[vertexCount];
+            long prevId = 0;
+            for (int i = 0; i < vertexCount; i++) {
+                long taskId = prevId + unZigZag(readVarLong(in));
+                int contextIdx = (int) readVarLong(in);
+                vertices[i] = new ExecContextData.TaskVertex(taskId, contexts[contextIdx]);
+                graph.addVertex(vertices[i]);
+                prevId = taskId;
+            }
+
+            long edgeCount = readVarLong(in);
+            for (long i = 0; i < edgeCount; i++) {
+                int src = (int) readVarLong(in);
+                int trg = (int) readVarLong(in);
+                graph.addEdge(vertices[src], vertices[trg]);
+            }
+        }
+        return graph;
+    }
+
+    @SneakyThrows
+    public static DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> importDot(String dot) {
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = createGraph();
+
+        // https://stackoverflow.com/questions/60461351/import-graph-with-1-4-0
+        DOTImporter<ExecContextData.TaskVertex, DefaultEdge> importer = new DOTImporter<>();
+        importer.setVertexFactory(id->new ExecContextData.TaskVertex(Long.parseLong(id)));
+        importer.addVertexAttributeConsumer(((vertex, attribute) -> {
+            switch(vertex.getSecond()) {
+                case TASK_CONTEXT_ID_ATTR:
+                    vertex.getFirst().taskContextId = attribute.getValue();
+                    break;
+                case "ID":
+                    // do nothing
+                    break;
+                default:
+                    log.error("Unknown attribute in task graph, attr: " + vertex.getSecond()+", attr value: " + attribute.getValue());
+            }
+        }));
+
+        importer.importGraph(graph, new StringReader(dot));
+        return graph;
+    }
+
+    public static String exportDot(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
+        Function<ExecContextData.TaskVertex, String> vertexIdProvider = v -> v.taskId.toString();
+        Function<ExecContextData.TaskVertex, Map<String, Attribute>> vertexAttributeProvider = v -> {
+            Map<String, Attribute> m = new HashMap<>();
+            m.put(TASK_CONTEXT_ID_ATTR, DefaultAttribute.createAttribute(v.taskContextId));
+            return m;
+        };
+
+        DOTExporter<ExecContextData.TaskVertex, DefaultEdge> exporter = new DOTExporter<>(vertexIdProvider);
+        exporter.setVertexAttributeProvider(vertexAttributeProvider);
+
+        StringWriter writer = new StringWriter();
+        exporter.exportGraph(graph, writer);
+        return writer.toString();
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("#706.040 Malformed var-int in binary graph");
+    }
+}
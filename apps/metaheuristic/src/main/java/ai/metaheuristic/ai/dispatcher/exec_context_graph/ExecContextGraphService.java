@@ -22,36 +22,27 @@ import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextOperationStatusWithTaskList;
 import ai.metaheuristic.ai.dispatcher.exec_context_task_state.ExecContextTaskStateCache;
 import ai.metaheuristic.ai.dispatcher.exec_context_task_state.ExecContextTaskStateSyncService;
+import ai.metaheuristic.ai.dispatcher.exec_context_task_state.TaskExecStates;
 import ai.metaheuristic.ai.dispatcher.repositories.ExecContextGraphRepository;
 import ai.metaheuristic.ai.utils.ContextUtils;
 import ai.metaheuristic.ai.utils.TxUtils;
-import ai.metaheuristic.ai.yaml.exec_context.ExecContextParamsYamlUtils;
 import ai.metaheuristic.ai.yaml.exec_context_graph.ExecContextGraphParamsYaml;
-import ai.metaheuristic.ai.yaml.exec_context_task_state.ExecContextTaskStateParamsYaml;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.OperationStatusRest;
 import ai.metaheuristic.api.data.task.TaskApiData;
 import ai.metaheuristic.commons.S;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.DirectedAcyclicGraph;
-import org.jgrapht.nio.Attribute;
-import org.jgrapht.nio.DefaultAttribute;
-import org.jgrapht.nio.dot.DOTExporter;
-import org.jgrapht.nio.dot.DOTImporter;
 import org.jgrapht.traverse.BreadthFirstIterator;
 import org.jgrapht.traverse.TopologicalOrderIterator;
-import org.jgrapht.util.SupplierUtil;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -71,8 +62,6 @@ import java.util.stream.Collectors;
 @SuppressWarnings("WeakerAccess")
 public class ExecContextGraphService {
 
-    private static final String TASK_CONTEXT_ID_ATTR = "ctxid";
-
     private final ExecContextGraphCache execContextGraphCache;
     private final ExecContextGraphRepository execContextGraphRepository;
     private final ExecContextTaskStateCache execContextTaskStateCache;
@@ -137,19 +126,20 @@ public class ExecContextGraphService {
         execContextGraphSyncService.checkWriteLockPresent(execContextGraph.id);
 
         ExecContextGraphParamsYaml ecpy = execContextGraph.getExecContextGraphParamsYaml();
-        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = importProcessGraph(ecpy);
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = prepareGraphForChanging(execContextGraph);
         try {
             callable.accept(graph);
         } finally {
-            ecpy.graph = asString(graph);
-            execContextGraph.setParams(ExecContextParamsYamlUtils.BASE_YAML_UTILS.toString(ecpy));
+            ecpy.graph = ExecContextGraphCodec.encode(graph);
+            execContextGraph.updateParams(ecpy);
             save(execContextGraph);
+            storeChangedGraph(execContextGraph, graph);
         }
     }
 
     private void changeGraphWithState(
             ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState,
-            BiConsumer<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, ExecContextTaskStateParamsYaml> callable) {
+            BiConsumer<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, TaskExecStates> callable) {
 
         TxUtils.checkTxExists();
         execContextGraphSyncService.checkWriteLockPresent(execContextGraph.id);
@@ -160,21 +150,22 @@ public class ExecContextGraphService {
         }
 
         ExecContextGraphParamsYaml ecgpy = execContextGraph.getExecContextGraphParamsYaml();
-        ExecContextTaskStateParamsYaml ectspy = execContextTaskState.getExecContextTaskStateParamsYaml();
-        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = importProcessGraph(ecgpy);
+        TaskExecStates states = execContextTaskStateCache.getStates(execContextTaskState);
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = prepareGraphForChanging(execContextGraph);
         try {
-            callable.accept(graph, ectspy);
+            callable.accept(graph, states);
         } finally {
-            ecgpy.graph = asString(graph);
+            ecgpy.graph = ExecContextGraphCodec.encode(graph);
             execContextGraph.updateParams(ecgpy);
-            execContextTaskState.updateParams(ectspy);
             save(execContextGraph, execContextTaskState);
+            execContextTaskStateCache.saveChanges(execContextTaskState, states);
+            storeChangedGraph(execContextGraph, graph);
         }
     }
 
     private void changeState(
             ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState,
-            BiConsumer<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, ExecContextTaskStateParamsYaml> callable) {
+            BiConsumer<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, TaskExecStates> callable) {
 
         TxUtils.checkTxExists();
         execContextTaskStateSyncService.checkWriteLockPresent(execContextTaskState.id);
@@ -184,31 +175,20 @@ public class ExecContextGraphService {
                             "!Objects.equals(execContextGraph.execContextId, execContextTaskState.execContextId))");
         }
 
-        ExecContextGraphParamsYaml ecgpy = execContextGraph.getExecContextGraphParamsYaml();
-        ExecContextTaskStateParamsYaml ectspy = execContextTaskState.getExecContextTaskStateParamsYaml();
-        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = importProcessGraph(ecgpy);
+        TaskExecStates states = execContextTaskStateCache.getStates(execContextTaskState);
+        // only the state is changed here, so the resident graph can be used as is
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = prepareGraph(execContextGraph);
         try {
-            callable.accept(graph, ectspy);
+            callable.accept(graph, states);
         } finally {
-            execContextTaskState.updateParams(ectspy);
             saveState(execContextTaskState);
+            // only changed states are persisted
+            execContextTaskStateCache.saveChanges(execContextTaskState, states);
         }
     }
 
     public static String asString(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
-        Function<ExecContextData.TaskVertex, String> vertexIdProvider = v -> v.taskId.toString();
-        Function<ExecContextData.TaskVertex, Map<String, Attribute>> vertexAttributeProvider = v -> {
-            Map<String, Attribute> m = new HashMap<>();
-            m.put(TASK_CONTEXT_ID_ATTR, DefaultAttribute.createAttribute(v.taskContextId));
-            return m;
-        };
-
-        DOTExporter<ExecContextData.TaskVertex, DefaultEdge> exporter = new DOTExporter<>(vertexIdProvider);
-        exporter.setVertexAttributeProvider(vertexAttributeProvider);
-
-        StringWriter writer = new StringWriter();
-        exporter.exportGraph(graph, writer);
-        return writer.toString();
+        return ExecContextGraphCodec.exportDot(graph);
     }
 
     @Nullable
@@ -228,11 +208,11 @@ public class ExecContextGraphService {
 
     private <T> T readOnlyGraphWithState(
             ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState,
-            BiFunction<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, ExecContextTaskStateParamsYaml, T> callable) {
+            BiFunction<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, TaskExecStates, T> callable) {
 
         DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = prepareGraph(execContextGraph);
-        ExecContextTaskStateParamsYaml ectspy = execContextTaskState.getExecContextTaskStateParamsYaml();
-        return callable.apply(graph, ectspy);
+        TaskExecStates states = execContextTaskStateCache.getStates(execContextTaskState);
+        return callable.apply(graph, states);
     }
 
     private long readOnlyGraphLong(ExecContextGraph execContextGraph, Function<DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>, Long> callable) {
@@ -241,91 +221,95 @@ public class ExecContextGraphService {
     }
 
     private DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> prepareGraph(ExecContextGraph execContextGraph) {
-        return importProcessGraph(execContextGraph.getExecContextGraphParamsYaml());
-    }
-
-    @SneakyThrows
-    public static DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> importProcessGraph(ExecContextGraphParamsYaml wpy) {
-        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = new DirectedAcyclicGraph<>(
-                ExecContextData.TaskVertex::new, SupplierUtil.DEFAULT_EDGE_SUPPLIER, false);
-
-        // https://stackoverflow.com/questions/60461351/import-graph-with-1-4-0
-        DOTImporter<ExecContextData.TaskVertex, DefaultEdge> importer = new DOTImporter<>();
-        importer.setVertexFactory(id->new ExecContextData.TaskVertex(Long.parseLong(id)));
-        importer.addVertexAttributeConsumer(((vertex, attribute) -> {
-            switch(vertex.getSecond()) {
-                case TASK_CONTEXT_ID_ATTR:
-                    vertex.getFirst().taskContextId = attribute.getValue();
-                    break;
-                case "ID":
-                    // do nothing
-                    break;
-                default:
-                    log.error("Unknown attribute in task graph, attr: " + vertex.getSecond()+", attr value: " + attribute.getValue());
-            }
-        }));
+        return execContextGraphCache.getGraph(execContextGraph);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> prepareGraphForChanging(ExecContextGraph execContextGraph) {
+        // the resident graph is shared between readers, so all changes are made with a copy.
+        // the copy is shallow, vertices are shared and they are never changed
+        return (DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge>) prepareGraph(execContextGraph).clone();
+    }
 
-        importer.importGraph(graph, new StringReader(wpy.graph));
-        return graph;
+    private void storeChangedGraph(ExecContextGraph execContextGraph, DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph) {
+        if (execContextGraph.id==null) {
+            return;
+        }
+        // version will be incremented at the moment of flushing
+        Integer version = execContextGraph.version==null ? null : execContextGraph.version + 1;
+        execContextGraphCache.putGraph(execContextGraph.id, version, execContextGraph.getParams(), graph);
     }
 
     /**
      * !!! This method doesn't return the id of current Task and its new status. Must be changed by an outside code.
      */
-    @SuppressWarnings("StatementWithEmptyBody")
     public ExecContextOperationStatusWithTaskList updateTaskExecState(Long execContextGraphId, Long execContextTaskStateId, Long taskId, EnumsApi.TaskExecState execState, String taskContextId) {
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
         return updateTaskExecState(execContextGraph, execContextTaskState, taskId, execState, taskContextId);
     }
 
+    /**
+     * all states are changed within one update of ExecContextTaskState
+     */
+    public ExecContextOperationStatusWithTaskList updateTaskExecStates(Long execContextGraphId, Long execContextTaskStateId, List<ExecContextData.TaskWithStateAndContext> tasks) {
+        ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
+        ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
+
+        final ExecContextOperationStatusWithTaskList status = new ExecContextOperationStatusWithTaskList(OperationStatusRest.OPERATION_STATUS_OK);
+        changeState(execContextGraph, execContextTaskState, (graph, states) ->
+                tasks.forEach(t -> updateTaskExecStateInternal(graph, states, t.taskId, t.state, t.taskContextId, status)));
+        return status;
+    }
+
     private ExecContextOperationStatusWithTaskList updateTaskExecState(ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState, Long taskId, EnumsApi.TaskExecState execState, String taskContextId) {
         final ExecContextOperationStatusWithTaskList status = new ExecContextOperationStatusWithTaskList();
         status.status = OperationStatusRest.OPERATION_STATUS_OK;
 
-        changeState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
-            ExecContextData.TaskVertex tv = graph.vertexSet()
-                    .stream()
-                    .filter(o -> o.taskId.equals(taskId))
-                    .findFirst()
-                    .orElse(null);
-
-            // Don't combine with stream, a side-effect could be occurred
-            if (tv!=null) {
-                stateParamsYaml.states.put(tv.taskId, execState);
-                if (execState==EnumsApi.TaskExecState.ERROR) {
-                    setStateForAllChildrenTasksInternal(graph, stateParamsYaml, taskId, status, EnumsApi.TaskExecState.SKIPPED, taskContextId);
-                }
-                else if (execState==EnumsApi.TaskExecState.NONE || execState==EnumsApi.TaskExecState.OK) {
-                    // do nothing
-                }
-                else if (execState == EnumsApi.TaskExecState.SKIPPED) {
-                    log.info("#915.015 TaskExecState for task #{} is SKIPPED", tv.taskId);
-                    // todo 2020-08-16 need to decide what to do here
-                }
-                else if (execState == EnumsApi.TaskExecState.CHECK_CACHE) {
-                    log.info("#915.017 TaskExecState for task #{} is CHECK_CACHE", tv.taskId);
-                    // todo 2020-11-01 need to decide what to do here
-                }
-                else if (execState==EnumsApi.TaskExecState.IN_PROGRESS) {
-                    // do nothing
-                }
-            }
-        });
+        changeState(execContextGraph, execContextTaskState, (graph, states) ->
+                updateTaskExecStateInternal(graph, states, taskId, execState, taskContextId, status));
         status.status = OperationStatusRest.OPERATION_STATUS_OK;
         return status;
     }
 
+    @SuppressWarnings("StatementWithEmptyBody")
+    private void updateTaskExecStateInternal(
+            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, TaskExecStates states,
+            Long taskId, EnumsApi.TaskExecState execState, String taskContextId, ExecContextOperationStatusWithTaskList status) {
+        ExecContextData.TaskVertex tv = findVertexKey(graph, taskId);
+
+        if (tv!=null) {
+            states.put(tv.taskId, execState);
+            if (execState==EnumsApi.TaskExecState.ERROR) {
+                setStateForAllChildrenTasksInternal(graph, states, taskId, status, EnumsApi.TaskExecState.SKIPPED, taskContextId);
+            }
+            else if (execState==EnumsApi.TaskExecState.NONE || execState==EnumsApi.TaskExecState.OK) {
+                // do nothing
+            }
+            else if (execState == EnumsApi.TaskExecState.SKIPPED) {
+                log.info("#915.015 TaskExecState for task #{} is SKIPPED", tv.taskId);
+                // todo 2020-08-16 need to decide what to do here
+            }
+            else if (execState == EnumsApi.TaskExecState.CHECK_CACHE) {
+                log.info("#915.017 TaskExecState for task #{} is CHECK_CACHE", tv.taskId);
+                // todo 2020-11-01 need to decide what to do here
+            }
+            else if (execState==EnumsApi.TaskExecState.IN_PROGRESS) {
+                // do nothing
+            }
+        }
+    }
+
     public List<ExecContextData.TaskWithState> getAllTasksTopologically(Long execContextGraphId, Long execContextTaskStateId) {
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
 
-        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
+        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
             TopologicalOrderIterator<ExecContextData.TaskVertex, DefaultEdge> iterator = new TopologicalOrderIterator<>(graph);
 
             List<ExecContextData.TaskWithState> tasks = new ArrayList<>();
             iterator.forEachRemaining(o-> {
-                EnumsApi.TaskExecState state = execContextTaskState.getExecContextTaskStateParamsYaml().states.getOrDefault(o.taskId, EnumsApi.TaskExecState.NONE);
+                EnumsApi.TaskExecState state = states.get(o.taskId);
                 tasks.add(new ExecContextData.TaskWithState(o.taskId, state));
             });
             return tasks;
@@ -338,11 +322,11 @@ public class ExecContextGraphService {
         ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
         final ExecContextOperationStatusWithTaskList withTaskList = new ExecContextOperationStatusWithTaskList(OperationStatusRest.OPERATION_STATUS_OK);
 
-        changeState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
+        changeState(execContextGraph, execContextTaskState, (graph, states) -> {
 
             Set<ExecContextData.TaskVertex> set = findDescendantsInternal(graph, taskId);
             set.stream()
-                    .peek( t-> stateParamsYaml.states.put(t.taskId, EnumsApi.TaskExecState.NONE))
+                    .peek( t-> states.put(t.taskId, EnumsApi.TaskExecState.NONE))
                     .map(o->new ExecContextData.TaskWithState(taskId, EnumsApi.TaskExecState.NONE))
                     .collect(Collectors.toCollection(()->withTaskList.childrenTasks));;
         });
@@ -384,20 +368,17 @@ public class ExecContextGraphService {
     }
 
     private Set<ExecContextData.TaskWithState> findDescendantsWithState(ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState, Long taskId) {
-        return readOnlyGraph(execContextGraph, graph -> {
+        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
             final Set<ExecContextData.TaskVertex> descendantsInternal = findDescendantsInternal(graph, taskId);
             Set<ExecContextData.TaskWithState> set = descendantsInternal.stream()
-                    .map(o-> new ExecContextData.TaskWithState(o.taskId, execContextTaskState.getExecContextTaskStateParamsYaml().states.getOrDefault(o.taskId, EnumsApi.TaskExecState.NONE)))
+                    .map(o-> new ExecContextData.TaskWithState(o.taskId, states.get(o.taskId)))
                     .collect(Collectors.toSet());
             return set;
         });
     }
 
     private Set<ExecContextData.TaskVertex> findDescendantsInternal(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, Long taskId) {
-        ExecContextData.TaskVertex vertex = graph.vertexSet()
-                .stream()
-                .filter(o -> taskId.equals(o.taskId))
-                .findFirst().orElse(null);
+        ExecContextData.TaskVertex vertex = findVertexKey(graph, taskId);
         if (vertex==null) {
             return Set.of();
         }
@@ -417,10 +398,7 @@ public class ExecContextGraphService {
     public Set<ExecContextData.TaskVertex> findDirectDescendants(Long execContextGraphId, Long taskId) {
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         return readOnlyGraph(execContextGraph, graph -> {
-            ExecContextData.TaskVertex vertex = graph.vertexSet()
-                    .stream()
-                    .filter(o -> taskId.equals(o.taskId))
-                    .findFirst().orElse(null);
+            ExecContextData.TaskVertex vertex = findVertexKey(graph, taskId);
             if (vertex==null) {
                 return Set.of();
             }
@@ -446,12 +424,12 @@ public class ExecContextGraphService {
     }
 
     private List<ExecContextData.TaskVertex> findAllForAssigning(ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState, boolean includeForCaching) {
-        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph,stateParamsYaml) -> {
+        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
 
             log.debug("Start find a task for assigning");
             if (log.isDebugEnabled()) {
                 log.debug("\tcurrent state of tasks:");
-                graph.vertexSet().forEach(o->log.debug("\t\ttask #{}, state {}", o.taskId, stateParamsYaml.states.getOrDefault(o.taskId, EnumsApi.TaskExecState.NONE)));
+                graph.vertexSet().forEach(o->log.debug("\t\ttask #{}, state {}", o.taskId, states.get(o.taskId)));
             }
 
             ExecContextData.TaskVertex startVertex = graph.vertexSet().stream()
@@ -459,7 +437,7 @@ public class ExecContextGraphService {
                         if (!graph.incomingEdgesOf(v).isEmpty()) {
                             return false;
                         }
-                        EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(v.taskId, EnumsApi.TaskExecState.NONE);
+                        EnumsApi.TaskExecState state = states.get(v.taskId);
                         if (includeForCaching) {
                             return (state == EnumsApi.TaskExecState.NONE || state == EnumsApi.TaskExecState.CHECK_CACHE);
                         }
@@ -474,7 +452,7 @@ public class ExecContextGraphService {
             if (startVertex!=null) {
                 if (log.isDebugEnabled()) {
                     log.debug("\tThe root vertex of graph wasn't processed, #{}, state {}",
-                            startVertex.taskId, stateParamsYaml.states.getOrDefault(startVertex.taskId, EnumsApi.TaskExecState.NONE));
+                            startVertex.taskId, states.get(startVertex.taskId));
                 }
                 return List.of(startVertex);
             }
@@ -486,11 +464,11 @@ public class ExecContextGraphService {
             List<ExecContextData.TaskVertex> vertices = new ArrayList<>();
 
             iterator.forEachRemaining(v -> {
-                EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(v.taskId, EnumsApi.TaskExecState.NONE);
+                EnumsApi.TaskExecState state = states.get(v.taskId);
                 if (includeForCaching) {
                     if (state == EnumsApi.TaskExecState.NONE || state == EnumsApi.TaskExecState.CHECK_CACHE) {
                         // remove all tasks which have non-processed tasks as a direct parent
-                        if (isParentFullyProcessed(graph, execContextTaskState, v)) {
+                        if (isParentFullyProcessed(graph, states, v)) {
                             vertices.add(v);
                         }
                     }
@@ -498,7 +476,7 @@ public class ExecContextGraphService {
                 else {
                     if (state == EnumsApi.TaskExecState.NONE) {
                         // remove all tasks which have non-processed tasks as a direct parent
-                        if (isParentFullyProcessed(graph, execContextTaskState, v)) {
+                        if (isParentFullyProcessed(graph, states, v)) {
                             vertices.add(v);
                         }
                     }
@@ -509,7 +487,7 @@ public class ExecContextGraphService {
                 if (log.isDebugEnabled()) {
                     log.debug("\tfound tasks for assigning:");
                     StringBuilder sb = new StringBuilder();
-                    vertices.forEach(o->sb.append(S.f("#%s: %s, ", o.taskId, stateParamsYaml.states.getOrDefault(o.taskId, EnumsApi.TaskExecState.NONE))));
+                    vertices.forEach(o->sb.append(S.f("#%s: %s, ", o.taskId, states.get(o.taskId))));
                     log.debug("\t\t" + sb.toString());
                 }
                 return vertices;
@@ -523,7 +501,7 @@ public class ExecContextGraphService {
                         if (!graph.outgoingEdgesOf(v).isEmpty()) {
                             return false;
                         }
-                        EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(v.taskId, EnumsApi.TaskExecState.NONE);
+                        EnumsApi.TaskExecState state = states.get(v.taskId);
                         if (includeForCaching) {
                             return (state == EnumsApi.TaskExecState.NONE || state == EnumsApi.TaskExecState.CHECK_CACHE);
                         }
@@ -536,7 +514,7 @@ public class ExecContextGraphService {
 
             if (endVertex!=null) {
                 if (log.isDebugEnabled()) {
-                    EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(endVertex.taskId, EnumsApi.TaskExecState.NONE);
+                    EnumsApi.TaskExecState state = states.get(endVertex.taskId);
                     log.debug("\tfound task which doesn't have any descendant, #{}, state {}", endVertex.taskId, state);
                 }
 
@@ -544,12 +522,12 @@ public class ExecContextGraphService {
                         .map(graph::getEdgeSource)
                         .peek(o->{
                             if (log.isDebugEnabled()) {
-                                EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(endVertex.taskId, EnumsApi.TaskExecState.NONE);
+                                EnumsApi.TaskExecState state = states.get(endVertex.taskId);
                                 log.debug("\t\tancestor of task #{} is #{}, state {}", endVertex.taskId, o.taskId, state);
                             }
                         })
                         .allMatch( v -> {
-                            EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(endVertex.taskId, EnumsApi.TaskExecState.NONE);
+                            EnumsApi.TaskExecState state = states.get(endVertex.taskId);
                             return state != EnumsApi.TaskExecState.NONE && state != EnumsApi.TaskExecState.IN_PROGRESS
                                     && state != EnumsApi.TaskExecState.CHECK_CACHE;
                         });
@@ -572,13 +550,12 @@ public class ExecContextGraphService {
     }
 
     private boolean isParentFullyProcessed(
-            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, ExecContextTaskState execContextTaskState, ExecContextData.TaskVertex vertex) {
+            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, TaskExecStates states, ExecContextData.TaskVertex vertex) {
 
         // we don't need to get all ancestors, we need only direct.
         // So it can be done just with edges
-        ExecContextTaskStateParamsYaml stateParamsYaml = execContextTaskState.getExecContextTaskStateParamsYaml();
         for (ExecContextData.TaskVertex ancestor : graph.getAncestors(vertex)) {
-            EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(ancestor.taskId, EnumsApi.TaskExecState.NONE);
+            EnumsApi.TaskExecState state = states.get(ancestor.taskId);
             if (state==EnumsApi.TaskExecState.NONE || state==EnumsApi.TaskExecState.IN_PROGRESS || state==EnumsApi.TaskExecState.CHECK_CACHE) {
                 return false;
             }
@@ -602,13 +579,13 @@ public class ExecContextGraphService {
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
 
-        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
+        return readOnlyGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
             Map<String, List<ExecContextData.TaskWithState>> vertices = new HashMap<>();
             for (ExecContextData.TaskVertex v : graph.vertexSet()) {
                 if (!taskContextIds.contains(v.taskContextId)) {
                     continue;
                 }
-                EnumsApi.TaskExecState state = stateParamsYaml.states.getOrDefault(v.taskId, EnumsApi.TaskExecState.NONE);
+                EnumsApi.TaskExecState state = states.get(v.taskId);
                 vertices.computeIfAbsent(v.taskContextId, (o)->new ArrayList<>()).add( new ExecContextData.TaskWithState(v.taskId, state));
             }
             return vertices;
@@ -618,20 +595,20 @@ public class ExecContextGraphService {
     public void setStateForAllChildrenTasks(Long execContextGraphId, Long execContextTaskStateId, Long taskId, ExecContextOperationStatusWithTaskList withTaskList, EnumsApi.TaskExecState state) {
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
-        changeState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
-            setStateForAllChildrenTasksInternal(graph, stateParamsYaml, taskId, withTaskList, state);
+        changeState(execContextGraph, execContextTaskState, (graph, states) -> {
+            setStateForAllChildrenTasksInternal(graph, states, taskId, withTaskList, state);
         });
     }
 
     @SuppressWarnings("SameParameterValue")
     private void setStateForAllChildrenTasksInternal(
-            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, ExecContextTaskStateParamsYaml stateParamsYaml,
+            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, TaskExecStates states,
             Long taskId, ExecContextOperationStatusWithTaskList withTaskList, EnumsApi.TaskExecState state) {
-        setStateForAllChildrenTasksInternal(graph, stateParamsYaml, taskId, withTaskList, state, null);
+        setStateForAllChildrenTasksInternal(graph, states, taskId, withTaskList, state, null);
     }
 
     private void setStateForAllChildrenTasksInternal(
-            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, ExecContextTaskStateParamsYaml stateParamsYaml,
+            DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, TaskExecStates states,
             Long taskId, ExecContextOperationStatusWithTaskList withTaskList, EnumsApi.TaskExecState state, @Nullable String taskContextId) {
 
         Set<ExecContextData.TaskVertex> set = findDescendantsInternal(graph, taskId);
@@ -644,7 +621,7 @@ public class ExecContextGraphService {
                 .collect(Collectors.toSet());
 
         setFiltered.stream()
-                .peek( t-> stateParamsYaml.states.put(t.taskId, state))
+                .peek( t-> states.put(t.taskId, state))
                 .map(o->new ExecContextData.TaskWithState(o.taskId, state))
                 .collect(Collectors.toCollection(()->withTaskList.childrenTasks));
 
@@ -664,14 +641,11 @@ public class ExecContextGraphService {
             ExecContextGraph execContextGraph, ExecContextTaskState execContextTaskState, List<Long> parentTaskIds,
             List<TaskApiData.TaskWithContext> taskIds, EnumsApi.TaskExecState state) {
 
-        changeGraphWithState(execContextGraph, execContextTaskState, (graph, stateParamsYaml) -> {
-            List<ExecContextData.TaskVertex> vertices = graph.vertexSet()
-                    .stream()
-                    .filter(o -> parentTaskIds.contains(o.taskId))
-                    .collect(Collectors.toList());
+        changeGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
+            List<ExecContextData.TaskVertex> vertices = findVertices(graph, parentTaskIds);
 
             taskIds.forEach(taskWithContext -> {
-                stateParamsYaml.states.put(taskWithContext.taskId, state);
+                states.put(taskWithContext.taskId, state);
                 final ExecContextData.TaskVertex v = new ExecContextData.TaskVertex(taskWithContext.taskId, taskWithContext.taskContextId );
                 graph.addVertex(v);
                 vertices.forEach(parentV -> graph.addEdge(parentV, v) );
@@ -680,18 +654,66 @@ public class ExecContextGraphService {
         return OperationStatusRest.OPERATION_STATUS_OK;
     }
 
+    /**
+     * All vertices and edges are added with one change of graph, so the graph is copied and encoded only once
+     */
+    public OperationStatusRest addNewTasksToGraph(Long execContextGraphId, Long execContextTaskStateId, List<ExecContextData.NewTaskVertex> newTasks) {
+        if (newTasks.isEmpty()) {
+            return OperationStatusRest.OPERATION_STATUS_OK;
+        }
+        ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
+        ExecContextTaskState execContextTaskState = prepareExecContextTaskState(execContextTaskStateId);
+
+        changeGraphWithState(execContextGraph, execContextTaskState, (graph, states) -> {
+            Map<Long, ExecContextData.TaskVertex> vertices = new HashMap<>();
+            Set<Long> newIds = newTasks.stream().map(o -> o.taskId).collect(Collectors.toSet());
+            Set<Long> existedParentIds = newTasks.stream().flatMap(o -> o.parentTaskIds.stream())
+                    .filter(id -> !newIds.contains(id)).collect(Collectors.toSet());
+            // parents which are in graph already are looked up with one scan of graph
+            findVertices(graph, existedParentIds).forEach(v -> vertices.put(v.taskId, v));
+
+            for (ExecContextData.NewTaskVertex newTask : newTasks) {
+                states.put(newTask.taskId, newTask.state);
+                final ExecContextData.TaskVertex v = new ExecContextData.TaskVertex(newTask.taskId, newTask.taskContextId);
+                graph.addVertex(v);
+                for (Long parentTaskId : newTask.parentTaskIds) {
+                    ExecContextData.TaskVertex parentV = vertices.get(parentTaskId);
+                    if (parentV!=null) {
+                        graph.addEdge(parentV, v);
+                    }
+                }
+                vertices.put(v.taskId, v);
+            }
+        });
+        return OperationStatusRest.OPERATION_STATUS_OK;
+    }
+
     @Nullable
     public Void createEdges(Long execContextGraphId, List<Long> lastIds, Set<ExecContextData.TaskVertex> descendants) {
         TxUtils.checkTxExists();
         ExecContextGraph execContextGraph = prepareExecContextGraph(execContextGraphId);
         changeGraph(execContextGraph, graph ->
-                graph.vertexSet().stream()
-                        .filter(o -> lastIds.contains(o.taskId))
+                findVertices(graph, lastIds)
                         .forEach(parentV-> descendants.forEach(trgV -> graph.addEdge(parentV, trgV)))
         );
         return null;
     }
 
+    /**
+     * TaskVertex is equal by taskId, so the existence of vertex is checked with hash lookup instead of scanning of whole graph.
+     * The returned vertex is a key for lookups in graph only, it doesn't have taskContextId and must not be added to graph
+     */
+    @Nullable
+    private static ExecContextData.TaskVertex findVertexKey(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, Long taskId) {
+        ExecContextData.TaskVertex key = new ExecContextData.TaskVertex(taskId);
+        return graph.containsVertex(key) ? key : null;
+    }
+
+    private static List<ExecContextData.TaskVertex> findVertices(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph, Collection<Long> taskIds) {
+        Set<Long> ids = new HashSet<>(taskIds);
+        return graph.vertexSet().stream().filter(o -> ids.contains(o.taskId)).collect(Collectors.toList());
+    }
+
     private ExecContextGraph prepareExecContextGraph(Long execContextGraphId) {
         ExecContextGraph execContextGraph = execContextGraphCache.findById(execContextGraphId);
         if (execContextGraph==null) {
@@ -710,6 +732,7 @@ public class ExecContextGraphService {
 
     @Transactional
     public Void deleteOrphanGraphs(List<Long> ids) {
+        ids.forEach(execContextGraphCache::onDelete);
         execContextGraphRepository.deleteAllByIdIn(ids);
         return null;
     }
@@ -39,7 +39,7 @@ import java.util.function.Supplier;
 @Slf4j
 public class ExecContextGraphSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("execContextGraph");
 
     public void checkWriteLockPresent(Long execContextGraphId) {
         if (!getWriteLock(execContextGraphId).isHeldByCurrentThread()) {
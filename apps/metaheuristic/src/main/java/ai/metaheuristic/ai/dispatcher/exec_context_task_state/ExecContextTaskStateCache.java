@@ -16,14 +16,25 @@
 
 package ai.metaheuristic.ai.dispatcher.exec_context_task_state;
 
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextTaskState;
+import ai.metaheuristic.ai.dispatcher.beans.ExecContextTaskStateChange;
+import ai.metaheuristic.ai.dispatcher.repositories.ExecContextTaskStateChangeRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.ExecContextTaskStateRepository;
 import ai.metaheuristic.ai.utils.TxUtils;
+import ai.metaheuristic.ai.yaml.exec_context_task_state.ExecContextTaskStateParamsYaml;
+import ai.metaheuristic.api.EnumsApi;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author Serge
@@ -36,7 +47,33 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ExecContextTaskStateCache {
 
+    // the log of changes is folded into params when it's bigger than this value and a quarter of all states
+    private static final int MIN_CHANGES_FOR_COMPACTION = 1000;
+
+    private final Globals globals;
     private final ExecContextTaskStateRepository execContextTaskStateRepository;
+    private final ExecContextTaskStateChangeRepository execContextTaskStateChangeRepository;
+
+    /**
+     * States of tasks which were built from params of ExecContextTaskState and from the log of changes.
+     * The entry is valid while version of ExecContextTaskState is the same, version is changed only with compaction
+     */
+    private static class ResidentStates {
+        @Nullable Integer version;
+        final TaskStateMap states;
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        int changesInLog;
+
+        ResidentStates(@Nullable Integer version, TaskStateMap states, int changesInLog) {
+            this.version = version;
+            this.states = states;
+            this.changesInLog = changesInLog;
+        }
+    }
+
+    // access-ordered, the least recently used states are evicted first
+    private final LinkedHashMap<Long, ResidentStates> residents = new LinkedHashMap<>(100, 0.75f, true);
+    private int residentStates = 0;
 
     public ExecContextTaskState save(ExecContextTaskState execContextTaskState) {
         TxUtils.checkTxExists();
@@ -44,6 +81,144 @@ public class ExecContextTaskStateCache {
         return execContextTaskStateRepository.save(execContextTaskState);
     }
 
+    public TaskExecStates getStates(ExecContextTaskState execContextTaskState) {
+        ResidentStates rs = getResidentStates(execContextTaskState);
+        return new TaskExecStates(rs.states, rs.lock, execContextTaskState.uncommittedStates);
+    }
+
+    /**
+     * Persists only changed states of tasks. Resident states will be updated after commit of Tx
+     */
+    public void saveChanges(ExecContextTaskState execContextTaskState, TaskExecStates states) {
+        TxUtils.checkTxExists();
+        Map<Long, EnumsApi.TaskExecState> changes = states.getChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (execContextTaskState.id==null) {
+            throw new IllegalStateException("#611.020 ExecContextTaskState must be saved before changing of states");
+        }
+        final Long id = execContextTaskState.id;
+        final ResidentStates rs = getResidentStates(execContextTaskState);
+
+        List<ExecContextTaskStateChange> records = new ArrayList<>(changes.size());
+        changes.forEach((taskId, state) -> records.add(new ExecContextTaskStateChange(null, id, taskId, state.value)));
+        execContextTaskStateChangeRepository.saveAll(records);
+
+        final boolean compaction = rs.changesInLog + records.size() > Math.max(MIN_CHANGES_FOR_COMPACTION, rs.states.size()/4);
+        if (compaction) {
+            ExecContextTaskStateParamsYaml ectspy = new ExecContextTaskStateParamsYaml();
+            ectspy.states.putAll(states.toMap());
+            execContextTaskState.updateParams(ectspy);
+            execContextTaskStateRepository.save(execContextTaskState);
+            execContextTaskStateChangeRepository.deleteAllUpTo(id, records.get(records.size()-1).id);
+        }
+
+        final Map<Long, EnumsApi.TaskExecState> committed = new HashMap<>(changes);
+        execContextTaskState.uncommittedStates.putAll(changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                execContextTaskState.uncommittedStates.clear();
+                synchronized (residents) {
+                    if (status!=STATUS_COMMITTED || residents.get(id)!=rs) {
+                        evictStates(id);
+                        return;
+                    }
+                    rs.lock.writeLock().lock();
+                    try {
+                        int before = rs.states.size();
+                        committed.forEach((taskId, state) -> rs.states.put(taskId, (byte) state.value));
+                        residentStates += rs.states.size() - before;
+                        if (compaction) {
+                            // version was incremented at the moment of flushing
+                            rs.version = execContextTaskState.version;
+                            rs.changesInLog = 0;
+                        }
+                        else {
+                            rs.changesInLog += committed.size();
+                        }
+                    } finally {
+                        rs.lock.writeLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private ResidentStates getResidentStates(ExecContextTaskState execContextTaskState) {
+        final Long id = execContextTaskState.id;
+        if (id==null) {
+            return loadStates(execContextTaskState, List.of());
+        }
+        synchronized (residents) {
+            ResidentStates rs = residents.get(id);
+            if (rs!=null && Objects.equals(rs.version, execContextTaskState.version)) {
+                return rs;
+            }
+        }
+        ResidentStates rs = loadStates(execContextTaskState, execContextTaskStateChangeRepository.findAllByExecContextTaskStateId(id));
+        putStates(id, rs);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // states could be loaded with changes which weren't committed yet
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status!=STATUS_COMMITTED) {
+                        evictStates(id);
+                    }
+                }
+            });
+        }
+        return rs;
+    }
+
+    private static ResidentStates loadStates(ExecContextTaskState execContextTaskState, List<ExecContextTaskStateChange> changes) {
+        Map<Long, EnumsApi.TaskExecState> snapshot = execContextTaskState.getExecContextTaskStateParamsYaml().states;
+        TaskStateMap states = new TaskStateMap(snapshot.size() + changes.size());
+        snapshot.forEach((taskId, state) -> states.put(taskId, (byte) state.value));
+        for (ExecContextTaskStateChange change : changes) {
+            states.put(change.taskId, (byte) change.execState);
+        }
+        return new ResidentStates(execContextTaskState.version, states, changes.size());
+    }
+
+    private void putStates(Long id, ResidentStates rs) {
+        synchronized (residents) {
+            ResidentStates old = residents.put(id, rs);
+            if (old!=null) {
+                residentStates -= old.states.size();
+            }
+            residentStates += rs.states.size();
+
+            // max number of task states over all resident ExecContextTaskStates is configured in Globals
+            Iterator<Map.Entry<Long, ResidentStates>> it = residents.entrySet().iterator();
+            while (residentStates > globals.residentTaskStatesMax && it.hasNext()) {
+                Map.Entry<Long, ResidentStates> e = it.next();
+                if (e.getKey().equals(id)) {
+                    continue;
+                }
+                residentStates -= e.getValue().states.size();
+                it.remove();
+            }
+        }
+    }
+
+    public void evictStates(Long id) {
+        synchronized (residents) {
+            ResidentStates old = residents.remove(id);
+            if (old!=null) {
+                residentStates -= old.states.size();
+            }
+        }
+    }
+
+    public void deleteChanges(List<Long> ids) {
+        TxUtils.checkTxExists();
+        execContextTaskStateChangeRepository.deleteAllByExecContextTaskStateIdIn(ids);
+        ids.forEach(this::evictStates);
+    }
+
     @Nullable
     public ExecContextTaskState findById(Long id) {
         return execContextTaskStateRepository.findById(id).orElse(null);
@@ -17,6 +17,7 @@
 package ai.metaheuristic.ai.dispatcher.exec_context_task_state;
 
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextTaskState;
+import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextOperationStatusWithTaskList;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphService;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphSyncService;
@@ -34,9 +35,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * @author Serge
@@ -56,20 +56,18 @@ public class ExecContextTaskStateService {
     private final ExecContextGraphSyncService execContextGraphSyncService;
     private final ExecContextTaskStateSyncService execContextTaskStateSyncService;
     private final ExecContextTaskStateRepository execContextTaskStateRepository;
+    private final ExecContextTaskStateCache execContextTaskStateCache;
+
+    private static boolean isUnfinished(EnumsApi.TaskExecState state) {
+        return state==EnumsApi.TaskExecState.NONE || state==EnumsApi.TaskExecState.IN_PROGRESS || state==EnumsApi.TaskExecState.CHECK_CACHE;
+    }
 
     public long getCountUnfinishedTasks(ExecContextTaskState execContextTaskState) {
-        return execContextTaskState.getExecContextTaskStateParamsYaml().states.entrySet()
-                .stream()
-                .filter(o -> o.getValue()== EnumsApi.TaskExecState.NONE || o.getValue()==EnumsApi.TaskExecState.IN_PROGRESS || o.getValue()==EnumsApi.TaskExecState.CHECK_CACHE)
-                .count();
+        return getUnfinishedTaskVertices(execContextTaskState).size();
     }
 
     public List<Long> getUnfinishedTaskVertices(ExecContextTaskState execContextTaskState) {
-        return execContextTaskState.getExecContextTaskStateParamsYaml().states.entrySet()
-                .stream()
-                .filter(o -> o.getValue()==EnumsApi.TaskExecState.NONE || o.getValue()==EnumsApi.TaskExecState.IN_PROGRESS || o.getValue()==EnumsApi.TaskExecState.CHECK_CACHE)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        return execContextTaskStateCache.getStates(execContextTaskState).findTaskIds(ExecContextTaskStateService::isUnfinished);
     }
 
     @Transactional
@@ -94,7 +92,7 @@ public class ExecContextTaskStateService {
         if (taskGroup==null) {
             return null;
         }
-        boolean found = false;
+        List<ExecContextData.TaskWithStateAndContext> tasks = new ArrayList<>();
         for (TaskQueue.AllocatedTask task : taskGroup.tasks) {
             if (task==null) {
                 continue;
@@ -104,17 +102,22 @@ public class ExecContextTaskStateService {
                 throw new IllegalStateException("(task.queuedTask.taskParamYaml==null)");
             }
             String taskContextId = task.queuedTask.taskParamYaml.task.taskContextId;
-            final ExecContextOperationStatusWithTaskList status = execContextGraphService.updateTaskExecState(
-                    execContextGraphId, execContextTaskStateId, task.queuedTask.taskId, task.state, taskContextId);
-
-            taskExecStateService.updateTasksStateInDb(status);
-            found = true;
+            tasks.add(new ExecContextData.TaskWithStateAndContext(task.queuedTask.taskId, task.state, taskContextId));
         }
-        return found ? taskGroup : null;
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        // states of all tasks of group are persisted with one batch
+        final ExecContextOperationStatusWithTaskList status = execContextGraphService.updateTaskExecStates(
+                execContextGraphId, execContextTaskStateId, tasks);
+
+        taskExecStateService.updateTasksStateInDb(status);
+        return taskGroup;
     }
 
     @Transactional
     public Void deleteOrphanTaskStates(List<Long> ids) {
+        execContextTaskStateCache.deleteChanges(ids);
         execContextTaskStateRepository.deleteAllByIdIn(ids);
         return null;
     }
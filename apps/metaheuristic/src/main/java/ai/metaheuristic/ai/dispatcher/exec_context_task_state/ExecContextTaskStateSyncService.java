@@ -39,7 +39,7 @@ import java.util.function.Supplier;
 @Slf4j
 public class ExecContextTaskStateSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("execContextTaskState");
 
     public void checkWriteLockPresent(Long execContextTaskStateId) {
         if (!getWriteLock(execContextTaskStateId).isHeldByCurrentThread()) {
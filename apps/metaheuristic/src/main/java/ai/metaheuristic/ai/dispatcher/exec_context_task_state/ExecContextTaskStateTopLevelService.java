@@ -18,11 +18,14 @@ package ai.metaheuristic.ai.dispatcher.exec_context_task_state;
 
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
 import ai.metaheuristic.ai.dispatcher.beans.TaskImpl;
+import ai.metaheuristic.ai.dispatcher.event.ExecContextEventBusService;
+import ai.metaheuristic.ai.dispatcher.event.PartitionedEventBus;
 import ai.metaheuristic.ai.dispatcher.event.TransferStateFromTaskQueueToExecContextEvent;
 import ai.metaheuristic.ai.dispatcher.event.UpdateTaskExecStatesInGraphEvent;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextCache;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphSyncService;
 import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
+import ai.metaheuristic.ai.dispatcher.task.TaskProviderTopLevelService;
 import ai.metaheuristic.ai.dispatcher.task.TaskQueue;
 import ai.metaheuristic.ai.dispatcher.task.TaskSyncService;
 import ai.metaheuristic.api.EnumsApi;
@@ -58,6 +61,8 @@ public class ExecContextTaskStateTopLevelService {
     private final ExecContextCache execContextCache;
     private final ExecContextGraphSyncService execContextGraphSyncService;
     private final ExecContextTaskStateSyncService execContextTaskStateSyncService;
+    private final TaskProviderTopLevelService taskProviderTopLevelService;
+    private final ExecContextEventBusService execContextEventBusService;
 
     private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
 
@@ -118,8 +123,17 @@ public class ExecContextTaskStateTopLevelService {
         }
     }
 
-    @Async
+    /**
+     * the transferring is processed until there isn't any finished group of tasks,
+     * so the event, which is waiting for processing already, covers a new one for the same execContext
+     */
     @EventListener
+    public void handleTransferStateFromTaskQueueToExecContextEvent(TransferStateFromTaskQueueToExecContextEvent event) {
+        execContextEventBusService.submit(event.execContextId,
+                new PartitionedEventBus.Key(TransferStateFromTaskQueueToExecContextEvent.class, event.execContextId),
+                () -> transferStateFromTaskQueueToExecContext(event));
+    }
+
     public void transferStateFromTaskQueueToExecContext(TransferStateFromTaskQueueToExecContextEvent event) {
         try {
             log.debug("call ExecContextTaskStateTopLevelService.transferStateFromTaskQueueToExecContext({})", event.execContextId);
@@ -130,7 +144,7 @@ public class ExecContextTaskStateTopLevelService {
                             execContextTaskStateSyncService.getWithSync(event.execContextTaskStateId, ()->
                                     transferStateFromTaskQueueToExecContext(
                                             event.execContextId, event.execContextGraphId, event.execContextTaskStateId))))!=null) {
-                taskGroup.reset();
+                taskProviderTopLevelService.resetTaskGroup(taskGroup);
                 i++;
                 if (i>10_000) {
                     log.error("#417.040 To many calls to transferStateFromTaskQueueToExecContext()");
@@ -0,0 +1,116 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.dispatcher.exec_context_task_state;
+
+import ai.metaheuristic.api.EnumsApi;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * States of tasks of ExecContext. Resident states are shared and read-only here,
+ * all changes are collected separately and only they are persisted
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:20 PM
+ */
+public class TaskExecStates {
+
+    private static final EnumsApi.TaskExecState[] STATES = new EnumsApi.TaskExecState[7];
+    static {
+        for (EnumsApi.TaskExecState value : EnumsApi.TaskExecState.values()) {
+            STATES[value.value] = value;
+        }
+    }
+
+    private final TaskStateMap base;
+    private final ReadWriteLock lock;
+    // changes which were saved in current Tx but weren't applied to base yet
+    private final Map<Long, EnumsApi.TaskExecState> uncommitted;
+    private final LinkedHashMap<Long, EnumsApi.TaskExecState> changes = new LinkedHashMap<>();
+
+    public TaskExecStates(TaskStateMap base, ReadWriteLock lock, Map<Long, EnumsApi.TaskExecState> uncommitted) {
+        this.base = base;
+        this.lock = lock;
+        this.uncommitted = uncommitted;
+    }
+
+    public static EnumsApi.TaskExecState toState(byte value) {
+        return value==TaskStateMap.NO_VALUE ? EnumsApi.TaskExecState.NONE : STATES[value];
+    }
+
+    public EnumsApi.TaskExecState get(Long taskId) {
+        EnumsApi.TaskExecState state = changes.get(taskId);
+        if (state==null) {
+            state = uncommitted.get(taskId);
+        }
+        if (state!=null) {
+            return state;
+        }
+        lock.readLock().lock();
+        try {
+            return toState(base.get(taskId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Long taskId, EnumsApi.TaskExecState state) {
+        changes.put(taskId, state);
+    }
+
+    public Map<Long, EnumsApi.TaskExecState> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    public void forEach(BiConsumer<Long, EnumsApi.TaskExecState> consumer) {
+        lock.readLock().lock();
+        try {
+            base.forEach((taskId, state) -> {
+                if (!changes.containsKey(taskId) && !uncommitted.containsKey(taskId)) {
+                    consumer.accept(taskId, toState(state));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        uncommitted.forEach((taskId, state) -> {
+            if (!changes.containsKey(taskId)) {
+                consumer.accept(taskId, state);
+            }
+        });
+        changes.forEach(consumer);
+    }
+
+    public List<Long> findTaskIds(Predicate<EnumsApi.TaskExecState> filter) {
+        List<Long> ids = new ArrayList<>();
+        forEach((taskId, state) -> {
+            if (filter.test(state)) {
+                ids.add(taskId);
+            }
+        });
+        return ids;
+    }
+
+    public Map<Long, EnumsApi.TaskExecState> toMap() {
+        Map<Long, EnumsApi.TaskExecState> map = new HashMap<>();
+        forEach(map::put);
+        return map;
+    }
+}
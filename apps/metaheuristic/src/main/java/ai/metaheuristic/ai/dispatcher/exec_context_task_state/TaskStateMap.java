@@ -0,0 +1,149 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.dispatcher.exec_context_task_state;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map taskId -> TaskExecState.value, keeps only primitive arrays.
+ * Isn't thread-safe, access must be guarded by an outside code
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:05 PM
+ */
+public class TaskStateMap {
+
+    public static final byte NO_VALUE = -1;
+
+    private static final long EMPTY_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    public interface LongByteConsumer {
+        void accept(long taskId, byte state);
+    }
+
+    private long[] keys;
+    private byte[] values;
+    private int size = 0;
+    // taskId 0 can't be a real id of task but is supported anyway
+    private boolean hasZeroKey = false;
+    private byte zeroValue = NO_VALUE;
+
+    public TaskStateMap() {
+        this(16);
+    }
+
+    public TaskStateMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new byte[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte get(long taskId) {
+        if (taskId==EMPTY_KEY) {
+            return hasZeroKey ? zeroValue : NO_VALUE;
+        }
+        int mask = keys.length - 1;
+        for (int i = index(taskId, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k==EMPTY_KEY) {
+                return NO_VALUE;
+            }
+            if (k==taskId) {
+                return values[i];
+            }
+        }
+    }
+
+    public void put(long taskId, byte state) {
+        if (taskId==EMPTY_KEY) {
+            if (!hasZeroKey) {
+                size++;
+                hasZeroKey = true;
+            }
+            zeroValue = state;
+            return;
+        }
+        if ((size + 1) > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        for (int i = index(taskId, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k==EMPTY_KEY) {
+                keys[i] = taskId;
+                values[i] = state;
+                size++;
+                return;
+            }
+            if (k==taskId) {
+                values[i] = state;
+                return;
+            }
+        }
+    }
+
+    public void forEach(LongByteConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY_KEY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i]!=EMPTY_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public TaskStateMap copy() {
+        TaskStateMap m = new TaskStateMap();
+        m.keys = Arrays.copyOf(keys, keys.length);
+        m.values = Arrays.copyOf(values, values.length);
+        m.size = size;
+        m.hasZeroKey = hasZeroKey;
+        m.zeroValue = zeroValue;
+        return m;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[newCapacity];
+        values = new byte[newCapacity];
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k==EMPTY_KEY) {
+                continue;
+            }
+            int i = index(k, mask);
+            while (keys[i]!=EMPTY_KEY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
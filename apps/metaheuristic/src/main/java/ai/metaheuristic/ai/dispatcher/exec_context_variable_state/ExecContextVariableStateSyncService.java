@@ -43,7 +43,7 @@ import java.util.function.Supplier;
 @Slf4j
 public class ExecContextVariableStateSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("execContextVariableState");
 
     public void checkWriteLockPresent(Long execContextVariableStateId) {
         if (!getWriteLock(execContextVariableStateId).isHeldByCurrentThread()) {
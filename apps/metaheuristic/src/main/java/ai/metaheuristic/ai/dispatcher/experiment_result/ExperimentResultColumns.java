@@ -0,0 +1,488 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.experiment_result;
+
+import ai.metaheuristic.ai.dispatcher.data.ExperimentResultData;
+import ai.metaheuristic.ai.dispatcher.variable.InlineVariableUtils;
+import ai.metaheuristic.api.data.experiment.ExperimentApiData;
+import ai.metaheuristic.api.data.experiment_result.ExperimentResultTaskParams;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.lang.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Columnar form of tasks of ExperimentResult.
+ *
+ * Metrics are stored as primitive double columns, values of hyper-params are dictionary-encoded
+ * and rows are indexed by feature, so plotting and filtering are done with scans over arrays
+ * without parsing of ExperimentTask.params.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 6:10 PM
+ */
+public class ExperimentResultColumns {
+
+    private static final int FORMAT_VERSION = 1;
+
+    // code of hyper-param which isn't present in inline of task
+    static final int ABSENT = -2;
+    // code of value which isn't present in the dictionary of hyper-param
+    static final int UNKNOWN = -1;
+
+    public final long createdOn;
+
+    private final long[] taskIds;
+    private final long[] featureIds;
+    private final int[] execStates;
+
+    private final String[] metricNames;
+    // [metric][row], NaN if task doesn't have such metric
+    private final double[][] metrics;
+    // index of the first metric of task, -1 if task doesn't have any metrics
+    private final int[] firstMetrics;
+
+    private final String[] paramKeys;
+    private final boolean[] hyperParams;
+    // distinct values of hyper-param in order of definition
+    private final String[][] dictionaries;
+    // index of value which is used in filters as 'key-index'
+    private final int[][] filterIndexes;
+    // [param][row]
+    private final int[][] codes;
+
+    private final Map<String, Integer> paramKeyIndexes = new HashMap<>();
+    private final Map<Long, int[]> rowsByFeature = new HashMap<>();
+
+    private ExperimentResultColumns(
+            long createdOn, long[] taskIds, long[] featureIds, int[] execStates, String[] metricNames, double[][] metrics,
+            int[] firstMetrics, String[] paramKeys, boolean[] hyperParams, String[][] dictionaries, int[][] filterIndexes, int[][] codes) {
+        this.createdOn = createdOn;
+        this.taskIds = taskIds;
+        this.featureIds = featureIds;
+        this.execStates = execStates;
+        this.metricNames = metricNames;
+        this.metrics = metrics;
+        this.firstMetrics = firstMetrics;
+        this.paramKeys = paramKeys;
+        this.hyperParams = hyperParams;
+        this.dictionaries = dictionaries;
+        this.filterIndexes = filterIndexes;
+        this.codes = codes;
+
+        for (int i = 0; i < paramKeys.length; i++) {
+            paramKeyIndexes.put(paramKeys[i], i);
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long featureId : featureIds) {
+            counts.merge(featureId, 1, Integer::sum);
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int row = 0; row < featureIds.length; row++) {
+            final int pos = positions.merge(featureIds[row], 1, Integer::sum) - 1;
+            rowsByFeature.computeIfAbsent(featureIds[row], o -> new int[counts.get(o)])[pos] = row;
+        }
+    }
+
+    public int size() {
+        return taskIds.length;
+    }
+
+    public long getTaskId(int row) {
+        return taskIds[row];
+    }
+
+    /**
+     * @param featureId id of feature
+     * @param params filter in form of 'key-index', blank elements are skipped
+     * @return rows of finished tasks of feature which are satisfying the filter, in order of storing
+     */
+    public int[] select(Long featureId, String[] params) {
+        final int[] rows = rowsByFeature.get(featureId);
+        if (rows==null) {
+            return new int[0];
+        }
+        final ParamsFilter filter = ParamsFilter.of(this, params);
+        int[] selected = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if (execStates[row] > 1 && (filter==null || filter.isOk(row))) {
+                selected[count++] = row;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Sum of values of metric over selected rows, distributed over values of two hyper-params.
+     * The metric is the first metric of the first selected task which has metrics.
+     */
+    public ExperimentResultData.PlotData plot(int[] rows, String paramX, String paramY) {
+        final int keyX = getHyperParamIndex(paramX);
+        final int keyY = getHyperParamIndex(paramY);
+
+        final ExperimentResultData.PlotData data = new ExperimentResultData.PlotData();
+        data.x.addAll(Arrays.asList(dictionaries[keyX]));
+        data.y.addAll(Arrays.asList(dictionaries[keyY]));
+
+        final double[][] sums = new double[data.y.size()][data.x.size()];
+        int metric = -1;
+        for (int row : rows) {
+            if (metric==-1) {
+                metric = firstMetrics[row];
+            }
+            if (metric==-1 || Double.isNaN(metrics[metric][row])) {
+                continue;
+            }
+            // tasks without value for axis are accumulated in the first cell
+            sums[Math.max(codes[keyY][row], 0)][Math.max(codes[keyX][row], 0)] += metrics[metric][row];
+        }
+
+        data.z = new BigDecimal[sums.length][];
+        for (int i = 0; i < sums.length; i++) {
+            data.z[i] = new BigDecimal[sums[i].length];
+            for (int j = 0; j < sums[i].length; j++) {
+                data.z[i][j] = sums[i][j]==0 ? BigDecimal.ZERO : BigDecimal.valueOf(sums[i][j]);
+            }
+        }
+        return data;
+    }
+
+    private int getHyperParamIndex(String key) {
+        Integer idx = paramKeyIndexes.get(key);
+        if (idx==null || !hyperParams[idx]) {
+            throw new IllegalStateException("#425.020 Hyper-param wasn't found, key: " + key);
+        }
+        return idx;
+    }
+
+    /**
+     * The same semantic as ExperimentResultTopLevelService had with filtering of ExperimentResultTaskParams:
+     * a task with empty inline is excluded, values of params which aren't in the filter are accepted,
+     * a hyper-param with only one value is accepted regardless of actual value.
+     */
+    private static class ParamsFilter {
+        final ExperimentResultColumns columns;
+        final int[] keys;
+        final boolean[][] allowed;
+        final boolean[] allowedUnknown;
+
+        ParamsFilter(ExperimentResultColumns columns, int[] keys, boolean[][] allowed, boolean[] allowedUnknown) {
+            this.columns = columns;
+            this.keys = keys;
+            this.allowed = allowed;
+            this.allowedUnknown = allowedUnknown;
+        }
+
+        @Nullable
+        static ParamsFilter of(ExperimentResultColumns columns, String[] params) {
+            final Set<String> paramSet = new HashSet<>();
+            final Set<String> paramFilterKeys = new LinkedHashSet<>();
+            for (String param : params) {
+                if (StringUtils.isBlank(param)) {
+                    continue;
+                }
+                final int endIndex = param.lastIndexOf('-');
+                // validate the index of value in the same way as it was with ParamFilter
+                Integer.parseInt(param.substring(endIndex + 1));
+                paramSet.add(param);
+                paramFilterKeys.add(param.substring(0, endIndex));
+            }
+            if (paramSet.isEmpty()) {
+                return null;
+            }
+            final List<Integer> keys = new ArrayList<>();
+            for (String key : paramFilterKeys) {
+                Integer idx = columns.paramKeyIndexes.get(key);
+                if (idx!=null) {
+                    keys.add(idx);
+                }
+            }
+            final int[] keyIdxs = new int[keys.size()];
+            final boolean[][] allowed = new boolean[keys.size()][];
+            final boolean[] allowedUnknown = new boolean[keys.size()];
+            for (int i = 0; i < keyIdxs.length; i++) {
+                final int key = keys.get(i);
+                keyIdxs[i] = key;
+                final String[] dictionary = columns.dictionaries[key];
+                allowed[i] = new boolean[dictionary.length];
+                if (!columns.hyperParams[key] || dictionary.length==0) {
+                    continue;
+                }
+                if (dictionary.length==1) {
+                    allowed[i][0] = true;
+                    allowedUnknown[i] = true;
+                    continue;
+                }
+                for (int code = 0; code < dictionary.length; code++) {
+                    allowed[i][code] = paramSet.contains(columns.paramKeys[key] + "-" + columns.filterIndexes[key][code]);
+                }
+            }
+            return new ParamsFilter(columns, keyIdxs, allowed, allowedUnknown);
+        }
+
+        boolean isOk(int row) {
+            if (!columns.hasInline(row)) {
+                return false;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                final int code = columns.codes[keys[i]][row];
+                if (code==ABSENT) {
+                    continue;
+                }
+                if (code==UNKNOWN ? !allowedUnknown[i] : !allowed[i][code]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean hasInline(int row) {
+        for (int[] code : codes) {
+            if (code[row]!=ABSENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(createdOn);
+        final int size = taskIds.length;
+        out.writeInt(size);
+        for (int row = 0; row < size; row++) {
+            out.writeLong(taskIds[row]);
+            out.writeLong(featureIds[row]);
+            out.writeInt(execStates[row]);
+            out.writeInt(firstMetrics[row]);
+        }
+        out.writeInt(metricNames.length);
+        for (int i = 0; i < metricNames.length; i++) {
+            out.writeUTF(metricNames[i]);
+            for (double v : metrics[i]) {
+                out.writeDouble(v);
+            }
+        }
+        out.writeInt(paramKeys.length);
+        for (int i = 0; i < paramKeys.length; i++) {
+            out.writeUTF(paramKeys[i]);
+            out.writeBoolean(hyperParams[i]);
+            out.writeInt(dictionaries[i].length);
+            for (int code = 0; code < dictionaries[i].length; code++) {
+                out.writeUTF(dictionaries[i][code]);
+                out.writeInt(filterIndexes[i][code]);
+            }
+            for (int code : codes[i]) {
+                out.writeInt(code);
+            }
+        }
+    }
+
+    /**
+     * @param length the length of data in bytes, sizes which were read are checked against it before allocating of arrays
+     */
+    public static ExperimentResultColumns read(DataInputStream in, long length) throws IOException {
+        final int version = in.readInt();
+        if (version!=FORMAT_VERSION) {
+            throw new IOException("#425.040 Unsupported version of format: " + version);
+        }
+        final long createdOn = in.readLong();
+        // a row takes 24 bytes
+        final int size = readCount(in, length / 24, "size");
+        final long[] taskIds = new long[size];
+        final long[] featureIds = new long[size];
+        final int[] execStates = new int[size];
+        final int[] firstMetrics = new int[size];
+        for (int row = 0; row < size; row++) {
+            taskIds[row] = in.readLong();
+            featureIds[row] = in.readLong();
+            execStates[row] = in.readInt();
+            firstMetrics[row] = in.readInt();
+        }
+        // a metric takes at least 2 bytes for its name and 8 bytes per row
+        final String[] metricNames = new String[readCount(in, length / (2 + 8L * size), "number of metrics")];
+        for (int row = 0; row < size; row++) {
+            if (firstMetrics[row] < -1 || firstMetrics[row] >= metricNames.length) {
+                throw new IOException("#425.060 Wrong index of the first metric: " + firstMetrics[row]);
+            }
+        }
+        final double[][] metrics = new double[metricNames.length][size];
+        for (int i = 0; i < metricNames.length; i++) {
+            metricNames[i] = in.readUTF();
+            for (int row = 0; row < size; row++) {
+                metrics[i][row] = in.readDouble();
+            }
+        }
+        // a param takes at least 7 bytes and 4 bytes per row
+        final String[] paramKeys = new String[readCount(in, length / (7 + 4L * size), "number of params")];
+        final boolean[] hyperParams = new boolean[paramKeys.length];
+        final String[][] dictionaries = new String[paramKeys.length][];
+        final int[][] filterIndexes = new int[paramKeys.length][];
+        final int[][] codes = new int[paramKeys.length][size];
+        for (int i = 0; i < paramKeys.length; i++) {
+            paramKeys[i] = in.readUTF();
+            hyperParams[i] = in.readBoolean();
+            // a value of dictionary takes at least 6 bytes
+            dictionaries[i] = new String[readCount(in, length / 6, "size of dictionary")];
+            filterIndexes[i] = new int[dictionaries[i].length];
+            for (int code = 0; code < dictionaries[i].length; code++) {
+                dictionaries[i][code] = in.readUTF();
+                filterIndexes[i][code] = in.readInt();
+            }
+            for (int row = 0; row < size; row++) {
+                final int code = in.readInt();
+                if (code < ABSENT || code >= dictionaries[i].length) {
+                    throw new IOException("#425.060 Wrong code of value of param " + paramKeys[i] + ": " + code);
+                }
+                codes[i][row] = code;
+            }
+        }
+        return new ExperimentResultColumns(
+                createdOn, taskIds, featureIds, execStates, metricNames, metrics, firstMetrics,
+                paramKeys, hyperParams, dictionaries, filterIndexes, codes);
+    }
+
+    private static int readCount(DataInputStream in, long max, String name) throws IOException {
+        final int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("#425.050 Wrong " + name + ": " + count + ", max: " + max);
+        }
+        return count;
+    }
+
+    public static class Builder {
+
+        // only values which are needed for columns are kept, not whole ExperimentResultTaskParams
+        private static class Row {
+            final long taskId;
+            final long featureId;
+            final int execState;
+            final Map<String, String> inline;
+            final Map<String, BigDecimal> metrics;
+
+            Row(long taskId, long featureId, int execState, Map<String, String> inline, Map<String, BigDecimal> metrics) {
+                this.taskId = taskId;
+                this.featureId = featureId;
+                this.execState = execState;
+                this.inline = inline;
+                this.metrics = metrics;
+            }
+        }
+
+        private final long createdOn;
+        private final Map<String, LinkedHashMap<String, Integer>> dictionaries = new LinkedHashMap<>();
+        private final Map<String, Map<String, Integer>> filterIndexes = new HashMap<>();
+        private final List<Row> rows = new ArrayList<>();
+
+        public Builder(long createdOn, List<ExperimentApiData.HyperParam> hyperParams) {
+            this.createdOn = createdOn;
+            for (ExperimentApiData.HyperParam hyperParam : hyperParams) {
+                InlineVariableUtils.NumberOfVariants ofVariants = InlineVariableUtils.getNumberOfVariants(hyperParam.getValues());
+                LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<>();
+                Map<String, Integer> indexes = new HashMap<>();
+                for (int i = 0; i < ofVariants.values.size(); i++) {
+                    String value = ofVariants.values.get(i);
+                    dictionary.putIfAbsent(value, dictionary.size());
+                    indexes.put(value, i);
+                }
+                dictionaries.put(hyperParam.getKey(), dictionary);
+                filterIndexes.put(hyperParam.getKey(), indexes);
+            }
+        }
+
+        /**
+         * @param featureId id of feature of task or null if task doesn't belong to any feature
+         */
+        public Builder add(ExperimentResultTaskParams task, @Nullable Long featureId) {
+            rows.add(new Row(
+                    task.taskId, featureId==null ? -1 : featureId, task.execState,
+                    task.taskParams==null ? Map.of() : task.taskParams.inline, task.metrics.values));
+            return this;
+        }
+
+        public ExperimentResultColumns build() {
+            final int size = rows.size();
+            final long[] taskIds = new long[size];
+            final long[] featureIds = new long[size];
+            final int[] execStates = new int[size];
+            final int[] firstMetrics = new int[size];
+
+            final Map<String, Integer> metricIndexes = new LinkedHashMap<>();
+            final Map<String, Integer> paramIndexes = new LinkedHashMap<>();
+            dictionaries.keySet().forEach(key -> paramIndexes.put(key, paramIndexes.size()));
+            for (Row r : rows) {
+                r.metrics.keySet().forEach(key -> metricIndexes.putIfAbsent(key, metricIndexes.size()));
+                r.inline.keySet().forEach(key -> paramIndexes.putIfAbsent(key, paramIndexes.size()));
+            }
+
+            final double[][] metrics = new double[metricIndexes.size()][size];
+            for (double[] metric : metrics) {
+                Arrays.fill(metric, Double.NaN);
+            }
+            final int[][] codes = new int[paramIndexes.size()][size];
+            for (int[] code : codes) {
+                Arrays.fill(code, ABSENT);
+            }
+
+            for (int row = 0; row < size; row++) {
+                final Row r = rows.get(row);
+                taskIds[row] = r.taskId;
+                featureIds[row] = r.featureId;
+                execStates[row] = r.execState;
+                firstMetrics[row] = -1;
+                for (Map.Entry<String, BigDecimal> entry : r.metrics.entrySet()) {
+                    final int idx = metricIndexes.get(entry.getKey());
+                    if (firstMetrics[row]==-1) {
+                        firstMetrics[row] = idx;
+                    }
+                    if (entry.getValue()!=null) {
+                        metrics[idx][row] = entry.getValue().doubleValue();
+                    }
+                }
+                for (Map.Entry<String, String> entry : r.inline.entrySet()) {
+                    final LinkedHashMap<String, Integer> dictionary = dictionaries.get(entry.getKey());
+                    final Integer code = dictionary==null ? null : dictionary.get(entry.getValue());
+                    codes[paramIndexes.get(entry.getKey())][row] = code==null ? UNKNOWN : code;
+                }
+            }
+
+            final String[] paramKeys = paramIndexes.keySet().toArray(new String[0]);
+            final boolean[] hyperParams = new boolean[paramKeys.length];
+            final String[][] dicts = new String[paramKeys.length][];
+            final int[][] indexes = new int[paramKeys.length][];
+            for (int i = 0; i < paramKeys.length; i++) {
+                final LinkedHashMap<String, Integer> dictionary = dictionaries.get(paramKeys[i]);
+                hyperParams[i] = dictionary!=null;
+                dicts[i] = dictionary==null ? new String[0] : dictionary.keySet().toArray(new String[0]);
+                indexes[i] = new int[dicts[i].length];
+                for (int code = 0; code < dicts[i].length; code++) {
+                    indexes[i][code] = filterIndexes.get(paramKeys[i]).get(dicts[i][code]);
+                }
+            }
+            return new ExperimentResultColumns(
+                    createdOn, taskIds, featureIds, execStates, metricIndexes.keySet().toArray(new String[0]), metrics, firstMetrics,
+                    paramKeys, hyperParams, dicts, indexes, codes);
+        }
+    }
+}
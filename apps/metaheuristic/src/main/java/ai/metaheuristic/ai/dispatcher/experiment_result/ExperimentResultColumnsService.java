@@ -0,0 +1,184 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.experiment_result;
+
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.beans.ExperimentResult;
+import ai.metaheuristic.ai.dispatcher.beans.ExperimentTask;
+import ai.metaheuristic.ai.dispatcher.repositories.ExperimentTaskRepository;
+import ai.metaheuristic.ai.yaml.experiment_result.ExperimentResultTaskParamsYamlUtils;
+import ai.metaheuristic.api.data.experiment_result.ExperimentResultParams;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of ExperimentResultColumns.
+ * Columns are stored in files at dispatcherDir/experiment-result and the most recently used ones are kept in memory.
+ * A file is only an index over ExperimentTask, so if it's missing or outdated, it will be rebuilt from ExperimentTask.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 6:40 PM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class ExperimentResultColumnsService {
+
+    private static final String COLUMNS_DIR = "experiment-result";
+    private static final String COLUMNS_EXT = ".bin";
+    private static final int MAX_COLUMNS_IN_MEMORY = 10;
+    private static final int PAGE_SIZE = 500;
+
+    private final Globals globals;
+    private final ExperimentTaskRepository experimentTaskRepository;
+
+    private File columnsDir;
+
+    private final LinkedHashMap<Long, ExperimentResultColumns> columns = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ExperimentResultColumns> eldest) {
+            return size() > MAX_COLUMNS_IN_MEMORY;
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        columnsDir = new File(globals.dispatcherDir, COLUMNS_DIR);
+        columnsDir.mkdirs();
+    }
+
+    public ExperimentResultColumns getColumns(ExperimentResult experimentResult, ExperimentResultParams params) {
+        final Long id = experimentResult.id;
+        synchronized (columns) {
+            ExperimentResultColumns c = columns.get(id);
+            if (c!=null && c.createdOn==experimentResult.createdOn) {
+                return c;
+            }
+        }
+        ExperimentResultColumns c = readColumns(id);
+        if (c==null || c.createdOn!=experimentResult.createdOn) {
+            c = buildColumns(experimentResult, params);
+            writeColumns(id, c);
+        }
+        synchronized (columns) {
+            columns.put(id, c);
+        }
+        return c;
+    }
+
+    /**
+     * Columns will be stored only after committing of ExperimentResult and ExperimentTask
+     */
+    public void storeColumns(Long experimentResultId, ExperimentResultColumns c) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeColumns(experimentResultId, c);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeColumns(experimentResultId, c);
+            }
+        });
+    }
+
+    public void deleteColumns(Long experimentResultId) {
+        synchronized (columns) {
+            columns.remove(experimentResultId);
+        }
+        File file = getFile(experimentResultId);
+        if (file.exists() && !file.delete()) {
+            log.warn("#425.100 Can't delete file {}", file.getAbsolutePath());
+        }
+    }
+
+    private ExperimentResultColumns buildColumns(ExperimentResult experimentResult, ExperimentResultParams params) {
+        log.info("#425.120 Start building of columns for experimentResult #{}", experimentResult.id);
+        final Map<Long, Long> taskFeatures = new HashMap<>();
+        for (ExperimentResultParams.ExperimentTaskFeature taskFeature : params.taskFeatures) {
+            taskFeatures.put(taskFeature.taskId, taskFeature.featureId);
+        }
+        final ExperimentResultColumns.Builder builder = new ExperimentResultColumns.Builder(experimentResult.createdOn, params.hyperParams);
+        long lastId = 0;
+        List<ExperimentTask> tasks;
+        while (!(tasks = experimentTaskRepository.findAllAfterId(PageRequest.of(0, PAGE_SIZE), experimentResult.id, lastId)).isEmpty()) {
+            for (ExperimentTask task : tasks) {
+                builder.add(ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.to(task.params), taskFeatures.get(task.taskId));
+                lastId = task.id;
+            }
+        }
+        return builder.build();
+    }
+
+    @Nullable
+    private ExperimentResultColumns readColumns(Long experimentResultId) {
+        File file = getFile(experimentResultId);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return ExperimentResultColumns.read(in, file.length());
+        } catch (IOException | RuntimeException e) {
+            log.warn("#425.140 Can't read columns from {}, columns will be rebuilt, error: {}", file.getAbsolutePath(), e.toString());
+            // a broken file must not fail the next requests too
+            if (file.exists() && !file.delete()) {
+                log.warn("#425.150 Can't delete file {}", file.getAbsolutePath());
+            }
+            return null;
+        }
+    }
+
+    private void writeColumns(Long experimentResultId, ExperimentResultColumns c) {
+        File file = getFile(experimentResultId);
+        File tempFile = null;
+        try {
+            // each writer has its own temp file, concurrent writers of the same columns mustn't mix their data
+            tempFile = Files.createTempFile(columnsDir.toPath(), experimentResultId + "-", COLUMNS_EXT + ".tmp").toFile();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                c.write(out);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // columns will be rebuilt from ExperimentTask at the next request
+            log.error("#425.160 Can't write columns of experimentResult #" + experimentResultId, e);
+            if (tempFile!=null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private File getFile(Long experimentResultId) {
+        return new File(columnsDir, experimentResultId + COLUMNS_EXT);
+    }
+}
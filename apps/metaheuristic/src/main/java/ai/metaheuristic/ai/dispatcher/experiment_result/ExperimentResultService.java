@@ -86,6 +86,7 @@ public class ExperimentResultService {
     private final ExperimentResultRepository experimentResultRepository;
     private final ExperimentTaskRepository experimentTaskRepository;
     private final VariableService variableService;
+    private final ExperimentResultColumnsService experimentResultColumnsService;
 
     @Data
     @EqualsAndHashCode(callSuper = false)
@@ -215,6 +216,7 @@ public class ExperimentResultService {
         AtomicLong taskFeatureId = new AtomicLong(1);
         final List<ExperimentFeature> features = new ArrayList<>();
         final List<ExperimentTaskFeature> taskFeatures = new ArrayList<>();
+        final ExperimentResultColumns.Builder columns = new ExperimentResultColumns.Builder(experimentResult.createdOn, toHyperParams(inlineVariableItem));
 
         List<SimpleVariable> metricsVariables = variableService.getSimpleVariablesInExecContext(simpleExecContext.execContextId, metricsVariableName);
         List<SimpleVariable> featureVariables = variableService.getSimpleVariablesInExecContext(simpleExecContext.execContextId, featureVariableName);
@@ -338,9 +340,11 @@ public class ExperimentResultService {
             at.taskId = t.getId();
             at.params = ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.toString(ertpy);
             experimentTaskRepository.save(at);
+            columns.add(ertpy, feature.id);
         }
 
         updateData(experimentResult, erpy, inlineVariableItem, features, taskFeatures);
+        experimentResultColumnsService.storeColumns(experimentResult.id, columns.build());
         return OperationStatusRest.OPERATION_STATUS_OK;
     }
 
@@ -399,9 +403,7 @@ public class ExperimentResultService {
     private void updateData(ExperimentResult experimentResult, ExperimentResultParams experimentResultParamsYaml,
                             InlineVariableData.InlineVariableItem item, List<ExperimentFeature> features, List<ExperimentTaskFeature> taskFeatures) {
 
-        item.inlines.entrySet().stream()
-                .map(e-> new ExperimentApiData.HyperParam(e.getKey(), e.getValue(), InlineVariableUtils.getNumberOfVariants(e.getValue()).count))
-                .collect(Collectors.toCollection(()->experimentResultParamsYaml.hyperParams));
+        experimentResultParamsYaml.hyperParams.addAll(toHyperParams(item));
         experimentResultParamsYaml.features.addAll(features);
         experimentResultParamsYaml.taskFeatures.addAll(taskFeatures);
 
@@ -411,6 +413,12 @@ public class ExperimentResultService {
         experimentResultRepository.save(experimentResult);
     }
 
+    private static List<ExperimentApiData.HyperParam> toHyperParams(InlineVariableData.InlineVariableItem item) {
+        return item.inlines.entrySet().stream()
+                .map(e-> new ExperimentApiData.HyperParam(e.getKey(), e.getValue(), InlineVariableUtils.getNumberOfVariants(e.getValue()).count))
+                .collect(Collectors.toList());
+    }
+
     private static void updateMaxValueForExperimentResult(ExperimentResultParams erpy) {
         log.info("Start calculatingMaxValueOfMetrics");
         for (ExperimentFeature feature : erpy.features) {
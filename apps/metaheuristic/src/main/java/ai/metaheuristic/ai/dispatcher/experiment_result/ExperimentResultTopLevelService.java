@@ -92,20 +92,7 @@ public class ExperimentResultTopLevelService {
 
     private final ExperimentResultRepository experimentResultRepository;
     private final ExperimentTaskRepository experimentTaskRepository;
-
-    private static class ParamFilter {
-        String key;
-        int idx;
-
-        ParamFilter(String filter) {
-            final int endIndex = filter.lastIndexOf('-');
-            this.key = filter.substring( 0, endIndex);
-            this.idx = Integer.parseInt(filter.substring( endIndex+1));
-        }
-        static ParamFilter of(String filter) {
-            return new ParamFilter(filter);
-        }
-    }
+    private final ExperimentResultColumnsService experimentResultColumnsService;
 
     public OperationStatusRest uploadExperiment(MultipartFile file, DispatcherContext context) {
         String originFilename = file.getOriginalFilename();
@@ -390,6 +377,7 @@ public class ExperimentResultTopLevelService {
                     });
         } while (isFound.get());
         experimentResultRepository.deleteById(id);
+        experimentResultColumnsService.deleteColumns(experimentResultId);
         return OperationStatusRest.OPERATION_STATUS_OK;
     }
 
@@ -412,7 +400,7 @@ public class ExperimentResultTopLevelService {
         if (feature==null) {
             return EMPTY_PLOT_DATA;
         }
-        PlotData data = findExperimentTaskForPlot(experimentResultId, ypywc, feature, params, paramsAxis);
+        PlotData data = findExperimentTaskForPlot(experimentResult, ypywc, feature, params, paramsAxis);
         // TODO 2019-07-23 right now 2D lines plot isn't working. need to investigate
         //  so it'll be 3D with a fake zero data
         fixData(data);
@@ -461,41 +449,10 @@ public class ExperimentResultTopLevelService {
     }
 
     private PlotData findExperimentTaskForPlot(
-            Long experimentResultId, ExperimentResultParamsYamlWithCache apywc, ExperimentFeature feature, String[] params, String[] paramsAxis) {
+            ExperimentResult experimentResult, ExperimentResultParamsYamlWithCache apywc, ExperimentFeature feature, String[] params, String[] paramsAxis) {
         if (apywc.experimentResult.features.isEmpty() ) {
             return EMPTY_PLOT_DATA;
         }
-        List<ExperimentResultTaskParams> selected = getTasksForFeatureIdAndParams(experimentResultId, apywc.experimentResult, feature, params);
-        return collectDataForPlotting(apywc, selected, paramsAxis);
-    }
-
-    private List<ExperimentResultTaskParams> getTasksForFeatureIdAndParams(
-            Long experimentResultId, ExperimentResultParams experimentResult, ExperimentFeature feature, String[] params) {
-        final Map<Long, Integer> taskToTaskType = experimentResult.taskFeatures
-                .stream()
-                .filter(taskFeature -> taskFeature.featureId.equals(feature.getId()))
-                .collect(Collectors.toMap(o -> o.taskId, o -> o.taskType));
-
-        final Set<Long> taskIds = taskToTaskType.keySet();
-
-        if (taskIds.isEmpty()) {
-            return List.of();
-        }
-
-        List<ExperimentTask> experimentTasks = experimentTaskRepository.findTasksById(experimentResultId, taskIds);
-        List<ExperimentResultTaskParams> selected = experimentTasks.stream()
-                .map(o-> ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.to(o.params))
-                .filter(atpy -> atpy.execState > 1)
-                .collect(Collectors.toList());
-
-        if (!isEmpty(params)) {
-            selected = filterTasks(experimentResult, params, selected);
-        }
-        return selected;
-    }
-
-    private static PlotData collectDataForPlotting(ExperimentResultParamsYamlWithCache estb, List<ExperimentResultTaskParams> selected, String[] paramsAxis) {
-        final PlotData data = new PlotData();
         final List<String> paramCleared = new ArrayList<>();
         for (String param : paramsAxis) {
             if (StringUtils.isBlank(param)) {
@@ -508,116 +465,9 @@ public class ExperimentResultTopLevelService {
         if (paramCleared.size()!=2) {
             throw new IllegalStateException("#422.250 Wrong number of params for axes. Expected: 2, actual: " + paramCleared.size());
         }
-        Map<String, Map<String, Integer>> map = estb.getHyperParamsAsMap(false);
-        data.x.addAll(map.get(paramCleared.get(0)).keySet());
-        data.y.addAll(map.get(paramCleared.get(1)).keySet());
-
-        Map<String, Integer> mapX = new HashMap<>();
-        int idx=0;
-        for (String x : data.x) {
-            mapX.put(x, idx++);
-        }
-        Map<String, Integer> mapY = new HashMap<>();
-        idx=0;
-        for (String y : data.y) {
-            mapY.put(y, idx++);
-        }
-
-        data.z = new BigDecimal[data.y.size()][data.x.size()];
-        for (int i = 0; i < data.y.size(); i++) {
-            for (int j = 0; j < data.x.size(); j++) {
-                data.z[i][j] = BigDecimal.ZERO;
-            }
-        }
-
-        String metricKey = null;
-        for (ExperimentResultTaskParams task : selected) {
-
-            if (metricKey==null) {
-                for (Map.Entry<String, BigDecimal> entry : task.metrics.values.entrySet()) {
-                    metricKey = entry.getKey();
-                    break;
-                }
-            }
-
-            Integer idxX1 = mapX.get(task.taskParams.inline.get(paramCleared.get(0)));
-            int idxX = idxX1 != null ? idxX1 : 0;
-            Integer idxY1 = mapY.get(task.taskParams.inline.get(paramCleared.get(1)));
-            int idxY = idxY1!=null ? idxY1 : 0;
-
-            data.z[idxY][idxX] = data.z[idxY][idxX].add(task.metrics.values.get(metricKey));
-        }
-
-        return data;
-    }
-
-
-    private static List<ExperimentResultTaskParams> filterTasks(ExperimentResultParams epy, String[] params, List<ExperimentResultTaskParams> tasks) {
-        final Set<String> paramSet = new HashSet<>();
-        final Set<String> paramFilterKeys = new HashSet<>();
-        for (String param : params) {
-            if (StringUtils.isBlank(param)) {
-                continue;
-            }
-            paramSet.add(param);
-            paramFilterKeys.add(ParamFilter.of(param).key);
-        }
-        final Map<String, Map<String, Integer>> paramByIndex = ExperimentResultService.getHyperParamsAsMap(epy.hyperParams);
-
-        List<ExperimentResultTaskParams> selected = new ArrayList<>();
-        for (ExperimentResultTaskParams task : tasks) {
-            if (task.taskParams.inline.isEmpty()) {
-                continue;
-            }
-            boolean[] isOk = new boolean[task.taskParams.inline.size()];
-            int idx = 0;
-            for (Map.Entry<String, String> entry : task.taskParams.inline.entrySet()) {
-                try {
-                    if (!paramFilterKeys.contains(entry.getKey())) {
-                        isOk[idx] = true;
-                        continue;
-                    }
-                    final Map<String, Integer> map = paramByIndex.getOrDefault(entry.getKey(), new HashMap<>());
-                    if (map.isEmpty()) {
-                        continue;
-                    }
-                    if (map.size()==1) {
-                        isOk[idx] = true;
-                        continue;
-                    }
-
-                    boolean isFilter = paramSet.contains(entry.getKey() + "-" + paramByIndex.get(entry.getKey()).get(entry.getKey() + "-" + entry.getValue()));
-                    if (isFilter) {
-                        isOk[idx] = true;
-                    }
-                }
-                finally {
-                    idx++;
-                }
-            }
-            if (isInclude(isOk)) {
-                selected.add(task);
-            }
-        }
-        return selected;
-    }
-
-    private static boolean isInclude(boolean[] isOk ) {
-        for (boolean b : isOk) {
-            if (!b) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private static boolean isEmpty(String[] params) {
-        for (String param : params) {
-            if (StringUtils.isNotBlank(param)) {
-                return false;
-            }
-        }
-        return true;
+        ExperimentResultColumns columns = experimentResultColumnsService.getColumns(experimentResult, apywc.experimentResult);
+        int[] rows = columns.select(feature.id, params);
+        return columns.plot(rows, paramCleared.get(0), paramCleared.get(1));
     }
 
     public ExperimentFeatureExtendedResult getExperimentFeatureExtended(long experimentResultId, Long experimentId, Long featureId) {
@@ -771,7 +621,7 @@ public class ExperimentResultTopLevelService {
         execContext.state = EnumsApi.ExecContextState.FINISHED.code;
 
         ExperimentFeatureExtendedResult result = new ExperimentFeatureExtendedResult();
-        result.tasks = feature==null ?  Page.empty() : findTasks(experimentResultId, ypywc, ControllerUtils.fixPageSize(10, pageable), feature, params);
+        result.tasks = feature==null ?  Page.empty() : findTasks(experimentResult, ypywc, ControllerUtils.fixPageSize(10, pageable), feature, params);
         result.consoleResult = new ConsoleResult();
 
         result.experimentFeature = asExperimentFeatureData(feature, ypywc.experimentResult.taskFeatures);
@@ -779,12 +629,25 @@ public class ExperimentResultTopLevelService {
         return result;
     }
 
-    private Slice<ExperimentResultTaskParams> findTasks(Long experimentResultId, ExperimentResultParamsYamlWithCache estb, Pageable pageable, @Nullable ExperimentFeature feature, String[] params) {
+    private Slice<ExperimentResultTaskParams> findTasks(ExperimentResult experimentResult, ExperimentResultParamsYamlWithCache estb, Pageable pageable, @Nullable ExperimentFeature feature, String[] params) {
         if (feature == null) {
             return Page.empty();
         }
-        List<ExperimentResultTaskParams> selected = getTasksForFeatureIdAndParams(experimentResultId, estb.experimentResult, feature, params);
-        List<ExperimentResultTaskParams> subList = selected.subList((int)pageable.getOffset(), (int)Math.min(selected.size(), pageable.getOffset() + pageable.getPageSize()));
+        ExperimentResultColumns columns = experimentResultColumnsService.getColumns(experimentResult, estb.experimentResult);
+        int[] rows = columns.select(feature.id, params);
+
+        // only tasks of requested page are loaded and parsed
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = (int)pageable.getOffset(); i < Math.min(rows.length, pageable.getOffset() + pageable.getPageSize()); i++) {
+            taskIds.add(columns.getTaskId(rows[i]));
+        }
+        Map<Long, ExperimentResultTaskParams> tasks = new HashMap<>();
+        if (!taskIds.isEmpty()) {
+            for (ExperimentTask task : experimentTaskRepository.findTasksById(experimentResult.id, taskIds)) {
+                tasks.put(task.taskId, ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.to(task.params));
+            }
+        }
+        List<ExperimentResultTaskParams> subList = taskIds.stream().map(tasks::get).filter(Objects::nonNull).collect(Collectors.toList());
 
         for (ExperimentResultTaskParams atpy : subList) {
             atpy.typeAsString = estb.experimentResult.taskFeatures.stream()
@@ -794,7 +657,7 @@ public class ExperimentResultTopLevelService {
                     .orElse(EnumsApi.ExperimentTaskType.UNKNOWN)
                     .toString();
         }
-        Slice<ExperimentResultTaskParams> slice = new PageImpl<>(subList, pageable, selected.size());
+        Slice<ExperimentResultTaskParams> slice = new PageImpl<>(subList, pageable, rows.length);
         return slice;
     }
 }
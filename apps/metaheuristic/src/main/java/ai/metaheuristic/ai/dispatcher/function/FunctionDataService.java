@@ -18,6 +18,7 @@ package ai.metaheuristic.ai.dispatcher.function;
 
 import ai.metaheuristic.ai.dispatcher.beans.FunctionData;
 import ai.metaheuristic.ai.dispatcher.repositories.FunctionDataRepository;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
 import ai.metaheuristic.ai.exceptions.FunctionDataErrorException;
 import ai.metaheuristic.ai.exceptions.FunctionDataNotFoundException;
@@ -26,19 +27,14 @@ import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data_storage.DataStorageParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.hibernate.Hibernate;
-import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
 import java.io.File;
 import java.io.InputStream;
-import java.sql.Blob;
 import java.sql.Timestamp;
 import java.util.Optional;
 
@@ -53,21 +49,17 @@ import java.util.Optional;
 @Profile("dispatcher")
 @RequiredArgsConstructor
 public class FunctionDataService {
-    private final EntityManager em;
     private final FunctionDataRepository functionDataRepository;
+    private final VariableStorageService variableStorageService;
 
     @Nullable
     @Transactional(readOnly = true)
     public Void storeToFile(String code, File trgFile) {
         try {
-            Blob blob = functionDataRepository.getDataAsStreamByCode(code);
-            if (blob==null) {
+            if (!variableStorageService.storeFunctionDataToFile(code, trgFile)) {
                 log.warn("#088.010 Binary data for code {} wasn't found", code);
                 throw new FunctionDataNotFoundException(code, "#088.010 Function data wasn't found, code: " + code);
             }
-            try (InputStream is = blob.getBinaryStream()) {
-                FileUtils.copyInputStreamToFile(is, trgFile);
-            }
         } catch (CommonErrorWithDataException e) {
             throw e;
         } catch (Throwable th) {
@@ -102,8 +94,7 @@ public class FunctionDataService {
             }
             data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-            Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-            data.setData(blob);
+            variableStorageService.store(data, is, size);
 
             functionDataRepository.save(data);
 
@@ -121,8 +112,7 @@ public class FunctionDataService {
     public void update(InputStream is, long size, FunctionData data) {
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
 
         functionDataRepository.save(data);
     }
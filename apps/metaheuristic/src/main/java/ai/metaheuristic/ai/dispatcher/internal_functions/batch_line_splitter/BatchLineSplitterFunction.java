@@ -18,23 +18,27 @@ package ai.metaheuristic.ai.dispatcher.internal_functions.batch_line_splitter;
 
 import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphSyncService;
 import ai.metaheuristic.ai.dispatcher.exec_context_task_state.ExecContextTaskStateSyncService;
 import ai.metaheuristic.ai.dispatcher.internal_functions.InternalFunction;
 import ai.metaheuristic.ai.dispatcher.internal_functions.InternalFunctionVariableService;
-import ai.metaheuristic.ai.dispatcher.variable.VariableService;
 import ai.metaheuristic.ai.dispatcher.variable.VariableUtils;
 import ai.metaheuristic.ai.exceptions.InternalFunctionException;
 import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import ai.metaheuristic.commons.S;
+import ai.metaheuristic.commons.utils.DirUtils;
 import ai.metaheuristic.commons.utils.MetaUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import static ai.metaheuristic.ai.dispatcher.data.InternalFunctionData.InternalFunctionProcessingResult;
@@ -51,7 +55,7 @@ import static ai.metaheuristic.ai.dispatcher.data.InternalFunctionData.InternalF
 @RequiredArgsConstructor
 public class BatchLineSplitterFunction implements InternalFunction {
 
-    private final VariableService variableService;
+    private final Globals globals;
     private final InternalFunctionVariableService internalFunctionVariableService;
     private final BatchLineSplitterTxService batchLineSplitterTxService;
     private final ExecContextGraphSyncService execContextGraphSyncService;
@@ -78,11 +82,19 @@ public class BatchLineSplitterFunction implements InternalFunction {
             throw new InternalFunctionException(
                 new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.meta_not_found, "#994.020 Meta 'variable-for-splitting' wasn't found"));
         }
-        // number-of-lines-per-task
-        Long numberOfLines = MetaUtils.getLong(taskParamsYaml.task.metas, "number-of-lines-per-task");
-        if (numberOfLines==null) {
+        final RecordChunkReader.Delimiter delimiter;
+        try {
+            delimiter = RecordChunkReader.toDelimiter(MetaUtils.getValue(taskParamsYaml.task.metas, RecordChunkReader.RECORD_DELIMITER));
+        } catch (IllegalArgumentException e) {
+            throw new InternalFunctionException(
+                new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
+        }
+        // number-of-lines-per-task is also used as number of json values for jsonl, number-of-bytes-per-task is used for bytes
+        final String recordsMeta = delimiter==RecordChunkReader.Delimiter.bytes ? "number-of-bytes-per-task" : "number-of-lines-per-task";
+        Long numberOfRecords = MetaUtils.getLong(taskParamsYaml.task.metas, recordsMeta);
+        if (numberOfRecords==null) {
             throw new InternalFunctionException(
-                new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.meta_not_found, "#994.025 Meta 'number-of-lines-per-task' wasn't found"));
+                new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.meta_not_found, "#994.025 Meta '"+recordsMeta+"' wasn't found"));
         }
 
         List<VariableUtils.VariableHolder> varHolders = internalFunctionVariableService.discoverVariables(simpleExecContext.execContextId, taskContextId, inputVariableName);
@@ -98,14 +110,30 @@ public class BatchLineSplitterFunction implements InternalFunction {
 
         VariableUtils.VariableHolder variableHolder = varHolders.get(0);
 
-        String content;
+        if (variableHolder.variable==null) {
+            throw new InternalFunctionException(
+                new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.system_error, "#994.060 Global variable isn't supported at this time"));
+        }
+
+        File tempDir = null;
         try {
-            if (variableHolder.variable!=null) {
-                content = variableService.getVariableDataAsString(variableHolder.variable.id);
-            }
-            else {
+            tempDir = DirUtils.createTempDir("batch-line-splitter-");
+            if (tempDir==null) {
                 throw new InternalFunctionException(
-                    new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.system_error, "#994.060 Global variable isn't supported at this time"));
+                    new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.system_error, "#994.065 can't create temporary directory"));
+            }
+            // data of variable is streamed to file, so the whole content is never kept in memory
+            final File dataFile = new File(tempDir, "data.bin");
+            internalFunctionVariableService.storeToFile(variableHolder, dataFile);
+            // as before streaming of input, an empty variable isn't an error, there just isn't anything to split
+            if (dataFile.length()==0) {
+                log.error("#994.070 Variable #{} is empty, there isn't any lines, task #{}", variableHolder.variable.id, taskId);
+                return;
+            }
+
+            final File chunkDir = tempDir;
+            try (RecordChunkReader reader = RecordChunkReader.create(delimiter, new FileInputStream(dataFile), numberOfRecords, chunkDir)) {
+                createTasks(simpleExecContext, taskId, taskParamsYaml, reader);
             }
         }
         catch (InternalFunctionException e) {
@@ -117,9 +145,27 @@ public class BatchLineSplitterFunction implements InternalFunction {
             throw new InternalFunctionException(
                 new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.system_error, es));
         }
+        finally {
+            DirUtils.deleteAsync(tempDir);
+        }
+    }
+
+    private void createTasks(ExecContextData.SimpleExecContext simpleExecContext, Long taskId, TaskParamsYaml taskParamsYaml, RecordChunkReader reader) {
+        final List<Long> lastIds = new ArrayList<>();
+        final int batchSize = globals.taskProducingBatchSize;
 
+        // a huge split is committed with several transactions, the graph is locked until all tasks will be created
         execContextGraphSyncService.getWithSync(simpleExecContext.execContextGraphId, ()->
-                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()->
-                        batchLineSplitterTxService.createTasksTx(simpleExecContext, taskId, taskParamsYaml, numberOfLines, content)));
+                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()-> {
+                    int taskNumber = 0;
+                    do {
+                        taskNumber += batchLineSplitterTxService.createTasksTx(
+                                simpleExecContext, taskId, taskParamsYaml, reader, batchSize, taskNumber, lastIds);
+                    } while (reader.hasNext());
+                    if (taskNumber==0) {
+                        log.error("#994.290 there isn't any lines");
+                    }
+                    return null;
+                }));
     }
 }
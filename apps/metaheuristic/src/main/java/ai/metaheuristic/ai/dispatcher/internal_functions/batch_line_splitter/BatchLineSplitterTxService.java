@@ -20,6 +20,7 @@ import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.data.InternalFunctionData;
 import ai.metaheuristic.ai.dispatcher.data.VariableData;
+import ai.metaheuristic.ai.dispatcher.event.ResourceCloseTxEvent;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphService;
 import ai.metaheuristic.ai.dispatcher.internal_functions.InternalFunctionService;
 import ai.metaheuristic.ai.dispatcher.task.TaskProducingService;
@@ -35,19 +36,13 @@ import ai.metaheuristic.commons.exceptions.UnzipArchiveException;
 import ai.metaheuristic.commons.utils.MetaUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.LineIterator;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Serge
@@ -64,11 +59,21 @@ public class BatchLineSplitterTxService {
     private final InternalFunctionService internalFunctionService;
     private final TaskProducingService taskProducingService;
     private final ExecContextGraphService execContextGraphService;
-
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param reader chunks of records, a task will be created for each chunk
+     * @param batchSize max number of chunks which will be read within this transaction
+     * @param firstTaskNumber the number of chunks which were processed with previous batches
+     * @param lastIds ids of the last tasks of sub-processes, which were created with previous batches
+     * @return number of processed chunks
+     */
     @Transactional
-    public Void createTasksTx(ExecContextData.SimpleExecContext simpleExecContext, Long taskId, TaskParamsYaml taskParamsYaml, Long numberOfLines, String content) {
+    public int createTasksTx(
+            ExecContextData.SimpleExecContext simpleExecContext, Long taskId, TaskParamsYaml taskParamsYaml,
+            RecordChunkReader reader, int batchSize, int firstTaskNumber, List<Long> lastIds) {
         try {
-            createTasks(simpleExecContext, content, taskParamsYaml, taskId, numberOfLines);
+            return createTasks(simpleExecContext, reader, batchSize, firstTaskNumber, lastIds, taskParamsYaml, taskId);
         }
         catch (InternalFunctionException e) {
             throw e;
@@ -91,10 +96,11 @@ public class BatchLineSplitterTxService {
             throw new InternalFunctionException(
                     new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.system_error, es));
         }
-        return null;
     }
 
-    private void createTasks(ExecContextData.SimpleExecContext simpleExecContext, String content, TaskParamsYaml taskParamsYaml, Long taskId, Long numberOfLines) {
+    private int createTasks(
+            ExecContextData.SimpleExecContext simpleExecContext, RecordChunkReader reader, int batchSize, int firstTaskNumber, List<Long> lastIds,
+            TaskParamsYaml taskParamsYaml, Long taskId) {
         InternalFunctionData.ExecutionContextData executionContextData = internalFunctionService.getSubProcesses(simpleExecContext, taskParamsYaml, taskId);
         if (executionContextData.internalFunctionProcessingResult.processing!= Enums.InternalFunctionProcessing.ok) {
             throw new InternalFunctionException(executionContextData.internalFunctionProcessingResult);
@@ -113,30 +119,26 @@ public class BatchLineSplitterTxService {
                             "#994.280 Meta with key 'output-variable' wasn't found for process '"+executionContextData.process.processCode+"'"));
         }
 
-        List<List<String>> allLines = stringToListOfList(content, numberOfLines);
+        // temporary files of chunks are deleted right after this transaction, streams of them are closed at the same time,
+        // so files of chunks aren't accumulated until the end of whole split
+        final ResourceCloseTxEvent chunkFiles = new ResourceCloseTxEvent();
+        eventPublisher.publishEvent(chunkFiles);
 
-        final List<Long> lastIds = new ArrayList<>();
-        AtomicInteger currTaskNumber = new AtomicInteger(0);
+        final List<String> currTaskContextIds = new ArrayList<>();
+        int currTaskNumber = firstTaskNumber;
         String subProcessContextId = ContextUtils.getCurrTaskContextIdForSubProcesses(
                 taskId, taskParamsYaml.task.taskContextId, executionContextData.subProcesses.get(0).processContextId);
 
-        allLines.forEach( lines -> {
-            if (lines.isEmpty()) {
-                log.error("#994.290 there isn't any lines");
-                return;
-            }
-            currTaskNumber.incrementAndGet();
+        while (currTaskNumber - firstTaskNumber < batchSize && reader.hasNext()) {
+            VariableData.VariableDataSource variableDataSource = reader.next();
+            variableDataSource.files.forEach(f -> chunkFiles.add(f.file));
+            currTaskNumber++;
             try {
-                String str = StringUtils.join(lines, '\n' );
-
-                VariableData.VariableDataSource variableDataSource = new VariableData.VariableDataSource(str);
-                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
+                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber));
 
                 variableService.createInputVariablesForSubProcess(
                         variableDataSource, simpleExecContext.execContextId, variableName, currTaskContextId);
-
-                taskProducingService.createTasksForSubProcesses(
-                        simpleExecContext, executionContextData, currTaskContextId, taskId, lastIds);
+                currTaskContextIds.add(currTaskContextId);
 
             } catch (BatchProcessingException | StoreNewFileWithRedirectException e) {
                 throw e;
@@ -145,42 +147,14 @@ public class BatchLineSplitterTxService {
                 log.error(es, th);
                 throw new BatchResourceProcessingException(es);
             }
-        });
-        execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, executionContextData.descendants);
-    }
-
-    private static class CustomLineIterator extends LineIterator {
-
-        /**
-         * Constructs an iterator of the lines for a <code>Reader</code>.
-         *
-         * @param reader the <code>Reader</code> to read from, not null
-         * @throws IllegalArgumentException if the reader is null
-         */
-        public CustomLineIterator(Reader reader) throws IllegalArgumentException {
-            super(reader);
         }
+        // tasks of all chunks of this batch are added to graph at once
+        taskProducingService.createTasksForSubProcesses(
+                simpleExecContext, executionContextData, currTaskContextIds, taskId, lastIds);
 
-        @Override
-        protected boolean isValidLine(String line) {
-            return line!=null && !line.isBlank();
+        if (!reader.hasNext()) {
+            execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, executionContextData.descendants);
         }
+        return currTaskNumber - firstTaskNumber;
     }
-
-    private static List<List<String>> stringToListOfList(String content, Long numberOfLines) {
-        List<List<String>> allLines = new ArrayList<>();
-        LineIterator it = new CustomLineIterator(new InputStreamReader(new ByteArrayInputStream(content.getBytes()), StandardCharsets.UTF_8));
-
-        List<String> currList = new ArrayList<>();
-        allLines.add(currList);
-        while (it.hasNext()) {
-            if (currList.size()==numberOfLines) {
-                currList = new ArrayList<>();
-                allLines.add(currList);
-            }
-            currList.add(it.nextLine());
-        }
-        return allLines;
-    }
-
 }
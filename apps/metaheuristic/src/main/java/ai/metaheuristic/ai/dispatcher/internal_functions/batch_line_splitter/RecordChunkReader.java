@@ -0,0 +1,278 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.internal_functions.batch_line_splitter;
+
+import ai.metaheuristic.ai.dispatcher.batch.BatchTopLevelService;
+import ai.metaheuristic.ai.dispatcher.data.VariableData;
+import org.springframework.lang.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an input stream as a sequence of chunks, each chunk contains up to a specified number of records.
+ * Only one chunk is kept in memory, so the size of input isn't limited by heap.
+ *
+ * Supported delimiters of records:
+ * - lines - non-blank lines, lines of chunk are joined with '\n'
+ * - jsonl - JSON values, a value can span several lines, values of chunk are joined with '\n'
+ * - bytes - blocks of bytes, a chunk is stored in a temporary file because it can contain binary data,
+ *   the file must be deleted by consumer after the chunk was stored
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 11:40 AM
+ */
+public abstract class RecordChunkReader implements Closeable {
+
+    public static final String RECORD_DELIMITER = "record-delimiter";
+
+    public enum Delimiter { lines, jsonl, bytes }
+
+    public static Delimiter toDelimiter(@Nullable String s) {
+        if (s==null || s.isBlank()) {
+            return Delimiter.lines;
+        }
+        try {
+            return Delimiter.valueOf(s.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("#994.400 Unknown delimiter of records: " + s);
+        }
+    }
+
+    /**
+     * @param recordsPerChunk number of lines or json values per chunk, or number of bytes per chunk for Delimiter.bytes
+     * @param tempDir dir for chunks of Delimiter.bytes
+     */
+    public static RecordChunkReader create(Delimiter delimiter, InputStream is, long recordsPerChunk, File tempDir) {
+        if (recordsPerChunk<1) {
+            throw new IllegalArgumentException("#994.410 Number of records per chunk must be positive, actual: " + recordsPerChunk);
+        }
+        switch (delimiter) {
+            case lines:
+                return new LineChunkReader(is, recordsPerChunk);
+            case jsonl:
+                return new JsonChunkReader(is, recordsPerChunk);
+            case bytes:
+                return new ByteChunkReader(is, recordsPerChunk, tempDir);
+            default:
+                throw new IllegalStateException("#994.420 Unknown delimiter " + delimiter);
+        }
+    }
+
+    @Nullable
+    private VariableData.VariableDataSource nextChunk = null;
+    private boolean finished = false;
+
+    /**
+     * @return the next chunk or null if there isn't any records anymore
+     */
+    @Nullable
+    protected abstract VariableData.VariableDataSource readChunk() throws IOException;
+
+    public boolean hasNext() {
+        if (nextChunk==null && !finished) {
+            try {
+                nextChunk = readChunk();
+            } catch (IOException e) {
+                throw new UncheckedIOException("#994.430 Error while reading records", e);
+            }
+            finished = nextChunk==null;
+        }
+        return nextChunk!=null;
+    }
+
+    public VariableData.VariableDataSource next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        VariableData.VariableDataSource chunk = nextChunk;
+        nextChunk = null;
+        return chunk;
+    }
+
+    private static class LineChunkReader extends RecordChunkReader {
+        private final BufferedReader reader;
+        private final long linesPerChunk;
+
+        LineChunkReader(InputStream is, long linesPerChunk) {
+            this.reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            this.linesPerChunk = linesPerChunk;
+        }
+
+        @Nullable
+        @Override
+        protected VariableData.VariableDataSource readChunk() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            long lines = 0;
+            String line;
+            while (lines<linesPerChunk && (line = reader.readLine())!=null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (lines>0) {
+                    sb.append('\n');
+                }
+                sb.append(line);
+                lines++;
+            }
+            return lines==0 ? null : new VariableData.VariableDataSource(sb.toString());
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class JsonChunkReader extends RecordChunkReader {
+        private final Reader reader;
+        private final long valuesPerChunk;
+
+        JsonChunkReader(InputStream is, long valuesPerChunk) {
+            this.reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            this.valuesPerChunk = valuesPerChunk;
+        }
+
+        @Nullable
+        @Override
+        protected VariableData.VariableDataSource readChunk() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            long values = 0;
+            while (values<valuesPerChunk) {
+                if (values>0) {
+                    sb.append('\n');
+                }
+                int len = sb.length();
+                if (!readValue(sb)) {
+                    sb.setLength(values>0 ? len - 1 : len);
+                    break;
+                }
+                values++;
+            }
+            return values==0 ? null : new VariableData.VariableDataSource(sb.toString());
+        }
+
+        /**
+         * Reads one JSON value, whitespaces between values are skipped.
+         * Braces and brackets are tracked outside of strings only, so a value can span several lines.
+         *
+         * @return false if there isn't any value anymore
+         */
+        private boolean readValue(StringBuilder sb) throws IOException {
+            int c;
+            while ((c = reader.read())!=-1 && Character.isWhitespace(c)) {
+                // skip
+            }
+            if (c==-1) {
+                return false;
+            }
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            do {
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    }
+                    else if (c=='\\') {
+                        escaped = true;
+                    }
+                    else if (c=='"') {
+                        inString = false;
+                    }
+                }
+                else if (c=='"') {
+                    inString = true;
+                }
+                else if (c=='{' || c=='[') {
+                    depth++;
+                }
+                else if (c=='}' || c==']') {
+                    depth--;
+                }
+                else if (depth==0 && Character.isWhitespace(c)) {
+                    // the end of scalar value
+                    break;
+                }
+                sb.append((char) c);
+                if (depth==0 && !inString && (c=='}' || c==']' || c=='"')) {
+                    break;
+                }
+            } while ((c = reader.read())!=-1);
+
+            if (depth!=0 || inString) {
+                throw new IOException("#994.440 Broken JSON value at the end of input");
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class ByteChunkReader extends RecordChunkReader {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final InputStream is;
+        private final long bytesPerChunk;
+        private final File tempDir;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int chunkNumber = 0;
+
+        ByteChunkReader(InputStream is, long bytesPerChunk, File tempDir) {
+            this.is = is;
+            this.bytesPerChunk = bytesPerChunk;
+            this.tempDir = tempDir;
+        }
+
+        @Nullable
+        @Override
+        protected VariableData.VariableDataSource readChunk() throws IOException {
+            File file = null;
+            OutputStream os = null;
+            long total = 0;
+            try {
+                int read;
+                while (total<bytesPerChunk && (read = is.read(buffer, 0, (int) Math.min(buffer.length, bytesPerChunk - total)))!=-1) {
+                    if (os==null) {
+                        chunkNumber++;
+                        file = new File(tempDir, "chunk-" + chunkNumber + ".bin");
+                        os = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+                    }
+                    os.write(buffer, 0, read);
+                    total += read;
+                }
+            }
+            finally {
+                if (os!=null) {
+                    os.close();
+                }
+            }
+            return file==null ? null : new VariableData.VariableDataSource(List.of(new BatchTopLevelService.FileWithMapping(file, file.getName())));
+        }
+
+        @Override
+        public void close() throws IOException {
+            is.close();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package ai.metaheuristic.ai.dispatcher.internal_functions.batch_splitter;
 
 import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphSyncService;
 import ai.metaheuristic.ai.dispatcher.exec_context_task_state.ExecContextTaskStateSyncService;
@@ -42,8 +43,13 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ai.metaheuristic.ai.Consts.ZIP_EXT;
 import static ai.metaheuristic.ai.dispatcher.data.InternalFunctionData.InternalFunctionProcessingResult;
@@ -60,6 +66,7 @@ import static ai.metaheuristic.ai.dispatcher.data.InternalFunctionData.InternalF
 @RequiredArgsConstructor
 public class BatchSplitterFunction implements InternalFunction {
 
+    private final Globals globals;
     private final BatchSplitterTxService batchSplitterTxService;
     private final InternalFunctionVariableService internalFunctionVariableService;
     private final ExecContextGraphSyncService execContextGraphSyncService;
@@ -133,9 +140,23 @@ public class BatchSplitterFunction implements InternalFunction {
                 workingDir = tempDir;
                 mapping = Map.of(dataFile.getName(), originFilename);
             }
+            final List<Path> paths;
+            try (Stream<Path> stream = Files.list(workingDir.toPath())) {
+                paths = stream.collect(Collectors.toList());
+            }
+            final List<Long> lastIds = new ArrayList<>();
+            final int batchSize = globals.taskProducingBatchSize;
+
+            // a huge split is committed with several transactions, the graph is locked until all tasks will be created
             execContextGraphSyncService.getWithSync(simpleExecContext.execContextGraphId, ()->
-                    execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()->
-                            batchSplitterTxService.loadFilesFromDirAfterZip(simpleExecContext, workingDir, mapping, taskParamsYaml, taskId)));
+                    execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()-> {
+                        for (int i = 0; i < paths.size(); i += batchSize) {
+                            final int end = Math.min(paths.size(), i + batchSize);
+                            batchSplitterTxService.loadFilesFromDirAfterZip(
+                                    simpleExecContext, paths.subList(i, end), i, lastIds, end==paths.size(), mapping, taskParamsYaml, taskId);
+                        }
+                        return null;
+                    }));
         }
         catch(UnzipArchiveException e) {
             final String es = "#995.120 can't unzip an archive. Error: " + e.getMessage() + ", class: " + e.getClass();
@@ -66,8 +66,15 @@ public class BatchSplitterTxService {
     private final TaskProducingService taskProducingService;
     private final VariableService variableService;
 
+    /**
+     * @param batch files and dirs, a task will be created for each of them
+     * @param firstTaskNumber the number of files which were processed with previous batches
+     * @param lastIds ids of the last tasks of sub-processes, which were created with previous batches
+     * @param lastBatch edges to descendants of current process are created with the last batch
+     */
     @Transactional
-    public Void loadFilesFromDirAfterZip(ExecContextData.SimpleExecContext simpleExecContext, File srcDir,
+    public Void loadFilesFromDirAfterZip(ExecContextData.SimpleExecContext simpleExecContext, List<Path> batch, int firstTaskNumber,
+                                         List<Long> lastIds, boolean lastBatch,
                                          final Map<String, String> mapping, TaskParamsYaml taskParamsYaml, Long taskId) {
 
         InternalFunctionData.ExecutionContextData executionContextData = internalFunctionService.getSubProcesses(simpleExecContext, taskParamsYaml, taskId);
@@ -88,42 +95,39 @@ public class BatchSplitterTxService {
                             "#995.280 Meta with key 'output-variable' wasn't found for process '"+executionContextData.process.processCode+"'"));
         }
 
-        final List<Long> lastIds = new ArrayList<>();
-        AtomicInteger currTaskNumber = new AtomicInteger(0);
+        final List<String> currTaskContextIds = new ArrayList<>();
+        AtomicInteger currTaskNumber = new AtomicInteger(firstTaskNumber);
         String subProcessContextId = ContextUtils.getCurrTaskContextIdForSubProcesses(
                 taskId, taskParamsYaml.task.taskContextId, executionContextData.subProcesses.get(0).processContextId);
 
-        try {
-            Files.list(srcDir.toPath())
-                    .forEach( dataFilePath ->  {
-                        File file = dataFilePath.toFile();
-                        currTaskNumber.incrementAndGet();
-                        try {
-                            VariableData.VariableDataSource variableDataSource = getVariableDataSource(mapping, dataFilePath, file);
-                            if (variableDataSource == null) {
-                                return;
-                            }
-                            String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
-                            variableService.createInputVariablesForSubProcess(
-                                    variableDataSource, simpleExecContext.execContextId, variableName, currTaskContextId);
-
-                            taskProducingService.createTasksForSubProcesses(
-                                    simpleExecContext, executionContextData, currTaskContextId, taskId, lastIds);
-
-                        } catch (BatchProcessingException | StoreNewFileWithRedirectException e) {
-                            throw e;
-                        } catch (Throwable th) {
-                            String es = "#995.300 An error while saving data to file, " + th.getMessage();
-                            log.error(es, th);
-                            throw new BatchResourceProcessingException(es);
-                        }
-                    });
-        } catch (IOException e) {
-            String es = "#995.310 An error while saving data to file, " + e.getMessage();
-            log.error(es, e);
-            throw new BatchResourceProcessingException(es);
+        batch.forEach( dataFilePath ->  {
+            File file = dataFilePath.toFile();
+            currTaskNumber.incrementAndGet();
+            try {
+                VariableData.VariableDataSource variableDataSource = getVariableDataSource(mapping, dataFilePath, file);
+                if (variableDataSource == null) {
+                    return;
+                }
+                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
+                variableService.createInputVariablesForSubProcess(
+                        variableDataSource, simpleExecContext.execContextId, variableName, currTaskContextId);
+                currTaskContextIds.add(currTaskContextId);
+
+            } catch (BatchProcessingException | StoreNewFileWithRedirectException e) {
+                throw e;
+            } catch (Throwable th) {
+                String es = "#995.300 An error while saving data to file, " + th.getMessage();
+                log.error(es, th);
+                throw new BatchResourceProcessingException(es);
+            }
+        });
+        // tasks of all files of this batch are added to graph at once
+        taskProducingService.createTasksForSubProcesses(
+                simpleExecContext, executionContextData, currTaskContextIds, taskId, lastIds);
+
+        if (lastBatch) {
+            execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, executionContextData.descendants);
         }
-        execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, executionContextData.descendants);
         return null;
     }
 
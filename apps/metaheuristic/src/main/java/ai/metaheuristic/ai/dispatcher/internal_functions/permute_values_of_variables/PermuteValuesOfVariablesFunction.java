@@ -17,6 +17,7 @@
 package ai.metaheuristic.ai.dispatcher.internal_functions.permute_values_of_variables;
 
 import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.data.InternalFunctionData;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextGraphTopLevelService;
@@ -41,6 +42,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
@@ -58,6 +60,7 @@ import static ai.metaheuristic.ai.Enums.InternalFunctionProcessing.*;
 @RequiredArgsConstructor
 public class PermuteValuesOfVariablesFunction implements InternalFunction {
 
+    private final Globals globals;
     private final PermuteValuesOfVariablesService permuteValuesOfVariablesService;
     private final ExecContextGraphTopLevelService execContextGraphTopLevelService;
     private final InternalFunctionService internalFunctionService;
@@ -135,10 +138,22 @@ public class PermuteValuesOfVariablesFunction implements InternalFunction {
         final String subProcessContextId = ContextUtils.getCurrTaskContextIdForSubProcesses(
                 taskId, taskParamsYaml.task.taskContextId, executionContextData.subProcesses.get(0).processContextId);
 
+        final int total = inlineVariables.size();
+        final int windowSize = globals.taskProducingBatchSize;
+        final List<Long> lastIds = new ArrayList<>();
+
+        // variants are materialized and committed window by window, the graph is locked until all tasks will be created
         execContextGraphSyncService.getWithSync(simpleExecContext.execContextGraphId, ()->
-                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()->
+                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()-> {
+                    int from = 0;
+                    do {
+                        final int to = Math.min(total, from + windowSize);
                         permuteValuesOfVariablesService.createTaskForPermutations(
                                 simpleExecContext, taskId, executionContextData, descendants, subProcessContextId,
-                                inlineVariables)));
+                                inlineVariables, from, to, lastIds, to==total);
+                        from = to;
+                    } while (from < total);
+                    return null;
+                }));
     }
 }
@@ -37,7 +37,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Serge
@@ -54,36 +53,43 @@ public class PermuteValuesOfVariablesService {
     private final ExecContextGraphService execContextGraphService;
     private final TaskProducingService taskProducingService;
 
+    /**
+     * @param inlineVariables all variants, only variants of current window are materialized
+     * @param from index of the first variant of this window
+     * @param to index of the last variant of this window, exclusive
+     * @param lastIds ids of the last tasks of sub-processes, which were created with previous windows
+     * @param lastWindow edges to descendants of current process are created with the last window
+     */
     @Transactional
     public Void createTaskForPermutations(
             ExecContextData.SimpleExecContext simpleExecContext, Long taskId, InternalFunctionData.ExecutionContextData executionContextData,
-            Set<ExecContextData.TaskVertex> descendants, String subProcessContextId, List<InlineVariable> inlineVariables) {
+            Set<ExecContextData.TaskVertex> descendants, String subProcessContextId, List<InlineVariable> inlineVariables,
+            int from, int to, List<Long> lastIds, boolean lastWindow) {
 
-        final AtomicInteger currTaskNumber = new AtomicInteger(0);
-        final List<Long> lastIds = new ArrayList<>();
-        for (InlineVariable inlineVariable : inlineVariables) {
-            try {
-                currTaskNumber.incrementAndGet();
-                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
+        final List<String> currTaskContextIds = new ArrayList<>(to - from);
+        try {
+            for (int i = from; i < to; i++) {
+                final InlineVariable inlineVariable = inlineVariables.get(i);
+                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(i + 1));
 
                 for (Map.Entry<String, String> entry : inlineVariable.params.entrySet()) {
                     VariableData.VariableDataSource variableDataSource = new VariableData.VariableDataSource(entry.getValue());
                     variableService.createInputVariablesForSubProcess(
                             variableDataSource, simpleExecContext.execContextId, entry.getKey(), currTaskContextId, false);
                 }
-                taskProducingService.createTasksForSubProcesses(
-                        simpleExecContext, executionContextData, currTaskContextId, taskId, lastIds);
-
-            } catch (BreakFromLambdaException e) {
-                log.error(e.getMessage());
-                throw new InternalFunctionException(
-                        new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
+                currTaskContextIds.add(currTaskContextId);
             }
-        }
-        execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, descendants);
+            taskProducingService.createTasksForSubProcesses(
+                    simpleExecContext, executionContextData, currTaskContextIds, taskId, lastIds);
 
+        } catch (BreakFromLambdaException e) {
+            log.error(e.getMessage());
+            throw new InternalFunctionException(
+                    new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
+        }
+        if (lastWindow) {
+            execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, descendants);
+        }
         return null;
     }
-
-
 }
@@ -18,6 +18,7 @@ package ai.metaheuristic.ai.dispatcher.internal_functions.permute_variables_and_
 
 import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
 import ai.metaheuristic.ai.dispatcher.data.InlineVariableData;
 import ai.metaheuristic.ai.dispatcher.data.InternalFunctionData;
@@ -38,6 +39,7 @@ import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import ai.metaheuristic.commons.S;
+import ai.metaheuristic.commons.permutation.Combinations;
 import ai.metaheuristic.commons.utils.MetaUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +47,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -63,6 +66,7 @@ import static ai.metaheuristic.ai.Enums.InternalFunctionProcessing.*;
 @RequiredArgsConstructor
 public class PermuteVariablesAndInlinesFunction implements InternalFunction {
 
+    private final Globals globals;
     private final PermuteVariablesAndInlinesTxService permuteVariablesAndInlinesTxService;
     private final InternalFunctionVariableService internalFunctionVariableService;
     private final ExecContextGraphTopLevelService execContextGraphTopLevelService;
@@ -159,9 +163,29 @@ public class PermuteVariablesAndInlinesFunction implements InternalFunction {
         final String subProcessContextId = ContextUtils.getCurrTaskContextIdForSubProcesses(
                 taskId, taskParamsYaml.task.taskContextId, executionContextData.subProcesses.get(0).processContextId);
 
+        if (holders.size()>Combinations.MAX_ITEMS) {
+            throw new InternalFunctionException(system_error, "#987.190 Too many variables for permutation, max: " + Combinations.MAX_ITEMS + ", actual: " + holders.size());
+        }
+        // combinations of variables aren't materialized, a window of tasks gets its combinations by index
+        final List<List<VariableUtils.VariableHolder>> permutedVariables = new Combinations<>(holders);
+        log.info("#987.200 variables for permutation: {}, number of combinations: {}",
+                holders.stream().map(VariableUtils.VariableHolder::getName).collect(Collectors.joining(", ")), permutedVariables.size());
+        final int total = Math.multiplyExact(permutedVariables.size(), inlines!=null ? inlines.inlineVariables.size() : 1);
+        final int windowSize = globals.taskProducingBatchSize;
+        final List<Long> lastIds = new ArrayList<>();
+
+        // permutations are materialized and committed window by window, the graph is locked until all tasks will be created
         execContextGraphSyncService.getWithSync(simpleExecContext.execContextGraphId, ()->
-                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()->
+                execContextTaskStateSyncService.getWithSync(simpleExecContext.execContextTaskStateId, ()-> {
+                    int from = 0;
+                    do {
+                        final int to = Math.min(total, from + windowSize);
                         permuteVariablesAndInlinesTxService.createTaskFroPermutations(
-                                simpleExecContext, taskId, executionContextData, descendants, holders, variableName, subProcessContextId, inlines)));
+                                simpleExecContext, taskId, executionContextData, descendants, permutedVariables, variableName,
+                                subProcessContextId, inlines, from, to, lastIds, to==total);
+                        from = to;
+                    } while (from < total);
+                    return null;
+                }));
     }
 }
@@ -26,7 +26,6 @@ import ai.metaheuristic.ai.dispatcher.variable.VariableUtils;
 import ai.metaheuristic.ai.exceptions.BreakFromLambdaException;
 import ai.metaheuristic.ai.exceptions.InternalFunctionException;
 import ai.metaheuristic.ai.utils.ContextUtils;
-import ai.metaheuristic.commons.permutation.Permutation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
@@ -35,8 +34,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 /**
  * @author Serge
@@ -53,64 +50,55 @@ public class PermuteVariablesAndInlinesTxService {
     private final ExecContextGraphService execContextGraphService;
     private final TaskProducingService taskProducingService;
 
+    /**
+     * Creates tasks for one window of permutations. The space of permutations is combinations of variables
+     * multiplied by variants of inlines, and a permutation is addressed by its index in this space,
+     * so only permutations of current window are materialized.
+     *
+     * @param permutedVariables all combinations of variables
+     * @param from index of the first permutation of this window
+     * @param to index of the last permutation of this window, exclusive
+     * @param lastIds ids of the last tasks of sub-processes, which were created with previous windows
+     * @param lastWindow edges to descendants of current process are created with the last window
+     */
     @Transactional
     public Void createTaskFroPermutations(
             ExecContextData.SimpleExecContext simpleExecContext, Long taskId, InternalFunctionData.ExecutionContextData executionContextData,
-            Set<ExecContextData.TaskVertex> descendants, List<VariableUtils.VariableHolder> holders, String variableName,
-            String subProcessContextId, @Nullable PermutationData.Inlines inlines) {
-
-        final AtomicInteger currTaskNumber = new AtomicInteger(0);
-        final List<Long> lastIds = new ArrayList<>();
-        final Permutation<VariableUtils.VariableHolder> permutation = new Permutation<>();
-        for (int i = 0; i < holders.size(); i++) {
-            try {
-                permutation.printCombination(holders, i+1,
-                        permutedVariables -> {
-                            log.info(permutedVariables.stream().map(VariableUtils.VariableHolder::getName).collect(Collectors.joining(", ")));
-                            if (inlines!=null) {
-                                for (InlineVariable inlineVariable : inlines.inlineVariables) {
-                                    currTaskNumber.incrementAndGet();
-                                    Map<String, Map<String, String>> map = new HashMap<>(simpleExecContext.paramsYaml.variables.inline);
-                                    map.put(inlines.item.inlineKey, inlineVariable.params);
-
-                                    VariableData.VariableDataSource variableDataSource = new VariableData.VariableDataSource(
-                                            new VariableData.Permutation(permutedVariables, variableName, map, inlines.inlineVariableName, inlineVariable.params, true));
-
-                                    String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
-
-                                    variableService.createInputVariablesForSubProcess(
-                                            variableDataSource, simpleExecContext.execContextId, variableName, currTaskContextId);
-
-                                    taskProducingService.createTasksForSubProcesses(
-                                            simpleExecContext, executionContextData, currTaskContextId, taskId, lastIds);
-                                }
-                            }
-                            else {
-                                currTaskNumber.incrementAndGet();
-
-                                VariableData.VariableDataSource variableDataSource = new VariableData.VariableDataSource(
-                                        new VariableData.Permutation(permutedVariables, variableName, simpleExecContext.paramsYaml.variables.inline,
-                                                null, null, false));
-
-                                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(currTaskNumber.get()));
-
-                                variableService.createInputVariablesForSubProcess(
-                                        variableDataSource, simpleExecContext.execContextId, variableName, currTaskContextId);
-
-                                taskProducingService.createTasksForSubProcesses(
-                                        simpleExecContext, executionContextData, currTaskContextId, taskId, lastIds);
-                            }
-                            return true;
-                        }
-                );
-            } catch (BreakFromLambdaException e) {
-                log.error(e.getMessage());
-                throw new InternalFunctionException(
-                        new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
+            Set<ExecContextData.TaskVertex> descendants, List<List<VariableUtils.VariableHolder>> permutedVariables, String variableName,
+            String subProcessContextId, @Nullable PermutationData.Inlines inlines, int from, int to, List<Long> lastIds, boolean lastWindow) {
+
+        final int inlinesSize = inlines!=null ? inlines.inlineVariables.size() : 1;
+        final List<String> currTaskContextIds = new ArrayList<>(to - from);
+        try {
+            for (int i = from; i < to; i++) {
+                final List<VariableUtils.VariableHolder> variables = permutedVariables.get(i / inlinesSize);
+                final VariableData.Permutation permutation;
+                if (inlines!=null) {
+                    final InlineVariable inlineVariable = inlines.inlineVariables.get(i % inlinesSize);
+                    Map<String, Map<String, String>> map = new HashMap<>(simpleExecContext.paramsYaml.variables.inline);
+                    map.put(inlines.item.inlineKey, inlineVariable.params);
+                    permutation = new VariableData.Permutation(variables, variableName, map, inlines.inlineVariableName, inlineVariable.params, true);
+                }
+                else {
+                    permutation = new VariableData.Permutation(variables, variableName, simpleExecContext.paramsYaml.variables.inline, null, null, false);
+                }
+                String currTaskContextId = ContextUtils.getTaskContextId(subProcessContextId, Integer.toString(i + 1));
+
+                variableService.createInputVariablesForSubProcess(
+                        new VariableData.VariableDataSource(permutation), simpleExecContext.execContextId, variableName, currTaskContextId);
+                currTaskContextIds.add(currTaskContextId);
             }
-        }
-        execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, descendants);
+            taskProducingService.createTasksForSubProcesses(
+                    simpleExecContext, executionContextData, currTaskContextIds, taskId, lastIds);
 
+        } catch (BreakFromLambdaException e) {
+            log.error(e.getMessage());
+            throw new InternalFunctionException(
+                    new InternalFunctionData.InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
+        }
+        if (lastWindow) {
+            execContextGraphService.createEdges(simpleExecContext.execContextGraphId, lastIds, descendants);
+        }
         return null;
     }
 
@@ -38,7 +38,7 @@ import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import ai.metaheuristic.commons.S;
-import ai.metaheuristic.commons.permutation.Permutation;
+import ai.metaheuristic.commons.permutation.Combinations;
 import ai.metaheuristic.commons.utils.MetaUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -144,36 +144,12 @@ public class PermuteVariablesAndInlinesAsVariableFunction implements InternalFun
                     "#991.180 Meta with key 'inline-permutation' wasn't found for process '"+process.processCode+"'");
         }
         final List<InlineVariable> inlineVariables = permuteInlines ? InlineVariableUtils.getAllInlineVariants(item.inlines) : List.of();
-        final Permutation<VariableUtils.VariableHolder> permutation = new Permutation<>();
-
-        final List<VariableData.Permutation> permutations = new ArrayList<>();
-        for (int i = 0; i < holders.size(); i++) {
-            try {
-                permutation.printCombination(holders, i+1,
-                        permutedVariables -> {
-                            log.info(permutedVariables.stream().map(VariableUtils.VariableHolder::getName).collect(Collectors.joining(", ")));
-                            if (permuteInlines) {
-                                for (InlineVariable inlineVariable : inlineVariables) {
-                                    Map<String, Map<String, String>> map = new HashMap<>(simpleExecContext.paramsYaml.variables.inline);
-                                    map.put(item.inlineKey, inlineVariable.params);
-
-                                    permutations.add(
-                                            new VariableData.Permutation(permutedVariables, variableName, map, inlineVariableName, inlineVariable.params, true));
-                                }
-                            }
-                            else {
-                                permutations.add(
-                                        new VariableData.Permutation(permutedVariables, variableName, simpleExecContext.paramsYaml.variables.inline, null, null, false));
-                            }
-                            return true;
-                        }
-                );
-            } catch (BreakFromLambdaException e) {
-                log.error(e.getMessage());
-                throw new InternalFunctionException(
-                    new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
-            }
+        if (holders.size()>Combinations.MAX_ITEMS) {
+            throw new InternalFunctionException(system_error, "#991.190 Too many variables for permutation, max: " + Combinations.MAX_ITEMS + ", actual: " + holders.size());
         }
+        final List<List<VariableUtils.VariableHolder>> combinations = new Combinations<>(holders);
+        log.info("#991.195 variables for permutation: {}, number of combinations: {}",
+                holders.stream().map(VariableUtils.VariableHolder::getName).collect(Collectors.joining(", ")), combinations.size());
 
         TaskParamsYaml.OutputVariable outputVariable = taskParamsYaml.task.outputs.get(0);
         if (outputVariable.context != EnumsApi.VariableContext.local) {
@@ -181,9 +157,27 @@ public class PermuteVariablesAndInlinesAsVariableFunction implements InternalFun
                             "#991.200 Can't store data in a global variable " + outputVariable.name);
         }
 
+        // the whole result is one variable, but permutations aren't collected, each of them is appended to result right away
         StringBuilder json = new StringBuilder();
-        for (VariableData.Permutation p : permutations) {
-            json.append(VariableUtils.permutationAsString(p)).append('\n');
+        try {
+            for (List<VariableUtils.VariableHolder> permutedVariables : combinations) {
+                if (permuteInlines) {
+                    for (InlineVariable inlineVariable : inlineVariables) {
+                        Map<String, Map<String, String>> map = new HashMap<>(simpleExecContext.paramsYaml.variables.inline);
+                        map.put(item.inlineKey, inlineVariable.params);
+                        json.append(VariableUtils.permutationAsString(
+                                new VariableData.Permutation(permutedVariables, variableName, map, inlineVariableName, inlineVariable.params, true))).append('\n');
+                    }
+                }
+                else {
+                    json.append(VariableUtils.permutationAsString(
+                            new VariableData.Permutation(permutedVariables, variableName, simpleExecContext.paramsYaml.variables.inline, null, null, false))).append('\n');
+                }
+            }
+        } catch (BreakFromLambdaException e) {
+            log.error(e.getMessage());
+            throw new InternalFunctionException(
+                new InternalFunctionProcessingResult(Enums.InternalFunctionProcessing.source_code_is_broken, e.getMessage()));
         }
         byte[] bytes = json.toString().getBytes();
         variableService.updateWithTx(new ByteArrayInputStream(bytes), bytes.length, outputVariable.id);
@@ -16,17 +16,29 @@
 
 package ai.metaheuristic.ai.dispatcher.processor;
 
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.dispatcher.beans.Processor;
+import ai.metaheuristic.ai.dispatcher.commons.VersionedEntityCache;
+import ai.metaheuristic.ai.dispatcher.data.ProcessorData;
 import ai.metaheuristic.ai.dispatcher.repositories.ProcessorRepository;
 import ai.metaheuristic.ai.utils.TxUtils;
+import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYaml;
+import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYamlUtils;
+import ai.metaheuristic.commons.S;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 /**
  * @author Serge
  * Date: 5/29/2019
@@ -39,23 +51,33 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ProcessorCache {
 
+    private static final int MAX_SIZE = 10_000;
+
     private final ProcessorRepository processorRepository;
 
-//    @CacheEvict(cacheNames = {Consts.PROCESSORS_CACHE}, allEntries = true)
+    private final VersionedEntityCache<Processor> cache = new VersionedEntityCache<>(
+            Consts.PROCESSORS_CACHE, MAX_SIZE, o->o.id, o->o.version, ProcessorCache::copy);
+
+    // key - processorId, value - capabilities which were compiled from the current version of Processor.status
+    private final Map<Long, ProcessorData.ProcessorCapability> capabilities = new ConcurrentHashMap<>();
+
     public void clearCache() {
         TxUtils.checkTxExists();
+        cache.clear();
     }
 
-//    @CachePut(cacheNames = {Consts.PROCESSORS_CACHE}, key = "#result.id")
     public Processor save(@NonNull Processor processor) {
         TxUtils.checkTxExists();
         log.debug("#457.010 save processor, id: #{}, processor: {}", processor.id, processor);
-        return processorRepository.save(processor);
+        Processor result = processorRepository.save(processor);
+        cache.onSave(result);
+        return result;
     }
 
-//    @CacheEvict(cacheNames = {Consts.PROCESSORS_CACHE}, key = "#processor.id")
     public void delete(@NonNull Processor processor) {
         TxUtils.checkTxExists();
+        cache.onDelete(processor.id);
+        capabilities.remove(processor.id);
         try {
             processorRepository.delete(processor);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -63,15 +85,16 @@ public class ProcessorCache {
         }
     }
 
-//    @CacheEvict(cacheNames = {Consts.PROCESSORS_CACHE}, key = "#id")
     public void evictById(Long id) {
         TxUtils.checkTxExists();
-        //
+        cache.evict(id);
+        capabilities.remove(id);
     }
 
-//    @CacheEvict(cacheNames = {Consts.PROCESSORS_CACHE}, key = "#processorId")
     public void delete(Long processorId) {
         TxUtils.checkTxExists();
+        cache.onDelete(processorId);
+        capabilities.remove(processorId);
         try {
             processorRepository.deleteById(processorId);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -79,9 +102,10 @@ public class ProcessorCache {
         }
     }
 
-//    @CacheEvict(cacheNames = {Consts.PROCESSORS_CACHE}, key = "#processorId")
     public void deleteById(Long processorId) {
         TxUtils.checkTxExists();
+        cache.onDelete(processorId);
+        capabilities.remove(processorId);
         try {
             processorRepository.deleteById(processorId);
         } catch (ObjectOptimisticLockingFailureException e) {
@@ -89,9 +113,67 @@ public class ProcessorCache {
         }
     }
 
+    /**
+     * @return managed instance if there is an active Tx, or a detached copy otherwise
+     */
     @Nullable
-//    @Cacheable(cacheNames = {Consts.PROCESSORS_CACHE}, unless="#result==null")
     public Processor findById(Long id) {
-        return processorRepository.findById(id).orElse(null);
+        return cache.findById(id, processorRepository::findById);
+    }
+
+    public VersionedEntityCache.Stats getStats() {
+        return cache.getStats();
+    }
+
+    private static Processor copy(Processor p) {
+        Processor copy = new Processor();
+        copy.id = p.id;
+        copy.version = p.version;
+        copy.updatedOn = p.updatedOn;
+        copy.ip = p.ip;
+        copy.description = p.description;
+        copy.status = p.status;
+        return copy;
+    }
+
+    /**
+     * Returns capabilities of processor. Processor.status is parsed only once for each version of Processor,
+     * i.e. after keep-alive request had updated the status
+     *
+     * @param processor Processor
+     * @return ProcessorData.ProcessorCapability or null if Processor.status is broken
+     */
+    @Nullable
+    public ProcessorData.ProcessorCapability getCapability(Processor processor) {
+        ProcessorData.ProcessorCapability capability = capabilities.get(processor.id);
+        if (capability!=null && Objects.equals(capability.version, processor.version)) {
+            return capability;
+        }
+        try {
+            ProcessorStatusYaml psy = ProcessorStatusYamlUtils.BASE_YAML_UTILS.to(processor.status);
+            capability = toCapability(processor.id, processor.version, psy);
+        } catch (Throwable e) {
+            log.error("#457.080 Error parsing current status of processor:\n{}", processor.status);
+            log.error("#457.100 Error ", e);
+            return null;
+        }
+        capabilities.put(processor.id, capability);
+        return capability;
+    }
+
+    public static ProcessorData.ProcessorCapability toCapability(Long processorId, @Nullable Long version, ProcessorStatusYaml psy) {
+        Set<String> readyFunctions = psy.downloadStatuses.stream()
+                .filter(o->o.functionState==Enums.FunctionState.ready && o.functionCode!=null)
+                .map(o->o.functionCode)
+                .collect(Collectors.toUnmodifiableSet());
+
+        List<Long> taskIds = S.b(psy.taskIds)
+                ? List.of()
+                : Arrays.stream(StringUtils.split(psy.taskIds, ", ")).map(Long::parseLong).collect(Collectors.toUnmodifiableList());
+
+        return new ProcessorData.ProcessorCapability(
+                processorId, version, readyFunctions,
+                psy.env==null ? Map.of() : Collections.unmodifiableMap(new HashMap<>(psy.env.envs)), psy.env==null, psy.env==null ? null : psy.env.tags,
+                psy.os, psy.gitStatusInfo==null ? null : psy.gitStatusInfo.status, psy.taskParamsVersion, taskIds);
     }
 }
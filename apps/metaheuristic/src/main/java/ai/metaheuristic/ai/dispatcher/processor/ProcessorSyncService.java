@@ -38,7 +38,7 @@ import java.util.function.Supplier;
 @Profile("dispatcher")
 public class ProcessorSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("processor");
 
     public void checkWriteLockPresent(Long execContextId) {
         if (!getWriteLock(execContextId).isHeldByCurrentThread()) {
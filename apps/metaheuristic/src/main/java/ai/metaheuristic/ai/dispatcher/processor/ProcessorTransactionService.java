@@ -282,6 +282,7 @@ public class ProcessorTransactionService {
         env.envs.putAll(envYaml.envs);
         env.mirrors.putAll(envYaml.mirrors);
         env.tags = envYaml.tags;
+        env.slots = envYaml.slots;
         return env;
     }
 
@@ -300,11 +301,11 @@ public class ProcessorTransactionService {
     }
 
     private static boolean isEnvEmpty(@Nullable ProcessorStatusYaml.Env env) {
-        return env==null || (CollectionUtils.isEmpty(env.envs) && CollectionUtils.isEmpty(env.mirrors) && S.b(env.tags));
+        return env==null || (CollectionUtils.isEmpty(env.envs) && CollectionUtils.isEmpty(env.mirrors) && S.b(env.tags) && env.slots==null);
     }
 
     private static boolean isEnvEmpty(@Nullable KeepAliveRequestParamYaml.Env env) {
-        return env==null || (CollectionUtils.isEmpty(env.envs) && CollectionUtils.isEmpty(env.mirrors) && S.b(env.tags));
+        return env==null || (CollectionUtils.isEmpty(env.envs) && CollectionUtils.isEmpty(env.mirrors) && S.b(env.tags) && env.slots==null);
     }
 
     public static boolean envNotEquals(@Nullable ProcessorStatusYaml.Env env1, @Nullable KeepAliveRequestParamYaml.Env env2) {
@@ -338,7 +339,7 @@ public class ProcessorTransactionService {
                 return true;
             }
         }
-        return StringUtils.compare(env1.tags, env2.tags)!=0;
+        return StringUtils.compare(env1.tags, env2.tags)!=0 || !Objects.equals(env1.slots, env2.slots);
     }
 
     public static boolean isProcessorStatusDifferent(ProcessorStatusYaml ss, KeepAliveRequestParamYaml.ReportProcessor status) {
@@ -22,6 +22,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -50,6 +51,15 @@ public interface CacheVariableRepository extends CrudRepository<CacheVariable, L
     @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
     Blob getDataAsStreamById(Long id);
 
+    @Nullable
+    @Query(value="select b.storageRef from CacheVariable b where b.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    String getStorageRefById(Long id);
+
+    @Query(value="select distinct b.storageRef from CacheVariable b where b.storageRef is not null")
+    @Transactional(readOnly = true)
+    List<String> findAllStorageRefs();
+
     @Query(value="select b.id, b.variableName, b.nullified from CacheVariable b where b.cacheProcessId=:cacheProcessId")
     @Transactional(readOnly = true)
     List<Object[]> getIdsByCacheProcessId(Long cacheProcessId);
@@ -0,0 +1,46 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.dispatcher.repositories;
+
+import ai.metaheuristic.ai.dispatcher.beans.ExecContextTaskStateChange;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:45 PM
+ */
+@Repository
+@Profile("dispatcher")
+public interface ExecContextTaskStateChangeRepository extends CrudRepository<ExecContextTaskStateChange, Long> {
+
+    @Query(value="select c from ExecContextTaskStateChange c where c.execContextTaskStateId=:execContextTaskStateId order by c.id")
+    List<ExecContextTaskStateChange> findAllByExecContextTaskStateId(Long execContextTaskStateId);
+
+    @Modifying
+    @Query(value="delete from ExecContextTaskStateChange c where c.execContextTaskStateId=:execContextTaskStateId and c.id<=:lastId")
+    void deleteAllUpTo(Long execContextTaskStateId, Long lastId);
+
+    @Modifying
+    @Query(value="delete from ExecContextTaskStateChange c where c.execContextTaskStateId in :execContextTaskStateIds")
+    void deleteAllByExecContextTaskStateIdIn(List<Long> execContextTaskStateIds);
+}
@@ -53,6 +53,10 @@ public interface ExperimentTaskRepository extends CrudRepository<ExperimentTask,
     @Query("SELECT at.id FROM ExperimentTask at where at.experimentResultId=:experimentResultId ")
     Set<Long> findIdsByExperimentResultId(Long experimentResultId);
 
+    @Transactional(readOnly = true)
+    @Query("SELECT at FROM ExperimentTask at where at.experimentResultId=:experimentResultId and at.id>:lastId order by at.id asc ")
+    List<ExperimentTask> findAllAfterId(Pageable pageable, Long experimentResultId, Long lastId);
+
     @Transactional(readOnly = true)
     @Nullable
     ExperimentTask findByExperimentResultIdAndTaskId(Long experimentResultId, Long taskId);
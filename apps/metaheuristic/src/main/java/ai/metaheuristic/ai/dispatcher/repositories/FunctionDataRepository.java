@@ -27,6 +27,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Blob;
+import java.util.List;
 
 /**
  * @author Serge
@@ -48,6 +49,15 @@ public interface FunctionDataRepository extends CrudRepository<FunctionData, Lon
     @Query(value="select b.data from FunctionData b where b.functionCode=:functionCode")
     Blob getDataAsStreamByCode(String functionCode);
 
+    @Nullable
+    @Query(value="select b.storageRef from FunctionData b where b.functionCode=:functionCode")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    String getStorageRefByCode(String functionCode);
+
+    @Query(value="select distinct b.storageRef from FunctionData b where b.storageRef is not null")
+    @Transactional(readOnly = true)
+    List<String> findAllStorageRefs();
+
 //    @Transactional(readOnly = true)
     @Nullable
     @Query(value="select b from FunctionData b where b.functionCode=:functionCode")
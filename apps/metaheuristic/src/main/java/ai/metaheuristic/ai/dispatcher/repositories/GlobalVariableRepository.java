@@ -32,6 +32,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Blob;
+import java.sql.Timestamp;
 import java.util.List;
 
 /**
@@ -54,6 +55,28 @@ public interface GlobalVariableRepository extends CrudRepository<GlobalVariable,
     @Query(value="select b.data from GlobalVariable b where b.id=:id")
     Blob getDataAsStreamById(Long id);
 
+    @Nullable
+    @Query(value="select b.storageRef from GlobalVariable b where b.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    String getStorageRefById(Long id);
+
+    @Query(value="select distinct b.storageRef from GlobalVariable b where b.storageRef is not null")
+    @Transactional(readOnly = true)
+    List<String> findAllStorageRefs();
+
+    @Query(value="select b.id, b.contentSha256, b.contentLength from GlobalVariable b where b.id in :ids")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    List<Object[]> getContentChecksums(List<Long> ids);
+
+    @Modifying
+    @Query(value="update GlobalVariable b set b.contentSha256=:sha256, b.contentLength=:length where b.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY)
+    void setContentChecksum(Long id, String sha256, Long length);
+
+    @Nullable
+    @Query(value="select b.uploadTs from GlobalVariable b where b.id=:id")
+    Timestamp getUploadTsById(Long id);
+
     @Transactional(readOnly = true)
     @Nullable
     @Query(value="select new ai.metaheuristic.ai.dispatcher.variable_global.SimpleGlobalVariable(" +
@@ -29,6 +29,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Blob;
+import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -62,6 +63,10 @@ public interface VariableRepository extends CrudRepository<Variable, Long> {
             "from Variable v where v.execContextId=:execContextId and v.name in (:names)")
     List<SimpleVariable> getIdAndStorageUrlInVarsForExecContext(Long execContextId, String[] names);
 
+    @Query(value="select new ai.metaheuristic.ai.dispatcher.variable.SimpleVariable(v.id, v.name, v.params, v.filename, v.inited, v.nullified, v.taskContextId) " +
+            "from Variable v where v.execContextId=:execContextId and v.name in (:names) and v.taskContextId in (:taskContextIds)")
+    List<SimpleVariable> findByExecContextIdAndNamesAndTaskContextIds(Long execContextId, Collection<String> names, Collection<String> taskContextIds);
+
 //    @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
     @Nullable
     @Query(value="select new ai.metaheuristic.ai.dispatcher.variable.SimpleVariable(v.id, v.name, v.params, v.filename, v.inited, v.nullified, v.taskContextId) " +
@@ -91,6 +96,28 @@ public interface VariableRepository extends CrudRepository<Variable, Long> {
     @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
     Blob getDataAsStreamById(Long id);
 
+    @Nullable
+    @Query(value="select b.storageRef from Variable b where b.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    String getStorageRefById(Long id);
+
+    @Query(value="select distinct b.storageRef from Variable b where b.storageRef is not null")
+    @Transactional(readOnly = true)
+    List<String> findAllStorageRefs();
+
+    @Query(value="select b.id, b.contentSha256, b.contentLength from Variable b where b.id in :ids")
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    List<Object[]> getContentChecksums(List<Long> ids);
+
+    @Modifying
+    @Query(value="update Variable b set b.contentSha256=:sha256, b.contentLength=:length where b.id=:id")
+    @Transactional(propagation = Propagation.MANDATORY)
+    void setContentChecksum(Long id, String sha256, Long length);
+
+    @Nullable
+    @Query(value="select b.uploadTs from Variable b where b.id=:id")
+    Timestamp getUploadTsById(Long id);
+
     @Modifying
     @Query(value="delete from Variable v where v.execContextId=:execContextId")
     void deleteByExecContextId(Long execContextId);
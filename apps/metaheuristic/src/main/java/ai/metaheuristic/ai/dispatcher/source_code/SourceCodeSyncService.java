@@ -38,7 +38,7 @@ import java.util.function.Supplier;
 @Slf4j
 public class SourceCodeSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("sourceCode");
 
     public void checkWriteLockPresent(Long sourceCodeId) {
         if (!getWriteLock(sourceCodeId).isHeldByCurrentThread()) {
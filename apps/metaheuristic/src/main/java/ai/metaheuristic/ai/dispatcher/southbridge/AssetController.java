@@ -21,6 +21,7 @@ import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.data.DispatcherData;
 import ai.metaheuristic.ai.dispatcher.function.FunctionTopLevelService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
+import ai.metaheuristic.ai.utils.FileRangeUtils;
 import ai.metaheuristic.ai.utils.cleaner.CleanerInfo;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.replication.ReplicationApiData;
@@ -38,6 +39,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 
@@ -90,6 +92,38 @@ public class AssetController {
         return entity;
     }
 
+    /**
+     * Delivering of function with support of 'Range' header
+     */
+    @GetMapping(value="/function-data/{random-part}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void deliverFunctionWithRange(
+            HttpServletRequest request, HttpServletResponse response,
+            @SuppressWarnings("unused") @PathVariable("random-part") String randomPart,
+            @Nullable String code) throws IOException {
+        if (globals.assetMode== EnumsApi.DispatcherAssetMode.replicated) {
+            log.error("#105.030 Current dispatcher is configured with assetMode==replicated, but you're trying to use it as the source for downloading of functions");
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            return;
+        }
+        log.debug("deliverFunctionWithRange(), code: {}", code);
+        if (S.b(code)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        final File file;
+        try {
+            file = serverService.prepareDataFile(null, EnumsApi.DataType.function, code);
+        } catch (CommonErrorWithDataException e) {
+            response.sendError(HttpServletResponse.SC_GONE);
+            return;
+        }
+        try {
+            FileRangeUtils.send(request, response, file);
+        } finally {
+            serverService.releaseDataFile(file);
+        }
+    }
+
     @PostMapping("/function-checksum/{random-part}")
     public Map<EnumsApi.HashAlgo, String> functionChecksumAuth(
             HttpServletResponse response,
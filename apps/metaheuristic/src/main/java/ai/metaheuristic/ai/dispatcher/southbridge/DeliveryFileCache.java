@@ -0,0 +1,225 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.southbridge;
+
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.exceptions.CommonIOErrorWithDataException;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.commons.utils.Checksum;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Local cache of variables which were materialized from db for delivering to processors.
+ * A key of file must be unique for the content of data, i.e. it has to include a timestamp of uploading,
+ * so a changed variable will be stored as a new file and the old one will be evicted eventually.
+ *
+ * Files are evicted in LRU order when a total size of files is greater than mh.dispatcher.delivery-cache-size
+ *
+ * SHA-256 checksum of file is calculated once and is sent to processor for end-to-end verification of downloaded data
+ *
+ * A file returned by getFile() is pinned and won't be evicted until release() is called,
+ * so a file can't be deleted while it's being opened or sent
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 10:05 PM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class DeliveryFileCache {
+
+    private static final String DELIVERY_DIR = "delivery";
+    private static final String TEMP_EXT = ".tmp";
+
+    private final Globals globals;
+
+    private File cacheDir;
+
+    @AllArgsConstructor
+    private static class CachedFile {
+        public long length;
+        @Nullable
+        public String checksum;
+        // number of requests which are serving this file right now
+        public int pins;
+    }
+
+    // key -> cached file, iteration order is from least to most recently used
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(100, 0.75f, true);
+    private long totalSize = 0;
+
+    @PostConstruct
+    public void init() {
+        cacheDir = new File(globals.dispatcherTempDir, DELIVERY_DIR);
+        cacheDir.mkdirs();
+
+        File[] existing = cacheDir.listFiles(File::isFile);
+        if (existing==null) {
+            return;
+        }
+        Arrays.sort(existing, Comparator.comparingLong(File::lastModified));
+        synchronized (this) {
+            for (File file : existing) {
+                final long length = file.length();
+                if (file.getName().endsWith(TEMP_EXT) || length==0) {
+                    file.delete();
+                    continue;
+                }
+                files.put(file.getName(), new CachedFile(length, null, 0));
+                totalSize += length;
+            }
+            evict(null);
+        }
+        log.info("#447.010 Delivery cache was initialized, files: {}, total size: {}", files.size(), totalSize);
+    }
+
+    /**
+     * Calls for the same key must be serialized by caller
+     *
+     * @param key unique for content of data
+     * @param dataSaver will be called for storing data if there isn't a cached file for this key
+     * @return cached file which is pinned, release(file) must be called after serving of file
+     */
+    public File getFile(String key, Consumer<File> dataSaver) {
+        final File file = new File(cacheDir, key);
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile!=null && file.exists()) {
+                cachedFile.pins++;
+                return file;
+            }
+        }
+
+        File tempFile = new File(cacheDir, key + TEMP_EXT);
+        final String checksum;
+        try {
+            dataSaver.accept(tempFile);
+            checksum = calcChecksum(tempFile);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            String es = "#447.020 Error while caching file " + file.getPath() + ", error: " + e.getMessage();
+            log.error(es, e);
+            throw new CommonIOErrorWithDataException(es);
+        }
+        finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+
+        final long length = file.length();
+        synchronized (this) {
+            CachedFile prev = files.get(key);
+            files.put(key, new CachedFile(length, checksum, (prev==null ? 0 : prev.pins) + 1));
+            totalSize += length - (prev==null ? 0 : prev.length);
+            evict(key);
+        }
+        return file;
+    }
+
+    public boolean isCached(File file) {
+        return cacheDir.equals(file.getParentFile());
+    }
+
+    /**
+     * Unpins a file which was returned by getFile(). Files which aren't in this cache are ignored.
+     */
+    public void release(File file) {
+        if (!isCached(file)) {
+            return;
+        }
+        synchronized (this) {
+            CachedFile cachedFile = files.get(file.getName());
+            if (cachedFile!=null && cachedFile.pins>0) {
+                cachedFile.pins--;
+            }
+            evict(null);
+        }
+    }
+
+    /**
+     * @return SHA-256 checksum of file or null if the file isn't in this cache
+     */
+    @Nullable
+    public String getChecksum(File file) {
+        final String key = file.getName();
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile==null) {
+                return null;
+            }
+            if (cachedFile.checksum!=null) {
+                return cachedFile.checksum;
+            }
+        }
+        // checksum wasn't calculated yet for a file which was found at startup
+        final String checksum;
+        try {
+            checksum = calcChecksum(file);
+        } catch (IOException e) {
+            log.warn("#447.030 Error while calculating checksum of file {}, error: {}", file.getPath(), e.getMessage());
+            return null;
+        }
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile!=null) {
+                cachedFile.checksum = checksum;
+            }
+        }
+        return checksum;
+    }
+
+    private static String calcChecksum(File file) throws IOException {
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            return Checksum.getChecksum(EnumsApi.HashAlgo.SHA256, is);
+        }
+    }
+
+    private void evict(@Nullable String keyToKeep) {
+        Iterator<Map.Entry<String, CachedFile>> it = files.entrySet().iterator();
+        while (totalSize > globals.deliveryCacheSize && it.hasNext()) {
+            Map.Entry<String, CachedFile> entry = it.next();
+            if (entry.getKey().equals(keyToKeep) || entry.getValue().pins>0) {
+                continue;
+            }
+            File file = new File(cacheDir, entry.getKey());
+            // a file which is being sent can't be deleted on windows, it'll be evicted later
+            if (file.exists() && !file.delete()) {
+                continue;
+            }
+            totalSize -= entry.getValue().length;
+            it.remove();
+        }
+    }
+}
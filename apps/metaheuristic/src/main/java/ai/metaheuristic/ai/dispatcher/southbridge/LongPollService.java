@@ -0,0 +1,213 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.southbridge;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.DispatcherCommandProcessor;
+import ai.metaheuristic.ai.dispatcher.event.TaskRegisteredEvent;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-poll requests of processors.
+ * If there isn't any task for processor, the request is held with servlet async support, without occupying of thread,
+ * until a new task will be registered in TaskQueue or the timeout will expire.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 5:20 AM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class LongPollService {
+
+    private final Globals globals;
+    private final SouthbridgeService southbridgeService;
+    private final DispatcherCommandProcessor dispatcherCommandProcessor;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+    private final AtomicLong registeredTasks = new AtomicLong();
+    // all assigning of tasks to waiting processors is made in one thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("mh-long-poll-"));
+
+    static class Waiter {
+        final ProcessorCommParamsYaml request;
+        final DispatcherCommParamsYaml response;
+        final Enums.CommFormat format;
+        final DeferredResult<String> result;
+        private boolean completed = false;
+
+        Waiter(ProcessorCommParamsYaml request, DispatcherCommParamsYaml response, Enums.CommFormat format, DeferredResult<String> result) {
+            this.request = request;
+            this.response = response;
+            this.format = format;
+            this.result = result;
+        }
+
+        synchronized void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            result.setResult(SouthbridgeService.toString(response, format));
+        }
+
+        /**
+         * the connection with processor was broken, tasks must not be assigned to this request anymore
+         */
+        synchronized void cancel() {
+            completed = true;
+        }
+
+        synchronized void assignTasks(DispatcherCommandProcessor dispatcherCommandProcessor) {
+            if (completed || result.isSetOrExpired()) {
+                return;
+            }
+            // responses were created in the same order as requests
+            for (int i = 0; i < request.requests.size(); i++) {
+                ProcessorCommParamsYaml.ProcessorRequest r = request.requests.get(i);
+                if (r.requestTask!=null) {
+                    dispatcherCommandProcessor.assignTasks(r, response.responses.get(i));
+                }
+            }
+            if (isAnyTaskAssigned(response)) {
+                complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void onExit() {
+        executor.shutdownNow();
+        Waiter waiter;
+        while ((waiter = waiters.poll())!=null) {
+            waiter.complete();
+        }
+    }
+
+    public DeferredResult<String> processRequest(String data, String remoteAddress, Enums.CommFormat format) {
+        final long registered = registeredTasks.get();
+        ProcessorCommParamsYaml scpy = SouthbridgeService.toProcessorCommParams(data, format);
+        DispatcherCommParamsYaml lcpy = southbridgeService.processRequestInternal(remoteAddress, scpy);
+        if (globals.longPollTimeout==0 || !isWaitingForTask(scpy, lcpy)) {
+            DeferredResult<String> result = new DeferredResult<>();
+            result.setResult(SouthbridgeService.toString(lcpy, format));
+            return result;
+        }
+
+        DeferredResult<String> result = new DeferredResult<>(TimeUnit.SECONDS.toMillis(globals.longPollTimeout));
+        Waiter waiter = new Waiter(scpy, lcpy, format, result);
+        result.onTimeout(waiter::complete);
+        result.onError(e -> {
+            log.debug("#450.030 waiting request was broken, error: {}", e.toString());
+            waiter.cancel();
+            waiters.remove(waiter);
+        });
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        log.debug("#450.020 request is waiting for task, processors: {}", scpy.requests.size());
+
+        // a task could be registered while the request was processed
+        if (registeredTasks.get()!=registered) {
+            signal();
+        }
+        return result;
+    }
+
+    @EventListener
+    public void handleTaskRegisteredEvent(TaskRegisteredEvent event) {
+        registeredTasks.incrementAndGet();
+        signal();
+    }
+
+    private void signal() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        // registering of many tasks in a row will lead to only one pass over waiting requests
+        if (wakeUpScheduled.compareAndSet(false, true)) {
+            executor.submit(this::wakeUp);
+        }
+    }
+
+    private void wakeUp() {
+        wakeUpScheduled.set(false);
+        for (Waiter waiter : waiters) {
+            try {
+                waiter.assignTasks(dispatcherCommandProcessor);
+            } catch (Throwable th) {
+                log.error("#450.040 Error while assigning tasks to waiting processor", th);
+                waiter.complete();
+            }
+        }
+    }
+
+    /**
+     * request can be held only if processor asked for a new task and there isn't anything else in the response
+     */
+    public static boolean isWaitingForTask(ProcessorCommParamsYaml scpy, DispatcherCommParamsYaml lcpy) {
+        if (!lcpy.success || lcpy.requestLogFile!=null || lcpy.responses.size()!=scpy.requests.size()) {
+            return false;
+        }
+        boolean taskRequested = false;
+        for (ProcessorCommParamsYaml.ProcessorRequest r : scpy.requests) {
+            if (r.requestTask!=null && !Boolean.FALSE.equals(r.requestTask.newTask)) {
+                taskRequested = true;
+            }
+        }
+        if (!taskRequested || isAnyTaskAssigned(lcpy)) {
+            return false;
+        }
+        for (DispatcherCommParamsYaml.DispatcherResponse r : lcpy.responses) {
+            if (r.assignedProcessorId!=null || r.reAssignedProcessorId!=null ||
+                    (r.reportResultDelivering!=null && r.reportResultDelivering.ids!=null && !r.reportResultDelivering.ids.isEmpty()) ||
+                    (r.resendTaskOutputs!=null && !r.resendTaskOutputs.resends.isEmpty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAnyTaskAssigned(DispatcherCommParamsYaml lcpy) {
+        for (DispatcherCommParamsYaml.DispatcherResponse r : lcpy.responses) {
+            if (r.assignedTask!=null || (r.assignedTasks!=null && !r.assignedTasks.isEmpty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -17,8 +17,11 @@
 package ai.metaheuristic.ai.dispatcher.southbridge;
 
 import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextVariableTopLevelService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
+import ai.metaheuristic.ai.utils.FileRangeUtils;
 import ai.metaheuristic.ai.utils.cleaner.CleanerInfo;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.commons.S;
@@ -26,16 +29,19 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.AbstractResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -54,11 +60,15 @@ public class SouthbridgeController {
 
     private final SouthbridgeService serverService;
     private final ExecContextVariableTopLevelService execContextVariableTopLevelService;
+    private final UploadSessionService uploadSessionService;
+    private final LongPollService longPollService;
+    private final Globals globals;
 
     @PostMapping("/srv-v2/{random-part}")
     public String processRequestWithAuth(
             HttpServletRequest request, HttpServletResponse response,
             @SuppressWarnings("unused") @PathVariable("random-part") String randomPart,
+            @Nullable @RequestHeader(value = Consts.HEADER_MH_COMM_FORMAT, required = false) String commFormat,
             @Nullable @RequestBody String data
             ) throws IOException {
         log.debug("processRequestAuth(), data: {}", data);
@@ -66,13 +76,41 @@ public class SouthbridgeController {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST);
             return "";
         }
-        return serverService.processRequest(data, request.getRemoteAddr());
+        Enums.CommFormat format = Enums.CommFormat.from(commFormat);
+        setCommFormatHeaders(response, format);
+        setLongPollHeader(response);
+        return serverService.processRequest(data, request.getRemoteAddr(), format);
+    }
+
+    /**
+     * The same as processRequestWithAuth() but if there isn't any task for processor
+     * the request is held until a new task will be registered or mh.dispatcher.long-poll-timeout will expire
+     */
+    @PostMapping(Consts.SERVER_REST_URL_V2 + Consts.LONG_POLL_REST_URL + "/{random-part}")
+    public DeferredResult<String> processRequestWithLongPoll(
+            HttpServletRequest request, HttpServletResponse response,
+            @SuppressWarnings("unused") @PathVariable("random-part") String randomPart,
+            @Nullable @RequestHeader(value = Consts.HEADER_MH_COMM_FORMAT, required = false) String commFormat,
+            @Nullable @RequestBody String data
+    ) throws IOException {
+        log.debug("processRequestWithLongPoll(), data: {}", data);
+        if (S.b(data)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            DeferredResult<String> result = new DeferredResult<>();
+            result.setResult("");
+            return result;
+        }
+        Enums.CommFormat format = Enums.CommFormat.from(commFormat);
+        setCommFormatHeaders(response, format);
+        setLongPollHeader(response);
+        return longPollService.processRequest(data, request.getRemoteAddr(), format);
     }
 
     @PostMapping("/keep-alive/{random-part}")
     public String keepAlive(
             HttpServletRequest request, HttpServletResponse response,
             @SuppressWarnings("unused") @PathVariable("random-part") String randomPart,
+            @Nullable @RequestHeader(value = Consts.HEADER_MH_COMM_FORMAT, required = false) String commFormat,
             @Nullable @RequestBody String data
     ) throws IOException {
         log.debug("keepAlive(), data: {}", data);
@@ -80,7 +118,21 @@ public class SouthbridgeController {
             response.sendError(HttpServletResponse.SC_BAD_REQUEST);
             return "";
         }
-        return serverService.keepAlive(data, request.getRemoteAddr());
+        Enums.CommFormat format = Enums.CommFormat.from(commFormat);
+        setCommFormatHeaders(response, format);
+        return serverService.keepAlive(data, request.getRemoteAddr(), format);
+    }
+
+    private void setLongPollHeader(HttpServletResponse response) {
+        if (globals.longPollTimeout>0) {
+            response.setHeader(Consts.HEADER_MH_LONG_POLL, "true");
+        }
+    }
+
+    private static void setCommFormatHeaders(HttpServletResponse response, Enums.CommFormat format) {
+        // processor switches to json after it received this header, old processors ignore it and stay with yaml
+        response.setHeader(Consts.HEADER_MH_COMM_FORMATS, Enums.CommFormat.json.toString());
+        response.setHeader(Consts.HEADER_MH_COMM_FORMAT, format.toString());
     }
 
     @GetMapping(value="/payload/resource/{variableType}/{taskId}/{random-part}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
@@ -106,6 +158,41 @@ public class SouthbridgeController {
         return entity;
     }
 
+    /**
+     * Delivering of data with support of 'Range' header. Chunks can be requested in parallel and
+     * downloading can be resumed with 'If-Range' header which contains ETag of the previous response.
+     */
+    @GetMapping(value="/payload/data/{variableType}/{taskId}/{random-part}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void deliverDataWithRange(
+            HttpServletRequest request, HttpServletResponse response,
+            @PathVariable("variableType") String variableType,
+            @PathVariable("taskId") Long taskId,
+            @SuppressWarnings("unused") @Nullable @PathVariable("random-part") String randomPart,
+            @Nullable String id) throws IOException {
+        log.debug("deliverDataWithRange(), id: {}, range: {}", id, request.getHeader(HttpHeaders.RANGE));
+        if (S.b(id)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        final File file;
+        try {
+            file = serverService.prepareDataFile(taskId, EnumsApi.DataType.valueOf(variableType), id);
+        } catch (CommonErrorWithDataException e) {
+            response.sendError(HttpServletResponse.SC_GONE);
+            return;
+        }
+        try {
+            String checksum = serverService.getDataFileChecksum(file);
+            if (checksum!=null) {
+                response.setHeader(Consts.HEADER_MH_CONTENT_SHA256, checksum);
+            }
+            // sendfile() reads a file after returning from this method when the file isn't pinned anymore
+            FileRangeUtils.send(request, response, file, !serverService.isCachedDataFile(file), checksum);
+        } finally {
+            serverService.releaseDataFile(file);
+        }
+    }
+
     @GetMapping(value="/payload/resource/{variableType}/{random-part}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public ResponseEntity<AbstractResource> deliverResourceAuthOld(
             HttpServletRequest request,
@@ -146,6 +233,37 @@ public class SouthbridgeController {
         }
     }
 
+    @PostMapping(Consts.UPLOAD_SESSION_REST_URL + "/start/{random-part}")
+    public UploadSessionResult startUploadSession(
+            @Nullable Long taskId, @Nullable Long variableId, @Nullable Long length, @Nullable Long chunkSize,
+            @SuppressWarnings("unused") @Nullable @PathVariable("random-part") String randomPart
+    ) {
+        log.debug("startUploadSession(), taskId: #{}, variableId: {}, length: {}", taskId, variableId, length);
+        return uploadSessionService.start(taskId, variableId, length, chunkSize);
+    }
+
+    /**
+     * Body of request is a raw content of chunk, so the size of chunk isn't limited by settings of multipart
+     */
+    @PutMapping(Consts.UPLOAD_SESSION_REST_URL + "/chunk/{random-part}")
+    public UploadSessionResult uploadChunk(
+            HttpServletRequest request,
+            @Nullable String sessionId, @Nullable Integer chunkNum,
+            @SuppressWarnings("unused") @Nullable @PathVariable("random-part") String randomPart
+    ) throws IOException {
+        log.debug("uploadChunk(), sessionId: {}, chunkNum: {}", sessionId, chunkNum);
+        return uploadSessionService.uploadChunk(sessionId, chunkNum, request.getInputStream());
+    }
+
+    @PostMapping(Consts.UPLOAD_SESSION_REST_URL + "/commit/{random-part}")
+    public UploadResult commitUploadSession(
+            @Nullable String sessionId,
+            @SuppressWarnings("unused") @Nullable @PathVariable("random-part") String randomPart
+    ) {
+        log.debug("commitUploadSession(), sessionId: {}", sessionId);
+        return uploadSessionService.commit(sessionId);
+    }
+
     /**
      * return string as "true"/"false".
      *      "true" - if variable already inited or it doesn't exist
@@ -17,6 +17,7 @@
 package ai.metaheuristic.ai.dispatcher.southbridge;
 
 import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.DispatcherCommandProcessor;
 import ai.metaheuristic.ai.dispatcher.KeepAliveCommandProcessor;
@@ -24,6 +25,8 @@ import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
 import ai.metaheuristic.ai.dispatcher.event.TaskCommunicationEvent;
 import ai.metaheuristic.ai.dispatcher.function.FunctionDataService;
 import ai.metaheuristic.ai.dispatcher.processor.ProcessorTopLevelService;
+import ai.metaheuristic.ai.dispatcher.repositories.GlobalVariableRepository;
+import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
 import ai.metaheuristic.ai.dispatcher.variable.VariableService;
 import ai.metaheuristic.ai.dispatcher.variable_global.GlobalVariableService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
@@ -35,12 +38,16 @@ import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.ai.utils.asset.AssetFile;
 import ai.metaheuristic.ai.utils.asset.AssetUtils;
 import ai.metaheuristic.ai.utils.cleaner.CleanerInfo;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
 import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveRequestParamJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveRequestParamYaml;
 import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveRequestParamYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml;
 import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
 import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYamlUtils;
 import ai.metaheuristic.api.EnumsApi;
@@ -60,11 +67,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 @Service
@@ -82,8 +92,11 @@ public class SouthbridgeService {
     private final KeepAliveCommandProcessor keepAliveCommandProcessor;
     private final ProcessorTopLevelService processorTopLevelService;
     private final ApplicationEventPublisher eventPublisher;
+    private final DeliveryFileCache deliveryFileCache;
+    private final VariableRepository variableRepository;
+    private final GlobalVariableRepository globalVariableRepository;
 
-    private static final CommonSync<String> commonSync = new CommonSync<>();
+    private static final CommonSync<String> commonSync = new CommonSync<>("southbridge");
 
     private static <T> T getWithSync(final EnumsApi.DataType binaryType, final String code, Supplier<T> supplier) {
         TxUtils.checkTxNotExists();
@@ -110,89 +123,103 @@ public class SouthbridgeService {
         }
     }
 
-    // return a requested data to a processor
-    // data can be Function or Variable
-    public CleanerInfo deliverData(@Nullable Long taskId, final EnumsApi.DataType binaryType, final String dataId, @Nullable final String chunkSize, final int chunkNum) {
-
-        AssetFile assetFile;
-        BiFunction<String, File, Void> dataSaver;
+    /**
+     * returns a local file with requested data, data is stored to file if needed
+     * data can be Function or Variable
+     * releaseDataFile() must be called after serving of file
+     */
+    public File prepareDataFile(@Nullable Long taskId, final EnumsApi.DataType binaryType, final String dataId) {
         switch (binaryType) {
             case function:
-                assetFile = AssetUtils.prepareFunctionFile(globals.dispatcherResourcesDir, dataId, null);
+                AssetFile assetFile = AssetUtils.prepareFunctionFile(globals.dispatcherResourcesDir, dataId, null);
                 if (assetFile.isError) {
                     String es = "#444.100 Function with id " + dataId + " is broken";
                     log.error(es);
                     throw new FunctionDataNotFoundException(dataId, es);
                 }
-                dataSaver = functionDataService::storeToFile;
-                break;
-            case variable:
-                assetFile = AssetUtils.prepareFileForVariable(globals.dispatcherTempDir, ""+ EnumsApi.DataType.variable+'-'+dataId, null, binaryType);
-                if (assetFile.isError) {
-                    String es = "#444.120 Resource with id " + dataId + " is broken";
-                    log.error(es);
-                    throw new VariableDataNotFoundException(Long.parseLong(dataId), EnumsApi.VariableContext.local, es);
+                if (!assetFile.isContent) {
+                    try {
+                        getWithSync(binaryType, dataId, () -> functionDataService.storeToFile(dataId, assetFile.file));
+                    } catch (CommonErrorWithDataException e) {
+                        log.error("#444.180 Error store data to temp file, data doesn't exist in db, id " + dataId + ", file: " + assetFile.file.getPath());
+                        throw e;
+                    }
                 }
-                dataSaver = (variableId, trgFile) -> variableService.storeToFileWithTx(Long.parseLong(variableId), trgFile);
+                return assetFile.file;
+            case variable:
+                Long variableId = Long.valueOf(dataId);
                 if (taskId!=null) {
                     eventPublisher.publishEvent(new TaskCommunicationEvent(taskId));
                 }
-                break;
+                return getCachedFile(binaryType, variableId, variableRepository.getUploadTsById(variableId),
+                        (trgFile) -> variableService.storeToFileWithTx(variableId, trgFile));
             case global_variable:
-                assetFile = AssetUtils.prepareFileForVariable(globals.dispatcherTempDir, ""+ EnumsApi.DataType.global_variable+'-'+dataId, null, binaryType);
-                if (assetFile.isError) {
-                    String es = "#444.140 Global variable with id " + dataId + " is broken";
-                    log.error(es);
-                    throw new VariableDataNotFoundException(Long.parseLong(dataId), EnumsApi.VariableContext.local, es);
-                }
-                dataSaver = (variableId, trgFile) -> globalVariableService.storeToFileWithTx(Long.parseLong(variableId), trgFile);
-                break;
+                Long globalVariableId = Long.valueOf(dataId);
+                return getCachedFile(binaryType, globalVariableId, globalVariableRepository.getUploadTsById(globalVariableId),
+                        (trgFile) -> globalVariableService.storeToFileWithTx(globalVariableId, trgFile));
             default:
                 throw new IllegalStateException("#444.160 Unknown type of data: " + binaryType);
         }
+    }
 
-        if (!assetFile.isContent) {
-            try {
-                getWithSync(binaryType, dataId, () -> dataSaver.apply(dataId, assetFile.file));
-            } catch (CommonErrorWithDataException e) {
-                log.error("#444.180 Error store data to temp file, data doesn't exist in db, id " + dataId + ", file: " + assetFile.file.getPath());
-                throw e;
-            }
+    /**
+     * a cached file of variable is pinned until it's released, so it won't be evicted while it's being sent
+     */
+    public void releaseDataFile(File file) {
+        deliveryFileCache.release(file);
+    }
+
+    public boolean isCachedDataFile(File file) {
+        return deliveryFileCache.isCached(file);
+    }
+
+    @Nullable
+    public String getDataFileChecksum(File file) {
+        return deliveryFileCache.getChecksum(file);
+    }
+
+    private File getCachedFile(EnumsApi.DataType binaryType, Long variableId, @Nullable Timestamp uploadTs, Consumer<File> dataSaver) {
+        if (uploadTs==null) {
+            String es = "#444.120 Variable with id " + variableId + " wasn't found";
+            log.error(es);
+            throw new VariableDataNotFoundException(variableId, binaryType==EnumsApi.DataType.variable ? EnumsApi.VariableContext.local : EnumsApi.VariableContext.global, es);
         }
-        FileInputStream fis;
+        // the timestamp of uploading is a part of key, so a re-uploaded variable won't be served from a stale file
+        final String key = "" + binaryType + '-' + variableId + '-' + uploadTs.getTime();
+        return getWithSync(binaryType, variableId.toString(), () -> deliveryFileCache.getFile(key, dataSaver));
+    }
+
+    // return a requested data to a processor
+    // data can be Function or Variable
+    public CleanerInfo deliverData(@Nullable Long taskId, final EnumsApi.DataType binaryType, final String dataId, @Nullable final String chunkSize, final int chunkNum) {
+        final File file = prepareDataFile(taskId, binaryType, dataId);
         try {
-            fis = new FileInputStream(assetFile.file);
+            final long fileLength = file.length();
             CleanerInfo resource = new CleanerInfo();
-            resource.inputStreams.add(fis);
-
-            InputStream realInputStream = fis;
 
             boolean isLastChunk;
-            long byteToRead = assetFile.file.length();
+            long offset = 0;
+            long byteToRead = fileLength;
             if (chunkSize == null || chunkSize.isBlank()) {
                 isLastChunk = true;
             } else {
                 final long size = Long.parseLong(chunkSize);
-                final long offset = size * chunkNum;
-                if (offset >= assetFile.file.length()) {
+                offset = size * chunkNum;
+                if (offset >= fileLength) {
                     MultiValueMap<String, String> headers = new HttpHeaders();
                     headers.add(Consts.HEADER_MH_IS_LAST_CHUNK, "true");
                     headers.add(Consts.HEADER_MH_CHUNK_SIZE, "0");
                     resource.entity = new ResponseEntity<>(Consts.ZERO_BYTE_ARRAY_RESOURCE, headers, HttpStatus.OK);
                     return resource;
                 }
-                final long realSize = assetFile.file.length() < offset + size ? assetFile.file.length() - offset : size;
-                byteToRead = realSize;
-                long skipped = fis.skip(offset);
-                if (skipped!=offset) {
-                    String es = S.f("#444.190 Error (skipped!=offset), skipped: %d, offset: %d", skipped, offset);
-                    log.error(es);
-                    throw new CommonIOErrorWithDataException(es);
-
-                }
-                realInputStream = new BoundedInputStream(fis, realSize);
-                isLastChunk = (assetFile.file.length() == (offset + realSize));
+                byteToRead = fileLength < offset + size ? fileLength - offset : size;
+                isLastChunk = (fileLength == (offset + byteToRead));
             }
+            // the channel is positioned directly at the requested chunk, without reading of skipped data
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ).position(offset);
+            InputStream realInputStream = new BoundedInputStream(Channels.newInputStream(channel), byteToRead);
+            resource.inputStreams.add(realInputStream);
+
             final HttpHeaders headers = RestUtils.getHeader(byteToRead);
             headers.add(Consts.HEADER_MH_CHUNK_SIZE, Long.toString(byteToRead));
             headers.add(Consts.HEADER_MH_IS_LAST_CHUNK, Boolean.toString(isLastChunk));
@@ -200,14 +227,24 @@ public class SouthbridgeService {
             return resource;
         } catch (IOException e) {
             throw new CommonIOErrorWithDataException("Error: " + e.getMessage());
+        } finally {
+            // data will be read from already opened channel
+            releaseDataFile(file);
         }
     }
 
     public String keepAlive(String data, String remoteAddress) {
-        KeepAliveRequestParamYaml karpy = KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.to(data);
+        return keepAlive(data, remoteAddress, Enums.CommFormat.yaml);
+    }
+
+    public String keepAlive(String data, String remoteAddress, Enums.CommFormat format) {
+        KeepAliveRequestParamYaml karpy = format==Enums.CommFormat.json
+                ? KeepAliveRequestParamJsonUtils.BASE_UTILS.to(data)
+                : KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.to(data);
         KeepAliveResponseParamYaml response = processKeepAliveInternal(karpy, remoteAddress);
-        String yaml = KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(response);
-        return yaml;
+        return format==Enums.CommFormat.json
+                ? KeepAliveResponseParamJsonUtils.BASE_UTILS.toString(response)
+                : KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(response);
     }
 
     private KeepAliveResponseParamYaml processKeepAliveInternal(KeepAliveRequestParamYaml req, String remoteAddress) {
@@ -252,13 +289,28 @@ public class SouthbridgeService {
     }
 
     public String processRequest(String data, String remoteAddress) {
-        ProcessorCommParamsYaml scpy = ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.to(data);
+        return processRequest(data, remoteAddress, Enums.CommFormat.yaml);
+    }
+
+    public String processRequest(String data, String remoteAddress, Enums.CommFormat format) {
+        ProcessorCommParamsYaml scpy = toProcessorCommParams(data, format);
         DispatcherCommParamsYaml lcpy = processRequestInternal(remoteAddress, scpy);
-        String yaml = DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(lcpy);
-        return yaml;
+        return toString(lcpy, format);
+    }
+
+    public static ProcessorCommParamsYaml toProcessorCommParams(String data, Enums.CommFormat format) {
+        return format==Enums.CommFormat.json
+                ? ProcessorCommParamsJsonUtils.BASE_UTILS.to(data)
+                : ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.to(data);
+    }
+
+    public static String toString(DispatcherCommParamsYaml lcpy, Enums.CommFormat format) {
+        return format==Enums.CommFormat.json
+                ? DispatcherCommParamsJsonUtils.BASE_UTILS.toString(lcpy)
+                : DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(lcpy);
     }
 
-    private DispatcherCommParamsYaml processRequestInternal(String remoteAddress, ProcessorCommParamsYaml scpy) {
+    public DispatcherCommParamsYaml processRequestInternal(String remoteAddress, ProcessorCommParamsYaml scpy) {
         DispatcherCommParamsYaml lcpy = new DispatcherCommParamsYaml();
         try {
             for (ProcessorCommParamsYaml.ProcessorRequest request : scpy.requests) {
@@ -0,0 +1,56 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.southbridge;
+
+import ai.metaheuristic.ai.Enums;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of starting of chunked upload session or of uploading of chunk
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 1:10 AM
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class UploadSessionResult {
+    public Enums.UploadVariableStatus status;
+
+    @Nullable
+    public String error;
+
+    @Nullable
+    public String sessionId;
+
+    // chunks which were already received by dispatcher
+    public List<Integer> receivedChunks = new ArrayList<>();
+
+    public UploadSessionResult(Enums.UploadVariableStatus status, @Nullable String error) {
+        this.status = status;
+        this.error = error;
+    }
+}
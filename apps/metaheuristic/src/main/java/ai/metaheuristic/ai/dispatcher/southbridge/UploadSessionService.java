@@ -0,0 +1,156 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.southbridge;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextVariableTopLevelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chunked uploading of variables.
+ * A processor starts a session, uploads missing chunks in any order and in parallel, and then commits the session.
+ * After committing, data is stored as a variable in the same way as with uploading of whole file.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 1:40 AM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class UploadSessionService {
+
+    private static final String UPLOAD_DIR = "upload";
+    private static final long STALE_SESSION_TIMEOUT = TimeUnit.DAYS.toMillis(3);
+    private static final long STALE_CHECK_PERIOD = TimeUnit.HOURS.toMillis(1);
+
+    private final Globals globals;
+    private final ExecContextVariableTopLevelService execContextVariableTopLevelService;
+
+    private UploadSessions sessions;
+    private final AtomicLong lastStaleCheck = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        sessions = new UploadSessions(new File(globals.dispatcherTempDir, UPLOAD_DIR));
+    }
+
+    public UploadSessionResult start(@Nullable Long taskId, @Nullable Long variableId, @Nullable Long length, @Nullable Long chunkSize) {
+        if (taskId==null || variableId==null || length==null || chunkSize==null || chunkSize<=0) {
+            return new UploadSessionResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.020 Required parameter is missing");
+        }
+        if (length==0) {
+            return new UploadSessionResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.030 file has zero length");
+        }
+        if (chunkSize<Consts.UPLOAD_MIN_CHUNK_SIZE || UploadSessions.chunkCount(length, chunkSize)==-1) {
+            return new UploadSessionResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR,
+                    "#449.035 Wrong size of chunk: " + chunkSize + ", min size: " + Consts.UPLOAD_MIN_CHUNK_SIZE + ", length: " + length);
+        }
+        deleteStaleSessions();
+        try {
+            UploadSessions.Session session = sessions.start(taskId, variableId, length, chunkSize);
+            return new UploadSessionResult(Enums.UploadVariableStatus.OK, null, session.sessionId, session.getReceivedChunks());
+        } catch (Throwable th) {
+            final String es = "#449.040 Can't start upload session, error: " + th.toString();
+            log.error(es, th);
+            return new UploadSessionResult(Enums.UploadVariableStatus.GENERAL_ERROR, es);
+        }
+    }
+
+    public UploadSessionResult uploadChunk(@Nullable String sessionId, @Nullable Integer chunkNum, InputStream is) {
+        if (sessionId==null || chunkNum==null) {
+            return new UploadSessionResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.060 Required parameter is missing");
+        }
+        if (!UploadSessions.isValidSessionId(sessionId)) {
+            return new UploadSessionResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.065 Wrong id of upload session: " + sessionId);
+        }
+        UploadSessions.Session session = sessions.get(sessionId);
+        if (session==null) {
+            // processor will start a new session
+            return new UploadSessionResult(Enums.UploadVariableStatus.GENERAL_ERROR, "#449.070 Upload session " + sessionId + " wasn't found");
+        }
+        try {
+            String error = sessions.writeChunk(session, chunkNum, is);
+            if (error!=null) {
+                log.warn(error);
+                return new UploadSessionResult(Enums.UploadVariableStatus.GENERAL_ERROR, error);
+            }
+            return new UploadSessionResult(Enums.UploadVariableStatus.OK, null, sessionId, List.of(chunkNum));
+        } catch (Throwable th) {
+            final String es = "#449.080 Can't store chunk #" + chunkNum + " of session " + sessionId + ", error: " + th.toString();
+            log.error(es);
+            return new UploadSessionResult(Enums.UploadVariableStatus.GENERAL_ERROR, es);
+        }
+    }
+
+    public UploadResult commit(@Nullable String sessionId) {
+        if (sessionId==null) {
+            return new UploadResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.100 sessionId is null");
+        }
+        if (!UploadSessions.isValidSessionId(sessionId)) {
+            return new UploadResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, "#449.105 Wrong id of upload session: " + sessionId);
+        }
+        UploadSessions.Session session = sessions.get(sessionId);
+        if (session==null) {
+            return new UploadResult(Enums.UploadVariableStatus.GENERAL_ERROR, "#449.110 Upload session " + sessionId + " wasn't found");
+        }
+        // chunks can't be written and session can't be deleted while data is being stored
+        return sessions.withExclusiveLock(session, this::commit);
+    }
+
+    private UploadResult commit(UploadSessions.Session session) {
+        if (UploadSessions.isDeleted(session)) {
+            return new UploadResult(Enums.UploadVariableStatus.GENERAL_ERROR, "#449.115 Upload session " + session.sessionId + " was closed");
+        }
+        if (!session.isComplete()) {
+            return new UploadResult(Enums.UploadVariableStatus.GENERAL_ERROR, "#449.120 Not all chunks of session " + session.sessionId + " were uploaded");
+        }
+        UploadResult result = execContextVariableTopLevelService.uploadVariableFromFile(
+                session.getDataFile(), session.state.taskId, session.state.variableId);
+
+        // session is kept for a retry of storing
+        if (result.status!=Enums.UploadVariableStatus.PROBLEM_WITH_LOCKING && result.status!=Enums.UploadVariableStatus.GENERAL_ERROR) {
+            // write lock is reentrant
+            sessions.delete(session);
+        }
+        return result;
+    }
+
+    private void deleteStaleSessions() {
+        final long last = lastStaleCheck.get();
+        final long now = System.currentTimeMillis();
+        // only one thread will do the check
+        if (now - last < STALE_CHECK_PERIOD || !lastStaleCheck.compareAndSet(last, now)) {
+            return;
+        }
+        sessions.deleteStale(STALE_SESSION_TIMEOUT);
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.southbridge;
+
+import ai.metaheuristic.ai.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Sessions of chunked uploading of variables. Each session is stored in its own directory,
+ * chunks are written at their offsets into a preallocated file and received chunks are tracked in a bitmap,
+ * so sessions survive restarts of processor and of dispatcher.
+ *
+ * There is only one session for each pair of taskId and variableId. Id of session contains a generation,
+ * so a chunk of a replaced session can't get into the new one.
+ * Chunks are written in parallel under the read lock of session, deleting and committing of session take the write lock.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 1:15 AM
+ */
+@Slf4j
+public class UploadSessions {
+
+    public static final String DATA_FILE = "data";
+    public static final String STATE_FILE = "state.json";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // taskId-variableId-generation
+    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("^\\d+-\\d+-\\d+$");
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SessionState {
+        public long taskId;
+        public long variableId;
+        public long length;
+        public long chunkSize;
+        public long[] received;
+    }
+
+    public static class Session {
+        public final String sessionId;
+        public final File dir;
+        public final SessionState state;
+        private final BitSet received;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // is changed only under the write lock
+        private boolean deleted = false;
+
+        private Session(String sessionId, File dir, SessionState state) {
+            this.sessionId = sessionId;
+            this.dir = dir;
+            this.state = state;
+            this.received = BitSet.valueOf(state.received);
+        }
+
+        public int chunkCount() {
+            return UploadSessions.chunkCount(state.length, state.chunkSize);
+        }
+
+        public synchronized List<Integer> getReceivedChunks() {
+            List<Integer> list = new ArrayList<>();
+            received.stream().forEach(list::add);
+            return list;
+        }
+
+        public synchronized boolean isComplete() {
+            return received.nextClearBit(0) >= chunkCount();
+        }
+
+        public File getDataFile() {
+            return new File(dir, DATA_FILE);
+        }
+
+        private synchronized void markReceived(int chunkNum) throws IOException {
+            received.set(chunkNum);
+            state.received = received.toLongArray();
+            save(dir, state);
+        }
+    }
+
+    private final File baseDir;
+    // key - taskId-variableId
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    public UploadSessions(File baseDir) {
+        this.baseDir = baseDir;
+        baseDir.mkdirs();
+    }
+
+    /**
+     * @return number of chunks or -1 if the number is bigger than Integer.MAX_VALUE
+     */
+    public static int chunkCount(long length, long chunkSize) {
+        final long count = length / chunkSize + (length % chunkSize==0 ? 0 : 1);
+        return count > Integer.MAX_VALUE ? -1 : (int) count;
+    }
+
+    private static String toKey(long taskId, long variableId) {
+        return "" + taskId + '-' + variableId;
+    }
+
+    /**
+     * sessionId is received from processor, so only ids in form of taskId-variableId-generation are accepted
+     */
+    public static boolean isValidSessionId(@Nullable String sessionId) {
+        return sessionId!=null && SESSION_ID_PATTERN.matcher(sessionId).matches();
+    }
+
+    private static String toKey(String sessionId) {
+        return sessionId.substring(0, sessionId.lastIndexOf('-'));
+    }
+
+    @Nullable
+    private File getSessionDir(String sessionId) {
+        if (!isValidSessionId(sessionId)) {
+            log.warn("#446.060 Wrong id of upload session: {}", sessionId);
+            return null;
+        }
+        File dir = new File(baseDir, sessionId);
+        try {
+            if (!dir.getCanonicalFile().getParentFile().equals(baseDir.getCanonicalFile())) {
+                log.warn("#446.070 Dir of upload session {} is outside of {}", sessionId, baseDir.getAbsolutePath());
+                return null;
+            }
+        } catch (IOException e) {
+            log.warn("#446.080 Can't resolve dir of upload session {}, error: {}", sessionId, e.getMessage());
+            return null;
+        }
+        return dir;
+    }
+
+    /**
+     * Starts a new session or returns the existed one if it was started for data with the same length and size of chunk
+     */
+    public Session start(Long taskId, Long variableId, long length, long chunkSize) throws IOException {
+        if (chunkSize<=0 || chunkCount(length, chunkSize)==-1) {
+            throw new IOException("#446.085 Wrong size of chunk: " + chunkSize + ", length: " + length);
+        }
+        final String key = toKey(taskId, variableId);
+        synchronized (sessions) {
+            Session session = findByKey(key);
+            if (session!=null && session.state.length==length && session.state.chunkSize==chunkSize) {
+                return session;
+            }
+            if (session!=null) {
+                delete(session);
+            }
+
+            final String sessionId = key + '-' + generation.incrementAndGet();
+            File dir = getSessionDir(sessionId);
+            if (dir==null) {
+                throw new IOException("#446.090 Wrong id of upload session: " + sessionId);
+            }
+            Files.createDirectories(dir.toPath());
+            try (RandomAccessFile raf = new RandomAccessFile(new File(dir, DATA_FILE), "rw")) {
+                raf.setLength(length);
+            }
+            SessionState state = new SessionState(taskId, variableId, length, chunkSize, new long[0]);
+            save(dir, state);
+            session = new Session(sessionId, dir, state);
+            sessions.put(key, session);
+            return session;
+        }
+    }
+
+    /**
+     * @return the current session for this pair of taskId and variableId, or null if there isn't any or sessionId is of another generation
+     */
+    @Nullable
+    public Session get(String sessionId) {
+        if (!isValidSessionId(sessionId)) {
+            log.warn("#446.060 Wrong id of upload session: {}", sessionId);
+            return null;
+        }
+        Session session = sessions.get(toKey(sessionId));
+        if (session==null) {
+            synchronized (sessions) {
+                session = findByKey(toKey(sessionId));
+            }
+        }
+        return session!=null && session.sessionId.equals(sessionId) ? session : null;
+    }
+
+    /**
+     * must be called under the lock of sessions
+     */
+    @Nullable
+    private Session findByKey(String key) {
+        Session session = sessions.get(key);
+        if (session!=null) {
+            return session;
+        }
+        // sessions which were stored before restarting of dispatcher
+        final String prefix = key + '-';
+        File[] dirs = baseDir.listFiles(f -> f.isDirectory() && f.getName().startsWith(prefix) && isValidSessionId(f.getName()) && toKey(f.getName()).equals(key));
+        if (dirs==null || dirs.length==0) {
+            return null;
+        }
+        Arrays.sort(dirs, Comparator.comparingLong((File f) -> Long.parseLong(f.getName().substring(prefix.length()))));
+        // only the last generation is actual
+        for (int i = 0; i < dirs.length - 1; i++) {
+            FileUtils.deleteQuietly(dirs[i]);
+        }
+        final File dir = dirs[dirs.length - 1];
+        final String sessionId = dir.getName();
+        File stateFile = new File(dir, STATE_FILE);
+        if (!stateFile.exists() || !new File(dir, DATA_FILE).exists()) {
+            return null;
+        }
+        try {
+            SessionState state = JsonUtils.getMapper().readValue(stateFile, SessionState.class);
+            session = new Session(sessionId, dir, state);
+            sessions.put(key, session);
+            return session;
+        } catch (IOException e) {
+            log.warn("#446.010 State of upload session {} is broken, error: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return error or null if chunk was stored successfully
+     */
+    @Nullable
+    public String writeChunk(Session session, int chunkNum, InputStream is) throws IOException {
+        if (chunkNum<0 || chunkNum>=session.chunkCount()) {
+            return "#446.020 Wrong number of chunk: " + chunkNum + ", count of chunks: " + session.chunkCount();
+        }
+        final long position = chunkNum * session.state.chunkSize;
+        final long expected = Math.min(session.state.chunkSize, session.state.length - position);
+
+        session.lock.readLock().lock();
+        try {
+            if (session.deleted) {
+                return "#446.045 Upload session " + session.sessionId + " was closed";
+            }
+            final byte[] bytes = new byte[BUFFER_SIZE];
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long total = 0;
+            try (FileChannel channel = FileChannel.open(session.getDataFile().toPath(), StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = is.read(bytes, 0, (int) Math.min(bytes.length, expected - total + 1))) != -1) {
+                    if (total + read > expected) {
+                        return "#446.030 Chunk #" + chunkNum + " is bigger than expected, size: " + expected;
+                    }
+                    buffer.clear().limit(read);
+                    while (buffer.hasRemaining()) {
+                        total += channel.write(buffer, position + total);
+                    }
+                }
+                if (total!=expected) {
+                    return "#446.040 Wrong size of chunk #" + chunkNum + ", expected: " + expected + ", actual: " + total;
+                }
+                channel.force(false);
+            }
+            session.markReceived(chunkNum);
+            return null;
+        }
+        finally {
+            session.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action under the write lock of session, chunks aren't written during this time
+     */
+    public <T> T withExclusiveLock(Session session, Function<Session, T> action) {
+        session.lock.writeLock().lock();
+        try {
+            return action.apply(session);
+        }
+        finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    public static boolean isDeleted(Session session) {
+        return session.deleted;
+    }
+
+    public void delete(String sessionId) {
+        Session session = get(sessionId);
+        if (session!=null) {
+            delete(session);
+        }
+    }
+
+    /**
+     * waits for chunks which are being written now
+     */
+    public void delete(Session session) {
+        withExclusiveLock(session, s -> {
+            s.deleted = true;
+            sessions.remove(toKey(s.sessionId), s);
+            if (s.dir.exists()) {
+                FileUtils.deleteQuietly(s.dir);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Deletes sessions which weren't changed during a specified period
+     */
+    public void deleteStale(long maxAgeMillis) {
+        File[] dirs = baseDir.listFiles(File::isDirectory);
+        if (dirs==null) {
+            return;
+        }
+        final long threshold = System.currentTimeMillis() - maxAgeMillis;
+        for (File dir : dirs) {
+            File stateFile = new File(dir, STATE_FILE);
+            long lastModified = stateFile.exists() ? stateFile.lastModified() : dir.lastModified();
+            if (lastModified < threshold) {
+                log.info("#446.050 Upload session {} is stale and will be deleted", dir.getName());
+                Session session = isValidSessionId(dir.getName()) ? sessions.get(toKey(dir.getName())) : null;
+                if (session!=null && session.sessionId.equals(dir.getName())) {
+                    delete(session);
+                }
+                else {
+                    FileUtils.deleteQuietly(dir);
+                }
+            }
+        }
+    }
+
+    private static void save(File dir, SessionState state) throws IOException {
+        File tempFile = new File(dir, STATE_FILE + ".tmp");
+        JsonUtils.getMapper().writeValue(tempFile, state);
+        Files.move(tempFile.toPath(), new File(dir, STATE_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import org.apache.commons.codec.binary.Hex;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * Base class for storages where payload is addressed by SHA-256 of its content,
+ * so the same payload is stored only once.
+ *
+ * Payload is spooled to a temp file first because the key isn't known until all data was read.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:40 AM
+ */
+public abstract class ContentAddressedStorage implements VariableStorage {
+
+    private static final Pattern SHA256_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final File tempDir;
+
+    protected ContentAddressedStorage(File tempDir) {
+        this.tempDir = tempDir;
+        tempDir.mkdirs();
+    }
+
+    /**
+     * Stores a spooled payload. The file is deleted after returning from this method, so it can be moved.
+     */
+    protected abstract void storeFile(String sha256, File file) throws IOException;
+
+    @Override
+    public StoredPayload store(InputStream is, long size) throws IOException {
+        File tempFile = File.createTempFile("payload-", ".tmp", tempDir);
+        try {
+            String sha256;
+            try (OutputStream os = Files.newOutputStream(tempFile.toPath())) {
+                sha256 = copyWithSha256(is, os);
+            }
+            if (size>=0 && tempFile.length()!=size) {
+                throw new IOException("#452.010 Wrong size of payload, expected: " + size + ", actual: " + tempFile.length());
+            }
+            final long length = tempFile.length();
+            storeFile(sha256, tempFile);
+            return new StoredPayload(toRef(sha256), sha256, length);
+        }
+        finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    public String toRef(String sha256) {
+        return getType().toString() + ':' + sha256;
+    }
+
+    /**
+     * @return SHA-256 of payload which is referenced by ref
+     */
+    public String toSha256(String ref) {
+        final String prefix = getType().toString() + ':';
+        if (!ref.startsWith(prefix)) {
+            throw new IllegalArgumentException("#452.020 Reference " + ref + " doesn't belong to storage " + getType());
+        }
+        String sha256 = ref.substring(prefix.length());
+        if (!isSha256(sha256)) {
+            throw new IllegalArgumentException("#452.030 Reference " + ref + " is broken");
+        }
+        return sha256;
+    }
+
+    public static boolean isSha256(@Nullable String s) {
+        return s!=null && SHA256_PATTERN.matcher(s).matches();
+    }
+
+    public static String copyWithSha256(InputStream is, OutputStream os) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("#452.040 SHA-256 isn't supported", e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            os.write(buffer, 0, read);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import ai.metaheuristic.ai.Enums;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage on local disk. A payload is stored in file baseDir/ab/cd/abcd...,
+ * where abcd... is SHA-256 of payload.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:50 AM
+ */
+@Slf4j
+public class DiskVariableStorage extends ContentAddressedStorage {
+
+    private static final String TEMP_DIR = "tmp";
+    private static final long STALE_TEMP_FILE_TIMEOUT = TimeUnit.DAYS.toMillis(1);
+
+    private final File baseDir;
+
+    public DiskVariableStorage(File baseDir) {
+        super(new File(baseDir, TEMP_DIR));
+        this.baseDir = baseDir;
+    }
+
+    @Override
+    public Enums.VariableStorageType getType() {
+        return Enums.VariableStorageType.disk;
+    }
+
+    public File getFile(String sha256) {
+        return new File(baseDir, sha256.substring(0, 2) + File.separatorChar + sha256.substring(2, 4) + File.separatorChar + sha256);
+    }
+
+    @Override
+    protected void storeFile(String sha256, File file) throws IOException {
+        File target = getFile(sha256);
+        if (target.exists()) {
+            // the same payload was already stored, timestamp is updated for protecting it from deleting as orphan
+            target.setLastModified(System.currentTimeMillis());
+            return;
+        }
+        Files.createDirectories(target.getParentFile().toPath());
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Nullable
+    @Override
+    public InputStream getAsStream(String ref) throws IOException {
+        try {
+            return Files.newInputStream(getFile(toSha256(ref)).toPath());
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean storeToFile(String ref, File trgFile) throws IOException {
+        File file = getFile(toSha256(ref));
+        if (!file.exists()) {
+            return false;
+        }
+        // transferTo() allows OS to copy data without moving it through user space
+        try (FileChannel src = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel trg = FileChannel.open(trgFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = src.size();
+            long position = 0;
+            while (position < size) {
+                position += src.transferTo(position, size - position, trg);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void delete(String ref) throws IOException {
+        Files.deleteIfExists(getFile(toSha256(ref)).toPath());
+    }
+
+    @Nullable
+    @Override
+    public Long getStoredOn(String ref) {
+        File file = getFile(toSha256(ref));
+        return file.exists() ? file.lastModified() : null;
+    }
+
+    @Override
+    public List<String> getRefs(long storedBefore) throws IOException {
+        deleteStaleTempFiles();
+        List<String> refs = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(baseDir.toPath(), 3)) {
+            stream.filter(Files::isRegularFile)
+                    .map(Path::toFile)
+                    .filter(f -> isSha256(f.getName()) && f.lastModified() < storedBefore)
+                    .forEach(f -> refs.add(toRef(f.getName())));
+        }
+        return refs;
+    }
+
+    private void deleteStaleTempFiles() {
+        File[] files = tempDir.listFiles();
+        if (files==null) {
+            return;
+        }
+        final long threshold = System.currentTimeMillis() - STALE_TEMP_FILE_TIMEOUT;
+        for (File file : files) {
+            if (file.lastModified() < threshold) {
+                log.info("#453.010 Stale temp file {} will be deleted", file.getAbsolutePath());
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Signing of requests to S3-compatible storage with AWS Signature Version 4
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 4:05 AM
+ */
+public class S3Signer {
+
+    public static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    public static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    public static final DateTimeFormatter AMZ_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final String SERVICE = "s3";
+    private static final String TERMINATOR = "aws4_request";
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    public S3Signer(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * @param path not encoded path of request
+     * @param query not encoded parameters of request
+     * @param headers signed headers with names in lower case, must contain host, x-amz-date and x-amz-content-sha256
+     * @return value of header 'Authorization'
+     */
+    public String sign(String method, String path, SortedMap<String, String> query, SortedMap<String, String> headers, String payloadSha256) {
+        final String amzDate = headers.get("x-amz-date");
+        if (amzDate==null || amzDate.length()<8) {
+            throw new IllegalArgumentException("#454.010 header x-amz-date is missing");
+        }
+        final String date = amzDate.substring(0, 8);
+        final String scope = date + '/' + region + '/' + SERVICE + '/' + TERMINATOR;
+        final String signedHeaders = String.join(";", headers.keySet());
+
+        final String canonicalRequest = method + '\n' +
+                uriEncode(path, false) + '\n' +
+                canonicalQuery(query) + '\n' +
+                headers.entrySet().stream().map(e -> e.getKey() + ':' + e.getValue().strip() + '\n').collect(Collectors.joining()) + '\n' +
+                signedHeaders + '\n' +
+                payloadSha256;
+
+        final String stringToSign = ALGORITHM + '\n' + amzDate + '\n' + scope + '\n' + sha256Hex(canonicalRequest);
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, TERMINATOR);
+        final String signature = Hex.encodeHexString(hmac(key, stringToSign));
+
+        return ALGORITHM + " Credential=" + accessKey + '/' + scope + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    public static String canonicalQuery(SortedMap<String, String> query) {
+        return query.entrySet().stream()
+                .map(e -> uriEncode(e.getKey(), true) + '=' + uriEncode(e.getValue(), true))
+                .collect(Collectors.joining("&"));
+    }
+
+    public static String uriEncode(String s, boolean encodeSlash) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c>='A' && c<='Z') || (c>='a' && c<='z') || (c>='0' && c<='9') || c=='-' || c=='_' || c=='.' || c=='~' || (c=='/' && !encodeSlash)) {
+                sb.append(c);
+            }
+            else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit((c >> 4) & 0xF, 16))).append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sha256Hex(String s) {
+        try {
+            return Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("#454.020 SHA-256 isn't supported", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("#454.030 HmacSHA256 isn't supported", e);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import ai.metaheuristic.ai.Enums;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.*;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.springframework.lang.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Content-addressed storage in S3-compatible object storage (AWS S3, MinIO, Ceph, etc.)
+ * Path-style addressing is used, i.e. endpoint/bucket/prefix+sha256, requests are signed with AWS Signature Version 4.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 4:25 AM
+ */
+@Slf4j
+public class S3VariableStorage extends ContentAddressedStorage implements Closeable {
+
+    @AllArgsConstructor
+    public static class Config {
+        public final String endpoint;
+        public final String region;
+        public final String bucket;
+        public final String prefix;
+        public final String accessKey;
+        public final String secretKey;
+    }
+
+    private final Config config;
+    private final URI endpoint;
+    private final S3Signer signer;
+    private final CloseableHttpClient client;
+
+    public S3VariableStorage(Config config, File tempDir) {
+        super(tempDir);
+        this.config = config;
+        this.endpoint = URI.create(config.endpoint);
+        this.signer = new S3Signer(config.accessKey, config.secretKey, config.region);
+        this.client = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout(5000).setSocketTimeout(60000).build())
+                .setMaxConnPerRoute(20).setMaxConnTotal(20)
+                .build();
+    }
+
+    @Override
+    public Enums.VariableStorageType getType() {
+        return Enums.VariableStorageType.s3;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    /**
+     * A payload is uploaded even if it already exists, so its timestamp is updated
+     * and the object is protected from deleting as orphan
+     */
+    @Override
+    protected void storeFile(String sha256, File file) throws IOException {
+        HttpPut put = new HttpPut();
+        put.setEntity(new FileEntity(file, ContentType.APPLICATION_OCTET_STREAM));
+        try (CloseableHttpResponse response = execute(put, config.prefix + sha256, new TreeMap<>(), sha256)) {
+            checkStatus(response, "PUT");
+        }
+    }
+
+    @Nullable
+    @Override
+    public InputStream getAsStream(String ref) throws IOException {
+        CloseableHttpResponse response = execute(new HttpGet(), config.prefix + toSha256(ref), new TreeMap<>(), S3Signer.EMPTY_PAYLOAD_SHA256);
+        try {
+            if (response.getStatusLine().getStatusCode()==404) {
+                response.close();
+                return null;
+            }
+            checkStatus(response, "GET");
+            return new FilterInputStream(response.getEntity().getContent()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        response.close();
+                    }
+                }
+            };
+        }
+        catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean storeToFile(String ref, File trgFile) throws IOException {
+        try (InputStream is = getAsStream(ref)) {
+            if (is==null) {
+                return false;
+            }
+            Files.copy(is, trgFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+    }
+
+    @Override
+    public void delete(String ref) throws IOException {
+        try (CloseableHttpResponse response = execute(new HttpDelete(), config.prefix + toSha256(ref), new TreeMap<>(), S3Signer.EMPTY_PAYLOAD_SHA256)) {
+            if (response.getStatusLine().getStatusCode()!=404) {
+                checkStatus(response, "DELETE");
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public Long getStoredOn(String ref) throws IOException {
+        try (CloseableHttpResponse response = execute(new HttpHead(), config.prefix + toSha256(ref), new TreeMap<>(), S3Signer.EMPTY_PAYLOAD_SHA256)) {
+            if (response.getStatusLine().getStatusCode()==404) {
+                return null;
+            }
+            checkStatus(response, "HEAD");
+            Header lastModified = response.getFirstHeader("Last-Modified");
+            if (lastModified==null) {
+                throw new IOException("#454.080 Header Last-Modified is missing for " + ref);
+            }
+            return ZonedDateTime.parse(lastModified.getValue(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        }
+    }
+
+    @Override
+    public List<String> getRefs(long storedBefore) throws IOException {
+        List<String> refs = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            TreeMap<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", config.prefix);
+            if (continuationToken!=null) {
+                query.put("continuation-token", continuationToken);
+            }
+            Document doc;
+            try (CloseableHttpResponse response = execute(new HttpGet(), null, query, S3Signer.EMPTY_PAYLOAD_SHA256)) {
+                checkStatus(response, "LIST");
+                doc = parseXml(response.getEntity());
+            }
+            NodeList contents = doc.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                Element e = (Element) contents.item(i);
+                String key = getText(e, "Key");
+                String lastModified = getText(e, "LastModified");
+                if (key==null || lastModified==null || !key.startsWith(config.prefix)) {
+                    continue;
+                }
+                String sha256 = key.substring(config.prefix.length());
+                if (isSha256(sha256) && Instant.parse(lastModified).toEpochMilli() < storedBefore) {
+                    refs.add(toRef(sha256));
+                }
+            }
+            continuationToken = "true".equals(getText(doc.getDocumentElement(), "IsTruncated"))
+                    ? getText(doc.getDocumentElement(), "NextContinuationToken") : null;
+        } while (continuationToken!=null);
+        return refs;
+    }
+
+    /**
+     * @param key key of object or null for requests to bucket
+     */
+    private CloseableHttpResponse execute(HttpRequestBase request, @Nullable String key, SortedMap<String, String> query, String payloadSha256) throws IOException {
+        final String path = "/" + config.bucket + (key==null ? "" : "/" + key);
+        final String queryStr = S3Signer.canonicalQuery(query);
+        request.setURI(URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + S3Signer.uriEncode(path, false) + (queryStr.isEmpty() ? "" : "?" + queryStr)));
+
+        final String host = endpoint.getPort()==-1 ? endpoint.getHost() : endpoint.getHost() + ':' + endpoint.getPort();
+        TreeMap<String, String> headers = new TreeMap<>();
+        headers.put("host", host);
+        headers.put("x-amz-content-sha256", payloadSha256);
+        headers.put("x-amz-date", S3Signer.AMZ_DATE_FORMATTER.format(Instant.now()));
+        headers.forEach(request::setHeader);
+        request.setHeader("Authorization", signer.sign(request.getMethod(), path, query, headers, payloadSha256));
+        return client.execute(request);
+    }
+
+    private static void checkStatus(CloseableHttpResponse response, String operation) throws IOException {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode>=200 && statusCode<300) {
+            return;
+        }
+        HttpEntity entity = response.getEntity();
+        String body = entity==null ? "" : EntityUtils.toString(entity);
+        throw new IOException("#454.040 " + operation + " request to s3 storage failed, status: " + statusCode + ", response: " + body);
+    }
+
+    private static Document parseXml(HttpEntity entity) throws IOException {
+        try (InputStream is = entity.getContent()) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(is);
+        }
+        catch (IOException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IOException("#454.050 Can't parse response of s3 storage", e);
+        }
+    }
+
+    @Nullable
+    private static String getText(Element parent, String tagName) {
+        NodeList list = parent.getElementsByTagName(tagName);
+        return list.getLength()==0 ? null : list.item(0).getTextContent();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+/**
+ * Result of storing of payload
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 6:20 AM
+ */
+@AllArgsConstructor
+@ToString
+public class StoredPayload {
+    // reference to payload in external storage, null if payload was stored in db
+    @Nullable
+    public final String ref;
+    public final String sha256;
+    public final long length;
+}
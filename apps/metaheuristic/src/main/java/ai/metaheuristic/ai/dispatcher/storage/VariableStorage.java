@@ -0,0 +1,70 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import ai.metaheuristic.ai.Enums;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * SPI of storage for payloads of variables, global variables, functions and cached variables.
+ *
+ * Metadata is kept in db, the reference which was returned by store() is saved in field STORAGE_REF of entity.
+ * A reference is prefixed with type of storage, i.e. 'disk:<sha256>', so payloads stay readable
+ * after switching to another type of storage.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:30 AM
+ */
+public interface VariableStorage {
+
+    Enums.VariableStorageType getType();
+
+    /**
+     * @return reference to stored payload, its SHA-256 and length
+     */
+    StoredPayload store(InputStream is, long size) throws IOException;
+
+    /**
+     * @return stream of payload or null if payload wasn't found
+     */
+    @Nullable
+    InputStream getAsStream(String ref) throws IOException;
+
+    /**
+     * @return false if payload wasn't found
+     */
+    boolean storeToFile(String ref, File trgFile) throws IOException;
+
+    void delete(String ref) throws IOException;
+
+    /**
+     * @return time of the last storing of payload or null if payload wasn't found
+     */
+    @Nullable
+    Long getStoredOn(String ref) throws IOException;
+
+    /**
+     * @return references of all payloads which were stored before specified time
+     */
+    List<String> getRefs(long storedBefore) throws IOException;
+}
@@ -0,0 +1,370 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher.storage;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.beans.ContentChecksumHolder;
+import ai.metaheuristic.ai.dispatcher.beans.PayloadHolder;
+import ai.metaheuristic.ai.dispatcher.event.EventPublisherService;
+import ai.metaheuristic.ai.dispatcher.event.ResourceCloseTxEvent;
+import ai.metaheuristic.ai.dispatcher.repositories.CacheVariableRepository;
+import ai.metaheuristic.ai.dispatcher.repositories.FunctionDataRepository;
+import ai.metaheuristic.ai.dispatcher.repositories.GlobalVariableRepository;
+import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
+import ai.metaheuristic.ai.exceptions.VariableStorageException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.jdbc.LobCreator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for storing and reading of payloads of variables, global variables, functions and cached variables.
+ *
+ * With storage type 'db' payload is stored as BLOB in field DATA, otherwise it's stored in configured
+ * VariableStorage and field STORAGE_REF of entity is referencing it. Payloads are read according to STORAGE_REF,
+ * so data which was stored with another type of storage is still available.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 4:50 AM
+ */
+@Service
+@Profile("dispatcher")
+@Slf4j
+@RequiredArgsConstructor
+public class VariableStorageService {
+
+    private static final String STORAGE_DIR = "storage";
+    private static final long IN_MEMORY_PAYLOAD_MAX_SIZE = 1024 * 1024;
+    private static final long ORPHAN_CHECK_PERIOD = TimeUnit.HOURS.toMillis(1);
+    // a payload which was stored recently can be referenced by a transaction which isn't committed yet
+    private static final long ORPHAN_GRACE_PERIOD = TimeUnit.DAYS.toMillis(1);
+
+    private final Globals globals;
+    private final EntityManager em;
+    private final EventPublisherService eventPublisherService;
+    private final VariableRepository variableRepository;
+    private final GlobalVariableRepository globalVariableRepository;
+    private final FunctionDataRepository functionDataRepository;
+    private final CacheVariableRepository cacheVariableRepository;
+
+    private final Map<Enums.VariableStorageType, VariableStorage> storages = new EnumMap<>(Enums.VariableStorageType.class);
+    @Nullable
+    private VariableStorage current = null;
+    private long lastOrphanCheck = 0;
+    // payloads are stored under read lock and orphans are deleted under write lock,
+    // so a payload can't be deleted between its deduplicated storing and the check of its timestamp
+    private final ReadWriteLock storageLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void init() {
+        File storageDir = globals.variableStorageDir!=null ? globals.variableStorageDir : new File(globals.dispatcherDir, STORAGE_DIR);
+        // disk storage is initialized if it was used before, for reading of payloads which were stored there
+        if (globals.variableStorageType==Enums.VariableStorageType.disk || storageDir.exists()) {
+            storages.put(Enums.VariableStorageType.disk, new DiskVariableStorage(storageDir));
+        }
+        if (globals.s3Endpoint!=null && globals.s3Bucket!=null && globals.s3AccessKey!=null && globals.s3SecretKey!=null) {
+            storages.put(Enums.VariableStorageType.s3, new S3VariableStorage(
+                    new S3VariableStorage.Config(globals.s3Endpoint, globals.s3Region==null ? "us-east-1" : globals.s3Region,
+                            globals.s3Bucket, globals.s3Prefix==null ? "" : globals.s3Prefix, globals.s3AccessKey, globals.s3SecretKey),
+                    new File(globals.dispatcherTempDir, STORAGE_DIR)));
+        }
+        current = storages.get(globals.variableStorageType);
+        log.info("#455.010 Payloads of variables will be stored in {}", current==null ? "db" : current.getType());
+    }
+
+    @PreDestroy
+    public void onExit() {
+        for (VariableStorage storage : storages.values()) {
+            if (storage instanceof Closeable) {
+                try {
+                    ((Closeable) storage).close();
+                } catch (IOException e) {
+                    log.warn("#455.020 Error while closing storage {}: {}", storage.getType(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public Enums.VariableStorageType getStorageType() {
+        return current==null ? Enums.VariableStorageType.db : current.getType();
+    }
+
+    /**
+     * Stores payload and initializes fields 'data' and 'storageRef' of holder,
+     * SHA-256 and length of payload are initialized for ContentChecksumHolder. Entity itself isn't saved.
+     */
+    public void store(PayloadHolder holder, InputStream is, long size) {
+        try {
+            StoredPayload stored;
+            if (current!=null) {
+                storageLock.readLock().lock();
+                try {
+                    stored = current.store(is, size);
+                } finally {
+                    storageLock.readLock().unlock();
+                }
+                holder.setData(null);
+            }
+            else if (holder instanceof ContentChecksumHolder) {
+                stored = storeBlobWithChecksum(holder, is, size);
+            }
+            else {
+                holder.setData(Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size));
+                holder.setStorageRef(null);
+                return;
+            }
+            holder.setStorageRef(stored.ref);
+            if (holder instanceof ContentChecksumHolder) {
+                ((ContentChecksumHolder) holder).setContentSha256(stored.sha256);
+                ((ContentChecksumHolder) holder).setContentLength(stored.length);
+            }
+        } catch (IOException e) {
+            throw new VariableStorageException("#455.030 Error while storing payload in " + getStorageType() + " storage, error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The checksum has to be known before saving of entity, so payload is read before passing it to db.
+     * Small payloads are kept in memory, others are spooled to temp file which is deleted after completion of transaction.
+     */
+    private StoredPayload storeBlobWithChecksum(PayloadHolder holder, InputStream is, long size) throws IOException {
+        final LobCreator lobCreator = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class));
+        if (size>=0 && size<=IN_MEMORY_PAYLOAD_MAX_SIZE) {
+            byte[] bytes = IOUtils.toByteArray(is);
+            if (bytes.length!=size) {
+                throw new IOException("#455.032 Wrong size of payload, expected: " + size + ", actual: " + bytes.length);
+            }
+            holder.setData(lobCreator.createBlob(bytes));
+            return new StoredPayload(null, DigestUtils.sha256Hex(bytes), bytes.length);
+        }
+        File tempFile = File.createTempFile("payload-", ".bin", globals.dispatcherTempDir);
+        eventPublisherService.publishResourceCloseTxEvent(new ResourceCloseTxEvent(tempFile));
+        final String sha256;
+        try (OutputStream os = Files.newOutputStream(tempFile.toPath())) {
+            sha256 = ContentAddressedStorage.copyWithSha256(is, os);
+        }
+        final long length = tempFile.length();
+        if (size>=0 && length!=size) {
+            throw new IOException("#455.034 Wrong size of payload, expected: " + size + ", actual: " + length);
+        }
+        InputStream fis = Files.newInputStream(tempFile.toPath());
+        eventPublisherService.publishResourceCloseTxEvent(new ResourceCloseTxEvent(fis));
+        holder.setData(lobCreator.createBlob(fis, length));
+        return new StoredPayload(null, sha256, length);
+    }
+
+    /**
+     * Payload isn't deleted from external storage here because the same payload can be referenced by another entity.
+     * Payloads without references are deleted in deleteOrphanPayloads()
+     */
+    public void clear(PayloadHolder holder) {
+        holder.setData(null);
+        holder.setStorageRef(null);
+        if (holder instanceof ContentChecksumHolder) {
+            ((ContentChecksumHolder) holder).setContentSha256(null);
+            ((ContentChecksumHolder) holder).setContentLength(null);
+        }
+    }
+
+    public byte[] getBytes(PayloadHolder holder) {
+        try {
+            final String ref = holder.getStorageRef();
+            if (ref!=null) {
+                try (InputStream is = getStorage(ref).getAsStream(ref)) {
+                    return is==null ? new byte[0] : IOUtils.toByteArray(is);
+                }
+            }
+            Blob blob = holder.getData();
+            return blob==null ? new byte[0] : blob.getBytes(1, (int) blob.length());
+        } catch (IOException | SQLException e) {
+            throw new VariableStorageException("#455.040 Error while reading payload, error: " + e.getMessage(), e);
+        }
+    }
+
+    @Nullable
+    public InputStream getVariableAsStream(Long variableId) {
+        return getAsStream(variableRepository.getStorageRefById(variableId), () -> variableRepository.getDataAsStreamById(variableId));
+    }
+
+    @Nullable
+    public InputStream getGlobalVariableAsStream(Long globalVariableId) {
+        return getAsStream(globalVariableRepository.getStorageRefById(globalVariableId), () -> globalVariableRepository.getDataAsStreamById(globalVariableId));
+    }
+
+    @Nullable
+    public InputStream getCacheVariableAsStream(Long cacheVariableId) {
+        return getAsStream(cacheVariableRepository.getStorageRefById(cacheVariableId), () -> cacheVariableRepository.getDataAsStreamById(cacheVariableId));
+    }
+
+    /**
+     * @return false if data wasn't found
+     */
+    public boolean storeVariableToFile(Long variableId, File trgFile) {
+        return storeToFile(variableRepository.getStorageRefById(variableId), () -> variableRepository.getDataAsStreamById(variableId), trgFile);
+    }
+
+    public boolean storeGlobalVariableToFile(Long globalVariableId, File trgFile) {
+        return storeToFile(globalVariableRepository.getStorageRefById(globalVariableId), () -> globalVariableRepository.getDataAsStreamById(globalVariableId), trgFile);
+    }
+
+    public boolean storeCacheVariableToFile(Long cacheVariableId, File trgFile) {
+        return storeToFile(cacheVariableRepository.getStorageRefById(cacheVariableId), () -> cacheVariableRepository.getDataAsStreamById(cacheVariableId), trgFile);
+    }
+
+    public boolean storeFunctionDataToFile(String functionCode, File trgFile) {
+        return storeToFile(functionDataRepository.getStorageRefByCode(functionCode), () -> functionDataRepository.getDataAsStreamByCode(functionCode), trgFile);
+    }
+
+    @Nullable
+    private InputStream getAsStream(@Nullable String ref, Supplier<Blob> blobSupplier) {
+        try {
+            if (ref!=null) {
+                return getStorage(ref).getAsStream(ref);
+            }
+            Blob blob = blobSupplier.get();
+            return blob==null ? null : blob.getBinaryStream();
+        } catch (IOException | SQLException e) {
+            throw new VariableStorageException("#455.050 Error while reading payload, error: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean storeToFile(@Nullable String ref, Supplier<Blob> blobSupplier, File trgFile) {
+        try {
+            if (ref!=null) {
+                return getStorage(ref).storeToFile(ref, trgFile);
+            }
+            Blob blob = blobSupplier.get();
+            if (blob==null) {
+                return false;
+            }
+            try (InputStream is = blob.getBinaryStream()) {
+                FileUtils.copyInputStreamToFile(is, trgFile);
+            }
+            return true;
+        } catch (IOException | SQLException e) {
+            throw new VariableStorageException("#455.060 Error while storing payload to file, error: " + e.getMessage(), e);
+        }
+    }
+
+    private VariableStorage getStorage(String ref) {
+        final int idx = ref.indexOf(':');
+        Enums.VariableStorageType type = null;
+        if (idx!=-1) {
+            try {
+                type = Enums.VariableStorageType.valueOf(ref.substring(0, idx));
+            } catch (IllegalArgumentException e) {
+                // will be handled below
+            }
+        }
+        VariableStorage storage = type==null ? null : storages.get(type);
+        if (storage==null) {
+            throw new VariableStorageException("#455.070 Storage for reference " + ref + " isn't configured");
+        }
+        return storage;
+    }
+
+    /**
+     * Deletes payloads which aren't referenced by any entity. Is called periodically, the actual check is performed once per hour.
+     */
+    public void deleteOrphanPayloads() {
+        if (storages.isEmpty() || System.currentTimeMillis() - lastOrphanCheck < ORPHAN_CHECK_PERIOD) {
+            return;
+        }
+        lastOrphanCheck = System.currentTimeMillis();
+        final long storedBefore = lastOrphanCheck - ORPHAN_GRACE_PERIOD;
+
+        for (VariableStorage storage : storages.values()) {
+            try {
+                // candidates are listed before collecting of references, so a reference which was created
+                // in the meantime will be found
+                List<String> candidates = storage.getRefs(storedBefore);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                Set<String> refs = collectStorageRefs();
+                int count = 0;
+                for (String ref : candidates) {
+                    if (!refs.contains(ref) && deleteIfNotStoredAfter(storage, ref, storedBefore)) {
+                        count++;
+                    }
+                }
+                if (count>0) {
+                    log.info("#455.080 {} orphan payloads were deleted from {} storage", count, storage.getType());
+                }
+            } catch (Throwable th) {
+                log.error("#455.090 Error while deleting orphan payloads from " + storage.getType() + " storage", th);
+            }
+        }
+    }
+
+    private Set<String> collectStorageRefs() {
+        Set<String> refs = new HashSet<>();
+        refs.addAll(variableRepository.findAllStorageRefs());
+        refs.addAll(globalVariableRepository.findAllStorageRefs());
+        refs.addAll(functionDataRepository.findAllStorageRefs());
+        refs.addAll(cacheVariableRepository.findAllStorageRefs());
+        return refs;
+    }
+
+    /**
+     * Storing of the same payload updates its timestamp, so a payload which was deduplicated
+     * after listing of storage isn't deleted
+     */
+    private boolean deleteIfNotStoredAfter(VariableStorage storage, String ref, long storedBefore) throws IOException {
+        storageLock.writeLock().lock();
+        try {
+            Long storedOn = storage.getStoredOn(ref);
+            if (storedOn==null || storedOn >= storedBefore) {
+                return false;
+            }
+            storage.delete(ref);
+            return true;
+        } finally {
+            storageLock.writeLock().unlock();
+        }
+    }
+}
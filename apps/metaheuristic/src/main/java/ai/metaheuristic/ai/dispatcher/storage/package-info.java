@@ -14,10 +14,7 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
-package ai.metaheuristic.ai.processor;
+@ParametersAreNonnullByDefault
+package ai.metaheuristic.ai.dispatcher.storage;
 
-public class ProcessorSyncHolder {
-
-    public static final Object processorGlobalSync = new Object();
-
-}
+import javax.annotation.ParametersAreNonnullByDefault;
\ No newline at end of file
@@ -41,6 +41,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -98,28 +99,54 @@ public class TaskProducingService {
     public void createTasksForSubProcesses(
             ExecContextData.SimpleExecContext simpleExecContext, InternalFunctionData.ExecutionContextData executionContextData,
             String currTaskContextId, Long parentTaskId, List<Long> lastIds) {
+        createTasksForSubProcesses(simpleExecContext, executionContextData, List.of(currTaskContextId), parentTaskId, lastIds);
+    }
+
+    /**
+     * Bulk version for splitters. Tasks of sub-processes are created for each of currTaskContextIds
+     * and all of them are added to graph with one change of graph.
+     *
+     * @param currTaskContextIds taskContextIds of instances of sub-processes
+     * @param lastIds ids of the last tasks of each instance will be added to this list
+     */
+    public void createTasksForSubProcesses(
+            ExecContextData.SimpleExecContext simpleExecContext, InternalFunctionData.ExecutionContextData executionContextData,
+            List<String> currTaskContextIds, Long parentTaskId, List<Long> lastIds) {
         TxUtils.checkTxExists();
         execContextGraphSyncService.checkWriteLockPresent(simpleExecContext.execContextGraphId);
         execContextTaskStateSyncService.checkWriteLockPresent(simpleExecContext.execContextTaskStateId);
 
-        ExecContextParamsYaml execContextParamsYaml = executionContextData.execContextParamsYaml;
-        List<ExecContextData.ProcessVertex> subProcesses = executionContextData.subProcesses;
-        if (subProcesses.isEmpty()) {
+        if (executionContextData.subProcesses.isEmpty()) {
             log.info("#375.040 There isn't any subProcess");
             return;
         }
-
-        Map<String, Map<String, String>> inlines = executionContextData.execContextParamsYaml.variables.inline;
         ExecContextParamsYaml.Process process = executionContextData.process;
-
         if (process.logic!= EnumsApi.SourceCodeSubProcessLogic.sequential && process.logic!= EnumsApi.SourceCodeSubProcessLogic.and) {
             throw new BreakFromLambdaException("#375.060 only the 'sequential' and 'and' logics are supported");
         }
 
+        List<ExecContextData.NewTaskVertex> newTasks = new ArrayList<>(currTaskContextIds.size() * executionContextData.subProcesses.size());
+        for (String currTaskContextId : currTaskContextIds) {
+            lastIds.add(createTasksForSubProcessInstance(simpleExecContext, executionContextData, currTaskContextId, parentTaskId, newTasks));
+        }
+        execContextGraphService.addNewTasksToGraph(simpleExecContext.execContextGraphId, simpleExecContext.execContextTaskStateId, newTasks);
+    }
+
+    /**
+     * @return id of the last created task
+     */
+    private Long createTasksForSubProcessInstance(
+            ExecContextData.SimpleExecContext simpleExecContext, InternalFunctionData.ExecutionContextData executionContextData,
+            String currTaskContextId, Long parentTaskId, List<ExecContextData.NewTaskVertex> newTasks) {
+
+        ExecContextParamsYaml execContextParamsYaml = executionContextData.execContextParamsYaml;
+        List<ExecContextData.ProcessVertex> subProcesses = executionContextData.subProcesses;
+        Map<String, Map<String, String>> inlines = executionContextData.execContextParamsYaml.variables.inline;
+        ExecContextParamsYaml.Process process = executionContextData.process;
+
         List<Long> parentTaskIds = List.of(parentTaskId);
         String subProcessContextId = executionContextData.subProcesses.get(0).processContextId;
 
-
         TaskImpl t = null;
         for (ExecContextData.ProcessVertex subProcess : subProcesses) {
             final ExecContextParamsYaml.Process p = execContextParamsYaml.findProcess(subProcess.process);
@@ -153,12 +180,11 @@ public class TaskProducingService {
                 log.info("(targetState.value!=t.execState)");
                 throw new IllegalStateException("(targetState.value!=t.execState)");
             }
-            List<TaskApiData.TaskWithContext> currTaskIds = List.of(new TaskApiData.TaskWithContext(t.getId(), actualProcessContextId));
-            execContextGraphService.addNewTasksToGraph(simpleExecContext.execContextGraphId, simpleExecContext.execContextTaskStateId, parentTaskIds, currTaskIds, targetState);
+            newTasks.add(new ExecContextData.NewTaskVertex(t.getId(), actualProcessContextId, parentTaskIds, targetState));
             parentTaskIds = List.of(t.getId());
             subProcessContextId = subProcess.processContextId;
         }
-        lastIds.add(t.id);
+        return t.id;
     }
 
     @Nullable
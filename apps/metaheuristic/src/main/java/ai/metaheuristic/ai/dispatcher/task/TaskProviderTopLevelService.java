@@ -19,6 +19,8 @@ package ai.metaheuristic.ai.dispatcher.task;
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
 import ai.metaheuristic.ai.dispatcher.beans.Processor;
 import ai.metaheuristic.ai.dispatcher.beans.TaskImpl;
+import ai.metaheuristic.ai.dispatcher.data.ProcessorData;
+import ai.metaheuristic.ai.dispatcher.data.TaskData;
 import ai.metaheuristic.ai.dispatcher.event.*;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextCache;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextStatusService;
@@ -26,17 +28,12 @@ import ai.metaheuristic.ai.dispatcher.processor.ProcessorCache;
 import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
 import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml;
-import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYaml;
-import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYamlUtils;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
-import ai.metaheuristic.commons.S;
 import ai.metaheuristic.commons.exceptions.DowngradeNotSupportedException;
 import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
@@ -44,10 +41,11 @@ import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -70,16 +68,14 @@ public class TaskProviderTopLevelService {
     private final ExecContextStatusService execContextStatusService;
     private final ApplicationEventPublisher applicationEventPublisher;
     private final ExecContextCache execContextCache;
+    private final ExecContextEventBusService execContextEventBusService;
 
-    private static class TaskProviderServiceSync {}
-
-    // this sync is here because of the presence of @Transactional in TaskProviderTransactionalService
-    // so we don't want to have an opened TX with holding sync within it
-    private static final TaskProviderServiceSync syncObj = new TaskProviderServiceSync();
+    // TaskQueue is synchronized internally with locks per execContext, so there isn't any global sync here.
+    // registering, de-registering and changing of task's state don't contend with assigning of tasks
 
     public void registerTask(Long execContextId, Long taskId) {
-        synchronized (syncObj) {
-            taskProviderTransactionalService.registerTask(execContextId, taskId);
+        if (taskProviderTransactionalService.registerTask(execContextId, taskId)) {
+            applicationEventPublisher.publishEvent(new TaskRegisteredEvent(execContextId, taskId));
         }
     }
 
@@ -87,108 +83,104 @@ public class TaskProviderTopLevelService {
     @EventListener
     public void processDeletedExecContext(TaskQueueCleanByExecContextIdEvent event) {
         try {
-            synchronized (syncObj) {
-                taskProviderTransactionalService.processDeletedExecContext(event);
-            }
+            taskProviderTransactionalService.processDeletedExecContext(event);
         } catch (Throwable th) {
             log.error("Error, need to investigate ", th);
         }
     }
 
-    @Async
     @EventListener
     public void processStartTaskProcessing(StartTaskProcessingEvent event) {
-        try {
-            synchronized (syncObj) {
-                taskProviderTransactionalService.startTaskProcessing(event);
-            }
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        groupByExecContextId(event.tasks).forEach((execContextId, tasks) ->
+                execContextEventBusService.submit(execContextId, () -> {
+                    try {
+                        taskProviderTransactionalService.startTaskProcessing(new StartTaskProcessingEvent(tasks));
+                    } catch (Throwable th) {
+                        log.error("Error, need to investigate ", th);
+                    }
+                }));
     }
 
-    @Async
     @EventListener
     public void processUnAssignTaskEvent(UnAssignTaskEvent event) {
-        try {
-            synchronized (syncObj) {
-                taskProviderTransactionalService.unAssignTask(event);
-            }
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        groupByExecContextId(event.tasks).forEach((execContextId, tasks) ->
+                execContextEventBusService.submit(execContextId, () -> {
+                    try {
+                        taskProviderTransactionalService.unAssignTask(new UnAssignTaskEvent(tasks));
+                    } catch (Throwable th) {
+                        log.error("Error, need to investigate ", th);
+                    }
+                }));
+    }
+
+    private static Map<Long, List<TaskData.ExecContextIdAndTaskId>> groupByExecContextId(List<TaskData.ExecContextIdAndTaskId> tasks) {
+        return tasks.stream().collect(Collectors.groupingBy(o -> o.execContextId, LinkedHashMap::new, Collectors.toList()));
     }
 
     @Async
     @EventListener
     public void deregisterTasksByExecContextId(DeregisterTasksByExecContextIdEvent event) {
         try {
-            synchronized (syncObj) {
-                taskProviderTransactionalService.deregisterTasksByExecContextId(event.execContextId);
-            }
+            taskProviderTransactionalService.deregisterTasksByExecContextId(event.execContextId);
         } catch (Throwable th) {
             log.error("Error, need to investigate ", th);
         }
     }
 
     public void deregisterTask(Long execContextId, Long taskId) {
-        synchronized (syncObj) {
-            taskProviderTransactionalService.deRegisterTask(execContextId, taskId);
-        }
+        taskProviderTransactionalService.deRegisterTask(execContextId, taskId);
     }
 
     @Nullable
     public TaskQueue.TaskGroup getFinishedTaskGroup(Long execContextId) {
-        synchronized (syncObj) {
-            return taskProviderTransactionalService.getFinishedTaskGroup(execContextId);
-        }
+        return taskProviderTransactionalService.getFinishedTaskGroup(execContextId);
     }
 
     public boolean isQueueEmpty() {
-        synchronized (syncObj) {
-            return taskProviderTransactionalService.isQueueEmpty();
-        }
+        return taskProviderTransactionalService.isQueueEmpty();
     }
 
     public boolean allTaskGroupFinished(Long execContextId) {
-        synchronized (syncObj) {
-            return taskProviderTransactionalService.allTaskGroupFinished(execContextId);
-        }
+        return taskProviderTransactionalService.allTaskGroupFinished(execContextId);
     }
 
     @Nullable
     public TaskQueue.AllocatedTask getTaskExecState(Long execContextId, Long taskId) {
-        synchronized (syncObj) {
-            return taskProviderTransactionalService.getTaskExecState(execContextId, taskId);
-        }
+        return taskProviderTransactionalService.getTaskExecState(execContextId, taskId);
     }
 
     public Map<Long, TaskQueue.AllocatedTask> getTaskExecStates(Long execContextId) {
-        synchronized (syncObj) {
-            return taskProviderTransactionalService.getTaskExecStates(execContextId);
+        return taskProviderTransactionalService.getTaskExecStates(execContextId);
+    }
+
+    public void resetTaskGroup(TaskQueue.TaskGroup taskGroup) {
+        final Long execContextId = taskGroup.execContextId;
+        taskProviderTransactionalService.resetTaskGroup(taskGroup);
+        // the released group can be reused by tasks which are waiting for a free group
+        if (execContextId!=null) {
+            applicationEventPublisher.publishEvent(new TaskRegisteredEvent(execContextId, null));
         }
     }
 
     public void lock(Long execContextId) {
-        synchronized (syncObj) {
-            taskProviderTransactionalService.lock(execContextId);
-        }
+        taskProviderTransactionalService.lock(execContextId);
+        // only tasks in locked groups can be assigned, so processors which are waiting for a task must be woken up here too
+        applicationEventPublisher.publishEvent(new TaskRegisteredEvent(execContextId, null));
     }
 
     public void registerInternalTask(Long sourceCodeId, Long execContextId, Long taskId, TaskParamsYaml taskParamYaml) {
-        synchronized (syncObj) {
-            taskProviderTransactionalService.registerInternalTask(sourceCodeId, execContextId, taskId, taskParamYaml);
-        }
+        taskProviderTransactionalService.registerInternalTask(sourceCodeId, execContextId, taskId, taskParamYaml);
     }
 
-    @Async
     @EventListener
     public void setTaskExecState(SetTaskExecStateEvent event) {
-        try {
-            setTaskExecState(event.execContextId, event.taskId, event.state);
-        } catch (Throwable th) {
-            log.error("Error, need to investigate ", th);
-        }
+        execContextEventBusService.submit(event.execContextId, () -> {
+            try {
+                setTaskExecState(event.execContextId, event.taskId, event.state);
+            } catch (Throwable th) {
+                log.error("Error, need to investigate ", th);
+            }
+        });
     }
 
     public void setTaskExecState(Long execContextId, Long taskId, EnumsApi.TaskExecState state) {
@@ -197,109 +189,103 @@ public class TaskProviderTopLevelService {
         if (execContext==null) {
             return;
         }
-        synchronized (syncObj) {
-            boolean b = taskProviderTransactionalService.setTaskExecState(execContextId, taskId, state);
-            log.debug("#393.025 task #{}, state: {}, result: {}", taskId, state, b);
-            if (b) {
-                applicationEventPublisher.publishEvent(new TransferStateFromTaskQueueToExecContextEvent(
-                        execContextId, execContext.execContextGraphId, execContext.execContextTaskStateId));
-            }
+        boolean b = taskProviderTransactionalService.setTaskExecState(execContextId, taskId, state);
+        log.debug("#393.025 task #{}, state: {}, result: {}", taskId, state, b);
+        if (state==EnumsApi.TaskExecState.NONE) {
+            // the task was reset and can be assigned again
+            applicationEventPublisher.publishEvent(new TaskRegisteredEvent(execContextId, taskId));
+        }
+        if (b) {
+            applicationEventPublisher.publishEvent(new TransferStateFromTaskQueueToExecContextEvent(
+                    execContextId, execContext.execContextGraphId, execContext.execContextTaskStateId));
         }
     }
 
-    @Nullable
-    private TaskImpl findUnassignedTaskAndAssign(Processor processor, ProcessorStatusYaml psy, boolean isAcceptOnlySigned) {
+    private List<TaskImpl> findUnassignedTasksAndAssign(Processor processor, ProcessorData.ProcessorCapability capability, boolean isAcceptOnlySigned, int maxTasks) {
         TxUtils.checkTxNotExists();
 
-        TaskImpl task;
-        synchronized (syncObj) {
-            if (taskProviderTransactionalService.isQueueEmpty()) {
-                return null;
-            }
-            task = taskProviderTransactionalService.findUnassignedTaskAndAssign(processor, psy, isAcceptOnlySigned);
+        if (taskProviderTransactionalService.isQueueEmpty()) {
+            return List.of();
         }
-        if (task!=null) {
+        List<TaskImpl> tasks = taskProviderTransactionalService.findUnassignedTasksAndAssign(processor, capability, isAcceptOnlySigned, maxTasks);
+        for (TaskImpl task : tasks) {
             dispatcherEventService.publishTaskEvent(EnumsApi.DispatcherEventType.TASK_ASSIGNED, processor.id, task.id, task.execContextId);
         }
-        return task;
+        return tasks;
     }
 
-    private static final Map<Long, AtomicLong> processorCheckedOn = new HashMap<>();
+    private static final Map<Long, AtomicLong> processorCheckedOn = new ConcurrentHashMap<>();
 
     @Nullable
     public DispatcherCommParamsYaml.AssignedTask findTask(Long processorId, boolean isAcceptOnlySigned) {
+        List<DispatcherCommParamsYaml.AssignedTask> tasks = findTasks(processorId, isAcceptOnlySigned, 1);
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    /**
+     * @param maxTasks max number of tasks which will be assigned to processor
+     */
+    public List<DispatcherCommParamsYaml.AssignedTask> findTasks(Long processorId, boolean isAcceptOnlySigned, int maxTasks) {
         TxUtils.checkTxNotExists();
 
         final Processor processor = processorCache.findById(processorId);
         if (processor == null) {
             log.error("#393.030 Processor with id #{} wasn't found", processorId);
-            return null;
+            return List.of();
         }
 
         if (taskProviderTransactionalService.isQueueEmpty()) {
             AtomicLong mills = processorCheckedOn.computeIfAbsent(processor.id, o -> new AtomicLong());
             if (System.currentTimeMillis()-mills.get() < 60_000 ) {
-                return null;
+                return List.of();
             }
             mills.set(System.currentTimeMillis());
         }
 
-        ProcessorStatusYaml psy = toProcessorStatusYaml(processor);
-        if (psy==null) {
-            return null;
+        ProcessorData.ProcessorCapability capability = processorCache.getCapability(processor);
+        if (capability==null) {
+            return List.of();
         }
 
-        DispatcherCommParamsYaml.AssignedTask assignedTask = getTaskAndAssignToProcessor(processor, psy, isAcceptOnlySigned);
-
-        if (assignedTask!=null && log.isDebugEnabled()) {
-            TaskImpl task = taskRepository.findById(assignedTask.taskId).orElse(null);
-            if (task==null) {
-                log.debug("#393.040 findTask(), task #{} wasn't found", assignedTask.taskId);
-            }
-            else {
-                log.debug("#393.060 findTask(), task id: #{}, ver: {}, task: {}", task.id, task.version, task);
+        List<DispatcherCommParamsYaml.AssignedTask> assignedTasks = new ArrayList<>();
+        for (TaskImpl task : getTasksAndAssignToProcessor(processor, capability, isAcceptOnlySigned, maxTasks)) {
+            DispatcherCommParamsYaml.AssignedTask assignedTask = toAssignedTask(processor, capability, task);
+            if (assignedTask!=null) {
+                assignedTasks.add(assignedTask);
             }
         }
-        return assignedTask;
-    }
 
-    @Nullable
-    private static ProcessorStatusYaml toProcessorStatusYaml(Processor processor) {
-        ProcessorStatusYaml ss;
-        try {
-            ss = ProcessorStatusYamlUtils.BASE_YAML_UTILS.to(processor.status);
-            return ss;
-        } catch (Throwable e) {
-            log.error("#393.080 Error parsing current status of processor:\n{}", processor.status);
-            log.error("#393.100 Error ", e);
-            return null;
+        if (log.isDebugEnabled()) {
+            for (DispatcherCommParamsYaml.AssignedTask assignedTask : assignedTasks) {
+                TaskImpl task = taskRepository.findById(assignedTask.taskId).orElse(null);
+                if (task==null) {
+                    log.debug("#393.040 findTasks(), task #{} wasn't found", assignedTask.taskId);
+                }
+                else {
+                    log.debug("#393.060 findTasks(), task id: #{}, ver: {}, task: {}", task.id, task.version, task);
+                }
+            }
         }
+        return assignedTasks;
     }
 
     @Nullable
-    private DispatcherCommParamsYaml.AssignedTask getTaskAndAssignToProcessor(Processor processor, ProcessorStatusYaml psy, boolean isAcceptOnlySigned) {
-        TxUtils.checkTxNotExists();
-
-        final TaskImpl task = getTaskAndAssignToProcessorInternal(processor, psy, isAcceptOnlySigned);
-        // task won't be returned for an internal function
-        if (task==null) {
-            return null;
-        }
+    private static DispatcherCommParamsYaml.AssignedTask toAssignedTask(Processor processor, ProcessorData.ProcessorCapability capability, TaskImpl task) {
         try {
             String params;
             try {
                 TaskParamsYaml tpy = TaskParamsYamlUtils.BASE_YAML_UTILS.to(task.getParams());
-                if (tpy.version == psy.taskParamsVersion) {
+                if (tpy.version == capability.taskParamsVersion) {
                     params = task.params;
                 } else {
-                    params = TaskParamsYamlUtils.BASE_YAML_UTILS.toStringAsVersion(tpy, psy.taskParamsVersion);
+                    params = TaskParamsYamlUtils.BASE_YAML_UTILS.toStringAsVersion(tpy, capability.taskParamsVersion);
                 }
             } catch (DowngradeNotSupportedException e) {
                 // TODO 2020-09-26 there is a possible situation when a check in ExecContextFSM.findUnassignedTaskAndAssign() would be ok
                 //  but this one fails. that could occur because of prepareVariables(task);
                 //  need a better solution for checking
                 log.warn("#393.120 Task #{} can't be assigned to processor #{} because it's too old, downgrade to required taskParams level {} isn't supported",
-                        task.getId(), processor.id, psy.taskParamsVersion);
+                        task.getId(), processor.id, capability.taskParamsVersion);
                 return null;
             }
 
@@ -313,15 +299,11 @@ public class TaskProviderTopLevelService {
         }
     }
 
-    @Nullable
-    private TaskImpl getTaskAndAssignToProcessorInternal(Processor processor, ProcessorStatusYaml psy, boolean isAcceptOnlySigned) {
+    private List<TaskImpl> getTasksAndAssignToProcessor(Processor processor, ProcessorData.ProcessorCapability capability, boolean isAcceptOnlySigned, int maxTasks) {
         TxUtils.checkTxNotExists();
 
-        KeepAliveResponseParamYaml.ExecContextStatus statuses = execContextStatusService.getExecContextStatuses();
-
-        List<Long> taskIds = S.b(psy.taskIds) ?
-                List.of() :
-                Arrays.stream(StringUtils.split(psy.taskIds, ", ")).map(Long::parseLong).collect(Collectors.toList());
+        List<Long> taskIds = capability.taskIds;
+        List<TaskImpl> result = new ArrayList<>();
 
         List<Object[]> tasks = taskRepository.findExecStateByProcessorId(processor.id);
         for (Object[] obj : tasks) {
@@ -329,7 +311,7 @@ public class TaskProviderTopLevelService {
             int execState = ((Number)obj[1]).intValue();
             Long execContextId = ((Number)obj[2]).longValue();
 
-            if (!statuses.isStarted(execContextId)) {
+            if (!execContextStatusService.isStarted(execContextId)) {
                 continue;
             }
             if (!taskIds.contains(taskId)) {
@@ -338,13 +320,16 @@ public class TaskProviderTopLevelService {
                             processor.id, taskId, EnumsApi.TaskExecState.from(execState));
                     TaskImpl task = taskRepository.findById(taskId).orElse(null);
                     if (task!=null) {
-                        return task;
+                        result.add(task);
+                        if (result.size()>=maxTasks) {
+                            return result;
+                        }
                     }
                 }
             }
         }
 
-        TaskImpl result = findUnassignedTaskAndAssign(processor, psy, isAcceptOnlySigned);
+        result.addAll(findUnassignedTasksAndAssign(processor, capability, isAcceptOnlySigned, maxTasks - result.size()));
         return result;
     }
 
@@ -20,21 +20,19 @@ import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
 import ai.metaheuristic.ai.dispatcher.beans.Processor;
 import ai.metaheuristic.ai.dispatcher.beans.TaskImpl;
+import ai.metaheuristic.ai.dispatcher.data.ProcessorData;
+import ai.metaheuristic.ai.dispatcher.data.TaskData;
 import ai.metaheuristic.ai.dispatcher.event.*;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextService;
 import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextStatusService;
 import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
 import ai.metaheuristic.ai.utils.CollectionUtils;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml;
-import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYaml;
-import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYamlUtils;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.ParamsVersion;
 import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import ai.metaheuristic.commons.S;
 import ai.metaheuristic.commons.exceptions.DowngradeNotSupportedException;
-import ai.metaheuristic.commons.utils.FunctionCoreUtils;
 import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
 import ai.metaheuristic.commons.yaml.versioning.YamlForVersioning;
 import lombok.RequiredArgsConstructor;
@@ -47,9 +45,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.yaml.snakeyaml.error.YAMLException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static ai.metaheuristic.ai.dispatcher.task.TaskQueue.*;
 
@@ -80,28 +79,31 @@ public class TaskProviderTransactionalService {
      * key - processorId
      * value - milliseconds when a processor was banned;
      */
-    private final Map<Long, AtomicLong> bannedSince = new HashMap<>();
+    private final Map<Long, AtomicLong> bannedSince = new ConcurrentHashMap<>();
 
     public void processDeletedExecContext(TaskQueueCleanByExecContextIdEvent event) {
         taskQueue.deleteByExecContextId(event.execContextId);
     }
 
-    public void registerTask(Long execContextId, Long taskId) {
+    /**
+     * @return true if task was added to queue
+     */
+    public boolean registerTask(Long execContextId, Long taskId) {
         if (taskQueue.alreadyRegistered(taskId)) {
-            return;
+            return false;
         }
 
         ExecContextImpl ec =  execContextService.findById(execContextId);
         if (ec==null) {
             log.warn("#317.010 Can't register task #{}, execContext #{} doesn't exist", taskId, execContextId);
-            return;
+            return false;
         }
         final ExecContextParamsYaml execContextParamsYaml = ec.getExecContextParamsYaml();
 
         TaskImpl task = taskRepository.findById(taskId).orElse(null);
         if (task == null) {
             log.warn("#317.015 Can't register task #{}, task doesn't exist", taskId);
-            return;
+            return false;
         }
         final TaskParamsYaml taskParamYaml;
         try {
@@ -110,17 +112,18 @@ public class TaskProviderTransactionalService {
             String es = S.f("#317.020 Task #%s has broken params yaml and will be skipped, error: %s, params:\n%s", task.getId(), e.toString(), task.getParams());
             log.error(es, e.getMessage());
             eventPublisher.publishEvent(new TaskFinishWithErrorEvent(task.id, es));
-            return;
+            return false;
         }
 
         ExecContextParamsYaml.Process p = execContextParamsYaml.findProcess(taskParamYaml.task.processCode);
         if (p==null) {
             log.warn("#317.025 Can't register task #{}, process {} doesn't exist in execContext #{}", taskId, taskParamYaml.task.processCode, execContextId);
-            return;
+            return false;
         }
 
         final QueuedTask queuedTask = new QueuedTask(EnumsApi.FunctionExecContext.external, task.execContextId, taskId, task, taskParamYaml, p.tags, p.priority);
         taskQueue.addNewTask(queuedTask);
+        return true;
     }
 
     public void deRegisterTask(Long execContextId, Long taskId) {
@@ -136,36 +139,52 @@ public class TaskProviderTransactionalService {
     }
 
     public void startTaskProcessing(StartTaskProcessingEvent event) {
-        taskQueue.startTaskProcessing(event.execContextId, event.taskId);
+        for (TaskData.ExecContextIdAndTaskId task : event.tasks) {
+            taskQueue.startTaskProcessing(task.execContextId, task.taskId);
+        }
     }
 
     public void registerInternalTask(Long sourceCodeId, Long execContextId, Long taskId, TaskParamsYaml taskParamYaml) {
         if (taskQueue.alreadyRegistered(taskId)) {
             return;
         }
-        taskQueue.addNewInternalTask(execContextId, taskId, taskParamYaml);
-        eventPublisher.publishEvent(new TaskWithInternalContextEvent(sourceCodeId, execContextId, taskId));
+        if (taskQueue.addNewInternalTask(execContextId, taskId, taskParamYaml)) {
+            eventPublisher.publishEvent(new TaskWithInternalContextEvent(sourceCodeId, execContextId, taskId));
+        }
     }
 
-    @Nullable
+    /**
+     * Assigns up to maxTasks tasks to processor. All tasks are assigned within one transaction
+     * and events about assigning are published once for all of them.
+     */
     @Transactional
-    public TaskImpl findUnassignedTaskAndAssign(Processor processor, ProcessorStatusYaml psy, boolean isAcceptOnlySigned) {
+    public List<TaskImpl> findUnassignedTasksAndAssign(Processor processor, ProcessorData.ProcessorCapability capability, boolean isAcceptOnlySigned, int maxTasks) {
 
         if (isQueueEmpty()) {
-            return null;
+            return List.of();
         }
 
         AtomicLong longHolder = bannedSince.computeIfAbsent(processor.id, o -> new AtomicLong(0));
         if (longHolder.get() != 0 && System.currentTimeMillis() - longHolder.get() < TimeUnit.MINUTES.toMillis(30)) {
-            return null;
+            return List.of();
+        }
+
+        // a processor is checked against each bucket of tasks only once
+        Set<TaskRequirement> acceptable = new HashSet<>();
+        for (TaskRequirement requirement : taskQueue.getAvailableRequirements()) {
+            if (isProcessorCapable(capability, requirement, isAcceptOnlySigned, longHolder)) {
+                acceptable.add(requirement);
+            }
+        }
+        if (acceptable.isEmpty()) {
+            return List.of();
         }
 
-        AllocatedTask resultTask = null;
+        List<AllocatedTask> resultTasks = new ArrayList<>();
         List<QueuedTask> forRemoving = new ArrayList<>();
 
-        KeepAliveResponseParamYaml.ExecContextStatus statuses = execContextStatusService.getExecContextStatuses();
         try {
-            GroupIterator iter = taskQueue.getIterator();
+            GroupIterator iter = taskQueue.getIterator(acceptable);
             while (iter.hasNext()) {
                 AllocatedTask allocatedTask;
                 try {
@@ -183,9 +202,9 @@ public class TaskProviderTransactionalService {
                     continue;
                 }
 
-                final KeepAliveResponseParamYaml.ExecContextStatus.SimpleStatus simpleStatus = statuses.getStatus(queuedTask.execContextId);
-                if (simpleStatus!=null && (simpleStatus.getState() == EnumsApi.ExecContextState.STOPPED || simpleStatus.getState() == EnumsApi.ExecContextState.FINISHED)) {
-                    log.warn("#317.036 task #{} in execContext #{} has a status as {}", queuedTask.taskId, queuedTask.execContextId, simpleStatus.getState());
+                final EnumsApi.ExecContextState execContextState = execContextStatusService.getState(queuedTask.execContextId);
+                if (execContextState == EnumsApi.ExecContextState.STOPPED || execContextState == EnumsApi.ExecContextState.FINISHED) {
+                    log.warn("#317.036 task #{} in execContext #{} has a status as {}", queuedTask.taskId, queuedTask.execContextId, execContextState);
                     forRemoving.add(queuedTask);
                     continue;
                 }
@@ -201,7 +220,7 @@ public class TaskProviderTransactionalService {
                     continue;
                 }
 
-                if (!statuses.isStarted(queuedTask.execContextId)) {
+                if (execContextState != EnumsApi.ExecContextState.STARTED) {
                     continue;
                 }
 
@@ -217,77 +236,28 @@ public class TaskProviderTransactionalService {
                     continue;
                 }
 
-                // check of git availability
-                if (TaskUtils.gitUnavailable(queuedTask.taskParamYaml.task, psy.gitStatusInfo.status != Enums.GitStatus.installed)) {
-                    log.warn("#317.060 Can't assign task #{} to processor #{} because this processor doesn't correctly installed git, git status info: {}",
-                            processor.id, queuedTask.task.getId(), psy.gitStatusInfo
-                    );
-                    continue;
-                }
-
-                if (psy.env==null) {
-                    log.error("#317.070 Processor {} has empty env.yaml", processor.id);
-                }
-
-                // check of tags
-                if (!CollectionUtils.checkTagAllowed(queuedTask.tags, psy.env==null ? null : psy.env.tags)) {
-                    log.debug("#317.077 Check CollectionUtils.checkTagAllowed(queuedTask.tags, psy.env==null ? null : psy.env.tags) was failed");
-                    continue;
-                }
-
-                if (!S.b(queuedTask.taskParamYaml.task.function.env)) {
-                    String interpreter = psy.env!=null ? psy.env.getEnvs().get(queuedTask.taskParamYaml.task.function.env) : null;
-                    if (interpreter == null) {
-                        log.warn("#317.080 Can't assign task #{} to processor #{} because this processor doesn't have defined interpreter for function's env {}",
-                                queuedTask.task.getId(), processor.id, queuedTask.taskParamYaml.task.function.env
-                        );
-                        longHolder.set(System.currentTimeMillis());
-                        continue;
-                    }
-                }
-
-                final List<EnumsApi.OS> supportedOS = FunctionCoreUtils.getSupportedOS(queuedTask.taskParamYaml.task.function.metas);
-                if (psy.os != null && !supportedOS.isEmpty() && !supportedOS.contains(psy.os)) {
-                    log.info("#317.100 Can't assign task #{} to processor #{}, " +
-                                    "because this processor doesn't support required OS version. processor: {}, function: {}",
-                            processor.id, queuedTask.task.getId(), psy.os, supportedOS
-                    );
-                    longHolder.set(System.currentTimeMillis());
-                    continue;
-                }
-
-                if (isAcceptOnlySigned) {
-                    if (queuedTask.taskParamYaml.task.function.checksumMap == null || queuedTask.taskParamYaml.task.function.checksumMap.keySet().stream().noneMatch(o -> o.isSigned)) {
-                        log.warn("#317.120 Function with code {} wasn't signed", queuedTask.taskParamYaml.task.function.getCode());
-                        continue;
-                    }
-                }
-                ProcessorStatusYaml status = ProcessorStatusYamlUtils.BASE_YAML_UTILS.to(processor.status);
-
-                if (notAllFunctionsReady(processor.id, status, queuedTask.taskParamYaml)) {
-                    log.debug("#317.123 Processor #{} isn't ready to process task #{}", processor.id, queuedTask.taskId);
-                    continue;
-                }
-
-                resultTask = allocatedTask;
                 // check that downgrading is being supported
                 try {
                     ParamsVersion v = YamlForVersioning.getParamsVersion(queuedTask.task.getParams());
-                    if (v.getActualVersion()!=psy.taskParamsVersion) {
-                        log.info("#317.138 check downgrading is possible, actual version: {}, required version: {}", v.getActualVersion(), psy.taskParamsVersion);
+                    if (v.getActualVersion()!=capability.taskParamsVersion) {
+                        log.info("#317.138 check downgrading is possible, actual version: {}, required version: {}", v.getActualVersion(), capability.taskParamsVersion);
                         TaskParamsYaml tpy = TaskParamsYamlUtils.BASE_YAML_UTILS.to(queuedTask.task.getParams());
                         //noinspection unused
-                        String params = TaskParamsYamlUtils.BASE_YAML_UTILS.toStringAsVersion(tpy, psy.taskParamsVersion);
+                        String params = TaskParamsYamlUtils.BASE_YAML_UTILS.toStringAsVersion(tpy, capability.taskParamsVersion);
                     }
                 } catch (DowngradeNotSupportedException e) {
                     log.warn("#317.140 Task #{} can't be assigned to processor #{} because it's too old, downgrade to required taskParams level {} isn't supported",
-                            queuedTask.task.id, processor.id, psy.taskParamsVersion);
+                            queuedTask.task.id, processor.id, capability.taskParamsVersion);
                     longHolder.set(System.currentTimeMillis());
-                    resultTask = null;
+                    continue;
                 }
 
-                if (resultTask != null) {
-                    break;
+                // the task could be reserved by a concurrent request from other processor
+                if (taskQueue.assignTask(allocatedTask)) {
+                    resultTasks.add(allocatedTask);
+                    if (resultTasks.size()>=maxTasks) {
+                        break;
+                    }
                 }
             }
         }
@@ -295,58 +265,112 @@ public class TaskProviderTransactionalService {
             taskQueue.removeAll(forRemoving);
         }
 
-        if (resultTask == null) {
-            return null;
+        if (resultTasks.isEmpty()) {
+            return List.of();
         }
 
-        if (resultTask.queuedTask.task == null) {
-            log.error("#317.160 (resultTask.queuedTask.task == null). shouldn't happened");
-            return null;
-        }
+        final List<AllocatedTask> notAssigned = new ArrayList<>(resultTasks);
+        try {
+            final Map<Long, AllocatedTask> allocatedById = new HashMap<>();
+            for (AllocatedTask allocatedTask : resultTasks) {
+                if (allocatedTask.queuedTask.task == null) {
+                    log.error("#317.160 (allocatedTask.queuedTask.task == null). shouldn't happened");
+                    continue;
+                }
+                allocatedById.put(allocatedTask.queuedTask.task.id, allocatedTask);
+            }
 
-        TaskImpl t = taskRepository.findById(resultTask.queuedTask.task.id).orElse(null);
-        if (t==null) {
-            log.warn("#317.180 Can't assign task #{}, task doesn't exist", resultTask.queuedTask.task.id);
-            return null;
-        }
+            final long mills = System.currentTimeMillis();
+            final List<TaskImpl> tasks = new ArrayList<>();
+            for (TaskImpl t : taskRepository.findAllById(allocatedById.keySet())) {
+                t.setAssignedOn(mills);
+                t.setProcessorId(processor.id);
+                t.setExecState(EnumsApi.TaskExecState.IN_PROGRESS.value);
+                t.setResultResourceScheduledOn(0);
+                tasks.add(t);
+            }
+            if (tasks.size()!=allocatedById.size()) {
+                log.warn("#317.180 Can't assign some tasks, tasks don't exist: {}",
+                        allocatedById.keySet().stream().filter(id -> tasks.stream().noneMatch(t -> t.id.equals(id))).collect(Collectors.toList()));
+            }
+            if (tasks.isEmpty()) {
+                return List.of();
+            }
 
-        // normal way of operation for this Processor
-        longHolder.set(0);
+            // normal way of operation for this Processor
+            longHolder.set(0);
 
-        t.setAssignedOn(System.currentTimeMillis());
-        t.setProcessorId(processor.id);
-        t.setExecState(EnumsApi.TaskExecState.IN_PROGRESS.value);
-        t.setResultResourceScheduledOn(0);
+            taskRepository.saveAll(tasks);
 
-        taskRepository.save(t);
+            final List<TaskData.ExecContextIdAndTaskId> ids = tasks.stream()
+                    .map(t -> new TaskData.ExecContextIdAndTaskId(t.execContextId, t.id))
+                    .collect(Collectors.toList());
+            eventPublisherService.publishUnAssignTaskTxEvent(new UnAssignTaskTxEvent(ids));
+            eventPublisherService.publishStartTaskProcessingTxEvent(new StartTaskProcessingTxEvent(ids));
+
+            for (TaskImpl t : tasks) {
+                notAssigned.remove(allocatedById.get(t.id));
+            }
+            return tasks;
+        }
+        finally {
+            for (AllocatedTask allocatedTask : notAssigned) {
+                taskQueue.rollbackAssigning(allocatedTask);
+            }
+        }
+    }
 
-        resultTask.assigned = true;
+    private static boolean isProcessorCapable(ProcessorData.ProcessorCapability capability, TaskRequirement requirement, boolean isAcceptOnlySigned, AtomicLong longHolder) {
+        // check of git availability
+        if (requirement.gitRequired && capability.gitStatus != Enums.GitStatus.installed) {
+            log.warn("#317.060 Can't assign tasks with functions {} to processor #{} because this processor doesn't correctly installed git, git status: {}",
+                    requirement.functionCodes, capability.processorId, capability.gitStatus
+            );
+            return false;
+        }
 
-        eventPublisherService.publishUnAssignTaskTxEvent(new UnAssignTaskTxEvent(t.execContextId, t.id));
-        eventPublisherService.publishStartTaskProcessingTxEvent(new StartTaskProcessingTxEvent(t.execContextId, t.id));
+        if (capability.envEmpty) {
+            log.error("#317.070 Processor {} has empty env.yaml", capability.processorId);
+        }
 
-        return t;
-    }
+        // check of tags
+        if (!CollectionUtils.checkTagAllowed(requirement.tags, capability.tags)) {
+            log.debug("#317.077 Check CollectionUtils.checkTagAllowed(requirement.tags, capability.tags) was failed");
+            return false;
+        }
 
-    private boolean notAllFunctionsReady(Long processorId, ProcessorStatusYaml status, TaskParamsYaml taskParamYaml) {
-        AtomicBoolean result = new AtomicBoolean(false);
-        notAllFunctionsReadyInternal(processorId, status, taskParamYaml.task.function, result);
-        for (TaskParamsYaml.FunctionConfig preFunction : taskParamYaml.task.preFunctions) {
-            notAllFunctionsReadyInternal(processorId, status, preFunction, result);
+        if (requirement.env!=null) {
+            String interpreter = capability.envs.get(requirement.env);
+            if (interpreter == null) {
+                log.warn("#317.080 Can't assign tasks with functions {} to processor #{} because this processor doesn't have defined interpreter for function's env {}",
+                        requirement.functionCodes, capability.processorId, requirement.env
+                );
+                longHolder.set(System.currentTimeMillis());
+                return false;
+            }
         }
-        for (TaskParamsYaml.FunctionConfig postFunction : taskParamYaml.task.postFunctions) {
-            notAllFunctionsReadyInternal(processorId, status, postFunction, result);
+
+        if (capability.os != null && !requirement.supportedOS.isEmpty() && !requirement.supportedOS.contains(capability.os)) {
+            log.info("#317.100 Can't assign tasks with functions {} to processor #{}, " +
+                            "because this processor doesn't support required OS version. processor: {}, function: {}",
+                    requirement.functionCodes, capability.processorId, capability.os, requirement.supportedOS
+            );
+            longHolder.set(System.currentTimeMillis());
+            return false;
         }
-        return result.get();
-    }
 
-    private void notAllFunctionsReadyInternal(Long processorId, ProcessorStatusYaml status, TaskParamsYaml.FunctionConfig functionConfig, AtomicBoolean result) {
-        ProcessorStatusYaml.DownloadStatus ds = status.downloadStatuses.stream().filter(o->o.functionCode.equals(functionConfig.code)).findFirst().orElse(null);
+        if (isAcceptOnlySigned && !requirement.signed) {
+            log.warn("#317.120 Functions {} weren't signed", requirement.functionCodes);
+            return false;
+        }
 
-        if (ds==null || ds.functionState!= Enums.FunctionState.ready) {
-            log.debug("#317.180 function {} at processor #{} isn't ready, state: {}", functionConfig.code, processorId, ds==null ? "'not prepared yet'" : ds.functionState);
-            result.set(true);
+        for (String functionCode : requirement.functionCodes) {
+            if (!capability.isFunctionReady(functionCode)) {
+                log.debug("#317.123 function {} at processor #{} isn't ready", functionCode, capability.processorId);
+                return false;
+            }
         }
+        return true;
     }
 
     public void deregisterTasksByExecContextId(Long execContextId) {
@@ -372,10 +396,16 @@ public class TaskProviderTransactionalService {
     }
 
     public void unAssignTask(UnAssignTaskEvent event) {
-        taskQueue.deRegisterTask(event.execContextId, event.taskId);
+        for (TaskData.ExecContextIdAndTaskId task : event.tasks) {
+            taskQueue.deRegisterTask(task.execContextId, task.taskId);
+        }
     }
 
     public boolean allTaskGroupFinished(Long execContextId) {
         return taskQueue.allTaskGroupFinished(execContextId);
     }
+
+    public void resetTaskGroup(TaskGroup taskGroup) {
+        taskQueue.resetTaskGroup(taskGroup);
+    }
 }
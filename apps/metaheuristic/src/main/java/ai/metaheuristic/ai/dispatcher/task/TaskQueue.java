@@ -20,6 +20,7 @@ import ai.metaheuristic.ai.dispatcher.beans.TaskImpl;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import ai.metaheuristic.commons.S;
+import ai.metaheuristic.commons.utils.FunctionCoreUtils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -27,8 +28,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * @author Serge
@@ -39,6 +43,7 @@ import java.util.stream.Collectors;
 public class TaskQueue {
 
     private static final int MAX_PRIORITY = 2_000_000;
+    private static final int LOCK_STRIPES = 64;
 
     @Data
     @AllArgsConstructor
@@ -55,13 +60,52 @@ public class TaskQueue {
         public int priority;
     }
 
+    /**
+     * Requirements of task which must be satisfied by a processor.
+     * Tasks with the same requirements are placed in the same bucket,
+     * so a processor is checked once per bucket instead of once per task.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class TaskRequirement {
+        @Nullable
+        public final String tags;
+        @Nullable
+        public final String env;
+        public final List<EnumsApi.OS> supportedOS;
+        public final boolean gitRequired;
+        public final boolean signed;
+        public final Set<String> functionCodes;
+
+        public static TaskRequirement of(QueuedTask queuedTask) {
+            //noinspection ConstantConditions
+            final TaskParamsYaml.TaskYaml t = queuedTask.taskParamYaml==null ? null : queuedTask.taskParamYaml.task;
+            if (t==null || t.function==null) {
+                return new TaskRequirement(queuedTask.tags, null, List.of(), false, false, Set.of());
+            }
+            final Set<String> codes = new HashSet<>();
+            if (t.function.code!=null) {
+                codes.add(t.function.code);
+            }
+            t.preFunctions.stream().filter(o->o.code!=null).forEach(o->codes.add(o.code));
+            t.postFunctions.stream().filter(o->o.code!=null).forEach(o->codes.add(o.code));
+
+            final boolean signed = t.function.checksumMap!=null && t.function.checksumMap.keySet().stream().anyMatch(o -> o.isSigned);
+            return new TaskRequirement(
+                    queuedTask.tags, S.b(t.function.env) ? null : t.function.env, FunctionCoreUtils.getSupportedOS(t.function.metas),
+                    TaskUtils.gitUnavailable(t, true), signed, codes);
+        }
+    }
+
     public static class AllocatedTask {
         public final QueuedTask queuedTask;
+        public final TaskRequirement requirement;
         public EnumsApi.TaskExecState state = EnumsApi.TaskExecState.NONE;
         public boolean assigned;
 
         public AllocatedTask(QueuedTask queuedTask) {
             this.queuedTask = queuedTask;
+            this.requirement = TaskRequirement.of(queuedTask);
         }
     }
 
@@ -201,9 +245,20 @@ public class TaskQueue {
         private int groupPtr = 0;
         private int taskPtr = 0;
         private final CopyOnWriteArrayList<TaskGroup> taskGroups;
+        @Nullable
+        private final Set<TaskRequirement> acceptable;
 
         public GroupIterator(CopyOnWriteArrayList<TaskGroup> taskGroups) {
+            this(taskGroups, null);
+        }
+
+        public GroupIterator(CopyOnWriteArrayList<TaskGroup> taskGroups, @Nullable Set<TaskRequirement> acceptable) {
             this.taskGroups = taskGroups;
+            this.acceptable = acceptable;
+        }
+
+        private boolean isAcceptable(@Nullable AllocatedTask task) {
+            return task!=null && !task.assigned && (acceptable==null || acceptable.contains(task.requirement));
         }
 
         @Override
@@ -216,7 +271,7 @@ public class TaskQueue {
                 }
                 for (int j = idx; j < GROUP_SIZE; j++) {
                     AllocatedTask task = taskGroup.tasks[j];
-                    if (task!=null && !task.assigned) {
+                    if (isAcceptable(task)) {
                         return true;
                     }
                 }
@@ -234,7 +289,7 @@ public class TaskQueue {
                 }
                 for (; taskPtr < GROUP_SIZE; taskPtr++) {
                     AllocatedTask task = taskGroup.tasks[taskPtr];
-                    if (task!=null && !task.assigned) {
+                    if (isAcceptable(task)) {
                         ++taskPtr;
                         if (taskPtr==GROUP_SIZE) {
                             taskPtr = 0;
@@ -254,63 +309,208 @@ public class TaskQueue {
         return new GroupIterator(taskGroups);
     }
 
+    /**
+     * iterator which returns only tasks with requirements from acceptable set
+     *
+     * @param acceptable requirements which were already checked against a processor
+     * @return GroupIterator
+     */
+    public GroupIterator getIterator(Set<TaskRequirement> acceptable) {
+        return new GroupIterator(taskGroups, acceptable);
+    }
+
     private final int minQueueSize;
     private final CopyOnWriteArrayList<TaskGroup> taskGroups = new CopyOnWriteArrayList<>();
 
+    // key - taskId, value - task group which contains this task
+    private final ConcurrentHashMap<Long, TaskGroup> taskIdToGroup = new ConcurrentHashMap<>();
+
+    // key - execContextId, value - task groups which contain tasks of this execContext
+    private final ConcurrentHashMap<Long, Set<TaskGroup>> execContextGroups = new ConcurrentHashMap<>();
+
+    // buckets of tasks which are waiting for assigning, i.e. not assigned tasks in locked groups.
+    // a bucket is removed as soon as it becomes empty, so the presence of key means that there is at least one task
+    // key - requirement of task, value - ids of tasks
+    private final ConcurrentHashMap<TaskRequirement, Set<Long>> available = new ConcurrentHashMap<>();
+
+    // the write lock is used for changing the structure of queue, i.e. adding and removing of task groups.
+    // all other operations are using the read lock plus a lock of execContext, so operations on different execContexts
+    // don't contend with each other
+    private final ReentrantReadWriteLock queueLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] execContextLocks = new ReentrantLock[LOCK_STRIPES];
+
     public TaskQueue() {
         this(MIN_QUEUE_SIZE_DEFAULT);
     }
 
     public TaskQueue(int minQueueSize) {
         this.minQueueSize = minQueueSize;
+        for (int i = 0; i < execContextLocks.length; i++) {
+            execContextLocks[i] = new ReentrantLock();
+        }
     }
 
-    @Nullable
-    public TaskGroup getFinishedTaskGroup(Long execContextId) {
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextId.equals(taskGroup.execContextId) && groupFinished(taskGroup)) {
-                return taskGroup;
+    private <T> T withExecContextLock(Long execContextId, Supplier<T> supplier) {
+        queueLock.readLock().lock();
+        try {
+            final ReentrantLock lock = execContextLocks[(Long.hashCode(execContextId) & 0x7fffffff) % LOCK_STRIPES];
+            lock.lock();
+            try {
+                return supplier.get();
+            }
+            finally {
+                lock.unlock();
             }
         }
-        return null;
+        finally {
+            queueLock.readLock().unlock();
+        }
     }
 
-    public boolean allTaskGroupFinished(Long execContextId) {
-        return taskGroups.stream().filter(o-> execContextId.equals(o.execContextId)).allMatch(TaskQueue::groupFinished);
+    private <T> T withQueueLock(Supplier<T> supplier) {
+        queueLock.writeLock().lock();
+        try {
+            return supplier.get();
+        }
+        finally {
+            queueLock.writeLock().unlock();
+        }
     }
 
-    public Map<Long, AllocatedTask> getTaskExecStates(Long execContextId) {
-        Map<Long, AllocatedTask> map = new HashMap<>();
-        for (TaskGroup taskGroup : taskGroups) {
-            if (!execContextId.equals(taskGroup.execContextId)) {
+    private Set<TaskGroup> getGroups(Long execContextId) {
+        return execContextGroups.getOrDefault(execContextId, Set.of());
+    }
+
+    private void addToIndex(TaskGroup taskGroup, Long taskId) {
+        taskIdToGroup.put(taskId, taskGroup);
+        if (taskGroup.execContextId!=null) {
+            execContextGroups.computeIfAbsent(taskGroup.execContextId, o -> ConcurrentHashMap.newKeySet()).add(taskGroup);
+        }
+    }
+
+    private void removeGroupFromIndex(Long execContextId, TaskGroup taskGroup) {
+        execContextGroups.computeIfPresent(execContextId, (k, v) -> {
+            v.remove(taskGroup);
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+    private void forgetTask(TaskGroup taskGroup, AllocatedTask task) {
+        taskIdToGroup.remove(task.queuedTask.taskId, taskGroup);
+        markUnavailable(task);
+    }
+
+    private void markAvailable(AllocatedTask task) {
+        available.compute(task.requirement, (k, v) -> {
+            Set<Long> ids = v==null ? new HashSet<>() : v;
+            ids.add(task.queuedTask.taskId);
+            return ids;
+        });
+    }
+
+    private void markUnavailable(AllocatedTask task) {
+        available.computeIfPresent(task.requirement, (k, v) -> {
+            v.remove(task.queuedTask.taskId);
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+    private void reindex(TaskGroup taskGroup) {
+        for (AllocatedTask task : taskGroup.tasks) {
+            if (task==null) {
                 continue;
             }
-            for (AllocatedTask task : taskGroup.tasks) {
-                if (task==null) {
-                    continue;
-                }
-                map.put(task.queuedTask.taskId, task);
+            if (taskGroup.locked && taskGroup.execContextId!=null && !task.assigned) {
+                markAvailable(task);
+            }
+            else {
+                markUnavailable(task);
             }
         }
-        return map;
     }
 
     @Nullable
-    public AllocatedTask getTaskExecState(Long execContextId, Long taskId) {
-        for (TaskGroup taskGroup : taskGroups) {
-            if (!execContextId.equals(taskGroup.execContextId)) {
-                continue;
+    private static AllocatedTask findTask(TaskGroup taskGroup, Long taskId) {
+        for (AllocatedTask task : taskGroup.tasks) {
+            if (task!=null && task.queuedTask.taskId.equals(taskId)) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private TaskGroup findGroup(Long execContextId, Long taskId) {
+        TaskGroup taskGroup = taskIdToGroup.get(taskId);
+        return taskGroup!=null && execContextId.equals(taskGroup.execContextId) ? taskGroup : null;
+    }
+
+    private boolean deRegisterTaskInternal(TaskGroup taskGroup, Long taskId) {
+        final Long execContextId = taskGroup.execContextId;
+        final AllocatedTask task = findTask(taskGroup, taskId);
+        if (task==null || !taskGroup.deRegisterTask(taskId)) {
+            return false;
+        }
+        forgetTask(taskGroup, task);
+        if (taskGroup.execContextId==null && execContextId!=null) {
+            removeGroupFromIndex(execContextId, taskGroup);
+        }
+        return true;
+    }
+
+    private void resetInternal(TaskGroup taskGroup) {
+        for (AllocatedTask task : taskGroup.tasks) {
+            if (task!=null) {
+                forgetTask(taskGroup, task);
+            }
+        }
+        if (taskGroup.execContextId!=null) {
+            removeGroupFromIndex(taskGroup.execContextId, taskGroup);
+        }
+        taskGroup.reset();
+    }
+
+    @Nullable
+    public TaskGroup getFinishedTaskGroup(Long execContextId) {
+        return withExecContextLock(execContextId, () -> {
+            for (TaskGroup taskGroup : getGroups(execContextId)) {
+                if (execContextId.equals(taskGroup.execContextId) && groupFinished(taskGroup)) {
+                    return taskGroup;
+                }
             }
-            for (AllocatedTask task : taskGroup.tasks) {
-                if (task==null) {
+            return null;
+        });
+    }
+
+    public boolean allTaskGroupFinished(Long execContextId) {
+        return withExecContextLock(execContextId,
+                () -> getGroups(execContextId).stream().filter(o-> execContextId.equals(o.execContextId)).allMatch(TaskQueue::groupFinished));
+    }
+
+    public Map<Long, AllocatedTask> getTaskExecStates(Long execContextId) {
+        return withExecContextLock(execContextId, () -> {
+            Map<Long, AllocatedTask> map = new HashMap<>();
+            for (TaskGroup taskGroup : getGroups(execContextId)) {
+                if (!execContextId.equals(taskGroup.execContextId)) {
                     continue;
                 }
-                if (task.queuedTask.taskId.equals(taskId)) {
-                    return task;
+                for (AllocatedTask task : taskGroup.tasks) {
+                    if (task==null) {
+                        continue;
+                    }
+                    map.put(task.queuedTask.taskId, task);
                 }
             }
-        }
-        return null;
+            return map;
+        });
+    }
+
+    @Nullable
+    public AllocatedTask getTaskExecState(Long execContextId, Long taskId) {
+        return withExecContextLock(execContextId, () -> {
+            TaskGroup taskGroup = findGroup(execContextId, taskId);
+            return taskGroup==null ? null : findTask(taskGroup, taskId);
+        });
     }
 
     /**
@@ -325,46 +525,33 @@ public class TaskQueue {
         if (state== EnumsApi.TaskExecState.IN_PROGRESS || state== EnumsApi.TaskExecState.OK) {
             log.debug("#029.020 set task #{} as {}, execContextId: #{}", taskId, state, execContextId);
         }
-        boolean ok = false;
-        for (TaskGroup taskGroup : taskGroups) {
-            if (!execContextId.equals(taskGroup.execContextId)) {
-                continue;
-            }
-            if (taskGroup.allocated==0) {
-                continue;
+        return withExecContextLock(execContextId, () -> {
+            TaskGroup taskGroup = findGroup(execContextId, taskId);
+            AllocatedTask task = taskGroup==null || taskGroup.allocated==0 ? null : findTask(taskGroup, taskId);
+            if (taskGroup==null || task==null) {
+                log.debug("#029.027 task #{}, state {}, execContextId: #{}, not changed", taskId, state, execContextId);
+                return false;
             }
-            for (AllocatedTask task : taskGroup.tasks) {
-                if (task==null) {
-                    continue;
-                }
-                if (!task.queuedTask.taskId.equals(taskId)) {
-                    continue;
-                }
-                if (!task.assigned) {
-                    log.warn("#029.022 State of task #{} can't be changed to {} because the task wasn't assigned.", task.queuedTask.taskId, state);
-                    try {
-                        throw new RuntimeException("for stacktrace");
-                    }
-                    catch (RuntimeException e) {
-                        log.warn("#029.023 Stacktrace", e);
-                    }
-                    continue;
+            if (!task.assigned) {
+                log.warn("#029.022 State of task #{} can't be changed to {} because the task wasn't assigned.", task.queuedTask.taskId, state);
+                try {
+                    throw new RuntimeException("for stacktrace");
                 }
-                task.state = state;
-                // task was reset or checked with a cache and the cache was missed
-                if (task.state== EnumsApi.TaskExecState.NONE) {
-                    task.assigned = false;
+                catch (RuntimeException e) {
+                    log.warn("#029.023 Stacktrace", e);
                 }
-                ok = true;
-                break;
+                log.debug("#029.027 task #{}, state {}, execContextId: #{}, not changed", taskId, state, execContextId);
+                return false;
             }
-            log.debug("#029.025 task #{}, state {}, execContextId: #{}, changed: {}", taskId, state, execContextId, ok);
-            if (ok) {
-                return groupFinished(taskGroup);
+            task.state = state;
+            // task was reset or checked with a cache and the cache was missed
+            if (task.state== EnumsApi.TaskExecState.NONE) {
+                task.assigned = false;
+                reindex(taskGroup);
             }
-        }
-        log.debug("#029.027 task #{}, state {}, execContextId: #{}, not changed", taskId, state, execContextId);
-        return false;
+            log.debug("#029.025 task #{}, state {}, execContextId: #{}, changed: true", taskId, state, execContextId);
+            return groupFinished(taskGroup);
+        });
     }
 
     public static boolean groupFinished(TaskGroup taskGroup) {
@@ -383,52 +570,77 @@ public class TaskQueue {
     }
 
     public void lock(Long execContextId) {
-        for (TaskGroup tg : taskGroups) {
-            if (execContextId.equals(tg.execContextId)) {
-                if (tg.allocated>0) {
-                    tg.lock();
+        withExecContextLock(execContextId, () -> {
+            for (TaskGroup tg : getGroups(execContextId)) {
+                if (execContextId.equals(tg.execContextId)) {
+                    if (tg.allocated>0) {
+                        tg.lock();
+                        reindex(tg);
+                    }
                 }
             }
-        }
-        int i=0;
+            return null;
+        });
     }
 
     public void removeAll(List<QueuedTask> forRemoving) {
         if (forRemoving.isEmpty()) {
             return;
         }
-        List<Long> execContextIds = forRemoving.stream().map(o->o.execContextId).collect(Collectors.toList());
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextIds.contains(taskGroup.execContextId)) {
-                for (QueuedTask queuedTask : forRemoving) {
-                    if (queuedTask.execContextId.equals(taskGroup.execContextId)) {
-                        taskGroup.deRegisterTask(queuedTask.taskId);
-                    }
+        withQueueLock(() -> {
+            for (QueuedTask queuedTask : forRemoving) {
+                TaskGroup taskGroup = findGroup(queuedTask.execContextId, queuedTask.taskId);
+                if (taskGroup!=null) {
+                    deRegisterTaskInternal(taskGroup, queuedTask.taskId);
                 }
             }
-        }
-        shrink();
+            shrink();
+            return null;
+        });
     }
 
     public void addNewTask(QueuedTask task) {
-        addNewTask(task, true);
+        withQueueLock(() -> addNewTask(task, true));
     }
 
+    @Nullable
     private TaskGroup addNewTask(QueuedTask task, boolean fixPriority) {
+        if (taskIdToGroup.containsKey(task.taskId)) {
+            log.warn("#029.030 task #{} is already registered", task.taskId);
+            return null;
+        }
         if (fixPriority && task.priority>MAX_PRIORITY) {
             task.priority = MAX_PRIORITY;
         }
         TaskGroup taskGroup = null;
         // find an allocated task group with a free slot
-        for (TaskGroup group : taskGroups) {
+        Set<TaskGroup> candidates = null;
+        for (TaskGroup group : getGroups(task.execContextId)) {
             if (group.locked) {
                 continue;
             }
             if (group.execContextId == null || group.priority != task.priority || group.allocated == GROUP_SIZE || !group.execContextId.equals(task.execContextId)) {
                 continue;
             }
-            taskGroup = group;
-            break;
+            if (taskGroup==null) {
+                taskGroup = group;
+            }
+            else {
+                if (candidates==null) {
+                    candidates = new HashSet<>();
+                    candidates.add(taskGroup);
+                }
+                candidates.add(group);
+            }
+        }
+        // there can be a few not locked groups of the same execContext, select the first one in the order of queue
+        if (candidates!=null) {
+            for (TaskGroup group : taskGroups) {
+                if (candidates.contains(group)) {
+                    taskGroup = group;
+                    break;
+                }
+            }
         }
 
         // there wasn't an initialized task group with a free slot but there is a task group with the same priority.
@@ -472,84 +684,155 @@ public class TaskQueue {
             taskGroups.add(taskGroup);
         }
         taskGroup.addTask(task);
+        addToIndex(taskGroup, task.taskId);
+        reindex(taskGroup);
         return taskGroup;
     }
 
-    public void addNewInternalTask(Long execContextId, Long taskId, TaskParamsYaml taskParamYaml) {
-        QueuedTask task = new QueuedTask(EnumsApi.FunctionExecContext.internal, execContextId, taskId, null, taskParamYaml, null, TaskQueue.MAX_PRIORITY + 1);
-        TaskGroup taskGroup = addNewTask(task, false);
-        if (taskGroup.assignTask(taskId)==null) {
-            throw new IllegalStateException("(taskGroup.assignTask(taskId)==null)");
-        }
-        taskGroup.lock();
-
-        /*
-//        lock(execContextId);
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextId.equals(taskGroup.execContextId)) {
-                if (taskGroup.assignTask(taskId)!=null) {
-                    taskGroup.lock();
-                    return;
-                }
+    /**
+     * @return false if task was already registered
+     */
+    public boolean addNewInternalTask(Long execContextId, Long taskId, TaskParamsYaml taskParamYaml) {
+        return withQueueLock(() -> {
+            QueuedTask task = new QueuedTask(EnumsApi.FunctionExecContext.internal, execContextId, taskId, null, taskParamYaml, null, TaskQueue.MAX_PRIORITY + 1);
+            TaskGroup taskGroup = addNewTask(task, false);
+            if (taskGroup==null) {
+                return false;
             }
-        }
-*/
+            if (taskGroup.assignTask(taskId)==null) {
+                throw new IllegalStateException("(taskGroup.assignTask(taskId)==null)");
+            }
+            taskGroup.lock();
+            reindex(taskGroup);
+            return true;
+        });
     }
 
     public void startTaskProcessing(Long execContextId, Long taskId) {
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextId.equals(taskGroup.execContextId)) {
-                AllocatedTask allocatedTask = taskGroup.assignTask(taskId);
-                if (allocatedTask!=null) {
-                    allocatedTask.state = EnumsApi.TaskExecState.IN_PROGRESS;
-                    return;
-                }
+        withExecContextLock(execContextId, () -> {
+            TaskGroup taskGroup = findGroup(execContextId, taskId);
+            if (taskGroup==null) {
+                return null;
             }
-        }
+            AllocatedTask allocatedTask = taskGroup.assignTask(taskId);
+            if (allocatedTask!=null) {
+                allocatedTask.state = EnumsApi.TaskExecState.IN_PROGRESS;
+                markUnavailable(allocatedTask);
+            }
+            return null;
+        });
     }
 
-    public void shrink() {
+    /**
+     * Reserves a task for assigning to a processor.
+     * The task must be obtained from this queue via GroupIterator.
+     *
+     * @param allocatedTask AllocatedTask
+     * @return false if the task was already assigned or de-registered in the meantime
+     */
+    public boolean assignTask(AllocatedTask allocatedTask) {
+        final QueuedTask queuedTask = allocatedTask.queuedTask;
+        return withExecContextLock(queuedTask.execContextId, () -> {
+            TaskGroup taskGroup = findGroup(queuedTask.execContextId, queuedTask.taskId);
+            if (taskGroup==null || !taskGroup.locked || allocatedTask.assigned || findTask(taskGroup, queuedTask.taskId)!=allocatedTask) {
+                return false;
+            }
+            allocatedTask.assigned = true;
+            markUnavailable(allocatedTask);
+            return true;
+        });
+    }
 
-        if (taskGroups.size()>minQueueSize) {
-            int size = taskGroups.size();
-            for (int i = 0; i < size; i++) {
-                if (size==minQueueSize) {
-                    break;
-                }
-                if (taskGroups.get(i).noneTasks()) {
-                    taskGroups.remove(i);
-                    --size;
-                    --i;
+    /**
+     * Returns a task, which was reserved with assignTask() but wasn't actually assigned, back to the queue
+     *
+     * @param allocatedTask AllocatedTask
+     */
+    public void rollbackAssigning(AllocatedTask allocatedTask) {
+        final QueuedTask queuedTask = allocatedTask.queuedTask;
+        withExecContextLock(queuedTask.execContextId, () -> {
+            TaskGroup taskGroup = findGroup(queuedTask.execContextId, queuedTask.taskId);
+            if (taskGroup==null || findTask(taskGroup, queuedTask.taskId)!=allocatedTask || allocatedTask.state!=EnumsApi.TaskExecState.NONE) {
+                return null;
+            }
+            allocatedTask.assigned = false;
+            reindex(taskGroup);
+            return null;
+        });
+    }
+
+    /**
+     * @return requirements of all tasks which are waiting for assigning right now
+     */
+    public Set<TaskRequirement> getAvailableRequirements() {
+        return new HashSet<>(available.keySet());
+    }
+
+    public void shrink() {
+        withQueueLock(() -> {
+            if (taskGroups.size()>minQueueSize) {
+                int size = taskGroups.size();
+                for (int i = 0; i < size; i++) {
+                    if (size==minQueueSize) {
+                        break;
+                    }
+                    if (taskGroups.get(i).noneTasks()) {
+                        taskGroups.remove(i);
+                        --size;
+                        --i;
+                    }
                 }
             }
-        }
+            return null;
+        });
     }
 
     public void deleteByExecContextId(Long execContextId) {
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextId.equals(taskGroup.execContextId)) {
-                taskGroup.reset();
+        withQueueLock(() -> {
+            for (TaskGroup taskGroup : new ArrayList<>(getGroups(execContextId))) {
+                if (execContextId.equals(taskGroup.execContextId)) {
+                    resetInternal(taskGroup);
+                }
             }
+            shrink();
+            return null;
+        });
+    }
+
+    /**
+     * Resets a task group, which was returned by getFinishedTaskGroup(), after its states were transferred to execContext
+     *
+     * @param taskGroup TaskGroup
+     */
+    public void resetTaskGroup(TaskGroup taskGroup) {
+        final Long execContextId = taskGroup.execContextId;
+        if (execContextId==null) {
+            return;
         }
-        shrink();
+        withExecContextLock(execContextId, () -> {
+            if (execContextId.equals(taskGroup.execContextId)) {
+                resetInternal(taskGroup);
+            }
+            return null;
+        });
     }
 
     public boolean alreadyRegistered(Long taskId) {
-        return taskGroups.stream().anyMatch(o->o.alreadyRegistered(taskId));
+        return taskIdToGroup.containsKey(taskId);
     }
 
     public void deRegisterTask(Long execContextId, Long taskId) {
-        for (TaskGroup taskGroup : taskGroups) {
-            if (execContextId.equals(taskGroup.execContextId)) {
-                if (taskGroup.deRegisterTask(taskId)) {
-                    return;
-                }
+        withExecContextLock(execContextId, () -> {
+            TaskGroup taskGroup = findGroup(execContextId, taskId);
+            if (taskGroup!=null) {
+                deRegisterTaskInternal(taskGroup, taskId);
             }
-        }
+            return null;
+        });
     }
 
     public boolean isQueueEmpty() {
-        return taskGroups.stream().noneMatch(TaskGroup::isNewTask);
+        return available.isEmpty();
     }
 
     public int groupCount() {
@@ -39,7 +39,7 @@ import java.util.function.Supplier;
 @Profile("dispatcher")
 public class TaskSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("task");
 
     public void checkWriteLockPresent(Long taskId) {
         if (!getWriteLock(taskId).isHeldByCurrentThread()) {
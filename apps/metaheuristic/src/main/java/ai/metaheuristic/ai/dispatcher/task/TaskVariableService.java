@@ -25,6 +25,7 @@ import ai.metaheuristic.ai.dispatcher.event.VariableUploadedTxEvent;
 import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
 import ai.metaheuristic.ai.dispatcher.southbridge.UploadResult;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.utils.TxUtils;
 import ai.metaheuristic.api.EnumsApi;
 import ai.metaheuristic.api.data.task.TaskParamsYaml;
@@ -53,6 +54,7 @@ public class TaskVariableService {
     private final VariableRepository variableRepository;
     private final TaskSyncService taskSyncService;
     private final EventPublisherService eventPublisherService;
+    private final VariableStorageService variableStorageService;
 
     public static class UpdateStatusOfVariableException extends RuntimeException {
         public final UploadResult uploadResult;
@@ -108,7 +110,7 @@ public class TaskVariableService {
 
         variable.inited = true;
         variable.nullified = true;
-        variable.setData(null);
+        variableStorageService.clear(variable);
 
         eventPublisherService.publishSetVariableReceivedTxEvent(new SetVariableReceivedTxEvent(task.id, variableId, true));
 
@@ -29,6 +29,7 @@ import ai.metaheuristic.ai.dispatcher.processor.ProcessorCache;
 import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
 import ai.metaheuristic.ai.dispatcher.source_code.SourceCodeSyncService;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.dispatcher.task.TaskStateService;
 import ai.metaheuristic.ai.dispatcher.task.TaskVariableTopLevelService;
 import ai.metaheuristic.ai.dispatcher.variable.SimpleVariable;
@@ -48,7 +49,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.sql.Blob;
 import java.util.List;
 
 /**
@@ -80,6 +80,7 @@ public class TxSupportForTestingService {
     private final SourceCodeSyncService sourceCodeSyncService;
     private final BatchCache batchCache;
     private final ExecContextCache execContextCache;
+    private final VariableStorageService variableStorageService;
 
     @Transactional
     public ExecContextCreatorService.ExecContextCreationResult createExecContext(SourceCodeImpl sourceCode, Long companyId) {
@@ -273,8 +274,7 @@ public class TxSupportForTestingService {
             if (v==null) {
                 return null;
             }
-            Blob blob = v.getData();
-            v.bytes = blob==null ? new byte[0] : blob.getBytes(1, (int) blob.length());
+            v.bytes = variableStorageService.getBytes(v);
             return v;
         } catch (Throwable th) {
             throw new VariableCommonException("#087.020 Error: " + th.getMessage(), id);
@@ -318,5 +318,17 @@ public class TxSupportForTestingService {
         return osr;
     }
 
+    @Transactional
+    public OperationStatusRest addNewTasksToGraphWithTx(Long execContextId, List<ExecContextData.NewTaskVertex> newTasks) {
+        if (!globals.isUnitTesting) {
+            throw new IllegalStateException("Only for testing");
+        }
+        ExecContextImpl execContext = execContextService.findById(execContextId);
+        if (execContext==null) {
+            return OperationStatusRest.OPERATION_STATUS_OK;
+        }
+        execContextSyncService.checkWriteLockPresent(execContext.id);
+        return execContextGraphService.addNewTasksToGraph(execContext.execContextGraphId, execContext.execContextTaskStateId, newTasks);
+    }
 
 }
@@ -15,10 +15,10 @@
  */
 package ai.metaheuristic.ai.dispatcher.variable;
 
-import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.dispatcher.data.InlineVariableData;
 import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
 import ai.metaheuristic.commons.S;
+import ai.metaheuristic.commons.permutation.CartesianProduct;
 import ai.metaheuristic.commons.utils.MetaUtils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -109,51 +109,58 @@ public class InlineVariableUtils {
         return total.get();
     }
 
+    /**
+     * Variants aren't materialized, the returned list creates a variant with each call of get().
+     * The value of the first key is changing fastest.
+     */
     public static List<InlineVariable> getAllInlineVariants(@Nullable Map<String, String> experimentMetadatas) {
         if (experimentMetadatas==null || experimentMetadatas.isEmpty()) {
             return new ArrayList<>();
         }
+        return new InlineVariants(experimentMetadatas);
+    }
 
-        List<InlineVariable> allHyperParams = new ArrayList<>();
-
-        List<Map.Entry<String, String>> entries = new ArrayList<>(experimentMetadatas.entrySet());
-
-        for (Map.Entry<String, String> entry : entries) {
-            NumberOfVariants ofVariants = getNumberOfVariants(entry.getValue());
-            int originSize = allHyperParams.size();
-            if (originSize==0 && ofVariants.count>0) {
-                addInstances(allHyperParams, ofVariants.count);
-            }
-            else {
-                for (int i = 0; i < ofVariants.count-1; i++) {
-                    for (int j = 0; j < originSize; j++) {
-                        InlineVariable elem = allHyperParams.get(j);
-                        allHyperParams.add(elem.asClone());
-                    }
+    /**
+     * Read-only list of all variants of inline variables, which is backed by cartesian product of values of keys.
+     * Keys without any value are skipped. Duplicated values of a key are used only once,
+     * so there aren't variants with the same path, as it was with materialized variants.
+     */
+    public static class InlineVariants extends AbstractList<InlineVariable> implements RandomAccess {
+        private final List<String> keys = new ArrayList<>();
+        private final List<List<String>> values = new ArrayList<>();
+        private final CartesianProduct product;
+        private final int size;
+
+        public InlineVariants(Map<String, String> experimentMetadatas) {
+            for (Map.Entry<String, String> entry : experimentMetadatas.entrySet()) {
+                NumberOfVariants ofVariants = getNumberOfVariants(entry.getValue());
+                if (ofVariants.count==0) {
+                    continue;
                 }
+                keys.add(entry.getKey());
+                values.add(new ArrayList<>(new LinkedHashSet<>(ofVariants.values)));
             }
-            for (InlineVariable list : allHyperParams) {
-                for (String value : ofVariants.values) {
-                    if ( alreadyExists(allHyperParams, list, entry.getKey(), value)) {
-                        continue;
-                    }
-                    list.put(entry.getKey(), value);
-                    break;
-                }
+            this.product = new CartesianProduct(values.stream().mapToInt(List::size).toArray());
+            if (product.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("#504.020 Too many variants of inline variables: " + product.size());
             }
+            this.size = (int) product.size();
         }
-        return allHyperParams;
-    }
 
-    private static void addInstances(List<InlineVariable> allHyperParams, int count) {
-        for (int i = 0; i < count; i++) {
-            allHyperParams.add(new InlineVariable());
+        @Override
+        public InlineVariable get(int index) {
+            final int[] indexes = product.decode(index, new int[keys.size()]);
+            InlineVariable variable = new InlineVariable();
+            for (int i = 0; i < indexes.length; i++) {
+                variable.put(keys.get(i), values.get(i).get(indexes[i]));
+            }
+            return variable;
         }
-    }
 
-    private static boolean alreadyExists(List<InlineVariable> allPaths, InlineVariable hyper, String key, String value) {
-        String path = hyper.path + ',' + key+':'+value;
-        return allPaths.contains(new InlineVariable(Consts.EMPTY_UNMODIFIABLE_MAP, path));
+        @Override
+        public int size() {
+            return size;
+        }
     }
 
     public static NumberOfVariants getNumberOfVariants(@Nullable String variantsAsStr) {
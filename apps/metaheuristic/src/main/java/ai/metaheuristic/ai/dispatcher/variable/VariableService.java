@@ -29,6 +29,7 @@ import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextSyncService;
 import ai.metaheuristic.ai.dispatcher.repositories.GlobalVariableRepository;
 import ai.metaheuristic.ai.dispatcher.repositories.VariableRepository;
 import ai.metaheuristic.ai.dispatcher.southbridge.UploadResult;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.dispatcher.variable_global.SimpleGlobalVariable;
 import ai.metaheuristic.ai.exceptions.*;
 import ai.metaheuristic.ai.utils.TxUtils;
@@ -46,10 +47,7 @@ import ai.metaheuristic.commons.yaml.variable.VariableArrayParamsYamlUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.hibernate.Hibernate;
-import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
@@ -57,13 +55,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.yaml.snakeyaml.Yaml;
 
-import javax.persistence.EntityManager;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.Blob;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -81,12 +77,12 @@ public class VariableService {
 
     private static final UploadResult OK_UPLOAD_RESULT = new UploadResult(Enums.UploadVariableStatus.OK, null);
 
-    private final EntityManager em;
     private final VariableRepository variableRepository;
     private final ExecContextSyncService execContextSyncService;
     private final GlobalVariableRepository globalVariableRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final EventPublisherService eventPublisherService;
+    private final VariableStorageService variableStorageService;
 
     @Transactional
     public UploadResult storeVariable(InputStream variableIS, long length, Long execContextId, Long taskId, Long variableId) {
@@ -122,7 +118,7 @@ public class VariableService {
         }
         variable.inited = true;
         variable.nullified = true;
-        variable.setData(null);
+        variableStorageService.clear(variable);
         variableRepository.save(variable);
     }
 
@@ -348,8 +344,8 @@ public class VariableService {
     @Nullable
     private String getVariableDataAsString(Long variableId, boolean nullable) {
         try {
-            Blob blob = variableRepository.getDataAsStreamById(variableId);
-            if (blob==null) {
+            InputStream stream = variableStorageService.getVariableAsStream(variableId);
+            if (stream==null) {
                 if (nullable) {
                     log.info("#171.140 Variable #{} is nullable and current value is null", variableId);
                     return null;
@@ -360,7 +356,7 @@ public class VariableService {
                     throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.local, es);
                 }
             }
-            try (InputStream is = blob.getBinaryStream()) {
+            try (InputStream is = stream) {
                 String s = IOUtils.toString(is, StandardCharsets.UTF_8);
                 return s;
             }
@@ -380,15 +376,11 @@ public class VariableService {
 
     public Void storeToFile(Long variableId, File trgFile) {
         try {
-            Blob blob = variableRepository.getDataAsStreamById(variableId);
-            if (blob==null) {
+            if (!variableStorageService.storeVariableToFile(variableId, trgFile)) {
                 String es = S.f("#171.220 Variable #%d wasn't found", variableId);
                 log.warn(es);
                 throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.local, es);
             }
-            try (InputStream is = blob.getBinaryStream()) {
-                FileUtils.copyInputStreamToFile(is, trgFile);
-            }
         } catch (CommonErrorWithDataException e) {
             throw e;
         } catch (Exception e) {
@@ -422,8 +414,7 @@ public class VariableService {
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
         data.setTaskContextId(taskContextId);
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
 
         variableRepository.save(data);
 
@@ -503,8 +494,7 @@ public class VariableService {
         TxUtils.checkTxExists();
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
         data.inited = true;
         data.nullified = false;
         variableRepository.save(data);
@@ -525,8 +515,7 @@ public class VariableService {
         data.filename = filename;
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
         data.inited = true;
         data.nullified = false;
 
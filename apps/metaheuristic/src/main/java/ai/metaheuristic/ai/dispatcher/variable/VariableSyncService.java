@@ -39,7 +39,7 @@ import java.util.function.Supplier;
 @Profile("dispatcher")
 public class VariableSyncService {
 
-    private static final CommonSync<Long> commonSync = new CommonSync<>();
+    private static final CommonSync<Long> commonSync = new CommonSync<>("variable");
 
     public void checkWriteLockPresent(Long variableId) {
         if (!getWriteLock(variableId).isHeldByCurrentThread()) {
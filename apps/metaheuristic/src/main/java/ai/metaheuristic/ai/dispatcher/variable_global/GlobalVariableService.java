@@ -19,6 +19,7 @@ package ai.metaheuristic.ai.dispatcher.variable_global;
 import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.dispatcher.beans.GlobalVariable;
 import ai.metaheuristic.ai.dispatcher.repositories.GlobalVariableRepository;
+import ai.metaheuristic.ai.dispatcher.storage.VariableStorageService;
 import ai.metaheuristic.ai.exceptions.CommonErrorWithDataException;
 import ai.metaheuristic.ai.exceptions.VariableCommonException;
 import ai.metaheuristic.ai.exceptions.VariableDataNotFoundException;
@@ -28,10 +29,7 @@ import ai.metaheuristic.api.data_storage.DataStorageParams;
 import ai.metaheuristic.commons.S;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.hibernate.Hibernate;
-import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -40,12 +38,9 @@ import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.Blob;
-import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Optional;
 
@@ -57,9 +52,9 @@ import static ai.metaheuristic.api.EnumsApi.DataSourcing;
 @RequiredArgsConstructor
 public class GlobalVariableService {
 
-    private final EntityManager em;
     private final GlobalVariableRepository globalVariableRepository;
     private final Globals globals;
+    private final VariableStorageService variableStorageService;
 
     @Nullable
     @Transactional(readOnly = true)
@@ -72,18 +67,14 @@ public class GlobalVariableService {
 
     @Nullable
     private GlobalVariable getBinaryData(Long id, @SuppressWarnings("SameParameterValue") boolean isInitBytes) {
-        try {
-            GlobalVariable data = globalVariableRepository.findById(id).orElse(null);
-            if (data==null) {
-                return null;
-            }
-            if (isInitBytes) {
-                data.bytes = data.getData().getBytes(1, (int) data.getData().length());
-            }
-            return data;
-        } catch (SQLException e) {
-            throw new IllegalStateException("#089.020 SQL error", e);
+        GlobalVariable data = globalVariableRepository.findById(id).orElse(null);
+        if (data==null) {
+            return null;
         }
+        if (isInitBytes) {
+            data.bytes = variableStorageService.getBytes(data);
+        }
+        return data;
     }
 
     @Transactional(readOnly = true)
@@ -100,8 +91,8 @@ public class GlobalVariableService {
     @Nullable
     private String getVariableDataAsString(Long variableId, boolean nullable) {
         try {
-            Blob blob = globalVariableRepository.getDataAsStreamById(variableId);
-            if (blob==null) {
+            InputStream stream = variableStorageService.getGlobalVariableAsStream(variableId);
+            if (stream==null) {
                 if (nullable) {
                     log.info("#089.025 Variable #{} is nullable and current value is null", variableId);
                     return null;
@@ -112,7 +103,7 @@ public class GlobalVariableService {
                     throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.local, es);
                 }
             }
-            try (InputStream is = blob.getBinaryStream()) {
+            try (InputStream is = stream) {
                 String s = IOUtils.toString(is, StandardCharsets.UTF_8);
                 return s;
             }
@@ -132,14 +123,10 @@ public class GlobalVariableService {
 
     public Void storeToFile(Long variableId, File trgFile) {
         try {
-            Blob blob = globalVariableRepository.getDataAsStreamById(variableId);
-            if (blob==null) {
+            if (!variableStorageService.storeGlobalVariableToFile(variableId, trgFile)) {
                 log.warn("#089.030 Binary data for variableId {} wasn't found", variableId);
                 throw new VariableDataNotFoundException(variableId, EnumsApi.VariableContext.global, "#089.040 Binary data wasn't found, variableId: " + variableId);
             }
-            try (InputStream is = blob.getBinaryStream()) {
-                FileUtils.copyInputStreamToFile(is, trgFile);
-            }
         } catch (CommonErrorWithDataException e) {
             throw e;
         } catch (Exception e) {
@@ -163,8 +150,7 @@ public class GlobalVariableService {
         data.setParams(DataStorageParamsUtils.toString(new DataStorageParams(DataSourcing.dispatcher, variable)));
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
 
         globalVariableRepository.save(data);
 
@@ -190,8 +176,7 @@ public class GlobalVariableService {
     public void update(InputStream is, long size, GlobalVariable data) {
         data.setUploadTs(new Timestamp(System.currentTimeMillis()));
 
-        Blob blob = Hibernate.getLobCreator(em.unwrap(SessionImplementor.class)).createBlob(is, size);
-        data.setData(blob);
+        variableStorageService.store(data, is, size);
 
         globalVariableRepository.save(data);
     }
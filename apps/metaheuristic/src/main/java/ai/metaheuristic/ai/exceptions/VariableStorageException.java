@@ -0,0 +1,35 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.exceptions;
+
+/**
+ * Error of storing or reading of payload in storage of variables
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 3:25 AM
+ */
+public class VariableStorageException extends RuntimeException {
+
+    public VariableStorageException(String message) {
+        super(message);
+    }
+
+    public VariableStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -17,11 +17,14 @@
 package ai.metaheuristic.ai.processor;
 
 import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.processor.data.ProcessorData;
 import ai.metaheuristic.ai.processor.utils.DispatcherUtils;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
 import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsJsonUtils;
 import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
 import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYamlUtils;
 import ai.metaheuristic.ai.yaml.processor_task.ProcessorTask;
@@ -39,6 +42,7 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -67,10 +71,14 @@ public class DispatcherRequestor {
     private final ProcessorCommandProcessor processorCommandProcessor;
 
     private static final HttpComponentsClientHttpRequestFactory REQUEST_FACTORY = DispatcherUtils.getHttpRequestFactory();
+    // read timeout must be bigger than the max time of holding of long-poll request at dispatcher, which is 25 seconds by default and 60 seconds at max (mh.dispatcher.long-poll-timeout)
+    private static final HttpComponentsClientHttpRequestFactory LONG_POLL_REQUEST_FACTORY = DispatcherUtils.getHttpRequestFactory(Duration.ofSeconds(90));
 
     private final RestTemplate restTemplate;
+    private final RestTemplate longPollRestTemplate;
     private final DispatcherLookupExtendedService.DispatcherLookupExtended dispatcher;
     private final String serverRestUrl;
+    private final String longPollRestUrl;
 
     public DispatcherRequestor(DispatcherUrl dispatcherUrl, Globals globals, ProcessorTaskService processorTaskService, ProcessorService processorService, MetadataService metadataService, CurrentExecState currentExecState, DispatcherLookupExtendedService dispatcherLookupExtendedService, ProcessorCommandProcessor processorCommandProcessor) {
         this.dispatcherUrl = dispatcherUrl;
@@ -83,13 +91,21 @@ public class DispatcherRequestor {
 
         this.restTemplate = new RestTemplate(REQUEST_FACTORY);
         this.restTemplate.getMessageConverters().add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
+        this.longPollRestTemplate = new RestTemplate(LONG_POLL_REQUEST_FACTORY);
+        this.longPollRestTemplate.getMessageConverters().add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         this.dispatcher = dispatcherLookupExtendedService.lookupExtendedMap.get(dispatcherUrl);
         if (dispatcher == null) {
             throw new IllegalStateException("#775.010 Can't find dispatcher config for url " + dispatcherUrl);
         }
         serverRestUrl = dispatcherUrl.url + CommonConsts.REST_V1_URL + Consts.SERVER_REST_URL_V2;
+        longPollRestUrl = serverRestUrl + Consts.LONG_POLL_REST_URL;
     }
 
+    // yaml is used until the dispatcher reports that it supports json
+    private volatile Enums.CommFormat commFormat = Enums.CommFormat.yaml;
+    // long-poll is used after the dispatcher reported that it supports it
+    private volatile boolean longPollSupported = false;
+
     private long lastRequestForMissingResources = 0;
     private long lastCheckForResendTaskOutputResource = 0;
 
@@ -130,6 +146,8 @@ public class DispatcherRequestor {
         }
 
         ProcessorCommParamsYaml pcpy = new ProcessorCommParamsYaml();
+        // the request can be held by dispatcher only if all processors are idle, otherwise results of tasks would be reported with delay
+        boolean idle = true;
         try {
             for (String processorCode : metadataService.getProcessorCodes()) {
 
@@ -141,6 +159,7 @@ public class DispatcherRequestor {
 
                 if (processorId == null || sessionId == null) {
                     r.requestProcessorId = new ProcessorCommParamsYaml.RequestProcessorId();
+                    idle = false;
                     continue;
                 }
                 ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref = new ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef(processorCode, processorId, dispatcherUrl);
@@ -148,9 +167,13 @@ public class DispatcherRequestor {
 
                 // we have to pull new tasks from server constantly
                 if (currentExecState.isInited(dispatcherUrl)) {
-                    final boolean b = processorTaskService.isNeedNewTask(ref);
-                    if (b && dispatcher.schedule.isCurrentTimeActive()) {
-                        r.requestTask = new ProcessorCommParamsYaml.RequestTask(true, dispatcher.dispatcherLookup.signatureRequired);
+                    final int freeSlots = processorTaskService.getFreeSlots(ref);
+                    if (freeSlots>0 && dispatcher.schedule.isCurrentTimeActive()) {
+                        // freeSlots was added to V1 without a bump of version. yaml parser of a dispatcher which doesn't know freeSlots
+                        // fails on an unknown property, so freeSlots is sent only as json, whose parser skips unknown properties.
+                        // without freeSlots only one task will be assigned until the format is negotiated
+                        r.requestTask = new ProcessorCommParamsYaml.RequestTask(true, dispatcher.dispatcherLookup.signatureRequired,
+                                commFormat==Enums.CommFormat.json ? freeSlots : null);
                     } else {
                         if (System.currentTimeMillis() - lastCheckForResendTaskOutputResource > 30_000) {
                             // let's check variables for not completed and not sent yet tasks
@@ -178,13 +201,18 @@ public class DispatcherRequestor {
                     lastRequestForMissingResources = System.currentTimeMillis();
                 }
                 r.reportTaskProcessingResult = processorTaskService.reportTaskProcessingResult(ref);
+                if (r.requestTask==null || r.reportTaskProcessingResult!=null || r.resendTaskOutputResourceResult!=null ||
+                        !processorTaskService.findAllByCompletedIsFalse(ref).isEmpty()) {
+                    idle = false;
+                }
             }
             if (!newRequest(pcpy)) {
                 log.info("#775.045 no new requests");
                 return;
             }
 
-            final String url = serverRestUrl + '/' + UUID.randomUUID().toString().substring(0, 8);
+            final boolean longPoll = idle && longPollSupported;
+            final String url = (longPoll ? longPollRestUrl : serverRestUrl) + '/' + UUID.randomUUID().toString().substring(0, 8);
             try {
                 // TODO 2021-02-18 refactor as a common method
                 HttpHeaders headers = new HttpHeaders();
@@ -195,20 +223,27 @@ public class DispatcherRequestor {
                 byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.US_ASCII));
                 String authHeader = "Basic " + new String(encodedAuth);
                 headers.set(HttpHeaders.AUTHORIZATION, authHeader);
+                DispatcherUtils.setCommFormat(headers, commFormat);
 
-                String yaml = ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(pcpy);
-                HttpEntity<String> request = new HttpEntity<>(yaml, headers);
+                String data = commFormat==Enums.CommFormat.json
+                        ? ProcessorCommParamsJsonUtils.BASE_UTILS.toString(pcpy)
+                        : ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(pcpy);
+                HttpEntity<String> request = new HttpEntity<>(data, headers);
 
                 log.debug("Start to request a dispatcher at {}", url);
-                log.debug("ExchangeData:\n{}", yaml);
-                ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
+                log.debug("ExchangeData:\n{}", data);
+                ResponseEntity<String> response = (longPoll ? longPollRestTemplate : restTemplate).exchange(url, HttpMethod.POST, request, String.class);
+                commFormat = DispatcherUtils.getSupportedFormat(response);
+                longPollSupported = DispatcherUtils.isLongPollSupported(response);
                 String result = response.getBody();
                 log.debug("ExchangeData from dispatcher:\n{}", result);
                 if (result == null) {
                     log.warn("#775.050 Dispatcher returned null as a result");
                     return;
                 }
-                DispatcherCommParamsYaml dispatcherYaml = DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.to(result);
+                DispatcherCommParamsYaml dispatcherYaml = DispatcherUtils.getResponseFormat(response)==Enums.CommFormat.json
+                        ? DispatcherCommParamsJsonUtils.BASE_UTILS.to(result)
+                        : DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.to(result);
 
                 if (!dispatcherYaml.success) {
                     log.error("#775.060 Something wrong at the dispatcher {}. Check the dispatcher's logs for more info.", dispatcherUrl );
@@ -217,6 +252,9 @@ public class DispatcherRequestor {
                 processDispatcherCommParamsYaml(pcpy, dispatcherUrl, dispatcherYaml);
 
             } catch (HttpClientErrorException e) {
+                // the dispatcher could be rolled back to a version without json and long-poll support
+                commFormat = Enums.CommFormat.yaml;
+                longPollSupported = false;
                 switch(e.getStatusCode()) {
                     case UNAUTHORIZED:
                     case FORBIDDEN:
@@ -247,6 +285,8 @@ public class DispatcherRequestor {
                     log.error("#775.100 Error, url: " + url, e);
                 }
             } catch (RestClientException e) {
+                commFormat = Enums.CommFormat.yaml;
+                longPollSupported = false;
                 if (e instanceof HttpStatusCodeException && ((HttpStatusCodeException)e).getRawStatusCode()>=500 && ((HttpStatusCodeException)e).getRawStatusCode()<600 ) {
                     int errorCode = ((HttpStatusCodeException)e).getRawStatusCode();
                     if (errorCode==503) {
@@ -78,10 +78,12 @@ public class ProcessorCommandProcessor {
     }
 
     private void processAssignedTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, DispatcherCommParamsYaml.DispatcherResponse response) {
-        if (response.assignedTask==null) {
-            return;
+        if (response.assignedTask!=null) {
+            processorService.assignTasks(ref, List.of(response.assignedTask));
+        }
+        if (response.assignedTasks!=null) {
+            processorService.assignTasks(ref, response.assignedTasks);
         }
-        processorService.assignTasks(ref, response.assignedTask);
     }
 
     // processing at processor side
@@ -17,14 +17,12 @@
 package ai.metaheuristic.ai.processor;
 
 import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.data.DispatcherData;
 import ai.metaheuristic.ai.processor.data.ProcessorData;
 import ai.metaheuristic.ai.processor.utils.DispatcherUtils;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveRequestParamYaml;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml;
-import ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYamlUtils;
-import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.keep_alive.*;
 import ai.metaheuristic.commons.CommonConsts;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Base64;
@@ -70,6 +68,9 @@ public class ProcessorKeepAliveRequestor {
     private final DispatcherLookupExtendedService.DispatcherLookupExtended dispatcher;
     private final String dispatcherRestUrl;
 
+    // yaml is used until the dispatcher reports that it supports json
+    private volatile Enums.CommFormat commFormat = Enums.CommFormat.yaml;
+
     public ProcessorKeepAliveRequestor(
             DispatcherUrl dispatcherUrl, Globals globals, ProcessorTaskService processorTaskService,
             ProcessorService processorService, MetadataService metadataService,
@@ -145,6 +146,11 @@ public class ProcessorKeepAliveRequestor {
                 // always report about current active tasks, if we have actual processorId
                 request.taskIds = processorTaskService.findAll(ref).stream().map(o -> o.taskId.toString()).collect(Collectors.joining(","));
                 request.processor = processorService.produceReportProcessorStatus(ref, dispatcher.schedule);
+                if (commFormat!=Enums.CommFormat.json && request.processor.env!=null) {
+                    // slots were added to V1 without a bump of version. yaml parser of a dispatcher which doesn't know slots
+                    // fails on an unknown property, so slots are sent only as json, whose parser skips unknown properties
+                    request.processor.env.slots = null;
+                }
 
                 AssetManagerUrl assetManagerUrl = new AssetManagerUrl(dispatcher.dispatcherLookup.assetManagerUrl);
                 karpy.functions.statuses.addAll(metadataService.getAsFunctionDownloadStatuses(assetManagerUrl));
@@ -160,20 +166,26 @@ public class ProcessorKeepAliveRequestor {
                 byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.US_ASCII));
                 String authHeader = "Basic " + new String(encodedAuth);
                 headers.set(HttpHeaders.AUTHORIZATION, authHeader);
+                DispatcherUtils.setCommFormat(headers, commFormat);
 
-                String yaml = ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(karpy);
-                HttpEntity<String> request = new HttpEntity<>(yaml, headers);
+                String data = commFormat==Enums.CommFormat.json
+                        ? KeepAliveRequestParamJsonUtils.BASE_UTILS.toString(karpy)
+                        : KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.toString(karpy);
+                HttpEntity<String> request = new HttpEntity<>(data, headers);
 
                 log.debug("Start to request a dispatcher at {}", url);
-                log.debug("KeepAlive ExchangeData from processor:\n{}", yaml);
+                log.debug("KeepAlive ExchangeData from processor:\n{}", data);
                 ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, request, String.class);
+                commFormat = DispatcherUtils.getSupportedFormat(response);
                 String result = response.getBody();
                 log.debug("#776.045 KeepAlive ExchangeData from dispatcher:\n{}", result);
                 if (result == null) {
                     log.warn("#776.050 Dispatcher returned null as a result");
                     return;
                 }
-                KeepAliveResponseParamYaml responseParamYaml = KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.to(result);
+                KeepAliveResponseParamYaml responseParamYaml = DispatcherUtils.getResponseFormat(response)==Enums.CommFormat.json
+                        ? KeepAliveResponseParamJsonUtils.BASE_UTILS.to(result)
+                        : KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.to(result);
 
                 if (!responseParamYaml.success) {
                     log.error("#776.060 Something wrong at the dispatcher {}. Check the dispatcher's logs for more info.", dispatcherUrl );
@@ -182,6 +194,8 @@ public class ProcessorKeepAliveRequestor {
                 processDispatcherCommParamsYaml(karpy, dispatcherUrl, responseParamYaml);
             }
             catch (HttpClientErrorException e) {
+                // the dispatcher could be rolled back to a version without json support
+                commFormat = Enums.CommFormat.yaml;
                 switch(e.getStatusCode()) {
                     case UNAUTHORIZED:
                     case FORBIDDEN:
@@ -216,6 +230,7 @@ public class ProcessorKeepAliveRequestor {
                 }
             }
             catch (RestClientException e) {
+                commFormat = Enums.CommFormat.yaml;
                 if (e instanceof HttpStatusCodeException && ((HttpStatusCodeException)e).getRawStatusCode()>=500 && ((HttpStatusCodeException)e).getRawStatusCode()<600 ) {
                     int errorCode = ((HttpStatusCodeException)e).getRawStatusCode();
                     if (errorCode==502) {
@@ -82,7 +82,7 @@ public class ProcessorService {
         // TODO 2020-11-14 or it's about using TimeZoned value?
         final File processorFile = new File(globals.processorDir, ref.processorCode);
         KeepAliveRequestParamYaml.ReportProcessor status = new KeepAliveRequestParamYaml.ReportProcessor(
-                to(envService.getEnvParamsYaml(), envService.getTags(ref.processorCode)),
+                to(envService.getEnvParamsYaml(), envService.getTags(ref.processorCode), envService.getSlots(ref.processorCode)),
                 gitSourcingService.gitStatusInfo,
                 schedule.asString,
                 metadataService.getSessionId(ref.processorCode, ref.dispatcherUrl),
@@ -104,8 +104,9 @@ public class ProcessorService {
         return status;
     }
 
-    private KeepAliveRequestParamYaml.Env to(EnvParamsYaml envYaml, @Nullable String tags) {
+    private KeepAliveRequestParamYaml.Env to(EnvParamsYaml envYaml, @Nullable String tags, int slots) {
         KeepAliveRequestParamYaml.Env t = new KeepAliveRequestParamYaml.Env(tags);
+        t.slots = slots;
         t.mirrors.putAll(envYaml.mirrors);
         t.envs.putAll(envYaml.envs);
         envYaml.disk.stream().map(o->new KeepAliveRequestParamYaml.DiskStorage(o.code, o.path)).collect(Collectors.toCollection(() -> t.disk));
@@ -125,9 +126,11 @@ public class ProcessorService {
         }
     }
 
-    public void assignTasks(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, DispatcherCommParamsYaml.AssignedTask task) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            currentExecState.registerDelta(ref.dispatcherUrl, List.of(new KeepAliveResponseParamYaml.ExecContextStatus.SimpleStatus(task.execContextId, task.state)));
+    public void assignTasks(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, List<DispatcherCommParamsYaml.AssignedTask> tasks) {
+        currentExecState.registerDelta(ref.dispatcherUrl, tasks.stream()
+                .map(task -> new KeepAliveResponseParamYaml.ExecContextStatus.SimpleStatus(task.execContextId, task.state))
+                .collect(Collectors.toList()));
+        for (DispatcherCommParamsYaml.AssignedTask task : tasks) {
             processorTaskService.createTask(ref, task.taskId, task.execContextId, task.params);
         }
     }
@@ -0,0 +1,301 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor;
+
+import ai.metaheuristic.ai.utils.JsonUtils;
+import ai.metaheuristic.ai.yaml.processor_task.ProcessorTask;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of tasks of one processor for one dispatcher.
+ *
+ * Each change of task is appended as one line with the full state of task in json, deletion of task is a line with taskId only.
+ * When the journal became big, the state of all tasks is folded into a snapshot and the journal is started from scratch.
+ * Recovering is reading of the snapshot and replaying of the journal over it.
+ *
+ * Records contain the full state of task, so replaying of records which were already folded into snapshot is harmless.
+ *
+ * Each record is flushed to OS, so it survives a crash of processor. A record of finished task, i.e. with a result
+ * which must be reported to dispatcher, is also forced to disk, so it survives a crash of OS as well.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 7:40 AM
+ */
+@Slf4j
+public class ProcessorTaskJournal implements Closeable {
+
+    public static final String JOURNAL_FILE = "tasks.journal";
+    public static final String SNAPSHOT_FILE = "tasks.snapshot";
+
+    // the journal will be compacted when it contains more records than this number and more than 4 records per task in snapshot
+    private static final int MIN_RECORDS_FOR_COMPACTION = 10_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Record {
+        public long taskId;
+        // null if task was deleted
+        @Nullable
+        public ProcessorTask task;
+    }
+
+    private final File dir;
+    private final File journalFile;
+    private final File snapshotFile;
+
+    @Nullable
+    private FileOutputStream out = null;
+    @Nullable
+    private Writer writer = null;
+    private int records = 0;
+    private int snapshotTasks = 0;
+
+    public ProcessorTaskJournal(File dir) {
+        this.dir = dir;
+        this.journalFile = new File(dir, JOURNAL_FILE);
+        this.snapshotFile = new File(dir, SNAPSHOT_FILE);
+    }
+
+    public boolean exists() {
+        return journalFile.exists() || snapshotFile.exists();
+    }
+
+    /**
+     * @return tasks in order of their creation
+     */
+    public synchronized Map<Long, ProcessorTask> load() throws IOException {
+        Map<Long, ProcessorTask> tasks = new LinkedHashMap<>();
+        replay(snapshotFile, tasks);
+        truncateTornLine(journalFile);
+        records = replay(journalFile, tasks);
+        snapshotTasks = tasks.size();
+        return tasks;
+    }
+
+    public static String toLine(ProcessorTask task) {
+        return toLine(new Record(task.taskId, task));
+    }
+
+    public void append(ProcessorTask task) {
+        appendLine(toLine(task), task.finishedOn!=null);
+    }
+
+    public void delete(long taskId) {
+        appendLine(toLine(new Record(taskId, null)), false);
+    }
+
+    /**
+     * @param line the state of task which was serialized with toLine() under the lock of task
+     * @param force force the record to disk, otherwise the record is only flushed to OS
+     */
+    public synchronized void appendLine(String line, boolean force) {
+        try {
+            if (writer==null) {
+                Files.createDirectories(dir.toPath());
+                openJournal(true);
+            }
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            if (force) {
+                out.getChannel().force(false);
+            }
+            records++;
+            if (records > MIN_RECORDS_FOR_COMPACTION && records > snapshotTasks * 4) {
+                compact();
+            }
+        } catch (IOException e) {
+            String es = "#715.020 Error while writing to journal " + journalFile.getPath();
+            log.error(es, e);
+            throw new IllegalStateException(es, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot with the current state of all tasks, the journal is started from scratch
+     */
+    public synchronized void writeSnapshot(Collection<ProcessorTask> tasks) throws IOException {
+        Map<Long, String> lines = new LinkedHashMap<>();
+        for (ProcessorTask task : tasks) {
+            lines.put(task.taskId, toLine(task));
+        }
+        writeSnapshotAndResetJournal(lines);
+    }
+
+    private void compact() throws IOException {
+        // tasks are folded from files, not from memory, so the states of tasks aren't read without locks
+        Map<Long, String> lines = new LinkedHashMap<>();
+        fold(snapshotFile, lines);
+        fold(journalFile, lines);
+        log.info("#715.030 Compaction of journal {}, records: {}, tasks: {}", journalFile.getPath(), records, lines.size());
+        writeSnapshotAndResetJournal(lines);
+    }
+
+    private void writeSnapshotAndResetJournal(Map<Long, String> lines) throws IOException {
+        Files.createDirectories(dir.toPath());
+        File tempFile = new File(dir, SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tempFile);
+             Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (String line : lines.values()) {
+                w.write(line);
+                w.write('\n');
+            }
+            w.flush();
+            // the snapshot replaces records of journal, so it must be on disk before the journal is reset
+            fos.getChannel().force(false);
+        }
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (writer!=null) {
+            writer.close();
+        }
+        // a crash right before this point is safe, records of journal will be replayed over the snapshot
+        openJournal(false);
+        records = 0;
+        snapshotTasks = lines.size();
+    }
+
+    private void openJournal(boolean append) throws IOException {
+        out = new FileOutputStream(journalFile, append);
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A line which was written partially during a crash is cut off, otherwise the next record would be appended to it
+     */
+    private static void truncateTornLine(File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            final long length = raf.length();
+            final byte[] buffer = new byte[8192];
+            long end = length;
+            while (end > 0) {
+                final int size = (int) Math.min(buffer.length, end);
+                raf.seek(end - size);
+                raf.readFully(buffer, 0, size);
+                for (int i = size - 1; i >= 0; i--) {
+                    if (buffer[i]=='\n') {
+                        final long newLength = end - size + i + 1;
+                        if (newLength!=length) {
+                            log.warn("#715.050 Torn record at the end of journal {} was truncated, bytes: {}", file.getPath(), length - newLength);
+                            raf.setLength(newLength);
+                        }
+                        return;
+                    }
+                }
+                end -= size;
+            }
+            if (length>0) {
+                log.warn("#715.060 Journal {} without complete records was truncated, bytes: {}", file.getPath(), length);
+                raf.setLength(0);
+            }
+        }
+    }
+
+    private static int replay(File file, Map<Long, ProcessorTask> tasks) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Record r = toRecord(file, line);
+                if (r==null) {
+                    continue;
+                }
+                count++;
+                if (r.task==null) {
+                    tasks.remove(r.taskId);
+                }
+                else {
+                    tasks.put(r.taskId, r.task);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void fold(File file, Map<Long, String> lines) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Record r = toRecord(file, line);
+                if (r==null) {
+                    continue;
+                }
+                if (r.task==null) {
+                    lines.remove(r.taskId);
+                }
+                else {
+                    lines.put(r.taskId, line);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Record toRecord(File file, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return JsonUtils.getMapper().readValue(line, Record.class);
+        } catch (JsonProcessingException e) {
+            // the last line could be written partially if processor was killed
+            log.warn("#715.010 Broken record in {} will be skipped, error: {}", file.getPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String toLine(Record record) {
+        try {
+            return JsonUtils.getMapper().writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("#715.040 Error while serializing task #" + record.taskId, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer!=null) {
+            writer.close();
+            writer = null;
+            out = null;
+        }
+    }
+}
@@ -32,7 +32,6 @@ import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.Charsets;
 import org.apache.commons.io.FileUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.Nullable;
@@ -44,9 +43,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,16 +64,26 @@ public class ProcessorTaskService {
     private final MetadataService metadataService;
     private final EnvService envService;
 
+    private static class TasksHolder {
+        // key - ProcessorTask.taskId
+        final Map<Long, ProcessorTask> tasks;
+        final ProcessorTaskJournal journal;
+
+        TasksHolder(Map<Long, ProcessorTask> tasks, ProcessorTaskJournal journal) {
+            this.tasks = tasks;
+            this.journal = journal;
+        }
+    }
+
     /**key - processorCode
      * value:
      *      Map of:
      *      key - DispatcherUrl
-     *      value:
-     *             Map.of:
-     *             key - ProcessorTask.taskId,
-     *             Value - ProcessorTask
+     *      value - tasks and the journal of tasks
+     *
+     * All changes of task are made under the lock of this task, there isn't any global lock
      */
-    private final ConcurrentHashMap<String, Map<DispatcherUrl, Map<Long, ProcessorTask>>> map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<DispatcherUrl, TasksHolder>> map = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void postConstruct() {
@@ -82,79 +91,104 @@ public class ProcessorTaskService {
             return;
         }
         for (ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref : metadataService.getAllEnabledRefs()) {
-            File processorDir = new File(globals.processorDir, ref.processorCode);
-            File processorTaskDir = new File(processorDir, Consts.TASK_DIR);
-            String dispatcherCode = MetadataService.asCode(ref.dispatcherUrl);
-            File dispatcherDir = new File(processorTaskDir, dispatcherCode);
-            if (!dispatcherDir.exists()) {
-                dispatcherDir.mkdirs();
+            for (ProcessorTask task : getHolder(ref).tasks.values()) {
+                // fix state of task
+                FunctionApiData.FunctionExec functionExec = FunctionExecUtils.to(task.getFunctionExecResult());
+                if (functionExec !=null &&
+                        ((functionExec.generalExec!=null && !functionExec.exec.isOk ) ||
+                                (functionExec.generalExec!=null && !functionExec.generalExec.isOk))) {
+                    markAsFinished(ref, task.taskId, functionExec);
+                }
             }
+        }
+    }
+
+    private TasksHolder getHolder(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
+        return map.computeIfAbsent(ref.processorCode, k->new ConcurrentHashMap<>()).computeIfAbsent(ref.dispatcherUrl, m -> loadTasks(ref));
+    }
 
-            try {
-                DispatcherUrl dispatcherUrl = ref.dispatcherUrl;
-                Files.list(dispatcherDir.toPath()).forEach(p -> {
-                    final File taskGroupDir = p.toFile();
-                    if (!taskGroupDir.isDirectory()) {
-                        return;
+    private TasksHolder loadTasks(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
+        File processorDir = new File(globals.processorDir, ref.processorCode);
+        File processorTaskDir = new File(processorDir, Consts.TASK_DIR);
+        File dispatcherDir = new File(processorTaskDir, MetadataService.asCode(ref.dispatcherUrl));
+        if (!dispatcherDir.exists()) {
+            dispatcherDir.mkdirs();
+        }
+
+        ProcessorTaskJournal journal = new ProcessorTaskJournal(dispatcherDir);
+        Map<Long, ProcessorTask> tasks = new ConcurrentHashMap<>();
+        try {
+            if (journal.exists()) {
+                tasks.putAll(journal.load());
+            }
+            else {
+                // tasks were stored in yaml files by previous versions of processor
+                List<File> yamlFiles = new ArrayList<>();
+                tasks.putAll(loadFromYamlFiles(ref.dispatcherUrl, dispatcherDir, yamlFiles));
+                journal.writeSnapshot(tasks.values());
+                yamlFiles.forEach(FileUtils::deleteQuietly);
+                log.info("#713.003 {} tasks were moved from yaml files to journal in {}", tasks.size(), dispatcherDir.getPath());
+            }
+        } catch (IOException e) {
+            String es = "#713.040 Error";
+            log.error(es, e);
+            throw new RuntimeException(es, e);
+        }
+        tasks.values().removeIf(task -> {
+            if (S.b(task.dispatcherUrl)) {
+                log.warn("#713.007 task #{} from dispatcher {} was skipped because dispatcherUrl field was empty", task.taskId, ref.dispatcherUrl);
+                return true;
+            }
+            return false;
+        });
+        log.info("#713.009 Loaded {} tasks of processor {} for dispatcher {}", tasks.size(), ref.processorCode, ref.dispatcherUrl.url);
+        return new TasksHolder(tasks, journal);
+    }
+
+    private static Map<Long, ProcessorTask> loadFromYamlFiles(DispatcherUrl dispatcherUrl, File dispatcherDir, List<File> yamlFiles) throws IOException {
+        Map<Long, ProcessorTask> tasks = new HashMap<>();
+        try (Stream<Path> groupDirs = Files.list(dispatcherDir.toPath())) {
+            for (Path p : groupDirs.collect(Collectors.toList())) {
+                final File taskGroupDir = p.toFile();
+                if (!taskGroupDir.isDirectory()) {
+                    continue;
+                }
+                List<Path> taskDirs;
+                try (Stream<Path> stream = Files.list(p)) {
+                    taskDirs = stream.collect(Collectors.toList());
+                }
+                for (Path s : taskDirs) {
+                    String groupDirName = taskGroupDir.getName();
+                    final File currDir = s.toFile();
+                    String name = currDir.getName();
+                    long taskId = Long.parseLong(groupDirName) * DigitUtils.DIV + Long.parseLong(name);
+                    log.info("Found dir of task with id: {}, {}, {}, {}", taskId, groupDirName, name, dispatcherUrl.url);
+                    File taskYamlFile = new File(currDir, Consts.TASK_YAML);
+                    if (!taskYamlFile.exists() || taskYamlFile.length()==0L) {
+                        deleteDir(currDir, "Delete not valid dir of task " + s+", exist: "+taskYamlFile.exists()+", length: " +taskYamlFile.length());
+                        continue;
                     }
-                    try {
-                        AtomicBoolean isEmpty = new AtomicBoolean(true);
-                        Files.list(p).forEach(s -> {
-                            isEmpty.set(false);
-                            String groupDirName = taskGroupDir.getName();
-                            final File currDir = s.toFile();
-                            String name = currDir.getName();
-                            long taskId = Long.parseLong(groupDirName) * DigitUtils.DIV + Long.parseLong(name);
-                            log.info("Found dir of task with id: {}, {}, {}, {}", taskId, groupDirName, name, dispatcherUrl.url);
-                            File taskYamlFile = new File(currDir, Consts.TASK_YAML);
-                            if (!taskYamlFile.exists() || taskYamlFile.length()==0L) {
-                                deleteDir(currDir, "Delete not valid dir of task " + s+", exist: "+taskYamlFile.exists()+", length: " +taskYamlFile.length());
-                                return;
-                            }
-
-                            try(FileInputStream fis = new FileInputStream(taskYamlFile)) {
-                                ProcessorTask task = ProcessorTaskUtils.to(fis);
-                                if (S.b(task.dispatcherUrl)) {
-                                    deleteDir(currDir, "#713.005 Delete not valid dir of task " + s);
-                                    log.warn("#713.007 task #{} from dispatcher {} was deleted from disk because dispatcherUrl field was empty", taskId, dispatcherUrl);
-                                    return;
-                                }
-                                getMapForDispatcherUrl(ref).put(taskId, task);
-
-                                // fix state of task
-                                FunctionApiData.FunctionExec functionExec = FunctionExecUtils.to(task.getFunctionExecResult());
-                                if (functionExec !=null &&
-                                        ((functionExec.generalExec!=null && !functionExec.exec.isOk ) ||
-                                                (functionExec.generalExec!=null && !functionExec.generalExec.isOk))) {
-                                    markAsFinished(ref, taskId, functionExec);
-                                }
-                            }
-                            catch (IOException e) {
-                                String es = "#713.010 Error";
-                                log.error(es, e);
-                                throw new RuntimeException(es, e);
-                            }
-                            catch (YAMLException e) {
-                                String es = "#713.020 yaml Error: " + e.getMessage();
-                                log.warn(es, e);
-                                deleteDir(currDir, "Delete not valid dir of task " + s);
-                            }
-                        });
+
+                    try(FileInputStream fis = new FileInputStream(taskYamlFile)) {
+                        ProcessorTask task = ProcessorTaskUtils.to(fis);
+                        if (S.b(task.dispatcherUrl)) {
+                            deleteDir(currDir, "#713.005 Delete not valid dir of task " + s);
+                            log.warn("#713.007 task #{} from dispatcher {} was deleted from disk because dispatcherUrl field was empty", taskId, dispatcherUrl);
+                            continue;
+                        }
+                        tasks.put(taskId, task);
+                        yamlFiles.add(taskYamlFile);
+                        yamlFiles.add(new File(currDir, Consts.TASK_YAML + ".bak"));
                     }
-                    catch (IOException e) {
-                        String es = "#713.030 Error";
-                        log.error(es, e);
-                        throw new RuntimeException(es, e);
+                    catch (YAMLException e) {
+                        String es = "#713.020 yaml Error: " + e.getMessage();
+                        log.warn(es, e);
+                        deleteDir(currDir, "Delete not valid dir of task " + s);
                     }
-                });
-            } catch (IOException e) {
-                String es = "#713.040 Error";
-                log.error(es, e);
-                throw new RuntimeException(es, e);
+                }
             }
         }
-        //noinspection unused
-        int i=0;
+        return tasks;
     }
 
     public static void deleteDir(@NonNull File f, @NonNull String info) {
@@ -169,13 +203,13 @@ public class ProcessorTaskService {
     }
 
     public void setReportedOn(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("#713.065 setReportedOn({}, {})", ref.dispatcherUrl, taskId);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.070 ProcessorTask wasn't found for Id " + taskId);
-                return;
-            }
+        log.info("#713.065 setReportedOn({}, {})", ref.dispatcherUrl, taskId);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.070 ProcessorTask wasn't found for Id " + taskId);
+            return;
+        }
+        synchronized (task) {
             task.setReported(true);
             task.setReportedOn(System.currentTimeMillis());
             save(ref, task);
@@ -183,13 +217,13 @@ public class ProcessorTaskService {
     }
 
     public void setInputAsEmpty(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, long taskId, String variableId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("#713.075 setInputAsEmpty({}, {})", ref.dispatcherUrl, taskId);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.077 ProcessorTask wasn't found for Id " + taskId);
-                return;
-            }
+        log.info("#713.075 setInputAsEmpty({}, {})", ref.dispatcherUrl, taskId);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.077 ProcessorTask wasn't found for Id " + taskId);
+            return;
+        }
+        synchronized (task) {
             final ProcessorTask.EmptyStateOfInput input = task.empty.empties.stream().filter(o -> o.variableId.equals(variableId)).findFirst().orElse(null);
             if (input==null) {
                 task.empty.empties.add(new ProcessorTask.EmptyStateOfInput(variableId, true));
@@ -205,13 +239,13 @@ public class ProcessorTaskService {
     }
 
     public void setDelivered(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("#713.080 setDelivered({}, {})", ref.dispatcherUrl.url, taskId);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.090 ProcessorTask wasn't found for Id {}", taskId);
-                return;
-            }
+        log.info("#713.080 setDelivered({}, {})", ref.dispatcherUrl.url, taskId);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.090 ProcessorTask wasn't found for Id {}", taskId);
+            return;
+        }
+        synchronized (task) {
             if (!task.isReported() ) {
                 log.warn("#713.095 This state need to be investigated, task wasn't reported to dispatcher");
             }
@@ -237,13 +271,13 @@ public class ProcessorTaskService {
     }
 
     public void setVariableUploadedAndCompleted(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId, Long outputVariableId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("setResourceUploadedAndCompleted({}, {}, {})", ref.dispatcherUrl, taskId, outputVariableId);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.090 ProcessorTask wasn't found for Id {}", taskId);
-                return;
-            }
+        log.info("setResourceUploadedAndCompleted({}, {}, {})", ref.dispatcherUrl, taskId, outputVariableId);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.090 ProcessorTask wasn't found for Id {}", taskId);
+            return;
+        }
+        synchronized (task) {
             task.output.outputStatuses.stream().filter(o -> o.variableId.equals(outputVariableId)).findFirst().ifPresent(status -> status.uploaded = true);
             task.setCompleted( task.isDelivered() );
             save(ref, task);
@@ -252,28 +286,38 @@ public class ProcessorTaskService {
 
     @SuppressWarnings("unused")
     public void setCompleted(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("setCompleted({}, {})", ref.dispatcherUrl, taskId);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.100 ProcessorTask wasn't found for Id {}", taskId);
-                return;
-            }
+        log.info("setCompleted({}, {})", ref.dispatcherUrl, taskId);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.100 ProcessorTask wasn't found for Id {}", taskId);
+            return;
+        }
+        synchronized (task) {
             task.setCompleted(true);
             save(ref, task);
         }
     }
 
     public List<ProcessorTask> getForReporting(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            Stream<ProcessorTask> stream = findAllByFinishedOnIsNotNull(ref);
-            List<ProcessorTask> result = stream
-                    .filter(processorTask -> !processorTask.isReported() ||
-                            (!processorTask.isDelivered() &&
-                                    (processorTask.getReportedOn() == null || (System.currentTimeMillis() - processorTask.getReportedOn()) > 60_000)))
-                    .collect(Collectors.toList());
-            return result;
+        List<ProcessorTask> result = new ArrayList<>();
+        for (ProcessorTask task : getMapForDispatcherUrl(ref).values()) {
+            synchronized (task) {
+                if (isForReporting(task)) {
+                    result.add(task);
+                }
+            }
         }
+        return result;
+    }
+
+    /**
+     * must be called under the lock of task
+     */
+    private static boolean isForReporting(ProcessorTask task) {
+        return task.finishedOn!=null &&
+                (!task.isReported() ||
+                        (!task.isDelivered() &&
+                                (task.getReportedOn() == null || (System.currentTimeMillis() - task.getReportedOn()) > 60_000)));
     }
 
     @Nullable
@@ -285,100 +329,106 @@ public class ProcessorTaskService {
         log.info("Number of tasks for reporting: " + list.size());
         final ProcessorCommParamsYaml.ReportTaskProcessingResult processingResult = new ProcessorCommParamsYaml.ReportTaskProcessingResult();
         for (ProcessorTask task : list) {
-            if (task.isDelivered() && !task.isReported() ) {
-                log.warn("#713.105 This state need to be investigated: (task.isDelivered() && !task.isReported())==true");
-            }
-            // TODO 2019-07-12 do we need to check against task.isReported()? isn't task.isDelivered() just enough?
-            //  2020-09-26 until #713.105 (task.isDelivered() && !task.isReported() ) will be fixed, this check is correct
-            //  2020-11-23 looks like #713.105 can occur in case when a task was finished with status ERROR
-            if (task.isDelivered() && task.isReported() ) {
-                continue;
+            // the state of task is read and marked as reported under the same lock,
+            // so a result which is being stored by markAsFinished() can't be skipped
+            synchronized (task) {
+                if (!isForReporting(task)) {
+                    continue;
+                }
+                if (task.isDelivered() && !task.isReported() ) {
+                    log.warn("#713.105 This state need to be investigated: (task.isDelivered() && !task.isReported())==true");
+                }
+                // TODO 2019-07-12 do we need to check against task.isReported()? isn't task.isDelivered() just enough?
+                //  2020-09-26 until #713.105 (task.isDelivered() && !task.isReported() ) will be fixed, this check is correct
+                //  2020-11-23 looks like #713.105 can occur in case when a task was finished with status ERROR
+                if (task.isDelivered() && task.isReported() ) {
+                    continue;
+                }
+                final ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult result =
+                        new ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult(task.getTaskId(), task.getFunctionExecResult());
+                processingResult.results.add(result);
+                setReportedOn(ref, task.taskId);
             }
-            final ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult result =
-                    new ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult(task.getTaskId(), task.getFunctionExecResult());
-            processingResult.results.add(result);
-            setReportedOn(ref, task.taskId);
         }
         return processingResult;
     }
 
     public void markAsFinishedWithError(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, long taskId, String es) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            markAsFinished(ref, taskId,
-                    new FunctionApiData.FunctionExec(
-                            null, null, null,
-                            new FunctionApiData.SystemExecResult("system-error", false, -991, es)));
-        }
+        markAsFinished(ref, taskId,
+                new FunctionApiData.FunctionExec(
+                        null, null, null,
+                        new FunctionApiData.SystemExecResult("system-error", false, -991, es)));
     }
 
     void markAsFinished(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId, FunctionApiData.FunctionExec functionExec) {
-
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("markAsFinished({}, #{}, {})", ref.dispatcherUrl.url, taskId, functionExec);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.110 ProcessorTask wasn't found for Id #" + taskId);
-            } else {
-                if (task.getLaunchedOn()==null) {
-                    final TaskParamsYaml tpy = TaskParamsYamlUtils.BASE_YAML_UTILS.to(task.getParams());
-                    log.info("#713.113 task #{}, function '{}', doesn't have the launchedOn as inited", taskId, tpy.task.function.code);
-                    final String es = "#713.114 stacktrace";
-                    try {
-                        throw new RuntimeException(es);
-                    } catch (RuntimeException e) {
-                        log.info(es, e);
-                    }
-                    task.setLaunchedOn(System.currentTimeMillis());
-                }
-                if (!functionExec.allFunctionsAreOk()) {
-                    log.info("#713.115 task #{} was finished with an error, set completed to true", taskId);
-                    task.setCompleted(true);
-                }
-                else {
-                    task.setCompleted(false);
+        log.info("markAsFinished({}, #{}, {})", ref.dispatcherUrl.url, taskId, functionExec);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.110 ProcessorTask wasn't found for Id #" + taskId);
+            return;
+        }
+        synchronized (task) {
+            if (task.getLaunchedOn()==null) {
+                final TaskParamsYaml tpy = TaskParamsYamlUtils.BASE_YAML_UTILS.to(task.getParams());
+                log.info("#713.113 task #{}, function '{}', doesn't have the launchedOn as inited", taskId, tpy.task.function.code);
+                final String es = "#713.114 stacktrace";
+                try {
+                    throw new RuntimeException(es);
+                } catch (RuntimeException e) {
+                    log.info(es, e);
                 }
-                task.setFinishedOn(System.currentTimeMillis());
-                task.setReported(false);
-                task.setFunctionExecResult(FunctionExecUtils.toString(functionExec));
-
-                save(ref, task);
+                task.setLaunchedOn(System.currentTimeMillis());
+            }
+            if (!functionExec.allFunctionsAreOk()) {
+                log.info("#713.115 task #{} was finished with an error, set completed to true", taskId);
+                task.setCompleted(true);
+            }
+            else {
+                task.setCompleted(false);
             }
+            task.setReported(false);
+            task.setFunctionExecResult(FunctionExecUtils.toString(functionExec));
+            // finishedOn is set the last, a task with finishedOn always has its result
+            task.setFinishedOn(System.currentTimeMillis());
+
+            save(ref, task);
         }
     }
 
     void markAsAssetPrepared(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId, boolean status) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("markAsAssetPrepared(dispatcherUrl: {}, taskId: {}, status: {})", ref.dispatcherUrl, taskId, status);
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                log.error("#713.130 ProcessorTask wasn't found for Id {}", taskId);
-            } else {
-                task.setAssetsPrepared(status);
-                save(ref, task);
-            }
+        log.info("markAsAssetPrepared(dispatcherUrl: {}, taskId: {}, status: {})", ref.dispatcherUrl, taskId, status);
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            log.error("#713.130 ProcessorTask wasn't found for Id {}", taskId);
+            return;
+        }
+        synchronized (task) {
+            task.setAssetsPrepared(status);
+            save(ref, task);
         }
     }
 
-    boolean isNeedNewTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            // TODO 2019-10-24 need to optimize
-            List<ProcessorTask> tasks = findAllByCompletedIsFalse(ref);
-            for (ProcessorTask task : tasks) {
-                // we don't need new task because execContext for this task is active
-                // i.e. there is a non-completed task with active execContext
-                // if execContext wasn't active we would need a new task
-                if (currentExecState.isStarted(new DispatcherUrl(task.dispatcherUrl), task.execContextId)) {
-                    return false;
-                }
+    /**
+     * @return number of tasks which can be requested from dispatcher right now
+     */
+    int getFreeSlots(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
+        // TODO 2019-10-24 need to optimize
+        List<ProcessorTask> tasks = findAllByCompletedIsFalse(ref);
+        int busy = 0;
+        for (ProcessorTask task : tasks) {
+            // a slot is busy if there is a non-completed task with active execContext
+            // if execContext wasn't active the slot would be free
+            if (currentExecState.isStarted(new DispatcherUrl(task.dispatcherUrl), task.execContextId)) {
+                busy++;
             }
-            return true;
         }
+        return Math.max(0, envService.getSlots(ref.processorCode) - busy);
     }
 
     public List<ProcessorTask> findAllByCompletedIsFalse(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            List<ProcessorTask> list = new ArrayList<>();
-            for (ProcessorTask task : getMapForDispatcherUrl(ref).values()) {
+        List<ProcessorTask> list = new ArrayList<>();
+        for (ProcessorTask task : getMapForDispatcherUrl(ref).values()) {
+            synchronized (task) {
                 if (!task.completed) {
                     if (task.finishedOn!=null && task.reported && task.delivered && task.output.outputStatuses.stream().allMatch(o->o.uploaded)) {
                         task.completed = true;
@@ -387,20 +437,20 @@ public class ProcessorTaskService {
                     list.add(task);
                 }
             }
-            return list;
         }
+        return list;
     }
 
     private Map<Long, ProcessorTask> getMapForDispatcherUrl(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        return map.computeIfAbsent(ref.processorCode, k->new HashMap<>()).computeIfAbsent(ref.dispatcherUrl, m -> new HashMap<>());
+        return getHolder(ref).tasks;
     }
 
     public List<ProcessorTask> findAllByCompetedIsFalseAndFinishedOnIsNullAndAssetsPreparedIs(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, boolean assetsPreparedStatus) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            List<ProcessorTask> list = new ArrayList<>();
-            Map<Long, ProcessorTask> mapForDispatcherUrl = getMapForDispatcherUrl(ref);
-            List<Long> forDeletion = new ArrayList<>();
-            for (ProcessorTask task : mapForDispatcherUrl.values()) {
+        List<ProcessorTask> list = new ArrayList<>();
+        Map<Long, ProcessorTask> mapForDispatcherUrl = getMapForDispatcherUrl(ref);
+        List<Long> forDeletion = new ArrayList<>();
+        for (ProcessorTask task : mapForDispatcherUrl.values()) {
+            synchronized (task) {
                 if (S.b(task.dispatcherUrl)) {
                     forDeletion.add(task.taskId);
                 }
@@ -408,75 +458,58 @@ public class ProcessorTaskService {
                     list.add(task);
                 }
             }
-            forDeletion.forEach(id-> {
-                log.warn("#713.147 task #{} from dispatcher {} was deleted from global map with tasks", id, ref.dispatcherUrl.url);
-                mapForDispatcherUrl.remove(id);
-            });
-            return list;
         }
-    }
-
-    private Stream<ProcessorTask> findAllByFinishedOnIsNotNull(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        return getMapForDispatcherUrl(ref).values().stream().filter(o -> o.finishedOn!=null);
+        forDeletion.forEach(id-> {
+            log.warn("#713.147 task #{} from dispatcher {} was deleted from global map with tasks", id, ref.dispatcherUrl.url);
+            mapForDispatcherUrl.remove(id);
+        });
+        return list;
     }
 
     public void createTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, long taskId, Long execContextId, String params) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            log.info("#713.150 Prepare new task #{}", taskId);
-            Map<Long, ProcessorTask> mapForDispatcherUrl = getMapForDispatcherUrl(ref);
-            ProcessorTask task = mapForDispatcherUrl.computeIfAbsent(taskId, k -> new ProcessorTask());
-
-            task.taskId = taskId;
-            task.execContextId = execContextId;
-            task.params = params;
-            task.functionExecResult = null;
-            final TaskParamsYaml taskParamYaml = TaskParamsYamlUtils.BASE_YAML_UTILS.to(params);
-            task.clean = taskParamYaml.task.clean;
-            task.dispatcherUrl = ref.dispatcherUrl.url;
-            task.createdOn = System.currentTimeMillis();
-            task.assetsPrepared = false;
-            task.launchedOn = null;
-            task.finishedOn = null;
-            task.reportedOn = null;
-            task.reported = false;
-            task.delivered = false;
-            task.completed = false;
-            taskParamYaml.task.outputs.stream()
-                    .map(o->new ProcessorTask.OutputStatus(o.id, false) )
-                    .collect(Collectors.toCollection(()->task.output.outputStatuses));
-
-            File processorDir = new File(globals.processorDir, ref.processorCode);
-            if (!processorDir.exists()) {
-                processorDir.mkdirs();
-            }
-            File processorTaskDir = new File(processorDir, Consts.TASK_DIR);
-
-            File dispatcherDir = new File(processorTaskDir, metadataService.processorStateByDispatcherUrl(ref).dispatcherCode);
-            String path = getTaskPath(taskId);
-            File taskDir = new File(dispatcherDir, path);
-            try {
-                if (!taskDir.exists()) {
-                    taskDir.mkdirs();
-                }
-                //noinspection ResultOfMethodCallIgnored
-                taskDir.mkdirs();
-                File taskYamlFile = new File(taskDir, Consts.TASK_YAML);
-                FileUtils.write(taskYamlFile, ProcessorTaskUtils.toString(task), Charsets.UTF_8, false);
-            } catch (Throwable th) {
-                String es = "#713.160 Error";
-                log.error(es, th);
-                throw new RuntimeException(es, th);
+        log.info("#713.150 Prepare new task #{}", taskId);
+        // a new instance is fully initialized before it becomes visible to other threads
+        ProcessorTask task = new ProcessorTask();
+        task.taskId = taskId;
+        task.execContextId = execContextId;
+        task.params = params;
+        task.functionExecResult = null;
+        final TaskParamsYaml taskParamYaml = TaskParamsYamlUtils.BASE_YAML_UTILS.to(params);
+        task.clean = taskParamYaml.task.clean;
+        task.dispatcherUrl = ref.dispatcherUrl.url;
+        task.createdOn = System.currentTimeMillis();
+        task.assetsPrepared = false;
+        task.launchedOn = null;
+        task.finishedOn = null;
+        task.reportedOn = null;
+        task.reported = false;
+        task.delivered = false;
+        task.completed = false;
+        taskParamYaml.task.outputs.stream()
+                .map(o->new ProcessorTask.OutputStatus(o.id, false) )
+                .collect(Collectors.toCollection(()->task.output.outputStatuses));
+
+        try {
+            prepareTaskDir(ref, taskId);
+            TasksHolder holder = getHolder(ref);
+            synchronized (task) {
+                holder.tasks.put(taskId, task);
+                save(ref, task);
             }
+        } catch (Throwable th) {
+            String es = "#713.160 Error";
+            log.error(es, th);
+            throw new RuntimeException(es, th);
         }
     }
 
     @Nullable
     public ProcessorTask resetTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                return null;
-            }
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            return null;
+        }
+        synchronized (task) {
             task.setLaunchedOn(null);
             return save(ref, task);
         }
@@ -484,82 +517,63 @@ public class ProcessorTaskService {
 
     @Nullable
     public ProcessorTask setLaunchOn(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            ProcessorTask task = findById(ref, taskId);
-            if (task == null) {
-                return null;
-            }
+        ProcessorTask task = findById(ref, taskId);
+        if (task == null) {
+            return null;
+        }
+        synchronized (task) {
             task.setLaunchedOn(System.currentTimeMillis());
             return save(ref, task);
         }
     }
 
+    /**
+     * must be called under the lock of task
+     */
     private ProcessorTask save(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, ProcessorTask task) {
-        File taskDir = prepareTaskDir(ref, task.taskId);
-        File taskYaml = new File(taskDir, Consts.TASK_YAML);
-
-        if (taskYaml.exists()) {
-            log.trace("{} file exists. Make backup", taskYaml.getPath());
-            File yamlFileBak = new File(taskDir, Consts.TASK_YAML + ".bak");
-            //noinspection ResultOfMethodCallIgnored
-            yamlFileBak.delete();
-            if (taskYaml.exists()) {
-                //noinspection ResultOfMethodCallIgnored
-                taskYaml.renameTo(yamlFileBak);
-            }
-        }
-
-        try {
-            FileUtils.write(taskYaml, ProcessorTaskUtils.toString(task), Charsets.UTF_8, false);
-        } catch (IOException e) {
-            String es = "#713.200 Error while writing to file: " + taskYaml.getPath();
-            log.error(es, e);
-            throw new IllegalStateException(es, e);
+        TasksHolder holder = getHolder(ref);
+        // the task was deleted or re-created, its state must not get into the journal
+        if (holder.tasks.get(task.taskId)!=task) {
+            return task;
         }
+        holder.journal.append(task);
         return task;
     }
 
     @Nullable
     public ProcessorTask findById(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, Long taskId) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            return getMapForDispatcherUrl(ref)
-                    .entrySet()
-                    .stream()
-                    .filter(e -> e.getValue().taskId.equals(taskId))
-                    .findFirst()
-                    .map(Map.Entry::getValue)
-                    .orElse(null);
-        }
+        return getMapForDispatcherUrl(ref).get(taskId);
     }
 
     public List<ProcessorTask> findAll(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            Collection<ProcessorTask> values = getMapForDispatcherUrl(ref).values();
-            return List.copyOf(values);
-        }
+        Collection<ProcessorTask> values = getMapForDispatcherUrl(ref).values();
+        return List.copyOf(values);
     }
 
     public void delete(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, final long taskId) {
         MetadataParamsYaml.ProcessorState processorState = metadataService.processorStateByDispatcherUrl(ref);
 
-        synchronized (ProcessorSyncHolder.processorGlobalSync) {
-            final File processorDir = new File(globals.processorDir, ref.processorCode);
-            final File processorTaskDir = new File(processorDir, Consts.TASK_DIR);
-            final File dispatcherDir = new File(processorTaskDir, processorState.dispatcherCode);
+        final File processorDir = new File(globals.processorDir, ref.processorCode);
+        final File processorTaskDir = new File(processorDir, Consts.TASK_DIR);
+        final File dispatcherDir = new File(processorTaskDir, processorState.dispatcherCode);
 
-            final String path = getTaskPath(taskId);
-            final File taskDir = new File(dispatcherDir, path);
-            try {
-                if (taskDir.exists()) {
-                    deleteDir(taskDir, "delete dir in ProcessorTaskService.delete()");
+        final String path = getTaskPath(taskId);
+        final File taskDir = new File(dispatcherDir, path);
+        try {
+            TasksHolder holder = getHolder(ref);
+            ProcessorTask task = holder.tasks.get(taskId);
+            if (task!=null) {
+                synchronized (task) {
+                    holder.tasks.remove(taskId, task);
+                    holder.journal.delete(taskId);
                 }
-                Map<Long, ProcessorTask> mapTask = getMapForDispatcherUrl(ref);
-                log.debug("Does task present in map before deleting: {}", mapTask.containsKey(taskId));
-                mapTask.remove(taskId);
-                log.debug("Does task present in map after deleting: {}", mapTask.containsKey(taskId));
-            } catch (Throwable th) {
-                log.error("#713.210 Error deleting task " + taskId, th);
             }
+            log.debug("Does task present in map after deleting: {}", holder.tasks.containsKey(taskId));
+            if (taskDir.exists()) {
+                deleteDir(taskDir, "delete dir in ProcessorTaskService.delete()");
+            }
+        } catch (Throwable th) {
+            log.error("#713.210 Error deleting task " + taskId, th);
         }
     }
 
@@ -62,7 +62,7 @@ public class TaskAssetPreparer {
     private final ApplicationEventPublisher eventPublisher;
 
     public static class TaskAssetPreparingSync {
-        private static final CommonSync<String> commonSync = new CommonSync<>();
+        private static final CommonSync<String> commonSync = new CommonSync<>("taskAssetPreparer");
 
         public static <T> T getWithSync(final String processorCode, Supplier<T> supplier) {
             TxUtils.checkTxNotExists();
@@ -52,12 +52,14 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -90,9 +92,19 @@ public class TaskProcessor {
     private final VariableProviderFactory resourceProviderFactory;
     private final GitSourcingService gitSourcingService;
 
+    // guards the scanning of tasks, the execution of tasks is made by executor
     public final AtomicBoolean processing = new AtomicBoolean();
 
-    public TaskProcessor(Globals globals, ProcessorTaskService processorTaskService, CurrentExecState currentExecState, DispatcherLookupExtendedService dispatcherLookupExtendedService, MetadataService metadataService, EnvService envService, ProcessorService processorService, VariableProviderFactory resourceProviderFactory, GitSourcingService gitSourcingService) {
+    private final int slots;
+    private final ThreadPoolExecutor executor;
+    // ids of tasks which are being processed by executor right now
+    private final Set<Long> activeTasks = ConcurrentHashMap.newKeySet();
+
+    public TaskProcessor(String processorCode, Globals globals, ProcessorTaskService processorTaskService, CurrentExecState currentExecState, DispatcherLookupExtendedService dispatcherLookupExtendedService, MetadataService metadataService, EnvService envService, ProcessorService processorService, VariableProviderFactory resourceProviderFactory, GitSourcingService gitSourcingService) {
+        this(processorCode, envService.getSlots(processorCode), globals, processorTaskService, currentExecState, dispatcherLookupExtendedService, metadataService, envService, processorService, resourceProviderFactory, gitSourcingService);
+    }
+
+    TaskProcessor(String processorCode, int slots, Globals globals, ProcessorTaskService processorTaskService, CurrentExecState currentExecState, DispatcherLookupExtendedService dispatcherLookupExtendedService, MetadataService metadataService, EnvService envService, ProcessorService processorService, VariableProviderFactory resourceProviderFactory, GitSourcingService gitSourcingService) {
         this.globals = globals;
         this.processorTaskService = processorTaskService;
         this.currentExecState = currentExecState;
@@ -102,6 +114,19 @@ public class TaskProcessor {
         this.processorService = processorService;
         this.resourceProviderFactory = resourceProviderFactory;
         this.gitSourcingService = gitSourcingService;
+
+        this.slots = slots;
+        this.executor = new ThreadPoolExecutor(slots, slots, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("task-exec-" + processorCode + "-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        log.info("#100.007 Processor {} will execute up to {} tasks concurrently", processorCode, slots);
+    }
+
+    /**
+     * Tasks which are being executed are interrupted
+     */
+    public void shutdown() {
+        executor.shutdownNow();
     }
 
     public void process(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref) {
@@ -134,176 +159,222 @@ public class TaskProcessor {
         // find all tasks which weren't completed and  weren't finished and resources aren't prepared yet
         List<ProcessorTask> tasks = processorTaskService.findAllByCompetedIsFalseAndFinishedOnIsNullAndAssetsPreparedIs(ref, true);
         for (ProcessorTask task : tasks) {
-            log.info("#100.001 Start processing task #{}", task.taskId);
-
-            if (StringUtils.isBlank(task.dispatcherUrl)) {
-                final String es = "#100.005 task.dispatcherUrl is blank for task #" + task.taskId;
-                log.error(es);
-                // because task is valid only for correct dispatcherUrl, we don't need to mark it as FinishedWithError
+            if (activeTasks.size()>=slots) {
+                log.debug("#100.002 All {} slots of processor {} are busy", slots, ref.processorCode);
+                break;
+            }
+            if (!activeTasks.add(task.taskId)) {
+                // this task is being executed right now
                 continue;
             }
+            try {
+                executor.execute(() -> {
+                    try {
+                        processTask(ref, task);
+                    }
+                    catch (Throwable th) {
+                        log.error("#100.003 Error while processing task #" + task.taskId, th);
+                    }
+                    finally {
+                        activeTasks.remove(task.taskId);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                activeTasks.remove(task.taskId);
+                log.warn("#100.004 Task #{} was rejected by executor, error: {}", task.taskId, e.getMessage());
+            }
+        }
+    }
 
-            ProcessorAndCoreData.DispatcherUrl dispatcherUrl = new ProcessorAndCoreData.DispatcherUrl(task.dispatcherUrl);
+    // isn't private for testing
+    void processTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref, ProcessorTask task) {
+        log.info("#100.001 Start processing task #{}", task.taskId);
 
-            processorTaskService.setLaunchOn(ref, task.taskId);
+        if (StringUtils.isBlank(task.dispatcherUrl)) {
+            final String es = "#100.005 task.dispatcherUrl is blank for task #" + task.taskId;
+            log.error(es);
+            // because task is valid only for correct dispatcherUrl, we don't need to mark it as FinishedWithError
+            return;
+        }
 
-            final MetadataParamsYaml.ProcessorState processorState = metadataService.processorStateByDispatcherUrl(ref);
-            if (S.b(processorState.processorId) || S.b(processorState.sessionId)) {
-                log.warn("#100.010 processor {} with dispatcher {} isn't ready", ref.processorCode, dispatcherUrl.url);
-                continue;
-            }
+        ProcessorAndCoreData.DispatcherUrl dispatcherUrl = new ProcessorAndCoreData.DispatcherUrl(task.dispatcherUrl);
 
-            DispatcherLookupExtendedService.DispatcherLookupExtended dispatcher = dispatcherLookupExtendedService.lookupExtendedMap.get(dispatcherUrl);
-            if (dispatcher==null) {
-                final String es = "#100.020 Broken task #"+task.taskId+". dispatcher wasn't found for url " + dispatcherUrl;
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, es);
-                continue;
-            }
+        processorTaskService.setLaunchOn(ref, task.taskId);
 
-            if (dispatcher.schedule.isCurrentTimeInactive()) {
-                processorTaskService.delete(ref, task.taskId);
-                log.warn("#100.025 Can't process task #{} for url {} at this time, time: {}, permitted period of time: {}", task.taskId, dispatcherUrl, new Date(), dispatcher.schedule.asString);
-                return;
-            }
+        final MetadataParamsYaml.ProcessorState processorState = metadataService.processorStateByDispatcherUrl(ref);
+        if (S.b(processorState.processorId) || S.b(processorState.sessionId)) {
+            log.warn("#100.010 processor {} with dispatcher {} isn't ready", ref.processorCode, dispatcherUrl.url);
+            return;
+        }
 
-            if (StringUtils.isBlank(task.getParams())) {
-                log.warn("#100.030 Params for task #{} is blank", task.getTaskId());
-                continue;
-            }
+        DispatcherLookupExtendedService.DispatcherLookupExtended dispatcher = dispatcherLookupExtendedService.lookupExtendedMap.get(dispatcherUrl);
+        if (dispatcher==null) {
+            final String es = "#100.020 Broken task #"+task.taskId+". dispatcher wasn't found for url " + dispatcherUrl;
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, es);
+            return;
+        }
 
-            EnumsApi.ExecContextState state = currentExecState.getState(dispatcherUrl, task.execContextId);
-            if (state== EnumsApi.ExecContextState.UNKNOWN) {
-                log.info("#100.032 The state for ExecContext #{}, host {} is unknown, the task #{} will be skipped", task.execContextId, dispatcherUrl, task.taskId);
-                continue;
-            }
+        if (dispatcher.schedule.isCurrentTimeInactive()) {
+            processorTaskService.delete(ref, task.taskId);
+            log.warn("#100.025 Can't process task #{} for url {} at this time, time: {}, permitted period of time: {}", task.taskId, dispatcherUrl, new Date(), dispatcher.schedule.asString);
+            return;
+        }
 
-            if (state!= EnumsApi.ExecContextState.STARTED) {
-                processorTaskService.delete(ref, task.taskId);
-                log.info("#100.034 The state for ExecContext #{}, host: {}, is {}, delete a task #{}", task.execContextId, dispatcherUrl, state, task.taskId);
-                continue;
-            }
+        if (StringUtils.isBlank(task.getParams())) {
+            log.warn("#100.030 Params for task #{} is blank", task.getTaskId());
+            return;
+        }
 
-            log.info("Start processing task {}", task);
-            File taskDir = processorTaskService.prepareTaskDir(ref, task.taskId);
+        EnumsApi.ExecContextState state = currentExecState.getState(dispatcherUrl, task.execContextId);
+        if (state== EnumsApi.ExecContextState.UNKNOWN) {
+            log.info("#100.032 The state for ExecContext #{}, host {} is unknown, the task #{} will be skipped", task.execContextId, dispatcherUrl, task.taskId);
+            return;
+        }
 
-            final TaskParamsYaml taskParamYaml;
-            try {
-                taskParamYaml = TaskParamsYamlUtils.BASE_YAML_UTILS.to(task.getParams());
-            } catch (CheckIntegrityFailedException e) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.037 Broken task. Check of integrity was failed.");
-                continue;
-            }
+        if (state!= EnumsApi.ExecContextState.STARTED) {
+            processorTaskService.delete(ref, task.taskId);
+            log.info("#100.034 The state for ExecContext #{}, host: {}, is {}, delete a task #{}", task.execContextId, dispatcherUrl, state, task.taskId);
+            return;
+        }
 
-            ProcessorService.ResultOfChecking resultOfChecking = processorService.checkForPreparingVariables(ref, task, processorState, taskParamYaml, dispatcher, taskDir);
-            if (resultOfChecking.isError) {
-                continue;
-            }
-            boolean isAllLoaded = resultOfChecking.isAllLoaded;
-            if (!processorService.checkOutputResourceFile(ref, task, taskParamYaml, dispatcher, taskDir)) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.040 Broken task. Can't create outputResourceFile");
-                continue;
-            }
-            if (taskParamYaml.task.outputs.isEmpty()) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.050 Broken task. output variable must be specified");
-                continue;
-            }
+        log.info("Start processing task {}", task);
+        File taskDir = processorTaskService.prepareTaskDir(ref, task.taskId);
 
-            File artifactDir = processorTaskService.prepareTaskSubDir(taskDir, ConstsApi.ARTIFACTS_DIR);
-            if (artifactDir == null) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.090 Error of configuring of environment. 'artifacts' directory wasn't created, task can't be processed.");
-                continue;
-            }
+        final TaskParamsYaml taskParamYaml;
+        try {
+            taskParamYaml = TaskParamsYamlUtils.BASE_YAML_UTILS.to(task.getParams());
+        } catch (CheckIntegrityFailedException e) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.037 Broken task. Check of integrity was failed.");
+            return;
+        }
 
-            File systemDir = processorTaskService.prepareTaskSubDir(taskDir, Consts.SYSTEM_DIR);
-            if (systemDir == null) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.100 Error of configuring of environment. 'system' directory wasn't created, task can't be processed.");
-                continue;
-            }
+        // preparing of a task is skipped while there isn't any free slot for its env.
+        // the slot is acquired only after preparing, so preparing of a task doesn't hold the slot
+        final Semaphore envPermits = envService.getEnvPermits(taskParamYaml.task.getFunction().env);
+        if (envPermits!=null && envPermits.availablePermits()==0) {
+            log.info("#100.038 All slots for env {} are busy, task #{} will be processed later", taskParamYaml.task.getFunction().env, task.taskId);
+            return;
+        }
 
-            String status = EnvServiceUtils.prepareEnvironment(artifactDir, new EnvServiceUtils.EnvYamlShort(envService.getEnvParamsYaml()));
-            if (status!=null) {
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, status);
-            }
+        ProcessorService.ResultOfChecking resultOfChecking = processorService.checkForPreparingVariables(ref, task, processorState, taskParamYaml, dispatcher, taskDir);
+        if (resultOfChecking.isError) {
+            return;
+        }
+        boolean isAllLoaded = resultOfChecking.isAllLoaded;
+        if (!processorService.checkOutputResourceFile(ref, task, taskParamYaml, dispatcher, taskDir)) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.040 Broken task. Can't create outputResourceFile");
+            return;
+        }
+        if (taskParamYaml.task.outputs.isEmpty()) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.050 Broken task. output variable must be specified");
+            return;
+        }
 
-            boolean isNotReady = false;
-            final FunctionPrepareResult[] results = new FunctionPrepareResult[ totalCountOfFunctions(taskParamYaml.task) ];
-            int idx = 0;
-            FunctionPrepareResult result;
+        File artifactDir = processorTaskService.prepareTaskSubDir(taskDir, ConstsApi.ARTIFACTS_DIR);
+        if (artifactDir == null) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.090 Error of configuring of environment. 'artifacts' directory wasn't created, task can't be processed.");
+            return;
+        }
 
-            ProcessorAndCoreData.AssetManagerUrl assetManagerUrl = new ProcessorAndCoreData.AssetManagerUrl(dispatcher.dispatcherLookup.assetManagerUrl);
+        File systemDir = processorTaskService.prepareTaskSubDir(taskDir, Consts.SYSTEM_DIR);
+        if (systemDir == null) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, "#100.100 Error of configuring of environment. 'system' directory wasn't created, task can't be processed.");
+            return;
+        }
 
-            for (TaskParamsYaml.FunctionConfig preFunctionConfig : taskParamYaml.task.preFunctions) {
-                result = prepareFunction(dispatcher, assetManagerUrl, processorState, preFunctionConfig);
-                if (result.isError) {
-                    markFunctionAsFinishedWithPermanentError(ref, task.taskId, result);
-                    isNotReady = true;
-                    break;
-                }
-                if (!result.isLoaded || !isAllLoaded) {
-                    isNotReady = true;
-                    break;
-                }
-                results[idx++] = result;
-            }
-            if (isNotReady) {
-                continue;
-            }
+        String status = EnvServiceUtils.prepareEnvironment(artifactDir, new EnvServiceUtils.EnvYamlShort(envService.getEnvParamsYaml()));
+        if (status!=null) {
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, status);
+        }
 
-            result = prepareFunction(dispatcher, assetManagerUrl, processorState, taskParamYaml.task.getFunction());
+        boolean isNotReady = false;
+        final FunctionPrepareResult[] results = new FunctionPrepareResult[ totalCountOfFunctions(taskParamYaml.task) ];
+        int idx = 0;
+        FunctionPrepareResult result;
+
+        ProcessorAndCoreData.AssetManagerUrl assetManagerUrl = new ProcessorAndCoreData.AssetManagerUrl(dispatcher.dispatcherLookup.assetManagerUrl);
+
+        for (TaskParamsYaml.FunctionConfig preFunctionConfig : taskParamYaml.task.preFunctions) {
+            result = prepareFunction(dispatcher, assetManagerUrl, processorState, preFunctionConfig);
             if (result.isError) {
                 markFunctionAsFinishedWithPermanentError(ref, task.taskId, result);
-                continue;
+                isNotReady = true;
+                break;
             }
-            results[idx++] = result;
             if (!result.isLoaded || !isAllLoaded) {
-                continue;
+                isNotReady = true;
+                break;
             }
+            results[idx++] = result;
+        }
+        if (isNotReady) {
+            return;
+        }
 
-            for (TaskParamsYaml.FunctionConfig postFunctionConfig : taskParamYaml.task.postFunctions) {
-                result = prepareFunction(dispatcher, assetManagerUrl, processorState, postFunctionConfig);
-                if (result.isError) {
-                    markFunctionAsFinishedWithPermanentError(ref, task.taskId, result);
-                    isNotReady = true;
-                    break;
-                }
-                if (!result.isLoaded) {
-                    isNotReady = true;
-                    break;
-                }
-                results[idx++] = result;
+        result = prepareFunction(dispatcher, assetManagerUrl, processorState, taskParamYaml.task.getFunction());
+        if (result.isError) {
+            markFunctionAsFinishedWithPermanentError(ref, task.taskId, result);
+            return;
+        }
+        results[idx++] = result;
+        if (!result.isLoaded || !isAllLoaded) {
+            return;
+        }
+
+        for (TaskParamsYaml.FunctionConfig postFunctionConfig : taskParamYaml.task.postFunctions) {
+            result = prepareFunction(dispatcher, assetManagerUrl, processorState, postFunctionConfig);
+            if (result.isError) {
+                markFunctionAsFinishedWithPermanentError(ref, task.taskId, result);
+                isNotReady = true;
+                break;
             }
-            if (isNotReady) {
-                continue;
+            if (!result.isLoaded) {
+                isNotReady = true;
+                break;
             }
+            results[idx++] = result;
+        }
+        if (isNotReady) {
+            return;
+        }
 
-            try {
-                if (!prepareParamsFileForTask(taskDir, taskParamYaml, results)) {
-                    continue;
-                }
-            } catch (Throwable th) {
-                String es = "#100.110 Error while preparing params.yaml file for task #"+task.taskId+", error: " + th.getMessage();
-                log.warn(es);
-                processorTaskService.markAsFinishedWithError(ref, task.taskId, es);
-                continue;
+        try {
+            if (!prepareParamsFileForTask(taskDir, taskParamYaml, results)) {
+                return;
             }
+        } catch (Throwable th) {
+            String es = "#100.110 Error while preparing params.yaml file for task #"+task.taskId+", error: " + th.getMessage();
+            log.warn(es);
+            processorTaskService.markAsFinishedWithError(ref, task.taskId, es);
+            return;
+        }
 
-            // at this point all required resources have to be prepared
+        // at this point all required resources have to be prepared
+        if (envPermits!=null && !envPermits.tryAcquire()) {
+            log.info("#100.115 All slots for env {} are busy, task #{} will be processed later", taskParamYaml.task.getFunction().env, task.taskId);
+            return;
+        }
+        try {
             ProcessorTask taskResult = processorTaskService.setLaunchOn(ref, task.taskId);
             if (taskResult==null) {
                 String es = "#100.120 Task #"+task.taskId+" wasn't found";
                 log.warn(es);
                 // there isn't this task any more. So we can't mark it as Finished
 //                processorTaskService.markAsFinishedWithError(task.dispatcherUrl, task.taskId, es);
-                continue;
-            }
-            try {
-                execAllFunctions(ref, task, processorState, dispatcher, taskDir, taskParamYaml, artifactDir, systemDir, results);
+                return;
             }
-            catch(ScheduleInactivePeriodException e) {
-                processorTaskService.resetTask(ref, task.taskId);
-                processorTaskService.delete(ref, task.taskId);
-                log.info("#100.130 An execution of task #{} was terminated because of the beginning of inactivity period. " +
-                        "This task will be processed later", task.taskId);
+            execAllFunctions(ref, task, processorState, dispatcher, taskDir, taskParamYaml, artifactDir, systemDir, results);
+        }
+        catch(ScheduleInactivePeriodException e) {
+            processorTaskService.resetTask(ref, task.taskId);
+            processorTaskService.delete(ref, task.taskId);
+            log.info("#100.130 An execution of task #{} was terminated because of the beginning of inactivity period. " +
+                    "This task will be processed later", task.taskId);
+        }
+        finally {
+            if (envPermits!=null) {
+                envPermits.release();
             }
         }
     }
@@ -503,7 +574,7 @@ public class TaskProcessor {
             // Exec function
             systemExecResult = SystemProcessLauncher.execCommand(
                     cmd, taskDir, consoleLogFile, taskParamYaml.task.timeoutBeforeTerminate, functionPrepareResult.function.code, schedule,
-                    globals.taskConsoleOutputMaxLines);
+                    globals.taskConsoleOutputMaxLines, globals.consoleLogMaxSize, globals.consoleLogCompress);
 
         }
         catch (ScheduleInactivePeriodException e) {
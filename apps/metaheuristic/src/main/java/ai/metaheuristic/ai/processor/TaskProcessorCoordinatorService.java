@@ -23,10 +23,15 @@ import ai.metaheuristic.ai.processor.variable_providers.VariableProviderFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import javax.annotation.PreDestroy;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @Slf4j
@@ -44,7 +49,17 @@ public class TaskProcessorCoordinatorService {
     private final VariableProviderFactory resourceProviderFactory;
     private final GitSourcingService gitSourcingService;
 
-    private final Map<String, TaskProcessor> taskProcessors = new HashMap<>();
+    private final Map<String, TaskProcessor> taskProcessors = new ConcurrentHashMap<>();
+
+    // scanning of tasks, a scan for the same processor is skipped by TaskProcessor while the previous one is in progress,
+    // so the number of threads is limited by the number of processors
+    private final ExecutorService scanExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("task-processor-"));
+
+    @PreDestroy
+    public void onExit() {
+        scanExecutor.shutdownNow();
+        taskProcessors.values().forEach(TaskProcessor::shutdown);
+    }
 
     public void fixedDelay() {
         if (globals.isUnitTesting) {
@@ -57,8 +72,13 @@ public class TaskProcessorCoordinatorService {
 
         for (ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref : metadataService.getAllEnabledRefs()) {
             TaskProcessor taskProcessor = taskProcessors.computeIfAbsent( ref.processorCode,
-                    o -> new TaskProcessor(globals, processorTaskService, currentExecState, dispatcherLookupExtendedService, metadataService, envService, processorService, resourceProviderFactory, gitSourcingService));
-            new Thread(()-> taskProcessor.process(ref), "task-processor-"+ref.processorCode).start();
+                    o -> new TaskProcessor(o, globals, processorTaskService, currentExecState, dispatcherLookupExtendedService, metadataService, envService, processorService, resourceProviderFactory, gitSourcingService));
+            try {
+                scanExecutor.execute(()-> taskProcessor.process(ref));
+            }
+            catch (RejectedExecutionException e) {
+                log.warn("#415.030 Scanning of tasks of processor {} was rejected, error: {}", ref.processorCode, e.getMessage());
+            }
         }
     }
 }
\ No newline at end of file
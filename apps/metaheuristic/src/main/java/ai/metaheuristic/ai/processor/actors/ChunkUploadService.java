@@ -0,0 +1,228 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor.actors;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.southbridge.UploadResult;
+import ai.metaheuristic.ai.dispatcher.southbridge.UploadSessionResult;
+import ai.metaheuristic.ai.dispatcher.southbridge.UploadSessions;
+import ai.metaheuristic.ai.utils.JsonUtils;
+import ai.metaheuristic.ai.utils.RestUtils;
+import ai.metaheuristic.commons.CommonConsts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Form;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploading of variable with chunks.
+ *
+ * A session is started at dispatcher, then chunks which weren't received by dispatcher yet are uploaded in parallel
+ * and the session is committed. A session is identified by taskId and variableId, so after restarting of processor
+ * uploading will be continued with chunks which are missing at dispatcher.
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 2:10 AM
+ */
+@Service
+@Slf4j
+@Profile("processor")
+@RequiredArgsConstructor
+public class ChunkUploadService {
+
+    // dispatcher which doesn't support chunked uploading won't be asked again during this period
+    private static final long NOT_SUPPORTED_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private final Globals globals;
+
+    private final Map<String, Long> notSupportedOn = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("mh-upload-"));
+
+    @PreDestroy
+    public void onExit() {
+        executor.shutdownNow();
+    }
+
+    public boolean isSupported(String dispatcherUrl) {
+        Long mills = notSupportedOn.get(dispatcherUrl);
+        return mills==null || System.currentTimeMillis() - mills > NOT_SUPPORTED_TIMEOUT;
+    }
+
+    /**
+     * @return result of uploading or null if dispatcher doesn't support chunked uploading
+     */
+    @Nullable
+    public UploadResult upload(String dispatcherUrl, Executor httpExecutor, String randomPart, Long taskId, Long variableId, File file, long chunkSize)
+            throws IOException, URISyntaxException, InterruptedException {
+        final String url = dispatcherUrl + CommonConsts.REST_V1_URL + Consts.UPLOAD_SESSION_REST_URL;
+        UploadResult result = upload(executor, globals.uploadThreadsPerVariable, httpExecutor, url, randomPart, taskId, variableId, file, chunkSize);
+        if (result==null) {
+            log.info("#313.010 Dispatcher {} doesn't support chunked uploading, multipart will be used", dispatcherUrl);
+            notSupportedOn.put(dispatcherUrl, System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    @Nullable
+    static UploadResult upload(
+            ExecutorService executor, int threads, Executor httpExecutor, String url, String randomPart,
+            Long taskId, Long variableId, File file, long chunkSizeConfigured) throws IOException, URISyntaxException, InterruptedException {
+
+        final long length = file.length();
+        final long chunkSize = Math.max(chunkSizeConfigured, Consts.UPLOAD_MIN_CHUNK_SIZE);
+        final int chunkCount = UploadSessions.chunkCount(length, chunkSize);
+        if (chunkCount==-1) {
+            return new UploadResult(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR,
+                    "#313.015 File is too big for uploading by chunks, length: " + length + ", size of chunk: " + chunkSize);
+        }
+        final Request startRequest = Request.Post(url + "/start" + randomPart)
+                .bodyForm(Form.form()
+                        .add("taskId", taskId.toString())
+                        .add("variableId", variableId.toString())
+                        .add("length", Long.toString(length))
+                        .add("chunkSize", Long.toString(chunkSize))
+                        .build(), StandardCharsets.UTF_8)
+                .connectTimeout(5000).socketTimeout(20000);
+        RestUtils.addHeaders(startRequest);
+
+        final String startJson = httpExecutor.execute(startRequest).handleResponse(ChunkUploadService::toJson);
+        if (startJson==null) {
+            return null;
+        }
+        UploadSessionResult session = JsonUtils.getMapper().readValue(startJson, UploadSessionResult.class);
+        if (session.status!=Enums.UploadVariableStatus.OK || session.sessionId==null) {
+            return new UploadResult(session.status, session.error);
+        }
+        final String sessionId = session.sessionId;
+
+        final Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        final Set<Integer> received = new HashSet<>(session.receivedChunks);
+        for (int i = 0; i < chunkCount; i++) {
+            if (!received.contains(i)) {
+                queue.add(i);
+            }
+        }
+        log.info("#313.020 Upload session {}, chunks: {}, already uploaded: {}", sessionId, chunkCount, received.size());
+
+        final AtomicReference<UploadResult> failure = new AtomicReference<>();
+        final int workers = Math.min(threads, queue.size());
+        final List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> {
+                Integer idx;
+                while (failure.get()==null && (idx = queue.poll())!=null) {
+                    UploadSessionResult r = uploadChunk(httpExecutor, url, randomPart, sessionId, file, idx, chunkSize, length);
+                    if (r.status!=Enums.UploadVariableStatus.OK) {
+                        failure.compareAndSet(null, new UploadResult(r.status, r.error));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IllegalStateException("#313.030 Error while uploading", cause);
+            }
+        }
+        if (failure.get()!=null) {
+            return failure.get();
+        }
+
+        final URI commitUri = new URIBuilder(url + "/commit" + randomPart).setCharset(StandardCharsets.UTF_8)
+                .addParameter("sessionId", sessionId).build();
+        final Request commitRequest = Request.Post(commitUri).connectTimeout(5000).socketTimeout(20000);
+        RestUtils.addHeaders(commitRequest);
+        String json = httpExecutor.execute(commitRequest).returnContent().asString(StandardCharsets.UTF_8);
+        return JsonUtils.getMapper().readValue(json, UploadResult.class);
+    }
+
+    private static UploadSessionResult uploadChunk(
+            Executor httpExecutor, String url, String randomPart, String sessionId, File file,
+            int idx, long chunkSize, long length) throws IOException, URISyntaxException {
+
+        final long offset = idx * chunkSize;
+        final long size = Math.min(chunkSize, length - offset);
+        final URI uri = new URIBuilder(url + "/chunk" + randomPart).setCharset(StandardCharsets.UTF_8)
+                .addParameter("sessionId", sessionId)
+                .addParameter("chunkNum", Integer.toString(idx))
+                .build();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            InputStream is = new BoundedInputStream(Channels.newInputStream(channel.position(offset)), size);
+            final Request request = Request.Put(uri).connectTimeout(5000).socketTimeout(20000)
+                    .body(new InputStreamEntity(is, size, ContentType.APPLICATION_OCTET_STREAM));
+            RestUtils.addHeaders(request);
+            String json = httpExecutor.execute(request).returnContent().asString(StandardCharsets.UTF_8);
+            return JsonUtils.getMapper().readValue(json, UploadSessionResult.class);
+        }
+    }
+
+    /**
+     * @return body of response or null if endpoint doesn't exist
+     */
+    @Nullable
+    private static String toJson(HttpResponse response) throws IOException {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        final HttpEntity entity = response.getEntity();
+        if (statusCode==HttpServletResponse.SC_NOT_FOUND) {
+            EntityUtils.consume(entity);
+            return null;
+        }
+        if (statusCode>=300) {
+            EntityUtils.consume(entity);
+            throw new HttpResponseException(statusCode, response.getStatusLine().getReasonPhrase());
+        }
+        return entity==null ? "" : EntityUtils.toString(entity, StandardCharsets.UTF_8);
+    }
+}
@@ -43,6 +43,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.fluent.Executor;
 import org.apache.http.client.fluent.Request;
 import org.apache.http.client.fluent.Response;
 import org.apache.http.client.utils.URIBuilder;
@@ -55,6 +56,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.ConnectException;
+import java.net.URI;
 import java.net.SocketTimeoutException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -71,6 +73,7 @@ public class DownloadFunctionService extends AbstractTaskQueue<DownloadFunctionT
     private final DispatcherLookupExtendedService dispatcherLookupExtendedService;
     private final ChecksumAndSignatureService checksumAndSignatureService;
     private final GetDispatcherContextInfoService getDispatcherContextInfoService;
+    private final RangeDownloadService rangeDownloadService;
 
     @SuppressWarnings("Duplicates")
     public void process() {
@@ -126,7 +129,48 @@ public class DownloadFunctionService extends AbstractTaskQueue<DownloadFunctionT
                 throw new IllegalStateException("(functionConfig == null)");
             }
 
+            boolean isDownloaded = false;
             if (functionDownloadStatus.functionState == Enums.FunctionState.none) {
+                try {
+                    if (rangeDownloadService.isRangeSupported(assetManager.url)) {
+                        final String rangeUrl = assetManager.url + Consts.REST_ASSET_URL + "/function-data/" + UUID.randomUUID().toString().substring(0, 8);
+                        final URI uri = new URIBuilder(rangeUrl).setCharset(StandardCharsets.UTF_8).addParameter("code", task.functionCode).build();
+                        final Executor executor = HttpClientExecutor.getExecutor(assetManager.url, assetManager.username, assetManager.password);
+
+                        RangeDownloadService.DownloadResult result = rangeDownloadService.download(assetManager.url, executor, uri, assetFile.file, contextInfo.chunkSize);
+                        switch (result.status) {
+                            case ok:
+                                isDownloaded = true;
+                                break;
+                            case not_found:
+                                log.warn("#811.230 Function {} wasn't found on assetManager manager {}", task.functionCode, assetManager.url);
+                                // do not delete this function code because it can be received from dispatcher, so it'll be created constantly, if deleted
+                                metadataService.setFunctionState(assetManagerUrl, functionCode, Enums.FunctionState.not_found);
+                                continue;
+                            case retry_later:
+                                log.warn("#811.233 Function {} wasn't downloaded from {}, will try later again, {}", task.functionCode, assetManager.url, result.error);
+                                return;
+                            case transmitting_error:
+                                log.warn("#811.235 Error while transmitting a function {}, {}", task.functionCode, result.error);
+                                continue;
+                            case no_content:
+                            case error:
+                                log.warn("#811.237 Function {} can't be downloaded from {}, status: {}, {}", task.functionCode, assetManager.url, result.status, result.error);
+                                metadataService.setFunctionState(assetManagerUrl, functionCode, Enums.FunctionState.download_error);
+                                continue;
+                            case not_supported:
+                                // dispatcher is an old one, use chunks
+                                break;
+                        }
+                    }
+                }
+                catch (URISyntaxException e) {
+                    log.error("#811.240 URISyntaxException", e);
+                    continue;
+                }
+            }
+
+            if (functionDownloadStatus.functionState == Enums.FunctionState.none && !isDownloaded) {
                 try {
 
                     File functionTempFile = new File(assetFile.file.getAbsolutePath() + ".tmp");
@@ -33,6 +33,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.fluent.Executor;
 import org.apache.http.client.fluent.Request;
 import org.apache.http.client.fluent.Response;
 import org.apache.http.client.utils.URIBuilder;
@@ -56,6 +57,7 @@ public class DownloadVariableService extends AbstractTaskQueue<DownloadVariableT
     private final Globals globals;
     private final ProcessorTaskService processorTaskService;
     private final CurrentExecState currentExecState;
+    private final RangeDownloadService rangeDownloadService;
 
     @SuppressWarnings("Duplicates")
     public void process() {
@@ -131,6 +133,50 @@ public class DownloadVariableService extends AbstractTaskQueue<DownloadVariableT
                     processorTaskService.markAsFinishedWithError(task.ref, task.taskId, es);
                     continue;
                 }
+
+                if (rangeDownloadService.isRangeSupported(task.ref.dispatcherUrl.url)) {
+                    final String rangeUri = task.dispatcher.url + "/rest/v1/payload/data/"+type+'/'+task.taskId+'/'+
+                            UUID.randomUUID().toString().substring(0, 8) + '-' +task.ref.processorId + '-' + task.taskId + '-' + URLEncoder.encode(task.variableId, StandardCharsets.UTF_8.toString());
+                    final URI build = new URIBuilder(rangeUri).setCharset(StandardCharsets.UTF_8).addParameter("id", task.variableId).build();
+                    final Executor executor = HttpClientExecutor.getExecutor(task.ref.dispatcherUrl.url, task.dispatcher.restUsername, task.dispatcher.restPassword);
+
+                    RangeDownloadService.DownloadResult result = rangeDownloadService.download(
+                            task.ref.dispatcherUrl.url, executor, build, assetFile.file, dispatcherContextInfo.chunkSize);
+                    switch (result.status) {
+                        case ok:
+                            log.info("Variable #{} was loaded", task.variableId);
+                            continue;
+                        case no_content:
+                            if (task.nullable) {
+                                processorTaskService.setInputAsEmpty(task.ref, task.taskId, task.variableId);
+                            }
+                            else {
+                                es = String.format("#810.130 Dispatcher reported that variable #%s is empty but configuration states nullable==false. " +
+                                        "Task #%s is finished with error.", task.variableId, task.getTaskId());
+                                log.warn(es);
+                                processorTaskService.markAsFinishedWithError(task.ref, task.getTaskId(), es);
+                            }
+                            continue;
+                        case not_found:
+                            setVariableWasntFound(task);
+                            continue;
+                        case retry_later:
+                            log.warn("#810.135 Variable #{} wasn't downloaded, will try later again, {}", task.variableId, result.error);
+                            return;
+                        case transmitting_error:
+                            log.warn("#810.140 Error while transmitting a variable #{}, {}", task.variableId, result.error);
+                            continue;
+                        case error:
+                            es = String.format("#810.145 An error while downloading a variable #%s. Task #%s is finished with an error, %s", task.variableId, task.getTaskId(), result.error);
+                            log.warn(es);
+                            processorTaskService.markAsFinishedWithError(task.ref, task.getTaskId(), es);
+                            continue;
+                        case not_supported:
+                            // dispatcher is an old one, use chunks
+                            break;
+                    }
+                }
+
                 File tempFile;
                 try {
                     tempFile = File.createTempFile("resource-", ".temp", parentDir);
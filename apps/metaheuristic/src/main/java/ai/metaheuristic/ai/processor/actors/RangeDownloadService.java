@@ -0,0 +1,533 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor.actors;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.utils.RestUtils;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.commons.utils.Checksum;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Request;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Downloading of data with ranged http requests.
+ *
+ * Chunks are downloaded in parallel and are written directly at their offsets into a preallocated file.
+ * Downloaded chunks are tracked in a bitmap which is stored next to the file, so downloading will be resumed
+ * after restarting of processor. The bitmap is stored after every CHECKPOINT_BYTES of data, chunks which were
+ * downloaded after the last checkpoint will be downloaded again after a crash. When all chunks are downloaded the whole file is verified with checksum
+ * which was reported by dispatcher, if any.
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 11:40 PM
+ */
+@Service
+@Slf4j
+@Profile("processor")
+@RequiredArgsConstructor
+public class RangeDownloadService {
+
+    public enum Status {
+        ok, no_content, not_found,
+        // server doesn't support ranged requests, old protocol must be used
+        not_supported,
+        // network error or server is overloaded, downloading can be resumed later
+        retry_later,
+        // data was transmitted with errors or data was changed on server, downloading will be started again
+        transmitting_error,
+        error
+    }
+
+    @AllArgsConstructor
+    @ToString
+    public static class DownloadResult {
+        public final Status status;
+        @Nullable
+        public final String error;
+
+        public DownloadResult(Status status) {
+            this(status, null);
+        }
+    }
+
+    public static final String PART_EXT = ".part";
+    public static final String STATE_EXT = ".chunks";
+
+    private static final int STATE_FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // the file is forced to disk and the bitmap is stored after downloading of this amount of data
+    static final long CHECKPOINT_BYTES = 16L * 1024 * 1024;
+    // server which doesn't support ranged requests won't be asked again during this period
+    private static final long NOT_SUPPORTED_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private final Globals globals;
+
+    // limit of parallel requests per dispatcher
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<String, Long> notSupportedOn = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("mh-download-"));
+
+    @PreDestroy
+    public void onExit() {
+        executor.shutdownNow();
+    }
+
+    public boolean isRangeSupported(String serverUrl) {
+        Long mills = notSupportedOn.get(serverUrl);
+        return mills==null || System.currentTimeMillis() - mills > NOT_SUPPORTED_TIMEOUT;
+    }
+
+    public DownloadResult download(String serverUrl, Executor httpExecutor, URI uri, File target, long chunkSize) {
+        Semaphore semaphore = permits.computeIfAbsent(serverUrl, o -> new Semaphore(globals.downloadThreadsPerDispatcher));
+        DownloadResult result = download(executor, semaphore, globals.downloadThreadsPerVariable, httpExecutor, uri, target, chunkSize);
+        if (result.status==Status.not_supported) {
+            log.info("#812.010 Dispatcher {} doesn't support ranged requests, old protocol will be used", serverUrl);
+            notSupportedOn.put(serverUrl, System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    static DownloadResult download(
+            ExecutorService executor, Semaphore semaphore, int threadsPerVariable,
+            Executor httpExecutor, URI uri, File target, long chunkSize) {
+
+        final File partFile = new File(target.getAbsolutePath() + PART_EXT);
+        final File stateFile = new File(target.getAbsolutePath() + STATE_EXT);
+        final RangeClient client = new RangeClient(httpExecutor, uri, semaphore);
+
+        DownloadState state = partFile.exists() ? DownloadState.load(stateFile) : null;
+        if (state!=null && state.chunkSize!=chunkSize) {
+            state = null;
+        }
+        String checksum = state==null ? null : state.checksum;
+
+        try {
+            try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (state==null) {
+                    channel.truncate(0);
+                }
+                if (state==null || !state.isComplete()) {
+                    // the first chunk is requested in the current thread for getting length, ETag and checksum of data
+                    final int idx = state==null ? 0 : state.nextMissing();
+                    final long start = idx * chunkSize;
+                    RangeResponse first = client.request(channel, start, start + chunkSize - 1, state==null ? null : state.etag);
+                    switch (first.statusCode) {
+                        case HttpServletResponse.SC_PARTIAL_CONTENT:
+                            if (state==null) {
+                                state = new DownloadState(first.length, chunkSize, first.etag, first.checksum, new BitSet());
+                                checksum = first.checksum;
+                                if (first.length>0 && channel.size() < first.length) {
+                                    channel.write(ByteBuffer.wrap(new byte[1]), first.length - 1);
+                                }
+                            }
+                            if (first.start!=start || first.length<0 || first.length!=state.length || first.written!=state.chunkLength(idx)) {
+                                return reset(partFile, stateFile, "#812.020 Wrong range was received, expected start: " + start + ", actual: " + first);
+                            }
+                            state.markDone(idx);
+                            // length and ETag of data must be stored before downloading of other chunks
+                            state.checkpoint(channel, stateFile);
+                            break;
+                        case HttpServletResponse.SC_OK:
+                            // the whole content was sent because range isn't supported or data was changed
+                            if (first.length!=-1 && first.written!=first.length) {
+                                return reset(partFile, stateFile, "#812.030 Wrong length of data, expected: " + first.length + ", actual: " + first.written);
+                            }
+                            channel.truncate(first.written);
+                            channel.force(false);
+                            checksum = first.checksum;
+                            state = null;
+                            break;
+                        default:
+                            // the request of a resumed downloading was made to the endpoint which worked before
+                            DownloadResult result = toResult(first.statusCode, state!=null);
+                            if (result.status!=Status.retry_later) {
+                                partFile.delete();
+                                stateFile.delete();
+                            }
+                            return result;
+                    }
+                }
+                if (state!=null && !state.isComplete()) {
+                    DownloadResult result = downloadChunks(executor, threadsPerVariable, client, channel, state, stateFile);
+                    if (result!=null) {
+                        if (result.status==Status.transmitting_error) {
+                            return reset(partFile, stateFile, result.error);
+                        }
+                        return result;
+                    }
+                    channel.force(true);
+                }
+            }
+
+            if (checksum!=null) {
+                String actual;
+                try (InputStream is = Files.newInputStream(partFile.toPath())) {
+                    actual = Checksum.getChecksum(EnumsApi.HashAlgo.SHA256, is);
+                }
+                if (!checksum.equals(actual)) {
+                    return reset(partFile, stateFile, "#812.040 Checksum mismatch, expected: " + checksum + ", actual: " + actual);
+                }
+            }
+            Files.move(partFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            stateFile.delete();
+            return new DownloadResult(Status.ok);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DownloadResult(Status.retry_later, "#812.050 Downloading was interrupted");
+        }
+        catch (IOException e) {
+            // already downloaded chunks will be re-used
+            log.warn("#812.060 Error while downloading from {}, error: {}", uri, e.toString());
+            return new DownloadResult(Status.retry_later, e.toString());
+        }
+    }
+
+    @Nullable
+    private static DownloadResult downloadChunks(
+            ExecutorService executor, int threadsPerVariable, RangeClient client, FileChannel channel,
+            DownloadState state, File stateFile) throws InterruptedException, IOException {
+
+        final Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = state.nextMissing(); i < state.chunkCount(); i = state.nextMissing(i + 1)) {
+            queue.add(i);
+        }
+        final AtomicReference<DownloadResult> failure = new AtomicReference<>();
+        final int workers = Math.min(threadsPerVariable, queue.size());
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> {
+                Integer idx;
+                while (failure.get()==null && (idx = queue.poll())!=null) {
+                    final long start = idx * state.chunkSize;
+                    RangeResponse r = client.request(channel, start, start + state.chunkSize - 1, state.etag);
+                    if (r.statusCode==HttpServletResponse.SC_OK) {
+                        failure.compareAndSet(null, new DownloadResult(Status.transmitting_error, "#812.070 Data was changed on server"));
+                    }
+                    else if (r.statusCode!=HttpServletResponse.SC_PARTIAL_CONTENT) {
+                        failure.compareAndSet(null, toResult(r.statusCode, true));
+                    }
+                    else if (r.start!=start || r.length!=state.length || r.written!=state.chunkLength(idx)) {
+                        failure.compareAndSet(null, new DownloadResult(Status.transmitting_error, "#812.080 Wrong range was received, expected start: " + start + ", actual: " + r));
+                    }
+                    else if (state.markDone(idx)) {
+                        state.checkpoint(channel, stateFile);
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
+                    }
+                    throw new IllegalStateException("#812.090 Error while downloading", cause);
+                }
+            }
+        }
+        finally {
+            // chunks which were downloaded after the last checkpoint won't be requested again at resuming
+            try {
+                state.checkpoint(channel, stateFile);
+            } catch (IOException e) {
+                log.warn("#812.095 Error while storing state of downloading {}, error: {}", stateFile.getPath(), e.toString());
+            }
+        }
+        return failure.get();
+    }
+
+    private static DownloadResult reset(File partFile, File stateFile, @Nullable String error) {
+        log.warn(error);
+        partFile.delete();
+        stateFile.delete();
+        return new DownloadResult(Status.transmitting_error, error);
+    }
+
+    /**
+     * @param started true if data was already received from this endpoint
+     */
+    private static DownloadResult toResult(int statusCode, boolean started) {
+        switch (statusCode) {
+            case HttpServletResponse.SC_NO_CONTENT:
+                return new DownloadResult(Status.no_content);
+            case HttpServletResponse.SC_NOT_FOUND:
+                // only an old dispatcher doesn't have the endpoint for ranged requests at all,
+                // 404 after some data was received means that the resource isn't available anymore
+                return started
+                        ? new DownloadResult(Status.not_found, "#812.105 Resource wasn't found while downloading")
+                        : new DownloadResult(Status.not_supported);
+            case HttpServletResponse.SC_GONE:
+                return new DownloadResult(Status.not_found);
+            case HttpServletResponse.SC_BAD_GATEWAY:
+            case HttpServletResponse.SC_SERVICE_UNAVAILABLE:
+            case HttpServletResponse.SC_GATEWAY_TIMEOUT:
+                return new DownloadResult(Status.retry_later, "#812.100 Server is unavailable, status code: " + statusCode);
+            case HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE:
+                return new DownloadResult(Status.transmitting_error, "#812.110 Range not satisfiable");
+            default:
+                return new DownloadResult(Status.error, "#812.120 Unexpected status code: " + statusCode);
+        }
+    }
+
+    @ToString
+    private static class RangeResponse {
+        int statusCode;
+        long start = 0;
+        // length of the whole content, -1 if unknown
+        long length = -1;
+        long written = 0;
+        @Nullable
+        String etag;
+        @Nullable
+        String checksum;
+    }
+
+    @AllArgsConstructor
+    private static class RangeClient {
+        final Executor httpExecutor;
+        final URI uri;
+        final Semaphore semaphore;
+
+        RangeResponse request(FileChannel channel, long start, long end, @Nullable String etag) throws IOException, InterruptedException {
+            final Request request = Request.Get(uri).connectTimeout(5000).socketTimeout(20000);
+            RestUtils.addHeaders(request);
+            request.addHeader(HttpHeaders.RANGE, "bytes=" + start + '-' + end);
+            if (etag!=null) {
+                request.addHeader(HttpHeaders.IF_RANGE, etag);
+            }
+            semaphore.acquire();
+            try {
+                return httpExecutor.execute(request).handleResponse(response -> processResponse(response, channel));
+            }
+            finally {
+                semaphore.release();
+            }
+        }
+
+        private static RangeResponse processResponse(HttpResponse response, FileChannel channel) throws IOException {
+            RangeResponse r = new RangeResponse();
+            r.statusCode = response.getStatusLine().getStatusCode();
+            r.etag = getHeader(response, HttpHeaders.ETAG);
+            r.checksum = getHeader(response, Consts.HEADER_MH_CONTENT_SHA256);
+            final HttpEntity entity = response.getEntity();
+            if (r.statusCode==HttpServletResponse.SC_PARTIAL_CONTENT) {
+                long[] range = parseContentRange(getHeader(response, HttpHeaders.CONTENT_RANGE));
+                if (range==null) {
+                    throw new IOException("#812.130 Wrong header Content-Range: " + getHeader(response, HttpHeaders.CONTENT_RANGE));
+                }
+                r.start = range[0];
+                r.length = range[2];
+                if (entity!=null) {
+                    r.written = write(entity.getContent(), channel, r.start, range[1] - range[0] + 1);
+                }
+            }
+            else if (r.statusCode==HttpServletResponse.SC_OK) {
+                if (entity!=null) {
+                    r.length = entity.getContentLength();
+                    r.written = write(entity.getContent(), channel, 0, Long.MAX_VALUE);
+                }
+            }
+            return r;
+        }
+    }
+
+    /**
+     * @return [start, end, length] or null if header is malformed. length is -1 if unknown.
+     */
+    @Nullable
+    static long[] parseContentRange(@Nullable String header) {
+        // bytes 0-499/1234
+        if (header==null || !header.startsWith("bytes ")) {
+            return null;
+        }
+        int dash = header.indexOf('-');
+        int slash = header.indexOf('/');
+        if (dash==-1 || slash==-1 || dash>slash) {
+            return null;
+        }
+        try {
+            long start = Long.parseLong(header.substring(6, dash).strip());
+            long end = Long.parseLong(header.substring(dash + 1, slash).strip());
+            String len = header.substring(slash + 1).strip();
+            long length = "*".equals(len) ? -1 : Long.parseLong(len);
+            return start>end ? null : new long[]{start, end, length};
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long write(InputStream is, FileChannel channel, long position, long maxBytes) throws IOException {
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long total = 0;
+        try (is) {
+            int read;
+            while (total < maxBytes && (read = is.read(bytes, 0, (int) Math.min(bytes.length, maxBytes - total))) != -1) {
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    total += channel.write(buffer, position + total);
+                }
+            }
+        }
+        return total;
+    }
+
+    @Nullable
+    private static String getHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header==null ? null : header.getValue();
+    }
+
+    /**
+     * State of downloading which is stored in file with extension .chunks
+     */
+    static class DownloadState {
+        final long length;
+        final long chunkSize;
+        @Nullable
+        final String etag;
+        @Nullable
+        final String checksum;
+        final BitSet done;
+        // bytes which were downloaded after the last checkpoint
+        private long notStored = 0;
+
+        DownloadState(long length, long chunkSize, @Nullable String etag, @Nullable String checksum, BitSet done) {
+            this.length = length;
+            this.chunkSize = chunkSize;
+            this.etag = etag;
+            this.checksum = checksum;
+            this.done = done;
+        }
+
+        int chunkCount() {
+            return (int) ((length + chunkSize - 1) / chunkSize);
+        }
+
+        long chunkLength(int idx) {
+            return Math.min(chunkSize, length - idx * chunkSize);
+        }
+
+        synchronized int nextMissing() {
+            return done.nextClearBit(0);
+        }
+
+        synchronized int nextMissing(int from) {
+            return done.nextClearBit(from);
+        }
+
+        synchronized boolean isComplete() {
+            return done.nextClearBit(0) >= chunkCount();
+        }
+
+        /**
+         * @return true if it's time for checkpoint
+         */
+        synchronized boolean markDone(int idx) {
+            done.set(idx);
+            notStored += chunkLength(idx);
+            return notStored >= CHECKPOINT_BYTES;
+        }
+
+        /**
+         * data is forced to disk before storing of bitmap, so the bitmap never contains chunks which could be lost
+         */
+        synchronized void checkpoint(FileChannel channel, File stateFile) throws IOException {
+            channel.force(false);
+            save(stateFile);
+            notStored = 0;
+        }
+
+        synchronized void save(File stateFile) throws IOException {
+            File tempFile = new File(stateFile.getAbsolutePath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeByte(STATE_FORMAT_VERSION);
+                out.writeLong(length);
+                out.writeLong(chunkSize);
+                out.writeUTF(etag==null ? "" : etag);
+                out.writeUTF(checksum==null ? "" : checksum);
+                long[] words = done.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+            Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Nullable
+        static DownloadState load(File stateFile) {
+            if (!stateFile.exists()) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+                if (in.readByte()!=STATE_FORMAT_VERSION) {
+                    return null;
+                }
+                long length = in.readLong();
+                long chunkSize = in.readLong();
+                String etag = in.readUTF();
+                String checksum = in.readUTF();
+                long[] words = new long[in.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.readLong();
+                }
+                return new DownloadState(length, chunkSize, etag.isEmpty() ? null : etag, checksum.isEmpty() ? null : checksum, BitSet.valueOf(words));
+            }
+            catch (IOException e) {
+                log.warn("#812.140 State of downloading {} is broken and will be ignored, error: {}", stateFile.getPath(), e.toString());
+                return null;
+            }
+        }
+    }
+}
@@ -18,7 +18,9 @@ package ai.metaheuristic.ai.processor.actors;
 import ai.metaheuristic.ai.Consts;
 import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.data.DispatcherData;
 import ai.metaheuristic.ai.dispatcher.southbridge.UploadResult;
+import ai.metaheuristic.ai.processor.DispatcherContextInfoHolder;
 import ai.metaheuristic.ai.processor.ProcessorTaskService;
 import ai.metaheuristic.ai.processor.net.HttpClientExecutor;
 import ai.metaheuristic.ai.processor.tasks.UploadVariableTask;
@@ -80,6 +82,7 @@ public class UploadVariableService extends AbstractTaskQueue<UploadVariableTask>
 
     private final Globals globals;
     private final ProcessorTaskService processorTaskService;
+    private final ChunkUploadService chunkUploadService;
 
     private static UploadResult fromJson(String json) {
         try {
@@ -151,30 +154,17 @@ public class UploadVariableService extends AbstractTaskQueue<UploadVariableTask>
                 String randonPart = '/' + UUID.randomUUID().toString().substring(0, 8) + '-' + task.ref.processorId + '-' + task.taskId;
                 final String uri = uploadRestUrl + randonPart;
 
-                final MultipartEntityBuilder builder = MultipartEntityBuilder.create()
-                        .setMode(HttpMultipartMode.RFC6532)
-                        .setCharset(StandardCharsets.UTF_8)
-                        .addTextBody("processorId", task.ref.processorId)
-                        .addTextBody("taskId", Long.toString(task.taskId))
-                        .addTextBody("variableId", Long.toString(task.variableId))
-                        .addTextBody("nullified", String.valueOf(task.nullified));
-
-                if (!task.nullified) {
-                    if (task.file==null) {
-                        // TODO 2020-11-26 in case that ai.metaheuristic.ai.processor.tasks.UploadVariableTask.file is @Nullable
-                        //  what is the problem with this state? Should we handle this state in more sophisticated way?
-                        throw new IllegalStateException("#311.043 (task.file==null)");
+                UploadResult result = null;
+                if (!task.nullified && task.file!=null && chunkUploadService.isSupported(task.getDispatcherUrl().url)) {
+                    DispatcherData.DispatcherContextInfo contextInfo = DispatcherContextInfoHolder.getCtx(task.getDispatcherUrl());
+                    if (contextInfo!=null && contextInfo.chunkSize!=null) {
+                        log.info("Start uploading a variable with chunks, {}", randonPart);
+                        result = chunkUploadService.upload(task.getDispatcherUrl().url, executor, randonPart, task.taskId, task.variableId, task.file, contextInfo.chunkSize);
                     }
-                    builder.addBinaryBody("file", task.file, ContentType.APPLICATION_OCTET_STREAM, task.file.getName());
                 }
-                HttpEntity entity = builder.build();
-
-                Request request = Request.Post(uri).connectTimeout(5000).socketTimeout(20000).body(entity);
-
-                log.info("Start uploading a variable to rest-server, {}", randonPart);
-                Response response = executor.execute(request);
-                String json = response.returnContent().asString();
-                UploadResult result = fromJson(json);
+                if (result==null) {
+                    result = uploadWithMultipart(task, executor, uri, randonPart);
+                }
                 log.info("Server response: {}", result);
 
                 if (result.status!= Enums.UploadVariableStatus.OK) {
@@ -246,6 +236,33 @@ public class UploadVariableService extends AbstractTaskQueue<UploadVariableTask>
         }
     }
 
+    private static UploadResult uploadWithMultipart(UploadVariableTask task, Executor executor, String uri, String randonPart) throws IOException {
+        final MultipartEntityBuilder builder = MultipartEntityBuilder.create()
+                .setMode(HttpMultipartMode.RFC6532)
+                .setCharset(StandardCharsets.UTF_8)
+                .addTextBody("processorId", task.ref.processorId)
+                .addTextBody("taskId", Long.toString(task.taskId))
+                .addTextBody("variableId", Long.toString(task.variableId))
+                .addTextBody("nullified", String.valueOf(task.nullified));
+
+        if (!task.nullified) {
+            if (task.file==null) {
+                // TODO 2020-11-26 in case that ai.metaheuristic.ai.processor.tasks.UploadVariableTask.file is @Nullable
+                //  what is the problem with this state? Should we handle this state in more sophisticated way?
+                throw new IllegalStateException("#311.043 (task.file==null)");
+            }
+            builder.addBinaryBody("file", task.file, ContentType.APPLICATION_OCTET_STREAM, task.file.getName());
+        }
+        HttpEntity entity = builder.build();
+
+        Request request = Request.Post(uri).connectTimeout(5000).socketTimeout(20000).body(entity);
+
+        log.info("Start uploading a variable to rest-server, {}", randonPart);
+        Response response = executor.execute(request);
+        String json = response.returnContent().asString();
+        return fromJson(json);
+    }
+
     private static boolean isVariableReadyForUploading(String dispatcherUrl, Long variableId, Executor executor) {
         final String variableStatusRestUrl = dispatcherUrl + CommonConsts.REST_V1_URL + Consts.VARIABLE_STATUS_REST_URL;
 
@@ -31,6 +31,9 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Slf4j
@@ -44,6 +47,9 @@ public class EnvService {
     private String env;
     private EnvParamsYaml envYaml;
 
+    // permits for concurrent execution of functions with specific env, shared by all processors
+    private final Map<String, Semaphore> envPermits = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init() {
         if (!globals.processorEnabled) {
@@ -80,6 +86,7 @@ public class EnvService {
             log.error("#747.060 env.yaml wasn't found or empty. path: {}{}env.yaml", globals.processorDir, File.separatorChar );
             throw new IllegalStateException("#747.062 Processor isn't configured, env.yaml is empty or doesn't exist");
         }
+        envYaml.envSlots.forEach((code, slots) -> envPermits.put(code, new Semaphore(Math.max(1, slots))));
     }
 
     public String getEnv() {
@@ -105,6 +112,27 @@ public class EnvService {
         }
     }
 
+    /**
+     * @return max number of tasks which can be executed concurrently by processor
+     */
+    public int getSlots(String processorCode) {
+        synchronized (this) {
+            if (envYaml==null) {
+                return 1;
+            }
+            Integer slots = envYaml.processors.stream().filter(o->o.code.equals(processorCode)).findFirst().map(o->o.slots).orElse(null);
+            return slots==null || slots<1 ? 1 : slots;
+        }
+    }
+
+    /**
+     * @return permits for functions with specified env or null if concurrent execution of such functions isn't limited
+     */
+    @Nullable
+    public Semaphore getEnvPermits(@Nullable String env) {
+        return env==null ? null : envPermits.get(env);
+    }
+
     // TODO 2020-12-30 no need it any more. leave it here in case we need to restore hot deploy
 /*
     public void monitorHotDeployDir() {
@@ -19,6 +19,7 @@ package ai.metaheuristic.ai.processor.sourcing.git;
 import ai.metaheuristic.ai.Enums;
 import ai.metaheuristic.ai.Globals;
 import ai.metaheuristic.ai.core.SystemProcessLauncher;
+import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
 import ai.metaheuristic.ai.utils.asset.AssetFile;
 import ai.metaheuristic.ai.processor.env.EnvService;
 import ai.metaheuristic.api.EnumsApi;
@@ -35,6 +36,7 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Service
 @Slf4j
@@ -45,6 +47,9 @@ public class GitSourcingService {
     private static final String GIT_VERSION_PREFIX = "git version";
     private static final String GIT_PREFIX = "git";
 
+    // tasks are executed concurrently, so the same repo of function must not be cloned or reset at the same time
+    private static final CommonSync<String> commonSync = new CommonSync<>("gitSourcing");
+
     private final EnvService envService;
     private final Globals globals;
 
@@ -151,6 +156,16 @@ public class GitSourcingService {
     }
 
     public GitExecResult prepareFunction(final File resourceDir, TaskParamsYaml.FunctionConfig functionConfig) {
+        final ReentrantReadWriteLock.WriteLock lock = commonSync.getWriteLock(functionConfig.code);
+        try {
+            lock.lock();
+            return prepareFunctionInternal(resourceDir, functionConfig);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private GitExecResult prepareFunctionInternal(final File resourceDir, TaskParamsYaml.FunctionConfig functionConfig) {
 
         log.info("#027.050 Start preparing function dir");
         AssetFile assetFile = prepareFunctionDir(resourceDir, functionConfig.code);
@@ -16,9 +16,13 @@
 
 package ai.metaheuristic.ai.processor.utils;
 
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
 import org.apache.http.client.HttpClient;
 import org.apache.http.config.SocketConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
 import java.time.Duration;
@@ -33,24 +37,55 @@ import static org.apache.http.client.config.RequestConfig.custom;
 public class DispatcherUtils {
 
     public static HttpComponentsClientHttpRequestFactory getHttpRequestFactory() {
+        return getHttpRequestFactory(Duration.ofSeconds(5));
+    }
+
+    public static HttpComponentsClientHttpRequestFactory getHttpRequestFactory(Duration readTimeout) {
         // https://github.com/spring-projects/spring-boot/issues/11379
         // https://issues.apache.org/jira/browse/HTTPCLIENT-1892
         // https://github.com/spring-projects/spring-framework/issues/21238
 
-        SocketConfig socketConfig = SocketConfig.custom().setSoTimeout((int) Duration.ofSeconds(5).toMillis()).build();
+        SocketConfig socketConfig = SocketConfig.custom().setSoTimeout((int) readTimeout.toMillis()).build();
 
         final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
         clientBuilder.setDefaultSocketConfig(socketConfig);
         clientBuilder.useSystemProperties();
         clientBuilder.setDefaultRequestConfig(custom().setConnectTimeout((int) Duration.ofSeconds(5).toMillis())
-                .setSocketTimeout((int) Duration.ofSeconds(5).toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
                 .build());
         final HttpClient httpClient = clientBuilder.build();
 
         final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
         requestFactory.setConnectTimeout((int) Duration.ofSeconds(5).toMillis());
-        requestFactory.setReadTimeout((int) Duration.ofSeconds(5).toMillis());
+        requestFactory.setReadTimeout((int) readTimeout.toMillis());
         return requestFactory;
     }
 
+    /**
+     * format of body of dispatcher's response
+     */
+    public static Enums.CommFormat getResponseFormat(ResponseEntity<String> response) {
+        return Enums.CommFormat.from(response.getHeaders().getFirst(Consts.HEADER_MH_COMM_FORMAT));
+    }
+
+    /**
+     * format which will be used for next requests to this dispatcher
+     */
+    public static Enums.CommFormat getSupportedFormat(ResponseEntity<String> response) {
+        String formats = response.getHeaders().getFirst(Consts.HEADER_MH_COMM_FORMATS);
+        return formats!=null && formats.contains(Enums.CommFormat.json.toString()) ? Enums.CommFormat.json : Enums.CommFormat.yaml;
+    }
+
+    /**
+     * dispatcher supports long-poll requests for new tasks
+     */
+    public static boolean isLongPollSupported(ResponseEntity<String> response) {
+        return "true".equals(response.getHeaders().getFirst(Consts.HEADER_MH_LONG_POLL));
+    }
+
+    public static void setCommFormat(HttpHeaders headers, Enums.CommFormat format) {
+        if (format==Enums.CommFormat.json) {
+            headers.set(Consts.HEADER_MH_COMM_FORMAT, format.toString());
+        }
+    }
 }
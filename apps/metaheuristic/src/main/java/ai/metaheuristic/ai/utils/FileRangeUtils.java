@@ -0,0 +1,135 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.utils;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sending of a file or of a single byte range of file, as described in RFC 7233
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 10:40 PM
+ */
+public class FileRangeUtils {
+
+    // attributes of Tomcat for sending of files with sendfile(), https://tomcat.apache.org/tomcat-9.0-doc/aio.html
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_FILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * ETag doesn't depend on time of modification of file, so a file which was evicted from cache and was created again
+     * has the same ETag and downloading of it can be resumed.
+     *
+     * @param checksum checksum of content of file, if it's known. Otherwise the name of file must contain the version of data
+     */
+    public static String getETag(File file, @Nullable String checksum) {
+        return checksum!=null ? "\"" + checksum + "\"" : "\"" + file.getName() + '-' + file.length() + "\"";
+    }
+
+    public static void send(HttpServletRequest request, HttpServletResponse response, File file) throws IOException {
+        send(request, response, file, true, null);
+    }
+
+    /**
+     * @param useSendfile false if the file can be deleted right after returning from this method
+     * @param checksum checksum of content of file which is used as ETag, if it's known
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response, File file, boolean useSendfile, @Nullable String checksum) throws IOException {
+        final long length = file.length();
+        final String etag = getETag(file, checksum);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = getRange(request, etag);
+        if (range!=null && length>0) {
+            start = range.getRangeStart(length);
+            if (start >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + length);
+        }
+        final long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count==0) {
+            return;
+        }
+
+        // zero-copy sending by servlet container
+        if (useSendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_FILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_FILE_END_ATTR, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * @return null if the whole file must be sent.
+     * Only a single range is supported, for multiple ranges the whole file will be sent which is allowed by RFC 7233
+     */
+    @Nullable
+    private static HttpRange getRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader==null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange!=null && !ifRange.equals(etag)) {
+            // file was changed, so the whole new file will be sent
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size()==1 ? ranges.get(0) : null;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
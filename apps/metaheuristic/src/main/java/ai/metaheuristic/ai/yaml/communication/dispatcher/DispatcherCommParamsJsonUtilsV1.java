@@ -0,0 +1,83 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml.communication.dispatcher;
+
+import ai.metaheuristic.commons.exceptions.ParamsProcessingException;
+import ai.metaheuristic.commons.json.versioning_json.AbstractParamsJsonUtils;
+import ai.metaheuristic.commons.json.versioning_json.BaseJsonUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.lang.NonNull;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 8:30 PM
+ */
+public class DispatcherCommParamsJsonUtilsV1
+        extends AbstractParamsJsonUtils<DispatcherCommParamsYamlV1, DispatcherCommParamsYaml, Void, Void, Void, Void> {
+
+    private static final DispatcherCommParamsYamlUtilsV1 YAML_UTILS_V_1 = new DispatcherCommParamsYamlUtilsV1();
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NonNull
+    @Override
+    public DispatcherCommParamsYaml upgradeTo(@NonNull DispatcherCommParamsYamlV1 src) {
+        return YAML_UTILS_V_1.upgradeTo(src);
+    }
+
+    @NonNull
+    @Override
+    public Void downgradeTo(@NonNull Void yaml) {
+        return null;
+    }
+
+    @Override
+    public Void nextUtil() {
+        return null;
+    }
+
+    @Override
+    public Void prevUtil() {
+        return null;
+    }
+
+    @Override
+    public String toString(@NonNull DispatcherCommParamsYamlV1 json) {
+        try {
+            return BaseJsonUtils.getCompactMapper().writeValueAsString(json);
+        }
+        catch (JsonProcessingException e) {
+            throw new ParamsProcessingException("Error: " + e.getMessage(), e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public DispatcherCommParamsYamlV1 to(@NonNull String s) {
+        try {
+            return BaseJsonUtils.getCompactMapper().readValue(s, DispatcherCommParamsYamlV1.class);
+        }
+        catch (JsonProcessingException e) {
+            throw new ParamsProcessingException("Error: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -122,6 +122,9 @@ public class DispatcherCommParamsYaml implements BaseParams {
         public @Nullable ReportResultDelivering reportResultDelivering;
         public @Nullable ResendTaskOutputs resendTaskOutputs;
 
+        // is used instead of assignedTask when processor requested several tasks
+        public @Nullable List<AssignedTask> assignedTasks;
+
         public DispatcherResponse(String processorCode) {
             this.processorCode = processorCode;
         }
@@ -59,6 +59,11 @@ public class DispatcherCommParamsYamlUtilsV1 extends
                 r.assignedTask = new DispatcherCommParamsYaml.AssignedTask();
                 BeanUtils.copyProperties(response.assignedTask, r.assignedTask);
             }
+            if (response.assignedTasks!=null) {
+                r.assignedTasks = response.assignedTasks.stream()
+                        .map(o -> new DispatcherCommParamsYaml.AssignedTask(o.params, o.taskId, o.execContextId, o.state))
+                        .collect(Collectors.toList());
+            }
             if (response.assignedProcessorId !=null) {
                 r.assignedProcessorId = new DispatcherCommParamsYaml.AssignedProcessorId(response.assignedProcessorId.assignedProcessorId, response.assignedProcessorId.assignedSessionId);
             }
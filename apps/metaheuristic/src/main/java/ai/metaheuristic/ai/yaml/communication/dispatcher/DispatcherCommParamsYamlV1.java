@@ -112,6 +112,10 @@ public class DispatcherCommParamsYamlV1 implements BaseParams {
         @Nullable
         public ResendTaskOutputsV1 resendTaskOutputs;
 
+        // is used instead of assignedTask when processor requested several tasks
+        @Nullable
+        public List<AssignedTaskV1> assignedTasks;
+
         public DispatcherResponseV1(String processorCode) {
             this.processorCode = processorCode;
         }
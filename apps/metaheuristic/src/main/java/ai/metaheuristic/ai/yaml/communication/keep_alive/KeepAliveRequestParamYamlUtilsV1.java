@@ -61,6 +61,7 @@ public class KeepAliveRequestParamYamlUtilsV1 extends
                 BeanUtils.copyProperties(v1.processor, r.processor);
                 if (v1.processor.env!=null) {
                     r.processor.env = new KeepAliveRequestParamYaml.Env(v1.processor.env.tags);
+                    r.processor.env.slots = v1.processor.env.slots;
                     r.processor.env.mirrors.putAll(v1.processor.env.mirrors);
                     r.processor.env.envs.putAll(v1.processor.env.envs);
                     v1.processor.env.disk.stream().map(o->new KeepAliveRequestParamYaml.DiskStorage(o.code, o.path)).collect(Collectors.toCollection(() -> r.processor.env.disk));
@@ -66,6 +66,14 @@ public class KeepAliveRequestParamYamlV1 implements BaseParams {
         @Nullable
         public String tags;
 
+        // max number of tasks which can be executed concurrently, null is the same as 1
+        @Nullable
+        public Integer slots;
+
+        public EnvV1(@Nullable String tags) {
+            this.tags = tags;
+        }
+
     }
 
     @Data
@@ -0,0 +1,40 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml.communication.keep_alive;
+
+import ai.metaheuristic.commons.json.versioning_json.BaseJsonUtils;
+
+import java.util.Map;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 8:30 PM
+ */
+public class KeepAliveResponseParamJsonUtils {
+
+    private static final KeepAliveResponseParamJsonUtilsV1 UTILS_V_1 = new KeepAliveResponseParamJsonUtilsV1();
+    private static final KeepAliveResponseParamJsonUtilsV1 DEFAULT_UTILS = UTILS_V_1;
+
+    public static final BaseJsonUtils<KeepAliveResponseParamYaml> BASE_UTILS = new BaseJsonUtils<>(
+            Map.of(
+                    1, UTILS_V_1
+            ),
+            DEFAULT_UTILS,
+            BaseJsonUtils.getCompactMapper()
+    );
+}
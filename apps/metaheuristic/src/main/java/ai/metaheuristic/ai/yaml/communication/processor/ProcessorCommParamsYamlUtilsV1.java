@@ -61,7 +61,7 @@ public class ProcessorCommParamsYamlUtilsV1
                 t.requestProcessorId = new ProcessorCommParamsYaml.RequestProcessorId(true);
             }
             if (v1.requestTask!=null) {
-                t.requestTask = new ProcessorCommParamsYaml.RequestTask(v1.requestTask.newTask, v1.requestTask.acceptOnlySigned);
+                t.requestTask = new ProcessorCommParamsYaml.RequestTask(v1.requestTask.newTask, v1.requestTask.acceptOnlySigned, v1.requestTask.freeSlots);
             }
             if (v1.reportTaskProcessingResult!=null) {
                 t.reportTaskProcessingResult = new ProcessorCommParamsYaml.ReportTaskProcessingResult();
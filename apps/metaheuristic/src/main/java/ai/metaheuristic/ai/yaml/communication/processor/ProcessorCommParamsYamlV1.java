@@ -83,6 +83,15 @@ public class ProcessorCommParamsYamlV1 implements BaseParams {
         @Nullable
         public Boolean newTask;
         public boolean acceptOnlySigned;
+
+        // number of tasks which processor can execute right now, null is the same as 1
+        @Nullable
+        public Integer freeSlots;
+
+        public RequestTaskV1(@Nullable Boolean newTask, boolean acceptOnlySigned) {
+            this.newTask = newTask;
+            this.acceptOnlySigned = acceptOnlySigned;
+        }
     }
 
     @Data
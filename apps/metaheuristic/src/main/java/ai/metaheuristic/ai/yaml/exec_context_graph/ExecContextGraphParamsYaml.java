@@ -16,7 +16,6 @@
 
 package ai.metaheuristic.ai.yaml.exec_context_graph;
 
-import ai.metaheuristic.api.ConstsApi;
 import ai.metaheuristic.api.data.BaseParams;
 import lombok.Data;
 
@@ -28,14 +27,16 @@ import lombok.Data;
 @Data
 public class ExecContextGraphParamsYaml implements BaseParams {
 
-    public final int version = 1;
+    public final int version = 2;
 
     @Override
     public boolean checkIntegrity() {
         return true;
     }
 
-    // this is a graph of processes for runtime phase
-    public String graph = ConstsApi.EMPTY_GRAPH;
+    // this is a graph of processes for runtime phase, encoded with ExecContextGraphCodec.
+    // A graph which was upgraded from v1 is in DOT format until the next change of graph,
+    // otherwise DOT representation is produced only for export
+    public String graph = "";
 
 }
@@ -28,7 +28,7 @@ import org.yaml.snakeyaml.Yaml;
  */
 public class ExecContextGraphParamsYamlUtilsV1
         extends AbstractParamsYamlUtils<
-        ExecContextGraphParamsYamlV1, ExecContextGraphParamsYaml, Void,
+        ExecContextGraphParamsYamlV1, ExecContextGraphParamsYamlV2, ExecContextGraphParamsYamlUtilsV2,
         Void, Void, Void> {
 
     @Override
@@ -44,8 +44,9 @@ public class ExecContextGraphParamsYamlUtilsV1
 
     @NonNull
     @Override
-    public ExecContextGraphParamsYaml upgradeTo(@NonNull ExecContextGraphParamsYamlV1 v1) {
-        ExecContextGraphParamsYaml t = new ExecContextGraphParamsYaml();
+    public ExecContextGraphParamsYamlV2 upgradeTo(@NonNull ExecContextGraphParamsYamlV1 v1) {
+        ExecContextGraphParamsYamlV2 t = new ExecContextGraphParamsYamlV2();
+        // the graph is kept in DOT format, it will be decoded by dispatcher and stored in binary form at the next change of graph
         t.graph = v1.graph;
         return t;
     }
@@ -57,8 +58,8 @@ public class ExecContextGraphParamsYamlUtilsV1
     }
 
     @Override
-    public Void nextUtil() {
-        return null;
+    public ExecContextGraphParamsYamlUtilsV2 nextUtil() {
+        return (ExecContextGraphParamsYamlUtilsV2) ExecContextGraphParamsYamlUtils.BASE_YAML_UTILS.getForVersion(2);
     }
 
     @Override
@@ -0,0 +1,80 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml.exec_context_graph;
+
+import ai.metaheuristic.commons.yaml.YamlUtils;
+import ai.metaheuristic.commons.yaml.versioning.AbstractParamsYamlUtils;
+import org.springframework.lang.NonNull;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 4:42 PM
+ */
+public class ExecContextGraphParamsYamlUtilsV2
+        extends AbstractParamsYamlUtils<
+        ExecContextGraphParamsYamlV2, ExecContextGraphParamsYaml, Void,
+        Void, Void, Void> {
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NonNull
+    @Override
+    public Yaml getYaml() {
+        return YamlUtils.init(ExecContextGraphParamsYamlV2.class);
+    }
+
+    @NonNull
+    @Override
+    public ExecContextGraphParamsYaml upgradeTo(@NonNull ExecContextGraphParamsYamlV2 v2) {
+        ExecContextGraphParamsYaml t = new ExecContextGraphParamsYaml();
+        t.graph = v2.graph;
+        return t;
+    }
+
+    @NonNull
+    @Override
+    public Void downgradeTo(@NonNull Void yaml) {
+        return null;
+    }
+
+    @Override
+    public Void nextUtil() {
+        return null;
+    }
+
+    @Override
+    public Void prevUtil() {
+        return null;
+    }
+
+    @Override
+    public String toString(@NonNull ExecContextGraphParamsYamlV2 yaml) {
+        return getYaml().dump(yaml);
+    }
+
+    @NonNull
+    @Override
+    public ExecContextGraphParamsYamlV2 to(@NonNull String s) {
+        final ExecContextGraphParamsYamlV2 p = getYaml().load(s);
+        return p;
+    }
+}
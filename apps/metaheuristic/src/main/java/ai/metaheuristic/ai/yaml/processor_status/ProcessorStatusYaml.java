@@ -79,6 +79,14 @@ public class ProcessorStatusYaml implements BaseParams {
 
         @Nullable
         public String tags;
+
+        // max number of tasks which can be executed concurrently, null is the same as 1
+        @Nullable
+        public Integer slots;
+
+        public Env(@Nullable String tags) {
+            this.tags = tags;
+        }
     }
 
     public List<DownloadStatus> downloadStatuses = new ArrayList<>();
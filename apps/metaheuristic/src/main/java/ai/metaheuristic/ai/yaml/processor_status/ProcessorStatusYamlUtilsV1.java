@@ -56,6 +56,7 @@ public class ProcessorStatusYamlUtilsV1
         if (src.env!=null) {
             trg.env = new ProcessorStatusYaml.Env();
             trg.env.tags = src.env.tags;
+            trg.env.slots = src.env.slots;
 
             if (!src.env.envs.isEmpty()) {
                 final Map<String, String> envMap = src.env.envs.entrySet().stream()
@@ -81,6 +81,14 @@ public class ProcessorStatusYamlV1 implements BaseParams {
         @Nullable
         public String tags;
 
+        // max number of tasks which can be executed concurrently, null is the same as 1
+        @Nullable
+        public Integer slots;
+
+        public EnvV1(@Nullable String tags) {
+            this.tags = tags;
+        }
+
     }
 
     public List<DownloadStatusV1> downloadStatuses = new ArrayList<>();
@@ -42,6 +42,7 @@ CREATE TABLE mh_cache_variable
     VARIABLE_NAME       VARCHAR(250) NOT NULL,
     CREATED_ON          bigint not null,
     DATA                LONGBLOB,
+    STORAGE_REF         VARCHAR(100),
     IS_NULLIFIED        BOOLEAN not null default false
 );
 
@@ -169,6 +170,9 @@ CREATE TABLE mh_variable
     EXEC_CONTEXT_ID NUMERIC(10, 0)  not null,
     UPLOAD_TS       TIMESTAMP       NOT NULL ON UPDATE CURRENT_TIMESTAMP,
     DATA            LONGBLOB,
+    STORAGE_REF     VARCHAR(100),
+    CONTENT_SHA256  VARCHAR(64),
+    CONTENT_LENGTH  BIGINT,
     FILENAME        VARCHAR(150),
     PARAMS          MEDIUMTEXT      not null
 );
@@ -190,7 +194,10 @@ CREATE TABLE mh_variable_global
     VERSION     NUMERIC(5, 0)   NOT NULL,
     NAME        VARCHAR(250)    not null,
     UPLOAD_TS   TIMESTAMP       NOT NULL ON UPDATE CURRENT_TIMESTAMP,
-    DATA        LONGBLOB        NOT NULL,
+    DATA        LONGBLOB,
+    STORAGE_REF VARCHAR(100),
+    CONTENT_SHA256 VARCHAR(64),
+    CONTENT_LENGTH BIGINT,
     FILENAME    VARCHAR(150),
     PARAMS      MEDIUMTEXT      not null
 );
@@ -205,6 +212,7 @@ CREATE TABLE mh_function_data
     FUNCTION_CODE    VARCHAR(100)   not null,
     UPLOAD_TS       TIMESTAMP       NOT NULL ON UPDATE CURRENT_TIMESTAMP,
     DATA            LONGBLOB,
+    STORAGE_REF     VARCHAR(100),
     PARAMS          MEDIUMTEXT      not null
 );
 
@@ -326,6 +334,17 @@ CREATE TABLE mh_exec_context_task_state
     PARAMS              LONGTEXT NOT NULL
 );
 
+CREATE TABLE mh_exec_context_task_state_change
+(
+    ID                          bigint generated by default as identity (start with 1) PRIMARY KEY,
+    EXEC_CONTEXT_TASK_STATE_ID  bigint NOT NULL,
+    TASK_ID                     bigint NOT NULL,
+    EXEC_STATE                  tinyint(1) NOT NULL
+);
+
+CREATE INDEX mh_exec_context_task_state_change_ects_id_idx
+    ON mh_exec_context_task_state_change (EXEC_CONTEXT_TASK_STATE_ID);
+
 CREATE TABLE mh_exec_context_variable_state
 (
     ID                  bigint generated by default as identity (start with 1) PRIMARY KEY,
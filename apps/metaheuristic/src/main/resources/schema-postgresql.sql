@@ -42,6 +42,7 @@ CREATE TABLE mh_cache_variable
     VARIABLE_NAME       VARCHAR(250) NOT NULL,
     CREATED_ON          bigint not null,
     DATA                OID,
+    STORAGE_REF         VARCHAR(100),
     IS_NULLIFIED        BOOLEAN not null default false
 );
 
@@ -152,6 +153,9 @@ CREATE TABLE MH_VARIABLE
   EXEC_CONTEXT_ID   NUMERIC(10, 0) not null,
   UPLOAD_TS         TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   DATA              OID,
+  STORAGE_REF       VARCHAR(100),
+  CONTENT_SHA256    VARCHAR(64),
+  CONTENT_LENGTH    BIGINT,
   FILENAME          VARCHAR(150),
   PARAMS            TEXT not null
 );
@@ -172,7 +176,10 @@ CREATE TABLE MH_VARIABLE_GLOBAL
     VERSION       NUMERIC(5, 0) NOT NULL,
     NAME          VARCHAR(250) not null,
     UPLOAD_TS     TIMESTAMP DEFAULT CURRENT_TIMESTAMP    NOT NULL,
-    DATA          OID           NOT NULL,
+    DATA          OID,
+    STORAGE_REF   VARCHAR(100),
+    CONTENT_SHA256 VARCHAR(64),
+    CONTENT_LENGTH BIGINT,
     FILENAME      VARCHAR(150),
     PARAMS        TEXT not null
 );
@@ -187,6 +194,7 @@ CREATE TABLE MH_FUNCTION_DATA
     FUNCTION_CODE    VARCHAR(100) not null,
     UPLOAD_TS       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     DATA            OID,
+    STORAGE_REF     VARCHAR(100),
     PARAMS          TEXT not null
 );
 
@@ -311,6 +319,17 @@ CREATE TABLE MH_EXEC_CONTEXT_TASK_STATE
     PARAMS            TEXT NOT NULL
 );
 
+CREATE TABLE MH_EXEC_CONTEXT_TASK_STATE_CHANGE
+(
+    ID                          SERIAL PRIMARY KEY,
+    EXEC_CONTEXT_TASK_STATE_ID  NUMERIC(10, 0) NOT NULL,
+    TASK_ID                     NUMERIC(10, 0) NOT NULL,
+    EXEC_STATE                  smallint NOT NULL
+);
+
+CREATE INDEX MH_EXEC_CONTEXT_TASK_STATE_CHANGE_ECTS_ID_IDX
+    ON MH_EXEC_CONTEXT_TASK_STATE_CHANGE (EXEC_CONTEXT_TASK_STATE_ID);
+
 CREATE TABLE MH_EXEC_CONTEXT_VARIABLE_STATE
 (
     ID                SERIAL PRIMARY KEY,
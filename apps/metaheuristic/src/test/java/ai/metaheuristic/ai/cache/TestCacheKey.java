@@ -16,11 +16,17 @@
 
 package ai.metaheuristic.ai.cache;
 
+import ai.metaheuristic.ai.dispatcher.cache.CacheService;
 import ai.metaheuristic.ai.dispatcher.data.CacheData;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
+import ai.metaheuristic.api.data.task.TaskParamsYaml;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -81,6 +87,39 @@ public class TestCacheKey {
         assertEquals(key1.asString(), key2.asString());
     }
 
+    @Test
+    public void test_checksumsAreRequestedOncePerTask() {
+        TaskParamsYaml tpy = new TaskParamsYaml();
+        tpy.task.function = new TaskParamsYaml.FunctionConfig();
+        tpy.task.function.code = "function-01";
+        tpy.task.inputs.add(input(1L, EnumsApi.VariableContext.local));
+        tpy.task.inputs.add(input(3L, EnumsApi.VariableContext.global));
+        tpy.task.inputs.add(input(2L, EnumsApi.VariableContext.local));
+
+        List<List<Long>> requests = new ArrayList<>();
+        CacheData.Key key = CacheService.getKey(tpy, new ExecContextParamsYaml.FunctionDefinition("function-01"),
+                id -> { throw new IllegalStateException("array variables aren't expected"); },
+                ids -> {
+                    requests.add(ids);
+                    return Map.of(1L, new CacheData.Sha256PlusLength("sha256-2", 11L), 2L, new CacheData.Sha256PlusLength("sha256-1", 42L));
+                },
+                ids -> {
+                    requests.add(ids);
+                    return Map.of(3L, new CacheData.Sha256PlusLength("sha256-3", 7L));
+                });
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), requests);
+        assertEquals(List.of("sha256-1", "sha256-2", "sha256-3"), key.inputs.stream().map(o->o.sha256).collect(Collectors.toList()));
+    }
+
+    private static TaskParamsYaml.InputVariable input(Long id, EnumsApi.VariableContext context) {
+        TaskParamsYaml.InputVariable input = new TaskParamsYaml.InputVariable();
+        input.id = id;
+        input.context = context;
+        input.name = "var-" + id;
+        return input;
+    }
+
     public static void main(String[] args) {
         System.out.println(KEY.asString());
     }
@@ -0,0 +1,94 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 7:05 AM
+ */
+public class TestConsoleOutputCapture {
+
+    private static String lines(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append("line #").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testLastLines(@TempDir File tempDir) throws Exception {
+        File log = new File(tempDir, "console.log");
+        String content = lines(0, 100_000) + "  last line without eol  ";
+        try (ConsoleOutputCapture capture = new ConsoleOutputCapture(log, 0, false, 5)) {
+            capture.copy(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(lines(99_996, 100_000) + "last line without eol\n", capture.getLastLines());
+        }
+        assertEquals(content, Files.readString(log.toPath()));
+    }
+
+    @Test
+    public void testLinesAcrossBlocks(@TempDir File tempDir) throws Exception {
+        File log = new File(tempDir, "console.log");
+        byte[] bytes = lines(0, 10).getBytes(StandardCharsets.UTF_8);
+        try (ConsoleOutputCapture capture = new ConsoleOutputCapture(log, 0, false, 3)) {
+            // each line is split between blocks
+            for (int i = 0; i < bytes.length; i += 3) {
+                capture.write(bytes, i, Math.min(3, bytes.length - i));
+            }
+            assertEquals(lines(7, 10), capture.getLastLines());
+        }
+    }
+
+    @Test
+    public void testRotation(@TempDir File tempDir) throws Exception {
+        File log = new File(tempDir, "console.log");
+        // 9 bytes per line, 450 bytes at all
+        byte[] bytes = lines(10, 60).getBytes(StandardCharsets.UTF_8);
+        try (ConsoleOutputCapture capture = new ConsoleOutputCapture(log, 100, true, 2)) {
+            capture.copy(new ByteArrayInputStream(bytes));
+            assertEquals("line #58\nline #59\n", capture.getLastLines());
+        }
+        assertEquals(50, log.length());
+        for (int i = 1; i <= ConsoleOutputCapture.MAX_ROTATED_FILES; i++) {
+            assertTrue(new File(tempDir, "console.log." + i + ".gz").exists());
+        }
+        assertFalse(new File(tempDir, "console.log." + (ConsoleOutputCapture.MAX_ROTATED_FILES + 1) + ".gz").exists());
+
+        // the newest rotated file contains the data right before the current log
+        String prev;
+        try (InputStream is = new GZIPInputStream(new FileInputStream(new File(tempDir, "console.log.1.gz")))) {
+            prev = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        int end = bytes.length - 50;
+        assertEquals(new String(bytes, end - 100, 100, StandardCharsets.UTF_8), prev);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Getting, locking and unlocking of a lock for a random id by 64 threads,
+ * CommonSync vs the previous implementation with a synchronized HashMap.
+ * CommonSync is measured with and without statistics of locks
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 2:50 PM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class CommonSyncBenchmark {
+
+    private static final int IDS = 10_000;
+
+    /**
+     * The previous implementation of CommonSync, without periodic eviction
+     */
+    public static class SynchronizedSync {
+        private final Map<Long, ReentrantReadWriteLock> map = new HashMap<>(100);
+
+        public synchronized ReentrantReadWriteLock getLock(Long id) {
+            return map.computeIfAbsent(id, o -> new ReentrantReadWriteLock());
+        }
+    }
+
+    private final SynchronizedSync synchronizedSync = new SynchronizedSync();
+    private final CommonSync<Long> commonSync = new CommonSync<>("benchmark");
+
+    @Param({"false", "true"})
+    public boolean statistics;
+
+    @Setup
+    public void setup() {
+        CommonSync.setStatisticsEnabled(statistics);
+    }
+
+    @Benchmark
+    public int synchronizedMap() {
+        Long id = ThreadLocalRandom.current().nextLong(IDS);
+        ReentrantReadWriteLock.WriteLock lock = synchronizedSync.getLock(id).writeLock();
+        lock.lock();
+        try {
+            return lock.getHoldCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Benchmark
+    public int commonSync() {
+        Long id = ThreadLocalRandom.current().nextLong(IDS);
+        ReentrantReadWriteLock.WriteLock lock = commonSync.getWriteLock(id);
+        lock.lock();
+        try {
+            return lock.getHoldCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CommonSyncBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
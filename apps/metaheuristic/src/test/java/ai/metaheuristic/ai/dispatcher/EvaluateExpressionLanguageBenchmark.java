@@ -0,0 +1,63 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.el.EvaluateExpressionLanguage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations of condition per second, with parsing of expression for each evaluation
+ * and with cached and compiled expression
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 4:50 AM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluateExpressionLanguageBenchmark {
+
+    private static final String EXPRESSION = "(10 + 2) * 3 - 7 > 20";
+
+    @Benchmark
+    public Object parseEachTime() {
+        return new SpelExpressionParser().parseExpression(EXPRESSION).getValue(TestEvaluateExpressionLanguage.emptyContext());
+    }
+
+    @Benchmark
+    public Object cached() {
+        return EvaluateExpressionLanguage.parse(EXPRESSION).expression.getValue(TestEvaluateExpressionLanguage.emptyContext());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(EvaluateExpressionLanguageBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.internal_functions.batch_line_splitter.RecordChunkReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting of generated input into chunks of 1000 lines by RecordChunkReader.
+ * Run with '-prof gc' to see that allocation rate per chunk and used heap don't depend on the size of input
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 12:40 PM
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx64m"})
+@State(Scope.Benchmark)
+public class RecordChunkReaderBenchmark {
+
+    // ~40 bytes per line, 10M lines is ~400MB of input with 64MB of heap
+    @Param({"100000", "1000000", "10000000"})
+    public long lines;
+
+    private File tempDir;
+
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("chunk-benchmark").toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        tempDir.delete();
+    }
+
+    @Benchmark
+    public long lines() throws IOException {
+        long chunks = 0;
+        try (RecordChunkReader reader = RecordChunkReader.create(
+                RecordChunkReader.Delimiter.lines, new TestRecordChunkReader.GeneratedLines(lines), 1000, tempDir)) {
+            while (reader.hasNext()) {
+                reader.next();
+                chunks++;
+            }
+        }
+        return chunks;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RecordChunkReaderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
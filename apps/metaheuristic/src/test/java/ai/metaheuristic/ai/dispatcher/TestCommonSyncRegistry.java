@@ -0,0 +1,132 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.commons.CommonSync;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 2:30 PM
+ */
+public class TestCommonSyncRegistry {
+
+    @Test
+    public void testUnusedLocksAreReleased() throws InterruptedException {
+        CommonSync<Long> sync = new CommonSync<>("test-release");
+
+        ReentrantReadWriteLock.WriteLock held = sync.getWriteLock(1L);
+        held.lock();
+        try {
+            for (long i = 2; i < 1002; i++) {
+                sync.getWriteLock(i).lock();
+                sync.getWriteLock(i).unlock();
+            }
+            assertTrue(sync.size() > 1);
+
+            for (int i = 0; i < 50 && sync.size() > 1; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertEquals(1, sync.size());
+
+            // the held lock survived collecting and is still the same
+            assertTrue(sync.getWriteLock(1L).isHeldByCurrentThread());
+            assertSame(held, sync.getWriteLock(1L));
+        } finally {
+            held.unlock();
+        }
+        assertFalse(sync.getWriteLock(1L).isHeldByCurrentThread());
+    }
+
+    @Test
+    public void testMutualExclusionAndStats() throws Exception {
+        CommonSync<Long> sync = new CommonSync<>("test-stats");
+        CommonSync.setStatisticsEnabled(true);
+        final int[] counter = new int[1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        ReentrantReadWriteLock.WriteLock lock = sync.getWriteLock(42L);
+                        lock.lock();
+                        try {
+                            counter[0]++;
+                        } finally {
+                            lock.unlock();
+                        }
+                        ReentrantReadWriteLock.ReadLock readLock = sync.getReadLock(42L);
+                        readLock.lock();
+                        readLock.unlock();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            // untimed tryLock() is counted too
+            assertTrue(sync.getReadLock(42L).tryLock());
+            sync.getReadLock(42L).unlock();
+            assertTrue(sync.getWriteLock(42L).tryLock());
+            sync.getWriteLock(42L).unlock();
+        } finally {
+            executor.shutdownNow();
+            CommonSync.setStatisticsEnabled(false);
+        }
+        assertEquals(8000, counter[0]);
+
+        CommonSync.Stats stats = sync.getStats();
+        assertEquals("test-stats", stats.family);
+        assertEquals(16002, stats.acquisitions);
+        assertEquals(8001, stats.writeAcquisitions);
+        assertTrue(stats.holdNanos > 0);
+        assertTrue(CommonSync.getAllStats().stream().anyMatch(o -> o.family.equals("test-stats")));
+
+        // statistics is disabled by default
+        sync.getWriteLock(42L).lock();
+        sync.getWriteLock(42L).unlock();
+        assertEquals(stats.acquisitions, sync.getStats().acquisitions);
+    }
+
+    @Test
+    public void testUnusedInstancesAreUnregistered() throws InterruptedException {
+        CommonSync<Long> sync = new CommonSync<>("test-unregister");
+        assertTrue(CommonSync.getAllStats().stream().anyMatch(o -> o.family.equals("test-unregister")));
+
+        //noinspection UnusedAssignment
+        sync = null;
+        for (int i = 0; i < 50 && CommonSync.getAllStats().stream().anyMatch(o -> o.family.equals("test-unregister")); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(CommonSync.getAllStats().stream().noneMatch(o -> o.family.equals("test-unregister")));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.southbridge.DeliveryFileCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 8:30 PM
+ */
+public class TestDeliveryFileCache {
+
+    @Test
+    public void testPinnedFileIsntEvicted(@TempDir File tempDir) {
+        Globals globals = new Globals(null, null);
+        globals.dispatcherTempDir = tempDir;
+        globals.deliveryCacheSize = 15L;
+        DeliveryFileCache cache = new DeliveryFileCache(globals);
+        cache.init();
+
+        File f1 = cache.getFile("k1", saver(10));
+        assertTrue(cache.isCached(f1));
+
+        // f1 is being served, so it stays even if the cache is over the limit
+        File f2 = cache.getFile("k2", saver(10));
+        assertTrue(f1.exists());
+        assertTrue(f2.exists());
+
+        // after releasing, f1 is evicted as the least recently used
+        cache.release(f1);
+        assertFalse(f1.exists());
+        assertTrue(f2.exists());
+
+        cache.release(f2);
+        File f3 = cache.getFile("k3", saver(10));
+        assertFalse(f2.exists());
+        assertTrue(f3.exists());
+        cache.release(f3);
+
+        // files outside of cache are ignored
+        cache.release(new File(tempDir, "k3"));
+        assertFalse(cache.isCached(new File(tempDir, "k3")));
+    }
+
+    private static Consumer<File> saver(int size) {
+        return f -> {
+            try {
+                Files.write(f.toPath(), new byte[size]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
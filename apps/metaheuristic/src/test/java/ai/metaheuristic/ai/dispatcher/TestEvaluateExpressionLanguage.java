@@ -0,0 +1,69 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.el.EvaluateExpressionLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 4:30 AM
+ */
+public class TestEvaluateExpressionLanguage {
+
+    // expressions without variables don't need any service
+    @SuppressWarnings("ConstantConditions")
+    public static EvaluateExpressionLanguage.MhEvalContext emptyContext() {
+        return new EvaluateExpressionLanguage.MhEvalContext("1", 1L, null, null, null, null, null);
+    }
+
+    @Test
+    public void testParsedExpressionIsCached() {
+        EvaluateExpressionLanguage.ParsedExpression parsed = EvaluateExpressionLanguage.parse("(1 + 2) * 3");
+        assertSame(parsed, EvaluateExpressionLanguage.parse("(1 + 2) * 3"));
+        assertTrue(parsed.names.isEmpty());
+
+        // the result is the same before and after compiling of expression
+        for (int i = 0; i < 500; i++) {
+            assertEquals(9, parsed.expression.getValue(emptyContext()));
+        }
+    }
+
+    @Test
+    public void testNamesOfVariables() {
+        EvaluateExpressionLanguage.ParsedExpression parsed = EvaluateExpressionLanguage.parse("var1 > 5 && #var2 == var3 + #this");
+        assertEquals(Set.of("var1", "var2", "var3"), parsed.names);
+
+        parsed = EvaluateExpressionLanguage.parse("output = input");
+        assertEquals(List.of("output", "input"), List.copyOf(parsed.names));
+    }
+
+    @Test
+    public void testAccessorsAreShared() {
+        EvaluateExpressionLanguage.MhEvalContext ctx1 = emptyContext();
+        EvaluateExpressionLanguage.MhEvalContext ctx2 = emptyContext();
+        assertSame(ctx1.getPropertyAccessors(), ctx2.getPropertyAccessors());
+        assertSame(ctx1.getTypeConverter(), ctx2.getTypeConverter());
+        assertSame(ctx1.getOperatorOverloader(), ctx1.getOperatorOverloader());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextStatusService;
+import ai.metaheuristic.ai.dispatcher.repositories.ExecContextRepository;
+import ai.metaheuristic.api.EnumsApi;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ai.metaheuristic.ai.yaml.communication.keep_alive.KeepAliveResponseParamYaml.ExecContextStatus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 1:40 PM
+ */
+public class TestExecContextStatusService {
+
+    private final List<Object[]> db = new ArrayList<>();
+    private int loads = 0;
+    private Runnable onLoad = () -> {};
+
+    private final ExecContextRepository repository = (ExecContextRepository) Proxy.newProxyInstance(
+            ExecContextRepository.class.getClassLoader(), new Class[]{ExecContextRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findAllExecStates")) {
+                    loads++;
+                    onLoad.run();
+                    return new ArrayList<>(db);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    @Test
+    public void testPushedStates() {
+        db.add(new Object[]{1L, EnumsApi.ExecContextState.STARTED.code});
+        db.add(new Object[]{2L, EnumsApi.ExecContextState.FINISHED.code});
+
+        ExecContextStatusService service = new ExecContextStatusService(repository);
+        ExecContextStatus status = service.getExecContextStatuses();
+        assertEquals(2, status.statuses.size());
+        assertTrue(service.isStarted(1L));
+        assertSame(status, service.getExecContextStatuses());
+
+        // there isn't any Tx, so state is registered immediately
+        service.onStateChanged(1L, EnumsApi.ExecContextState.STOPPED.code);
+        assertEquals(EnumsApi.ExecContextState.STOPPED, service.getState(1L));
+        ExecContextStatus.SimpleStatus simpleStatus = service.getExecContextStatuses().getStatus(1L);
+        assertNotNull(simpleStatus);
+        assertEquals(EnumsApi.ExecContextState.STOPPED, simpleStatus.state);
+
+        service.onDeleted(2L);
+        assertNull(service.getState(2L));
+        assertEquals(1, service.getExecContextStatuses().statuses.size());
+        assertEquals(1, loads);
+    }
+
+    @Test
+    public void testReconciliation() {
+        db.add(new Object[]{1L, EnumsApi.ExecContextState.STARTED.code});
+        ExecContextStatusService service = new ExecContextStatusService(repository);
+        assertTrue(service.isStarted(1L));
+
+        // state was changed without notification
+        db.clear();
+        db.add(new Object[]{1L, EnumsApi.ExecContextState.FINISHED.code});
+        db.add(new Object[]{3L, EnumsApi.ExecContextState.STARTED.code});
+        service.reconcile();
+        assertEquals(EnumsApi.ExecContextState.FINISHED, service.getState(1L));
+        assertTrue(service.isStarted(3L));
+
+        db.clear();
+        service.reconcile();
+        assertNull(service.getState(1L));
+        assertTrue(service.getExecContextStatuses().statuses.isEmpty());
+    }
+
+    @Test
+    public void testChangeDuringReconciliation() {
+        db.add(new Object[]{1L, EnumsApi.ExecContextState.STARTED.code});
+        ExecContextStatusService service = new ExecContextStatusService(repository);
+        assertTrue(service.isStarted(1L));
+
+        // db returns the state which was read before the change had been committed
+        onLoad = () -> service.onStateChanged(1L, EnumsApi.ExecContextState.FINISHED.code);
+        service.reconcile();
+        assertEquals(EnumsApi.ExecContextState.FINISHED, service.getState(1L));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.event.TaskRegisteredEvent;
+import ai.metaheuristic.ai.dispatcher.southbridge.LongPollService;
+import ai.metaheuristic.ai.dispatcher.southbridge.SouthbridgeService;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
+import ai.metaheuristic.api.EnumsApi;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 5:50 AM
+ */
+public class TestLongPollService {
+
+    @Test
+    public void testIsWaitingForTask() {
+        ProcessorCommParamsYaml scpy = new ProcessorCommParamsYaml();
+        ProcessorCommParamsYaml.ProcessorRequest r = new ProcessorCommParamsYaml.ProcessorRequest("proc-1");
+        r.requestTask = new ProcessorCommParamsYaml.RequestTask(true, false, 2);
+        scpy.requests.add(r);
+
+        DispatcherCommParamsYaml lcpy = new DispatcherCommParamsYaml();
+        DispatcherCommParamsYaml.DispatcherResponse response = new DispatcherCommParamsYaml.DispatcherResponse("proc-1");
+        lcpy.responses.add(response);
+        assertTrue(LongPollService.isWaitingForTask(scpy, lcpy));
+
+        response.reportResultDelivering = new DispatcherCommParamsYaml.ReportResultDelivering(List.of());
+        assertTrue(LongPollService.isWaitingForTask(scpy, lcpy));
+
+        // task was assigned already
+        response.assignedTasks = List.of(new DispatcherCommParamsYaml.AssignedTask("params", 1L, 2L, EnumsApi.ExecContextState.STARTED));
+        assertFalse(LongPollService.isWaitingForTask(scpy, lcpy));
+        response.assignedTasks = null;
+
+        // the result of delivering must be sent to processor without delay
+        response.reportResultDelivering = new DispatcherCommParamsYaml.ReportResultDelivering(List.of(3L));
+        assertFalse(LongPollService.isWaitingForTask(scpy, lcpy));
+        response.reportResultDelivering = null;
+
+        lcpy.success = false;
+        assertFalse(LongPollService.isWaitingForTask(scpy, lcpy));
+        lcpy.success = true;
+
+        // processor didn't ask for a task
+        r.requestTask = null;
+        assertFalse(LongPollService.isWaitingForTask(scpy, lcpy));
+    }
+
+    @Test
+    public void testWaitingRequestIsCompletedWithRegisteredTask() throws InterruptedException {
+        Globals globals = new Globals(null, null);
+        globals.longPollTimeout = 25;
+
+        final AtomicBoolean taskAvailable = new AtomicBoolean(false);
+        final AtomicInteger assigning = new AtomicInteger();
+
+        SouthbridgeService southbridgeService = new SouthbridgeService(null, null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public DispatcherCommParamsYaml processRequestInternal(String remoteAddress, ProcessorCommParamsYaml scpy) {
+                DispatcherCommParamsYaml lcpy = new DispatcherCommParamsYaml();
+                lcpy.responses.add(new DispatcherCommParamsYaml.DispatcherResponse("proc-1"));
+                return lcpy;
+            }
+        };
+        DispatcherCommandProcessor dispatcherCommandProcessor = new DispatcherCommandProcessor(null, null, null, null, null, null) {
+            @Override
+            public void assignTasks(ProcessorCommParamsYaml.ProcessorRequest request, DispatcherCommParamsYaml.DispatcherResponse response) {
+                assigning.incrementAndGet();
+                if (taskAvailable.get()) {
+                    response.assignedTasks = List.of(new DispatcherCommParamsYaml.AssignedTask("params", 2L, 1L, EnumsApi.ExecContextState.STARTED));
+                }
+            }
+        };
+        LongPollService longPollService = new LongPollService(globals, southbridgeService, dispatcherCommandProcessor);
+
+        ProcessorCommParamsYaml scpy = new ProcessorCommParamsYaml();
+        ProcessorCommParamsYaml.ProcessorRequest r = new ProcessorCommParamsYaml.ProcessorRequest("proc-1");
+        r.requestTask = new ProcessorCommParamsYaml.RequestTask(true, false, 2);
+        scpy.requests.add(r);
+        String data = ProcessorCommParamsJsonUtils.BASE_UTILS.toString(scpy);
+
+        try {
+            DeferredResult<String> result = longPollService.processRequest(data, "127.0.0.1", Enums.CommFormat.json);
+            // request was parked because there isn't any task yet
+            assertFalse(result.hasResult());
+
+            // group was locked but there still isn't any task for this processor, request must stay parked
+            longPollService.handleTaskRegisteredEvent(new TaskRegisteredEvent(1L, null));
+            for (int i = 0; i < 100 && assigning.get()==0; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, assigning.get());
+            assertFalse(result.hasResult());
+
+            taskAvailable.set(true);
+            longPollService.handleTaskRegisteredEvent(new TaskRegisteredEvent(1L, 2L));
+            for (int i = 0; i < 100 && !result.hasResult(); i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(result.hasResult());
+
+            DispatcherCommParamsYaml lcpy = DispatcherCommParamsJsonUtils.BASE_UTILS.to((String) result.getResult());
+            assertEquals(1, lcpy.responses.size());
+            assertNotNull(lcpy.responses.get(0).assignedTasks);
+            assertEquals(1, lcpy.responses.get(0).assignedTasks.size());
+            assertEquals(2L, lcpy.responses.get(0).assignedTasks.get(0).taskId);
+        }
+        finally {
+            longPollService.onExit();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.dispatcher.event.PartitionedEventBus;
+import ai.metaheuristic.ai.exceptions.EventBusOverflowException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 10:20 AM
+ */
+public class TestPartitionedEventBus {
+
+    @Test
+    public void testOrderInPartition() throws Exception {
+        PartitionedEventBus bus = new PartitionedEventBus("test-order", 4, 1000, 1000, Enums.EventBusOverflowPolicy.reject);
+        List<List<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        for (int n = 0; n < 500; n++) {
+            for (int i = 0; i < 10; i++) {
+                final int value = n;
+                final List<Integer> result = results.get(i);
+                bus.submit((long) i, () -> result.add(value));
+            }
+        }
+        assertTrue(bus.shutdownAndWait(10_000));
+
+        for (List<Integer> result : results) {
+            assertEquals(500, result.size());
+            for (int n = 0; n < 500; n++) {
+                assertEquals(n, result.get(n));
+            }
+        }
+        assertEquals(5000, bus.getStats().stream().mapToLong(o -> o.processed).sum());
+    }
+
+    @Test
+    public void testCoalescingAndRejecting() throws Exception {
+        testCoalescingAndBackPressure(Enums.EventBusOverflowPolicy.reject);
+    }
+
+    @Test
+    public void testCoalescingAndDropping() throws Exception {
+        testCoalescingAndBackPressure(Enums.EventBusOverflowPolicy.drop);
+    }
+
+    private static void testCoalescingAndBackPressure(Enums.EventBusOverflowPolicy policy) throws Exception {
+        PartitionedEventBus bus = new PartitionedEventBus("test-coalescing", 1, 2, 200, policy);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+
+        bus.submit(1L, () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // nothing to do
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        PartitionedEventBus.Key key = new PartitionedEventBus.Key(String.class, 1L);
+        bus.submit(1L, key, counter::incrementAndGet);
+        bus.submit(1L, key, counter::incrementAndGet);
+        bus.submit(1L, counter::incrementAndGet);
+
+        // the queue is full, submitter waits and then the event is rejected or dropped, the queue never grows over its capacity
+        long start = System.currentTimeMillis();
+        if (policy==Enums.EventBusOverflowPolicy.reject) {
+            assertThrows(EventBusOverflowException.class, () -> bus.submit(1L, counter::incrementAndGet));
+        }
+        else {
+            bus.submit(1L, counter::incrementAndGet);
+        }
+        assertTrue(System.currentTimeMillis() - start >= 150);
+        // the event with a key which is already waiting is coalesced even when the queue is full
+        bus.submit(1L, key, counter::incrementAndGet);
+
+        release.countDown();
+        assertTrue(bus.shutdownAndWait(10_000));
+
+        assertEquals(2, counter.get());
+        PartitionedEventBus.Stats stats = bus.getStats().get(0);
+        assertEquals(2, stats.coalesced);
+        assertEquals(1, stats.overflowed);
+        assertEquals(3, stats.processed);
+        assertEquals(2, stats.maxDepth);
+        assertEquals(0, stats.depth);
+    }
+
+    @Test
+    public void testQueuedEventsAreProcessedAtShutdown() throws Exception {
+        PartitionedEventBus bus = new PartitionedEventBus("test-shutdown", 1, 1000, 0, Enums.EventBusOverflowPolicy.reject);
+        AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            bus.submit(1L, () -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    // nothing to do
+                }
+                counter.incrementAndGet();
+            });
+        }
+        assertTrue(bus.shutdownAndWait(10_000));
+        assertEquals(100, counter.get());
+
+        // events which were submitted after shutdown are skipped
+        bus.submit(1L, counter::incrementAndGet);
+        assertEquals(100, counter.get());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.dispatcher.data.ProcessorData;
+import ai.metaheuristic.ai.dispatcher.processor.ProcessorCache;
+import ai.metaheuristic.ai.processor.sourcing.git.GitSourcingService;
+import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYaml;
+import ai.metaheuristic.api.EnumsApi;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 3:40 PM
+ */
+public class TestProcessorCapability {
+
+    @Test
+    public void testToCapability() {
+        ProcessorStatusYaml psy = new ProcessorStatusYaml();
+        psy.downloadStatuses.add(new ProcessorStatusYaml.DownloadStatus(Enums.FunctionState.ready, "f1:1.0"));
+        psy.downloadStatuses.add(new ProcessorStatusYaml.DownloadStatus(Enums.FunctionState.none, "f2:1.0"));
+        psy.env = new ProcessorStatusYaml.Env();
+        psy.env.envs.put("python-3", "/usr/bin/python3");
+        psy.env.tags = "gpu";
+        psy.gitStatusInfo = new GitSourcingService.GitStatusInfo(Enums.GitStatus.installed);
+        psy.os = EnumsApi.OS.linux;
+        psy.taskParamsVersion = 1;
+        psy.taskIds = "12, 15";
+
+        ProcessorData.ProcessorCapability c = ProcessorCache.toCapability(42L, 3L, psy);
+
+        assertEquals(42L, c.processorId);
+        assertEquals(3L, c.version);
+        assertTrue(c.isFunctionReady("f1:1.0"));
+        assertFalse(c.isFunctionReady("f2:1.0"));
+        assertFalse(c.isFunctionReady("f3:1.0"));
+        assertEquals("/usr/bin/python3", c.envs.get("python-3"));
+        assertFalse(c.envEmpty);
+        assertEquals("gpu", c.tags);
+        assertEquals(Enums.GitStatus.installed, c.gitStatus);
+        assertEquals(EnumsApi.OS.linux, c.os);
+        assertEquals(List.of(12L, 15L), c.taskIds);
+    }
+
+    @Test
+    public void testToCapabilityWithoutEnv() {
+        ProcessorStatusYaml psy = new ProcessorStatusYaml();
+
+        ProcessorData.ProcessorCapability c = ProcessorCache.toCapability(1L, null, psy);
+
+        assertTrue(c.envEmpty);
+        assertTrue(c.envs.isEmpty());
+        assertNull(c.tags);
+        assertNull(c.gitStatus);
+        assertTrue(c.taskIds.isEmpty());
+        assertTrue(c.readyFunctions.isEmpty());
+    }
+}
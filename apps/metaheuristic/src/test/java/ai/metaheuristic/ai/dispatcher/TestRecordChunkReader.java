@@ -0,0 +1,141 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.data.VariableData;
+import ai.metaheuristic.ai.dispatcher.internal_functions.batch_line_splitter.RecordChunkReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 12:20 PM
+ */
+public class TestRecordChunkReader {
+
+    @Test
+    public void testLines(@TempDir File tempDir) throws Exception {
+        List<String> chunks = readAll(RecordChunkReader.Delimiter.lines, "l1\n\nl2\r\nl3\n   \nl4\nl5", 2, tempDir);
+        assertEquals(List.of("l1\nl2", "l3\nl4", "l5"), chunks);
+
+        assertTrue(readAll(RecordChunkReader.Delimiter.lines, "\n  \n", 2, tempDir).isEmpty());
+    }
+
+    @Test
+    public void testJson(@TempDir File tempDir) throws Exception {
+        String json = "{\"a\": 1}\n{\"b\": \"}{\\\"\",\n \"c\": [1, 2]}\n\n[3]\n42 \"str\"\n";
+        List<String> chunks = readAll(RecordChunkReader.Delimiter.jsonl, json, 2, tempDir);
+        assertEquals(List.of("{\"a\": 1}\n{\"b\": \"}{\\\"\",\n \"c\": [1, 2]}", "[3]\n42", "\"str\""), chunks);
+
+        assertThrows(RuntimeException.class, () -> readAll(RecordChunkReader.Delimiter.jsonl, "{\"a\": [1}", 2, tempDir));
+    }
+
+    @Test
+    public void testBytes(@TempDir File tempDir) throws Exception {
+        byte[] bytes = new byte[250_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        List<byte[]> chunks = new ArrayList<>();
+        try (RecordChunkReader reader = RecordChunkReader.create(RecordChunkReader.Delimiter.bytes, new ByteArrayInputStream(bytes), 100_000, tempDir)) {
+            while (reader.hasNext()) {
+                VariableData.VariableDataSource chunk = reader.next();
+                assertEquals(1, chunk.files.size());
+                chunks.add(Files.readAllBytes(chunk.files.get(0).file.toPath()));
+            }
+        }
+        assertEquals(3, chunks.size());
+        assertEquals(50_000, chunks.get(2).length);
+        byte[] actual = new byte[bytes.length];
+        int pos = 0;
+        for (byte[] chunk : chunks) {
+            System.arraycopy(chunk, 0, actual, pos, chunk.length);
+            pos += chunk.length;
+        }
+        assertArrayEquals(bytes, actual);
+    }
+
+    @Test
+    public void testDelimiter() {
+        assertEquals(RecordChunkReader.Delimiter.lines, RecordChunkReader.toDelimiter(null));
+        assertEquals(RecordChunkReader.Delimiter.jsonl, RecordChunkReader.toDelimiter(" jsonl "));
+        assertThrows(IllegalArgumentException.class, () -> RecordChunkReader.toDelimiter("csv"));
+    }
+
+    @Test
+    public void testBigInputWithBoundedMemory(@TempDir File tempDir) throws Exception {
+        final int lines = 2_000_000;
+        long count = 0;
+        try (RecordChunkReader reader = RecordChunkReader.create(RecordChunkReader.Delimiter.lines, new GeneratedLines(lines), 1000, tempDir)) {
+            while (reader.hasNext()) {
+                String chunk = reader.next().inputVariableContent;
+                assertNotNull(chunk);
+                // the size of chunk doesn't depend on the size of input
+                assertTrue(chunk.length() < 1000 * 40);
+                count++;
+            }
+        }
+        assertEquals(lines / 1000, count);
+    }
+
+    /**
+     * Lines are generated on the fly, so the input is never kept in memory
+     */
+    public static class GeneratedLines extends InputStream {
+        private final long lines;
+        private long line = 0;
+        private byte[] current = new byte[0];
+        private int pos = 0;
+
+        public GeneratedLines(long lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() {
+            if (pos==current.length) {
+                if (line==lines) {
+                    return -1;
+                }
+                current = ("line #" + line++ + ", some payload of line\n").getBytes(StandardCharsets.UTF_8);
+                pos = 0;
+            }
+            return current[pos++] & 0xFF;
+        }
+    }
+
+    private static List<String> readAll(RecordChunkReader.Delimiter delimiter, String s, long records, File tempDir) throws Exception {
+        List<String> chunks = new ArrayList<>();
+        try (RecordChunkReader reader = RecordChunkReader.create(delimiter, new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)), records, tempDir)) {
+            while (reader.hasNext()) {
+                chunks.add(reader.next().inputVariableContent);
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.exec_context_task_state.TaskExecStates;
+import ai.metaheuristic.ai.dispatcher.exec_context_task_state.TaskStateMap;
+import ai.metaheuristic.api.EnumsApi;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 8:30 PM
+ */
+public class TestTaskStateMap {
+
+    @Test
+    public void test_putAndGet() {
+        TaskStateMap map = new TaskStateMap();
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i * 7, (byte) (i % 7));
+        }
+        assertEquals(10_000, map.size());
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals((byte) (i % 7), map.get(i * 7));
+        }
+        assertEquals(TaskStateMap.NO_VALUE, map.get(1));
+
+        map.put(14, (byte) 5);
+        assertEquals(10_000, map.size());
+        assertEquals(5, map.get(14));
+
+        TaskStateMap copy = map.copy();
+        copy.put(14, (byte) 1);
+        assertEquals(5, map.get(14));
+        assertEquals(1, copy.get(14));
+
+        long[] count = new long[1];
+        map.forEach((taskId, state) -> count[0]++);
+        assertEquals(10_000, count[0]);
+    }
+
+    @Test
+    public void test_changesOverBase() {
+        TaskStateMap base = new TaskStateMap();
+        base.put(1L, (byte) EnumsApi.TaskExecState.OK.value);
+        base.put(2L, (byte) EnumsApi.TaskExecState.IN_PROGRESS.value);
+        base.put(3L, (byte) EnumsApi.TaskExecState.NONE.value);
+
+        Map<Long, EnumsApi.TaskExecState> uncommitted = new HashMap<>();
+        uncommitted.put(3L, EnumsApi.TaskExecState.ERROR);
+
+        TaskExecStates states = new TaskExecStates(base, new ReentrantReadWriteLock(), uncommitted);
+        states.put(2L, EnumsApi.TaskExecState.OK);
+        states.put(4L, EnumsApi.TaskExecState.SKIPPED);
+
+        assertEquals(EnumsApi.TaskExecState.OK, states.get(1L));
+        assertEquals(EnumsApi.TaskExecState.OK, states.get(2L));
+        assertEquals(EnumsApi.TaskExecState.ERROR, states.get(3L));
+        assertEquals(EnumsApi.TaskExecState.SKIPPED, states.get(4L));
+        assertEquals(EnumsApi.TaskExecState.NONE, states.get(5L));
+
+        // base must not be changed
+        assertEquals(EnumsApi.TaskExecState.IN_PROGRESS.value, base.get(2L));
+        assertEquals(Map.of(2L, EnumsApi.TaskExecState.OK, 4L, EnumsApi.TaskExecState.SKIPPED), states.getChanges());
+
+        Map<Long, EnumsApi.TaskExecState> all = states.toMap();
+        assertEquals(4, all.size());
+        assertEquals(EnumsApi.TaskExecState.ERROR, all.get(3L));
+
+        List<Long> finished = states.findTaskIds(o -> o==EnumsApi.TaskExecState.OK);
+        assertEquals(2, finished.size());
+        assertTrue(finished.containsAll(List.of(1L, 2L)));
+    }
+}
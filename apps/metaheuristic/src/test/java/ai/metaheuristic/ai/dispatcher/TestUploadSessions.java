@@ -0,0 +1,148 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.dispatcher.southbridge.UploadSessionService;
+import ai.metaheuristic.ai.dispatcher.southbridge.UploadSessions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 2:40 AM
+ */
+public class TestUploadSessions {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Test
+    public void testUploadWithResume(@TempDir File tempDir) throws Exception {
+        byte[] data = new byte[3500];
+        new Random(42).nextBytes(data);
+
+        UploadSessions sessions = new UploadSessions(tempDir);
+        UploadSessions.Session session = sessions.start(11L, 22L, data.length, CHUNK_SIZE);
+        assertTrue(UploadSessions.isValidSessionId(session.sessionId));
+        assertTrue(session.sessionId.startsWith("11-22-"));
+        final String sessionId = session.sessionId;
+        assertEquals(4, session.chunkCount());
+
+        assertNull(sessions.writeChunk(session, 3, chunk(data, 3)));
+        assertNull(sessions.writeChunk(session, 1, chunk(data, 1)));
+        assertFalse(session.isComplete());
+
+        // new instance emulates restarting of dispatcher, the session is resumed with the same parameters
+        sessions = new UploadSessions(tempDir);
+        assertNotNull(sessions.get(sessionId));
+        session = sessions.start(11L, 22L, data.length, CHUNK_SIZE);
+        assertEquals(sessionId, session.sessionId);
+        assertEquals(List.of(1, 3), session.getReceivedChunks());
+
+        assertNull(sessions.writeChunk(session, 0, chunk(data, 0)));
+        assertNull(sessions.writeChunk(session, 2, chunk(data, 2)));
+        assertTrue(session.isComplete());
+        assertArrayEquals(data, Files.readAllBytes(session.getDataFile().toPath()));
+
+        sessions.delete(session.sessionId);
+        assertNull(sessions.get(session.sessionId));
+    }
+
+    @Test
+    public void testWrongChunks(@TempDir File tempDir) throws Exception {
+        byte[] data = new byte[2500];
+        UploadSessions sessions = new UploadSessions(tempDir);
+        UploadSessions.Session session = sessions.start(1L, 2L, data.length, CHUNK_SIZE);
+
+        assertNotNull(sessions.writeChunk(session, 3, new ByteArrayInputStream(new byte[10])));
+        // the last chunk must be 500 bytes
+        assertNotNull(sessions.writeChunk(session, 2, new ByteArrayInputStream(new byte[1000])));
+        assertNotNull(sessions.writeChunk(session, 0, new ByteArrayInputStream(new byte[999])));
+        assertTrue(session.getReceivedChunks().isEmpty());
+
+        // a session with different length is started from scratch
+        assertNull(sessions.writeChunk(session, 2, new ByteArrayInputStream(new byte[500])));
+        UploadSessions.Session newSession = sessions.start(1L, 2L, data.length + 1, CHUNK_SIZE);
+        assertNotEquals(session.sessionId, newSession.sessionId);
+        assertTrue(newSession.getReceivedChunks().isEmpty());
+        assertFalse(session.dir.exists());
+        assertNull(sessions.get(session.sessionId));
+
+        // a chunk of the replaced session must not get into the new one
+        assertNotNull(sessions.writeChunk(session, 0, new ByteArrayInputStream(new byte[1000])));
+        assertTrue(newSession.getReceivedChunks().isEmpty());
+        assertTrue(new UploadSessions(tempDir).start(1L, 2L, data.length + 1, CHUNK_SIZE).getReceivedChunks().isEmpty());
+    }
+
+    @Test
+    public void testWrongChunkSize(@TempDir File tempDir) {
+        Globals globals = new Globals(null, null);
+        globals.dispatcherTempDir = tempDir;
+        UploadSessionService service = new UploadSessionService(globals, null);
+        service.init();
+
+        assertEquals(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR,
+                service.start(1L, 2L, 1_000_000L, Consts.UPLOAD_MIN_CHUNK_SIZE - 1).status);
+        // too many chunks
+        assertEquals(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR,
+                service.start(1L, 2L, Long.MAX_VALUE, Consts.UPLOAD_MIN_CHUNK_SIZE).status);
+        assertEquals(Enums.UploadVariableStatus.OK,
+                service.start(1L, 2L, 1_000_000L, Consts.UPLOAD_MIN_CHUNK_SIZE).status);
+    }
+
+    @Test
+    public void testPathTraversal(@TempDir File tempDir) throws Exception {
+        // a dir with files of session which is outside of dir with sessions
+        File outsideDir = new File(tempDir, "x");
+        outsideDir.mkdirs();
+        Files.writeString(new File(outsideDir, UploadSessions.STATE_FILE).toPath(), "{\"taskId\":1,\"variableId\":2,\"length\":1,\"chunkSize\":1,\"received\":[1]}");
+        Files.writeString(new File(outsideDir, UploadSessions.DATA_FILE).toPath(), "1");
+
+        File baseDir = new File(tempDir, "upload");
+        UploadSessions sessions = new UploadSessions(baseDir);
+        assertNull(sessions.get("../x"));
+        sessions.delete("../x");
+        assertTrue(outsideDir.exists());
+
+        Globals globals = new Globals(null, null);
+        globals.dispatcherTempDir = tempDir;
+        UploadSessionService service = new UploadSessionService(globals, null);
+        service.init();
+
+        assertEquals(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR,
+                service.uploadChunk("../x", 0, new ByteArrayInputStream(new byte[1])).status);
+        assertEquals(Enums.UploadVariableStatus.UNRECOVERABLE_ERROR, service.commit("../x").status);
+        assertTrue(new File(outsideDir, UploadSessions.STATE_FILE).exists());
+        assertTrue(new File(outsideDir, UploadSessions.DATA_FILE).exists());
+    }
+
+    private static ByteArrayInputStream chunk(byte[] data, int idx) {
+        int offset = idx * CHUNK_SIZE;
+        return new ByteArrayInputStream(data, offset, Math.min(CHUNK_SIZE, data.length - offset));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.dispatcher;
+
+import ai.metaheuristic.ai.dispatcher.commons.VersionedEntityCache;
+import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 11:55 AM
+ */
+public class TestVersionedEntityCache {
+
+    @AllArgsConstructor
+    private static class Bean {
+        Long id;
+        Long version;
+        String value;
+    }
+
+    private final Map<Long, Bean> db = new HashMap<>();
+    private int loads = 0;
+
+    private final VersionedEntityCache<Bean> cache = new VersionedEntityCache<>(
+            "test", 2, o->o.id, o->o.version, o->new Bean(o.id, o.version, o.value));
+
+    @AfterEach
+    public void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Optional<Bean> load(Long id) {
+        loads++;
+        Bean b = db.get(id);
+        return b==null ? Optional.empty() : Optional.of(new Bean(b.id, b.version, b.value));
+    }
+
+    @Test
+    public void testReadThrough() {
+        db.put(1L, new Bean(1L, 0L, "v0"));
+
+        Bean b1 = cache.findById(1L, this::load);
+        assertNotNull(b1);
+        b1.value = "changed by caller";
+
+        Bean b2 = cache.findById(1L, this::load);
+        assertNotNull(b2);
+        assertEquals("v0", b2.value);
+        assertNotSame(b1, b2);
+        assertEquals(1, loads);
+
+        assertNull(cache.findById(42L, this::load));
+
+        VersionedEntityCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(2, stats.misses);
+        assertEquals(1, stats.size);
+    }
+
+    @Test
+    public void testBoundedSize() {
+        for (long i = 1; i <= 3; i++) {
+            db.put(i, new Bean(i, 0L, "v" + i));
+            cache.findById(i, this::load);
+        }
+        VersionedEntityCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.size);
+        assertEquals(1, stats.evictions);
+
+        // the least recently used entity was evicted
+        cache.findById(1L, this::load);
+        assertEquals(4, loads);
+    }
+
+    @Test
+    public void testSaveAndVersions() {
+        db.put(1L, new Bean(1L, 0L, "v0"));
+        cache.findById(1L, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        Bean saved = new Bean(1L, 1L, "v1");
+        cache.onSave(saved);
+        Bean stale = new Bean(1L, 0L, "v0");
+
+        // entity was evicted until commit
+        cache.findById(1L, this::load);
+        assertEquals(2, loads);
+
+        completeTx(TransactionSynchronization.STATUS_COMMITTED);
+        db.put(1L, saved);
+
+        Bean b = cache.findById(1L, this::load);
+        assertNotNull(b);
+        assertEquals("v1", b.value);
+        assertEquals(2, loads);
+
+        // the older version can't overwrite the newer one
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onSave(stale);
+        cache.findById(1L, this::load);
+        completeTx(TransactionSynchronization.STATUS_COMMITTED);
+        b = cache.findById(1L, this::load);
+        assertNotNull(b);
+        assertEquals("v1", b.value);
+    }
+
+    @Test
+    public void testRollbackAndDelete() {
+        db.put(1L, new Bean(1L, 0L, "v0"));
+        cache.findById(1L, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onSave(new Bean(1L, 1L, "v1"));
+        completeTx(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Bean b = cache.findById(1L, this::load);
+        assertNotNull(b);
+        assertEquals("v0", b.value);
+        assertEquals(2, loads);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onDelete(1L);
+        db.remove(1L);
+        completeTx(TransactionSynchronization.STATUS_COMMITTED);
+        assertNull(cache.findById(1L, this::load));
+    }
+
+    @Test
+    public void testLoadConcurrentWithInvalidation() {
+        db.put(1L, new Bean(1L, 0L, "v0"));
+
+        // entity is invalidated while it's being loaded, the loaded snapshot must be discarded
+        Bean b = cache.findById(1L, id -> {
+            Optional<Bean> o = load(id);
+            cache.evict(id);
+            return o;
+        });
+        assertNotNull(b);
+        assertEquals(0, cache.getStats().size);
+
+        // invalidation of another entity doesn't affect loading
+        db.put(2L, new Bean(2L, 0L, "v2"));
+        b = cache.findById(1L, id -> {
+            Optional<Bean> o = load(id);
+            cache.evict(2L);
+            cache.findById(2L, this::load);
+            return o;
+        });
+        assertNotNull(b);
+        assertEquals(2, cache.getStats().size);
+        final int loaded = loads;
+        cache.findById(1L, this::load);
+        assertEquals(loaded, loads);
+    }
+
+    private static void completeTx(int status) {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status==TransactionSynchronization.STATUS_COMMITTED) {
+                sync.afterCommit();
+            }
+            sync.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
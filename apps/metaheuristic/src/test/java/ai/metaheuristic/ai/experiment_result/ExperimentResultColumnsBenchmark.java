@@ -0,0 +1,102 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.experiment_result;
+
+import ai.metaheuristic.ai.dispatcher.data.ExperimentResultData;
+import ai.metaheuristic.ai.dispatcher.experiment_result.ExperimentResultColumns;
+import ai.metaheuristic.ai.yaml.experiment_result.ExperimentResultTaskParamsYamlUtils;
+import ai.metaheuristic.api.data.experiment.ExperimentApiData;
+import ai.metaheuristic.api.data.experiment_result.ExperimentResultTaskParams;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plotting of experiment result with 10_000 tasks,
+ * with parsing of ExperimentTask.params for each request and with scan over columns
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 7:40 PM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExperimentResultColumnsBenchmark {
+
+    private static final int TASKS = 10_000;
+
+    private final List<String> yamls = new ArrayList<>();
+    private ExperimentResultColumns columns;
+
+    @Setup
+    public void setup() {
+        List<ExperimentApiData.HyperParam> hyperParams = List.of(
+                new ExperimentApiData.HyperParam("a", "Range(0, 100, 1)", 100),
+                new ExperimentApiData.HyperParam("b", "Range(0, 100, 1)", 100));
+        ExperimentResultColumns.Builder builder = new ExperimentResultColumns.Builder(1L, hyperParams);
+        for (int i = 0; i < TASKS; i++) {
+            Map<String, String> inline = Map.of("a", Integer.toString(i % 100), "b", Integer.toString(i / 100));
+            ExperimentResultTaskParams task = new ExperimentResultTaskParams();
+            task.taskId = (long) i;
+            task.execState = 3;
+            task.taskParams = new ExperimentResultTaskParams.TaskParams(inline, inline);
+            task.metrics.values.put("roc", BigDecimal.valueOf(i % 7, 1));
+            yamls.add(ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.toString(task));
+            builder.add(task, 1L);
+        }
+        columns = builder.build();
+    }
+
+    @Benchmark
+    public Object parseYaml() {
+        BigDecimal[][] z = new BigDecimal[100][100];
+        for (String yaml : yamls) {
+            ExperimentResultTaskParams task = ExperimentResultTaskParamsYamlUtils.BASE_YAML_UTILS.to(yaml);
+            if (task.execState > 1) {
+                int x = Integer.parseInt(task.taskParams.inline.get("a"));
+                int y = Integer.parseInt(task.taskParams.inline.get("b"));
+                BigDecimal v = task.metrics.values.get("roc");
+                z[y][x] = z[y][x]==null ? v : z[y][x].add(v);
+            }
+        }
+        return z;
+    }
+
+    @Benchmark
+    public ExperimentResultData.PlotData columns() {
+        return columns.plot(columns.select(1L, new String[]{""}), "a", "b");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ExperimentResultColumnsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.experiment_result;
+
+import ai.metaheuristic.ai.dispatcher.data.ExperimentResultData;
+import ai.metaheuristic.ai.dispatcher.experiment_result.ExperimentResultColumns;
+import ai.metaheuristic.api.data.experiment.ExperimentApiData;
+import ai.metaheuristic.api.data.experiment_result.ExperimentResultTaskParams;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 7:20 PM
+ */
+public class TestExperimentResultColumns {
+
+    private static final String[] NO_FILTER = new String[]{"", " "};
+
+    @Test
+    public void testSelect() {
+        ExperimentResultColumns columns = createColumns();
+
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6, 8}, taskIds(columns, columns.select(1L, NO_FILTER)));
+        assertArrayEquals(new long[]{10}, taskIds(columns, columns.select(2L, NO_FILTER)));
+        assertArrayEquals(new long[0], taskIds(columns, columns.select(42L, NO_FILTER)));
+
+        // task #8 has an empty inline and is excluded when filter is used
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6}, taskIds(columns, columns.select(1L, new String[]{"c-0"})));
+        assertArrayEquals(new long[]{1, 3, 4, 6}, taskIds(columns, columns.select(1L, new String[]{"a-0", "a-2"})));
+        assertArrayEquals(new long[]{6}, taskIds(columns, columns.select(1L, new String[]{"a-2", "b-1", ""})));
+        assertArrayEquals(new long[0], taskIds(columns, columns.select(1L, new String[]{"b-5"})));
+        // key 'd' isn't a hyper-param
+        assertArrayEquals(new long[]{1, 2, 3, 5, 6}, taskIds(columns, columns.select(1L, new String[]{"d-0"})));
+    }
+
+    @Test
+    public void testPlot() {
+        ExperimentResultColumns columns = createColumns();
+
+        ExperimentResultData.PlotData data = columns.plot(columns.select(1L, NO_FILTER), "a", "b");
+        assertEquals(List.of("1", "2", "3"), data.x);
+        assertEquals(List.of("x", "y"), data.y);
+        assertEquals(0, new BigDecimal("1.5").compareTo(data.z[0][0]));
+        assertEquals(0, new BigDecimal("0.25").compareTo(data.z[0][1]));
+        assertEquals(0, new BigDecimal("3").compareTo(data.z[0][2]));
+        assertEquals(0, new BigDecimal("4").compareTo(data.z[1][0]));
+        assertEquals(0, new BigDecimal("5").compareTo(data.z[1][1]));
+        assertEquals(0, new BigDecimal("6").compareTo(data.z[1][2]));
+
+        assertThrows(IllegalStateException.class, () -> columns.plot(new int[0], "a", "d"));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        ExperimentResultColumns columns = createColumns();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            columns.write(out);
+        }
+        byte[] bytes = baos.toByteArray();
+        ExperimentResultColumns read = ExperimentResultColumns.read(new DataInputStream(new ByteArrayInputStream(bytes)), bytes.length);
+
+        assertEquals(columns.createdOn, read.createdOn);
+        assertEquals(columns.size(), read.size());
+        String[] filter = {"a-0", "a-2"};
+        assertArrayEquals(taskIds(columns, columns.select(1L, filter)), taskIds(read, read.select(1L, filter)));
+        assertArrayEquals(
+                columns.plot(columns.select(1L, NO_FILTER), "a", "b").z,
+                read.plot(read.select(1L, NO_FILTER), "a", "b").z);
+    }
+
+    @Test
+    public void testReadBroken() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            createColumns().write(out);
+        }
+        byte[] bytes = baos.toByteArray();
+
+        // size of columns is right after version and createdOn
+        byte[] brokenSize = bytes.clone();
+        ByteBuffer.wrap(brokenSize).putInt(12, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> ExperimentResultColumns.read(new DataInputStream(new ByteArrayInputStream(brokenSize)), brokenSize.length));
+
+        ByteBuffer.wrap(brokenSize).putInt(12, -1);
+        assertThrows(IOException.class, () -> ExperimentResultColumns.read(new DataInputStream(new ByteArrayInputStream(brokenSize)), brokenSize.length));
+
+        // the last int is a code of value of the last param
+        byte[] brokenCode = bytes.clone();
+        ByteBuffer.wrap(brokenCode).putInt(brokenCode.length - 4, 1000);
+        assertThrows(IOException.class, () -> ExperimentResultColumns.read(new DataInputStream(new ByteArrayInputStream(brokenCode)), brokenCode.length));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(IOException.class, () -> ExperimentResultColumns.read(new DataInputStream(new ByteArrayInputStream(truncated)), truncated.length));
+    }
+
+    private static ExperimentResultColumns createColumns() {
+        List<ExperimentApiData.HyperParam> hyperParams = List.of(
+                new ExperimentApiData.HyperParam("a", "[1, 2, 3]", 3),
+                new ExperimentApiData.HyperParam("b", "[x, y]", 2),
+                new ExperimentApiData.HyperParam("c", "[only]", 1));
+
+        return new ExperimentResultColumns.Builder(42L, hyperParams)
+                .add(task(1, 3, Map.of("a", "1", "b", "x", "c", "only"), "1.0"), 1L)
+                .add(task(2, 3, Map.of("a", "2", "b", "x", "c", "only"), "0.25"), 1L)
+                .add(task(3, 3, Map.of("a", "3", "b", "x", "c", "only"), "3"), 1L)
+                .add(task(4, 3, Map.of("a", "1", "b", "y", "c", "other", "d", "0"), "4"), 1L)
+                .add(task(5, 3, Map.of("a", "2", "b", "y", "c", "only"), "5"), 1L)
+                .add(task(6, 3, Map.of("a", "3", "b", "y", "c", "only"), "6"), 1L)
+                // isn't finished
+                .add(task(7, 1, Map.of("a", "1", "b", "x", "c", "only"), "100"), 1L)
+                // without inline it's accumulated in the first cell
+                .add(task(8, 3, Map.of(), "0.5"), 1L)
+                .add(task(9, 3, Map.of("a", "1", "b", "x"), "100"), null)
+                .add(task(10, 3, Map.of("a", "1", "b", "x"), "100"), 2L)
+                .build();
+    }
+
+    private static ExperimentResultTaskParams task(long taskId, int execState, Map<String, String> inline, String metric) {
+        ExperimentResultTaskParams task = new ExperimentResultTaskParams();
+        task.taskId = taskId;
+        task.execState = execState;
+        task.taskParams = new ExperimentResultTaskParams.TaskParams(inline, inline);
+        task.metrics.values.put("roc", new BigDecimal(metric));
+        return task;
+    }
+
+    private static long[] taskIds(ExperimentResultColumns columns, int[] rows) {
+        long[] ids = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = columns.getTaskId(rows[i]);
+        }
+        return ids;
+    }
+}
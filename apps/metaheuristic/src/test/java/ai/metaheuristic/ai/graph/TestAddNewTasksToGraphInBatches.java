@@ -0,0 +1,177 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.graph;
+
+import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
+import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextCreatorService;
+import ai.metaheuristic.ai.preparing.PreparingSourceCode;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.OperationStatusRest;
+import ai.metaheuristic.api.data.task.TaskApiData;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Graph which was built with bulk addNewTasksToGraph() in a few batches must be the same as the graph
+ * which was built with adding of tasks one by one
+ *
+ * @author Serge
+ * Date: 10/20/2026
+ * Time: 6:15 PM
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("dispatcher")
+@Slf4j
+@DirtiesContext
+@AutoConfigureCache
+public class TestAddNewTasksToGraphInBatches extends PreparingSourceCode {
+
+    private static final Long ROOT_TASK_ID = 1L;
+    private static final Long JOIN_TASK_ID = 100L;
+
+    @Override
+    public String getSourceCodeYamlAsString() {
+        return getSourceParamsYamlAsString_Simple();
+    }
+
+    /**
+     * 3 instances of sequential sub-process with 2 tasks each, all of them are children of the root task,
+     * and the task which is a child of the last tasks of all instances.
+     * Tasks are listed in order of creating, as TaskProducingService does.
+     */
+    private static List<ExecContextData.NewTaskVertex> newTasks() {
+        List<ExecContextData.NewTaskVertex> tasks = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            long first = i * 10;
+            long second = first + 1;
+            tasks.add(new ExecContextData.NewTaskVertex(first, "1,2#" + i, List.of(ROOT_TASK_ID), EnumsApi.TaskExecState.NONE));
+            tasks.add(new ExecContextData.NewTaskVertex(second, "1,2#" + i, List.of(first), EnumsApi.TaskExecState.NONE));
+        }
+        tasks.add(new ExecContextData.NewTaskVertex(JOIN_TASK_ID, "1", List.of(11L, 21L, 31L), EnumsApi.TaskExecState.NONE));
+        return tasks;
+    }
+
+    @Test
+    public void test() {
+        List<ExecContextData.NewTaskVertex> newTasks = newTasks();
+
+        ExecContextCreatorService.ExecContextCreationResult result = txSupportForTestingService.createExecContext(sourceCode, company.getUniqueId());
+        execContextForTest = result.execContext;
+        assertNotNull(execContextForTest);
+
+        ExecContextCreatorService.ExecContextCreationResult bulkResult = txSupportForTestingService.createExecContext(sourceCode, company.getUniqueId());
+        ExecContextImpl bulkExecContext = bulkResult.execContext;
+        assertNotNull(bulkExecContext);
+
+        try {
+            // one by one
+            withSync(execContextForTest, () -> {
+                addRootTask(execContextForTest);
+                for (ExecContextData.NewTaskVertex t : newTasks) {
+                    OperationStatusRest osr = txSupportForTestingService.addTasksToGraphWithTx(execContextForTest.id, t.parentTaskIds,
+                            List.of(new TaskApiData.TaskWithContext(t.taskId, t.taskContextId)));
+                    assertEquals(EnumsApi.OperationStatus.OK, osr.status);
+                }
+            });
+
+            // in two batches, the boundary is between the tasks of the second instance,
+            // so parents of tasks in the second batch are in graph already or in the same batch
+            withSync(bulkExecContext, () -> {
+                addRootTask(bulkExecContext);
+                OperationStatusRest osr = txSupportForTestingService.addNewTasksToGraphWithTx(bulkExecContext.id, newTasks.subList(0, 3));
+                assertEquals(EnumsApi.OperationStatus.OK, osr.status);
+                osr = txSupportForTestingService.addNewTasksToGraphWithTx(bulkExecContext.id, newTasks.subList(3, newTasks.size()));
+                assertEquals(EnumsApi.OperationStatus.OK, osr.status);
+            });
+
+            execContextForTest = Objects.requireNonNull(execContextService.findById(execContextForTest.id));
+            ExecContextImpl bulk = Objects.requireNonNull(execContextService.findById(bulkExecContext.id));
+
+            Map<Long, String> vertices = toContexts(execContextGraphTopLevelService.findAll(execContextForTest.execContextGraphId));
+            Map<Long, String> bulkVertices = toContexts(execContextGraphTopLevelService.findAll(bulk.execContextGraphId));
+            assertEquals(newTasks.size() + 1, vertices.size());
+            assertEquals(vertices, bulkVertices);
+
+            for (Long taskId : vertices.keySet()) {
+                ExecContextData.TaskVertex v = new ExecContextData.TaskVertex(taskId);
+                Set<Long> parents = toIds(findDirectAncestors(execContextForTest, v));
+                assertEquals(parents, toIds(findDirectAncestors(bulk, v)), "parents of task #" + taskId);
+                assertEquals(
+                        toIds(execContextGraphTopLevelService.findDirectDescendants(execContextForTest.execContextGraphId, taskId)),
+                        toIds(execContextGraphTopLevelService.findDirectDescendants(bulk.execContextGraphId, taskId)),
+                        "children of task #" + taskId);
+                assertEquals(findTaskState(execContextForTest, taskId), findTaskState(bulk, taskId), "state of task #" + taskId);
+            }
+
+            // edges across the boundary of batches
+            assertEquals(Set.of(20L), toIds(findDirectAncestors(bulk, new ExecContextData.TaskVertex(21L))));
+            assertEquals(Set.of(11L, 21L, 31L), toIds(findDirectAncestors(bulk, new ExecContextData.TaskVertex(JOIN_TASK_ID))));
+            assertEquals(newTasks.size(), execContextGraphTopLevelService.findDescendants(bulk.execContextGraphId, ROOT_TASK_ID).size());
+            assertEquals(List.of(JOIN_TASK_ID), findLeafs(bulk).stream().map(o -> o.taskId).collect(Collectors.toList()));
+            assertEquals(newTasks.size() + 1, getCountUnfinishedTasks(bulk));
+        }
+        finally {
+            deleteExecContext(bulkExecContext);
+        }
+    }
+
+    private void addRootTask(ExecContextImpl execContext) {
+        OperationStatusRest osr = txSupportForTestingService.addTasksToGraphWithTx(execContext.id, List.of(),
+                List.of(new TaskApiData.TaskWithContext(ROOT_TASK_ID, "1")));
+        assertEquals(EnumsApi.OperationStatus.OK, osr.status);
+    }
+
+    private void withSync(ExecContextImpl execContext, Runnable runnable) {
+        execContextSyncService.getWithSync(execContext.id, () ->
+                execContextGraphSyncService.getWithSync(execContext.execContextGraphId, () ->
+                        execContextTaskStateSyncService.getWithSync(execContext.execContextTaskStateId, () -> {
+                            runnable.run();
+                            return null;
+                        })));
+    }
+
+    private void deleteExecContext(ExecContextImpl execContext) {
+        try {
+            execContextRepository.deleteById(execContext.id);
+            execContextGraphRepository.deleteById(execContext.execContextGraphId);
+            execContextTaskStateRepository.deleteById(execContext.execContextTaskStateId);
+        } catch (Throwable th) {
+            log.error("Error while deleting of execContext #" + execContext.id, th);
+        }
+    }
+
+    private static Map<Long, String> toContexts(Collection<ExecContextData.TaskVertex> vertices) {
+        return vertices.stream().collect(Collectors.toMap(o -> o.taskId, o -> o.taskContextId));
+    }
+
+    private static Set<Long> toIds(Collection<ExecContextData.TaskVertex> vertices) {
+        return vertices.stream().map(o -> o.taskId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ai.metaheuristic.ai.graph;
+
+import ai.metaheuristic.ai.dispatcher.data.ExecContextData;
+import ai.metaheuristic.ai.dispatcher.exec_context_graph.ExecContextGraphCodec;
+import ai.metaheuristic.ai.yaml.exec_context_graph.ExecContextGraphParamsYaml;
+import ai.metaheuristic.ai.yaml.exec_context_graph.ExecContextGraphParamsYamlUtils;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DirectedAcyclicGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 5:20 PM
+ */
+public class TestExecContextGraphCodec {
+
+    private static DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> createGraph() {
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = ExecContextGraphCodec.createGraph();
+        ExecContextData.TaskVertex v1 = new ExecContextData.TaskVertex(100L, "1");
+        ExecContextData.TaskVertex v2 = new ExecContextData.TaskVertex(42L, "1,2#1");
+        ExecContextData.TaskVertex v3 = new ExecContextData.TaskVertex(101L, "1,2#1");
+        ExecContextData.TaskVertex v4 = new ExecContextData.TaskVertex(5_000_000_000L, "1");
+        graph.addVertex(v1);
+        graph.addVertex(v2);
+        graph.addVertex(v3);
+        graph.addVertex(v4);
+        graph.addEdge(v1, v2);
+        graph.addEdge(v1, v3);
+        graph.addEdge(v2, v4);
+        graph.addEdge(v3, v4);
+        return graph;
+    }
+
+    private static void assertSameGraph(DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> expected, DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> actual) {
+        List<ExecContextData.TaskVertex> ev = new ArrayList<>(expected.vertexSet());
+        List<ExecContextData.TaskVertex> av = new ArrayList<>(actual.vertexSet());
+        assertEquals(ev.size(), av.size());
+        for (int i = 0; i < ev.size(); i++) {
+            assertEquals(ev.get(i).taskId, av.get(i).taskId);
+            assertEquals(ev.get(i).taskContextId, av.get(i).taskContextId);
+        }
+        assertEquals(expected.edgeSet().size(), actual.edgeSet().size());
+        for (DefaultEdge e : expected.edgeSet()) {
+            assertTrue(actual.containsEdge(expected.getEdgeSource(e), expected.getEdgeTarget(e)));
+        }
+    }
+
+    @Test
+    public void test_roundTrip() {
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = createGraph();
+        graph.addVertex(new ExecContextData.TaskVertex(7L, null));
+
+        String encoded = ExecContextGraphCodec.encode(graph);
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> decoded = ExecContextGraphCodec.decode(encoded);
+
+        assertSameGraph(graph, decoded);
+        assertEquals(encoded, ExecContextGraphCodec.encode(decoded));
+    }
+
+    @Test
+    public void test_emptyGraph() {
+        String encoded = ExecContextGraphCodec.encode(ExecContextGraphCodec.createGraph());
+        assertEquals("", encoded);
+        assertTrue(ExecContextGraphCodec.decode(encoded).vertexSet().isEmpty());
+    }
+
+    @Test
+    public void test_upgradeFromDot() {
+        DirectedAcyclicGraph<ExecContextData.TaskVertex, DefaultEdge> graph = createGraph();
+        String yaml = "version: 1\ngraph: |\n  " + ExecContextGraphCodec.exportDot(graph).replace("\n", "\n  ");
+
+        ExecContextGraphParamsYaml ecgpy = ExecContextGraphParamsYamlUtils.BASE_YAML_UTILS.to(yaml);
+        assertEquals(2, ecgpy.version);
+        assertSameGraph(graph, ExecContextGraphCodec.decode(ecgpy.graph));
+
+        String s = ExecContextGraphParamsYamlUtils.BASE_YAML_UTILS.toString(ecgpy);
+        ExecContextGraphParamsYaml ecgpy1 = ExecContextGraphParamsYamlUtils.BASE_YAML_UTILS.to(s);
+        assertEquals(ecgpy.graph, ecgpy1.graph);
+    }
+}
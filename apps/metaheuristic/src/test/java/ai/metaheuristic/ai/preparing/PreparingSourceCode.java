@@ -579,7 +579,7 @@ public abstract class PreparingSourceCode extends PreparingCore {
             return EnumsApi.TaskExecState.NONE;
         }
 
-        return ects.getExecContextTaskStateParamsYaml().states.getOrDefault(taskId, EnumsApi.TaskExecState.NONE);
+        return execContextTaskStateCache.getStates(ects).get(taskId);
     }
 
     public Set<EnumsApi.TaskExecState> findTaskStates(ExecContextImpl execContext) {
@@ -591,7 +591,7 @@ public abstract class PreparingSourceCode extends PreparingCore {
             return Set.of();
         }
 
-        return new HashSet<>(ects.getExecContextTaskStateParamsYaml().states.values());
+        return new HashSet<>(execContextTaskStateCache.getStates(ects).toMap().values());
     }
 
 
@@ -0,0 +1,106 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor;
+
+import ai.metaheuristic.ai.yaml.processor_task.ProcessorTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 8:30 AM
+ */
+public class TestProcessorTaskJournal {
+
+    @Test
+    public void testAppendAndLoad(@TempDir File tempDir) throws Exception {
+        try (ProcessorTaskJournal journal = new ProcessorTaskJournal(tempDir)) {
+            assertFalse(journal.exists());
+
+            ProcessorTask task = task(1L);
+            journal.append(task);
+            journal.append(task(2L));
+
+            task.completed = true;
+            task.output.outputStatuses.add(new ProcessorTask.OutputStatus(42L, true));
+            task.empty.empties.add(new ProcessorTask.EmptyStateOfInput("13", true));
+            journal.append(task);
+            journal.delete(2L);
+        }
+
+        ProcessorTaskJournal journal = new ProcessorTaskJournal(tempDir);
+        assertTrue(journal.exists());
+        Map<Long, ProcessorTask> tasks = journal.load();
+        assertEquals(1, tasks.size());
+        ProcessorTask task = tasks.get(1L);
+        assertNotNull(task);
+        assertTrue(task.completed);
+        assertEquals("http://localhost:8080", task.dispatcherUrl);
+        assertEquals(1, task.output.outputStatuses.size());
+        assertTrue(task.output.allUploaded());
+        assertTrue(task.empty.isEmpty("13"));
+        journal.close();
+    }
+
+    @Test
+    public void testSnapshotAndBrokenLine(@TempDir File tempDir) throws Exception {
+        try (ProcessorTaskJournal journal = new ProcessorTaskJournal(tempDir)) {
+            journal.writeSnapshot(List.of(task(1L), task(2L)));
+            ProcessorTask task = task(3L);
+            task.reported = true;
+            journal.append(task);
+        }
+        assertTrue(new File(tempDir, ProcessorTaskJournal.SNAPSHOT_FILE).exists());
+
+        // emulate the crash during writing of the last record
+        File journalFile = new File(tempDir, ProcessorTaskJournal.JOURNAL_FILE);
+        Files.writeString(journalFile.toPath(), Files.readString(journalFile.toPath()) + "{\"taskId\":4,\"task\":{\"taskId\"");
+
+        try (ProcessorTaskJournal journal = new ProcessorTaskJournal(tempDir)) {
+            Map<Long, ProcessorTask> tasks = journal.load();
+            assertEquals(List.of(1L, 2L, 3L), List.copyOf(tasks.keySet()));
+            assertTrue(tasks.get(3L).reported);
+
+            // the first record after the crash isn't appended to the torn line
+            journal.append(task(5L));
+            journal.delete(1L);
+        }
+
+        try (ProcessorTaskJournal journal = new ProcessorTaskJournal(tempDir)) {
+            Map<Long, ProcessorTask> tasks = journal.load();
+            assertEquals(List.of(2L, 3L, 5L), List.copyOf(tasks.keySet()));
+        }
+    }
+
+    private static ProcessorTask task(Long taskId) {
+        ProcessorTask task = new ProcessorTask();
+        task.taskId = taskId;
+        task.execContextId = 10L;
+        task.params = "params of task #" + taskId;
+        task.dispatcherUrl = "http://localhost:8080";
+        task.createdOn = System.currentTimeMillis();
+        return task;
+    }
+}
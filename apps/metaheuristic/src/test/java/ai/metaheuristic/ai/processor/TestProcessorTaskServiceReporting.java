@@ -0,0 +1,120 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor;
+
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.processor.data.ProcessorData;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
+import ai.metaheuristic.ai.yaml.processor_task.ProcessorTask;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.FunctionApiData;
+import ai.metaheuristic.api.data.task.TaskParamsYaml;
+import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reporting of tasks runs concurrently with finishing of tasks in execution slots,
+ * a task must never be reported without its result
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 9:10 PM
+ */
+public class TestProcessorTaskServiceReporting {
+
+    private static final int TASKS = 2000;
+
+    @Test
+    public void testReportingConcurrentlyWithMarkAsFinished(@TempDir File tempDir) throws Exception {
+        Globals globals = new Globals(null, null);
+        globals.isUnitTesting = true;
+        globals.processorDir = tempDir;
+
+        ProcessorTaskService processorTaskService = new ProcessorTaskService(globals, null, null, null);
+        ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref = new ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef(
+                "processor-01", "1", new ProcessorAndCoreData.DispatcherUrl("http://localhost:8080"));
+
+        TaskParamsYaml tpy = new TaskParamsYaml();
+        tpy.task.execContextId = 42L;
+        tpy.task.taskContextId = "1";
+        tpy.task.processCode = "test-process";
+        tpy.task.context = EnumsApi.FunctionExecContext.internal;
+        tpy.task.function = new TaskParamsYaml.FunctionConfig();
+        tpy.task.function.code = "test-function:1.0";
+        tpy.task.function.sourcing = EnumsApi.FunctionSourcing.dispatcher;
+        String params = TaskParamsYamlUtils.BASE_YAML_UTILS.toString(tpy);
+
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            processorTaskService.createTask(ref, taskId, 42L, params);
+            processorTaskService.setLaunchOn(ref, taskId);
+        }
+
+        // key - taskId, value - reported result
+        Map<Long, String> reported = new ConcurrentHashMap<>();
+        AtomicBoolean finished = new AtomicBoolean(false);
+        AtomicBoolean reportedWithoutResult = new AtomicBoolean(false);
+
+        Thread reporter = new Thread(() -> {
+            while (true) {
+                boolean last = finished.get();
+                ProcessorCommParamsYaml.ReportTaskProcessingResult r = processorTaskService.reportTaskProcessingResult(ref);
+                if (r!=null) {
+                    for (ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult result : r.results) {
+                        if (result.result==null) {
+                            reportedWithoutResult.set(true);
+                        }
+                        else {
+                            reported.put(result.taskId, result.result);
+                        }
+                    }
+                }
+                if (last) {
+                    break;
+                }
+            }
+        });
+        reporter.start();
+
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            processorTaskService.markAsFinished(ref, taskId,
+                    new FunctionApiData.FunctionExec(
+                            new FunctionApiData.SystemExecResult("function-" + taskId, true, 0, "console of #" + taskId),
+                            null, null, null));
+        }
+        finished.set(true);
+        reporter.join(60_000);
+        assertFalse(reporter.isAlive());
+
+        assertFalse(reportedWithoutResult.get(), "a task was reported without its result");
+        assertEquals(TASKS, reported.size());
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            ProcessorTask task = processorTaskService.findById(ref, taskId);
+            assertNotNull(task);
+            assertTrue(task.reported);
+            assertNotNull(reported.get(taskId));
+            assertTrue(reported.get(taskId).contains("function-" + taskId));
+        }
+    }
+}
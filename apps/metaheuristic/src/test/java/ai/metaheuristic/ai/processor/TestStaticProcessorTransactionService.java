@@ -106,6 +106,12 @@ public class TestStaticProcessorTransactionService {
 
         assertFalse(ProcessorTransactionService.envNotEquals(new ProcessorStatusYaml.Env(""), new KeepAliveRequestParamYaml.Env("")));
         assertFalse(ProcessorTransactionService.envNotEquals(new ProcessorStatusYaml.Env("aaa"), new KeepAliveRequestParamYaml.Env("aaa")));
+
+        ProcessorStatusYaml.Env envWithSlots = new ProcessorStatusYaml.Env("aaa");
+        envWithSlots.slots = 4;
+        assertTrue(ProcessorTransactionService.envNotEquals(envWithSlots, new KeepAliveRequestParamYaml.Env("aaa")));
+        assertTrue(ProcessorTransactionService.envNotEquals(new ProcessorStatusYaml.Env(), new KeepAliveRequestParamYaml.Env(null, 4)));
+        assertFalse(ProcessorTransactionService.envNotEquals(envWithSlots, new KeepAliveRequestParamYaml.Env("aaa", 4)));
         assertFalse(ProcessorTransactionService.envNotEquals(
                 createProcessorStatusYamlEnvYaml(Map.of("q","1"), Map.of("w", "2"), List.of(), "aaa"),
                 createEnvYaml(Map.of("q","1"), Map.of("w", "2"), List.of(), "aaa")));
@@ -0,0 +1,127 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor;
+
+import ai.metaheuristic.ai.Globals;
+import ai.metaheuristic.ai.processor.data.ProcessorData;
+import ai.metaheuristic.ai.yaml.processor_task.ProcessorTask;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.task.TaskParamsYaml;
+import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tasks are executed concurrently in slots of processor
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 6:40 PM
+ */
+public class TestTaskProcessorSlots {
+
+    private static final int SLOTS = 3;
+    private static final int TASKS = 7;
+
+    @Test
+    public void testConcurrentExecution(@TempDir File tempDir) throws Exception {
+        Globals globals = new Globals(null, null);
+        globals.isUnitTesting = true;
+        globals.processorEnabled = true;
+        globals.processorDir = tempDir;
+
+        ProcessorTaskService processorTaskService = new ProcessorTaskService(globals, null, null, null);
+        ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef ref = new ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef(
+                "processor-01", "1", new ProcessorAndCoreData.DispatcherUrl("http://localhost:8080"));
+
+        TaskParamsYaml tpy = new TaskParamsYaml();
+        tpy.task.execContextId = 42L;
+        tpy.task.taskContextId = "1";
+        tpy.task.processCode = "test-process";
+        tpy.task.context = EnumsApi.FunctionExecContext.internal;
+        tpy.task.function = new TaskParamsYaml.FunctionConfig();
+        tpy.task.function.code = "test-function:1.0";
+        tpy.task.function.sourcing = EnumsApi.FunctionSourcing.dispatcher;
+        String params = TaskParamsYamlUtils.BASE_YAML_UTILS.toString(tpy);
+
+        for (long taskId = 1; taskId <= TASKS; taskId++) {
+            processorTaskService.createTask(ref, taskId, 42L, params);
+            processorTaskService.markAsAssetPrepared(ref, taskId, true);
+        }
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // key - taskId, value - how many times the task was executed
+        final Map<Long, AtomicInteger> executions = new ConcurrentHashMap<>();
+        final CountDownLatch allSlotsBusy = new CountDownLatch(SLOTS);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        TaskProcessor taskProcessor = new TaskProcessor(ref.processorCode, SLOTS, globals, processorTaskService,
+                null, null, null, null, null, null, null) {
+            @Override
+            void processTask(ProcessorData.ProcessorCodeAndIdAndDispatcherUrlRef r, ProcessorTask task) {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                executions.computeIfAbsent(task.taskId, o -> new AtomicInteger()).incrementAndGet();
+                allSlotsBusy.countDown();
+                try {
+                    assertTrue(release.await(30, TimeUnit.SECONDS));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    running.decrementAndGet();
+                }
+                processorTaskService.markAsFinishedWithError(r, task.taskId, "done");
+            }
+        };
+        try {
+            taskProcessor.process(ref);
+            assertTrue(allSlotsBusy.await(30, TimeUnit.SECONDS));
+
+            // all slots are busy, repeated scans must neither start more tasks nor start the same tasks again
+            taskProcessor.process(ref);
+            taskProcessor.process(ref);
+            assertEquals(SLOTS, executions.size());
+            assertEquals(SLOTS, running.get());
+
+            release.countDown();
+            for (int i = 0; i < 300 && executions.size() < TASKS; i++) {
+                taskProcessor.process(ref);
+                Thread.sleep(100);
+            }
+        }
+        finally {
+            release.countDown();
+            taskProcessor.shutdown();
+        }
+
+        assertEquals(TASKS, executions.size());
+        assertTrue(executions.values().stream().allMatch(o -> o.get()==1));
+        assertEquals(SLOTS, maxRunning.get());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.processor.actors;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.commons.utils.Checksum;
+import ai.metaheuristic.api.EnumsApi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.fluent.Executor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 12:30 AM
+ */
+public class TestRangeDownloadService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String ETAG = "\"data-v1\"";
+
+    private final byte[] data = new byte[10_500];
+    private final AtomicInteger requests = new AtomicInteger();
+    // requests which start at this offset or after it will be answered with 404, -1 - never
+    private volatile int notFoundFrom = -1;
+    private HttpServer server;
+    private ExecutorService executor;
+    private URI uri;
+
+    @BeforeEach
+    public void before() throws IOException {
+        new Random(42).nextBytes(data);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/data");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.getResponseHeaders().add(Consts.HEADER_MH_CONTENT_SHA256, Checksum.getChecksum(EnumsApi.HashAlgo.SHA256, new ByteArrayInputStream(data)));
+        int start = 0;
+        int end = data.length - 1;
+        int status = 200;
+        if (range!=null && (ifRange==null || ifRange.equals(ETAG))) {
+            String[] parts = range.substring("bytes=".length()).split("-");
+            start = Integer.parseInt(parts[0]);
+            if (notFoundFrom!=-1 && start>=notFoundFrom) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            end = Math.min(Integer.parseInt(parts[1]), data.length - 1);
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + '-' + end + '/' + data.length);
+        }
+        exchange.sendResponseHeaders(status, end - start + 1);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(data, start, end - start + 1);
+        }
+    }
+
+    private RangeDownloadService.DownloadResult download(File target) {
+        return RangeDownloadService.download(executor, new Semaphore(2), 3, Executor.newInstance(), uri, target, CHUNK_SIZE);
+    }
+
+    @Test
+    public void testDownload(@TempDir File tempDir) throws IOException {
+        File target = new File(tempDir, "variable");
+        RangeDownloadService.DownloadResult result = download(target);
+
+        assertEquals(RangeDownloadService.Status.ok, result.status, result.toString());
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertEquals(11, requests.get());
+        assertFalse(new File(tempDir, "variable" + RangeDownloadService.PART_EXT).exists());
+        assertFalse(new File(tempDir, "variable" + RangeDownloadService.STATE_EXT).exists());
+    }
+
+    @Test
+    public void testResume(@TempDir File tempDir) throws IOException {
+        File target = new File(tempDir, "variable");
+        File partFile = new File(tempDir, "variable" + RangeDownloadService.PART_EXT);
+        File stateFile = new File(tempDir, "variable" + RangeDownloadService.STATE_EXT);
+
+        // chunks 0-5 were downloaded before restart, the rest of file contains garbage
+        byte[] part = new byte[data.length];
+        System.arraycopy(data, 0, part, 0, 6 * CHUNK_SIZE);
+        Files.write(partFile.toPath(), part);
+        BitSet done = new BitSet();
+        done.set(0, 6);
+        new RangeDownloadService.DownloadState(data.length, CHUNK_SIZE, ETAG, null, done).save(stateFile);
+
+        RangeDownloadService.DownloadResult result = download(target);
+
+        assertEquals(RangeDownloadService.Status.ok, result.status, result.toString());
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertEquals(5, requests.get());
+    }
+
+    @Test
+    public void testChangedData(@TempDir File tempDir) throws IOException {
+        File target = new File(tempDir, "variable");
+        File partFile = new File(tempDir, "variable" + RangeDownloadService.PART_EXT);
+        File stateFile = new File(tempDir, "variable" + RangeDownloadService.STATE_EXT);
+
+        Files.write(partFile.toPath(), new byte[data.length]);
+        BitSet done = new BitSet();
+        done.set(0, 6);
+        new RangeDownloadService.DownloadState(data.length, CHUNK_SIZE, "\"data-v0\"", null, done).save(stateFile);
+
+        // the whole new data is sent by server because ETag was changed
+        RangeDownloadService.DownloadResult result = download(target);
+
+        assertEquals(RangeDownloadService.Status.ok, result.status, result.toString());
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testNotFound(@TempDir File tempDir) {
+        // the endpoint doesn't exist at all, i.e. dispatcher is an old one
+        notFoundFrom = 0;
+        RangeDownloadService.DownloadResult result = download(new File(tempDir, "variable"));
+        assertEquals(RangeDownloadService.Status.not_supported, result.status, result.toString());
+
+        // the resource disappeared in the middle of downloading
+        notFoundFrom = 5 * CHUNK_SIZE;
+        result = download(new File(tempDir, "variable"));
+        assertEquals(RangeDownloadService.Status.not_found, result.status, result.toString());
+        // chunks which were downloaded after the last checkpoint were stored at the end of downloading
+        RangeDownloadService.DownloadState state = RangeDownloadService.DownloadState.load(new File(tempDir, "variable" + RangeDownloadService.STATE_EXT));
+        assertNotNull(state);
+        assertEquals(5, state.done.cardinality());
+    }
+
+    @Test
+    public void testParseContentRange() {
+        assertArrayEquals(new long[]{0, 499, 1234}, RangeDownloadService.parseContentRange("bytes 0-499/1234"));
+        assertArrayEquals(new long[]{500, 999, -1}, RangeDownloadService.parseContentRange("bytes 500-999/*"));
+        assertNull(RangeDownloadService.parseContentRange("bytes */1234"));
+        assertNull(RangeDownloadService.parseContentRange("bytes 10-5/1234"));
+        assertNull(RangeDownloadService.parseContentRange(null));
+    }
+}
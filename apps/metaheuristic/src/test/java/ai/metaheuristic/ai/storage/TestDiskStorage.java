@@ -16,7 +16,19 @@
 
 package ai.metaheuristic.ai.storage;
 
+import ai.metaheuristic.ai.dispatcher.storage.DiskVariableStorage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Serge
@@ -26,7 +38,45 @@ import org.junit.jupiter.api.Test;
 public class TestDiskStorage {
 
     @Test
-    public void testDiskStorage() {
-        // TODO need to implement
+    public void testDiskStorage(@TempDir File tempDir) throws IOException {
+        DiskVariableStorage storage = new DiskVariableStorage(new File(tempDir, "storage"));
+        byte[] bytes = "some data".getBytes(StandardCharsets.UTF_8);
+
+        String ref = storage.store(new ByteArrayInputStream(bytes), bytes.length).ref;
+        assertTrue(ref.startsWith("disk:"));
+        // the same content is stored only once
+        assertEquals(ref, storage.store(new ByteArrayInputStream(bytes), bytes.length).ref);
+
+        try (InputStream is = storage.getAsStream(ref)) {
+            assertNotNull(is);
+            assertArrayEquals(bytes, is.readAllBytes());
+        }
+        File trgFile = new File(tempDir, "trg.bin");
+        assertTrue(storage.storeToFile(ref, trgFile));
+        assertArrayEquals(bytes, Files.readAllBytes(trgFile.toPath()));
+
+        assertEquals(List.of(ref), storage.getRefs(System.currentTimeMillis() + 1000));
+        assertTrue(storage.getRefs(0).isEmpty());
+
+        // storing of the same payload updates its timestamp, so it isn't treated as an orphan
+        File file = storage.getFile(ref.substring("disk:".length()));
+        assertTrue(file.setLastModified(1000));
+        assertEquals(1000, storage.getStoredOn(ref));
+        storage.store(new ByteArrayInputStream(bytes), bytes.length);
+        assertTrue(storage.getStoredOn(ref) > 1000);
+
+        storage.delete(ref);
+        assertNull(storage.getAsStream(ref));
+        assertFalse(storage.storeToFile(ref, trgFile));
+        assertNull(storage.getStoredOn(ref));
+        assertTrue(storage.getRefs(System.currentTimeMillis() + 1000).isEmpty());
+    }
+
+    @Test
+    public void testWrongSize(@TempDir File tempDir) {
+        DiskVariableStorage storage = new DiskVariableStorage(tempDir);
+        assertThrows(IOException.class, () -> storage.store(new ByteArrayInputStream(new byte[10]), 11));
+        assertThrows(IllegalArgumentException.class, () -> storage.getAsStream("disk:../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> storage.getAsStream("s3:" + "0".repeat(64)));
     }
 }
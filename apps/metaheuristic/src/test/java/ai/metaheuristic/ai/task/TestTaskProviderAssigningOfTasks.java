@@ -0,0 +1,240 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.task;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.dispatcher.DispatcherCommandProcessor;
+import ai.metaheuristic.ai.dispatcher.beans.ExecContextImpl;
+import ai.metaheuristic.ai.dispatcher.beans.Processor;
+import ai.metaheuristic.ai.dispatcher.beans.TaskImpl;
+import ai.metaheuristic.ai.dispatcher.data.ProcessorData;
+import ai.metaheuristic.ai.dispatcher.event.EventPublisherService;
+import ai.metaheuristic.ai.dispatcher.event.StartTaskProcessingTxEvent;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextService;
+import ai.metaheuristic.ai.dispatcher.exec_context.ExecContextStatusService;
+import ai.metaheuristic.ai.dispatcher.repositories.ExecContextRepository;
+import ai.metaheuristic.ai.dispatcher.repositories.TaskRepository;
+import ai.metaheuristic.ai.dispatcher.task.TaskProviderTransactionalService;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
+import ai.metaheuristic.api.data.task.TaskParamsYaml;
+import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assigning of several tasks with one request of processor
+ *
+ * @author Serge
+ * Date: 10/19/2026
+ * Time: 7:30 PM
+ */
+public class TestTaskProviderAssigningOfTasks {
+
+    private static final Long EXEC_CONTEXT_ID = 1L;
+    private static final String FUNCTION_CODE = "test-function:1.0";
+    // more than one group of TaskQueue
+    private static final int TASKS = 7;
+
+    // tasks in db
+    private final Map<Long, TaskImpl> db = new HashMap<>();
+    private final List<Object> events = new ArrayList<>();
+    private boolean failOnSave = false;
+
+    private TaskProviderTransactionalService service;
+    private Processor processor;
+    private ProcessorData.ProcessorCapability capability;
+
+    @BeforeEach
+    public void beforeEach() {
+        TaskParamsYaml tpy = new TaskParamsYaml();
+        tpy.task.execContextId = EXEC_CONTEXT_ID;
+        tpy.task.taskContextId = Consts.TOP_LEVEL_CONTEXT_ID;
+        tpy.task.processCode = "test-process";
+        tpy.task.context = EnumsApi.FunctionExecContext.external;
+        tpy.task.function = new TaskParamsYaml.FunctionConfig();
+        tpy.task.function.code = FUNCTION_CODE;
+        tpy.task.function.sourcing = EnumsApi.FunctionSourcing.dispatcher;
+        final String params = TaskParamsYamlUtils.BASE_YAML_UTILS.toString(tpy);
+
+        for (long id = 1; id <= TASKS; id++) {
+            TaskImpl t = new TaskImpl();
+            t.id = id;
+            t.execContextId = EXEC_CONTEXT_ID;
+            t.params = params;
+            t.execState = EnumsApi.TaskExecState.NONE.value;
+            db.put(id, t);
+        }
+
+        ExecContextParamsYaml ecpy = new ExecContextParamsYaml();
+        ecpy.processes.add(new ExecContextParamsYaml.Process("test-process", "test-process", Consts.TOP_LEVEL_CONTEXT_ID,
+                new ExecContextParamsYaml.FunctionDefinition(FUNCTION_CODE)));
+        ExecContextImpl ec = new ExecContextImpl();
+        ec.id = EXEC_CONTEXT_ID;
+        ec.updateParams(ecpy);
+
+        ExecContextRepository execContextRepository = proxy(ExecContextRepository.class, (method, args) -> {
+            if (method.equals("findAllExecStates")) {
+                return List.<Object[]>of(new Object[]{EXEC_CONTEXT_ID, EnumsApi.ExecContextState.STARTED.code});
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        TaskRepository taskRepository = proxy(TaskRepository.class, (method, args) -> {
+            switch (method) {
+                case "findById":
+                    return Optional.ofNullable(db.get((Long) args[0])).map(TestTaskProviderAssigningOfTasks::copy);
+                case "findAllById":
+                    List<TaskImpl> list = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        TaskImpl t = db.get((Long) id);
+                        if (t!=null) {
+                            list.add(copy(t));
+                        }
+                    }
+                    return list;
+                case "saveAll":
+                    if (failOnSave) {
+                        throw new IllegalStateException("saving was failed");
+                    }
+                    for (Object o : (Iterable<?>) args[0]) {
+                        TaskImpl t = (TaskImpl) o;
+                        db.put(t.id, copy(t));
+                    }
+                    return args[0];
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+
+        ExecContextService execContextService = new ExecContextService(null, null, null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public ExecContextImpl findById(Long id) {
+                return EXEC_CONTEXT_ID.equals(id) ? ec : null;
+            }
+        };
+        service = new TaskProviderTransactionalService(taskRepository, new ExecContextStatusService(execContextRepository),
+                execContextService, events::add, new EventPublisherService(events::add));
+
+        for (long id = 1; id <= TASKS; id++) {
+            assertTrue(service.registerTask(EXEC_CONTEXT_ID, id));
+        }
+        service.lock(EXEC_CONTEXT_ID);
+
+        processor = new Processor();
+        processor.id = 42L;
+        capability = new ProcessorData.ProcessorCapability(processor.id, null, Set.of(FUNCTION_CODE), Map.of(), false, null, null,
+                Enums.GitStatus.installed, TaskParamsYamlUtils.BASE_YAML_UTILS.getDefault().getVersion(), List.of());
+
+        // events about assigning can be published only within Tx
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testMaxTasks() {
+        // a processor which doesn't report free slots gets only one task
+        assertEquals(1, DispatcherCommandProcessor.getMaxTasks(null, 10));
+        assertEquals(1, DispatcherCommandProcessor.getMaxTasks(0, 10));
+        assertEquals(4, DispatcherCommandProcessor.getMaxTasks(4, 10));
+        assertEquals(3, DispatcherCommandProcessor.getMaxTasks(4, 3));
+    }
+
+    @Test
+    public void testAssignSeveralTasks() {
+        // processor has 4 free slots but only 3 tasks per request are allowed
+        final int maxTasks = DispatcherCommandProcessor.getMaxTasks(4, 3);
+        List<TaskImpl> tasks = service.findUnassignedTasksAndAssign(processor, capability, false, maxTasks);
+        assertEquals(3, tasks.size());
+        assertEquals(3, tasks.stream().map(t -> t.id).distinct().count());
+        for (TaskImpl t : tasks) {
+            TaskImpl stored = db.get(t.id);
+            assertEquals(EnumsApi.TaskExecState.IN_PROGRESS.value, stored.execState);
+            assertEquals(processor.id, stored.processorId);
+        }
+        // events are published once for all assigned tasks
+        List<StartTaskProcessingTxEvent> started = events.stream()
+                .filter(o -> o instanceof StartTaskProcessingTxEvent).map(o -> (StartTaskProcessingTxEvent) o)
+                .collect(Collectors.toList());
+        assertEquals(1, started.size());
+        assertEquals(3, started.get(0).tasks.size());
+
+        // the rest of tasks
+        List<TaskImpl> tasks1 = service.findUnassignedTasksAndAssign(processor, capability, false, 10);
+        assertEquals(TASKS - 3, tasks1.size());
+        assertTrue(tasks1.stream().noneMatch(t -> tasks.stream().anyMatch(o -> o.id.equals(t.id))));
+
+        assertTrue(service.findUnassignedTasksAndAssign(processor, capability, false, 10).isEmpty());
+    }
+
+    @Test
+    public void testRollbackOfAssigning() {
+        failOnSave = true;
+        assertThrows(IllegalStateException.class, () -> service.findUnassignedTasksAndAssign(processor, capability, false, 4));
+        assertTrue(db.values().stream().allMatch(t -> t.execState==EnumsApi.TaskExecState.NONE.value));
+        assertTrue(events.stream().noneMatch(o -> o instanceof StartTaskProcessingTxEvent));
+
+        // reserved tasks were returned to queue and can be assigned again
+        failOnSave = false;
+        List<TaskImpl> tasks = service.findUnassignedTasksAndAssign(processor, capability, false, TASKS);
+        assertEquals(TASKS, tasks.size());
+        assertTrue(db.values().stream().allMatch(t -> t.execState==EnumsApi.TaskExecState.IN_PROGRESS.value));
+    }
+
+    private static TaskImpl copy(TaskImpl t) {
+        TaskImpl c = new TaskImpl();
+        c.id = t.id;
+        c.execContextId = t.execContextId;
+        c.params = t.params;
+        c.execState = t.execState;
+        c.processorId = t.processorId;
+        c.assignedOn = t.assignedOn;
+        return c;
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> clazz, Handler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz}, (p, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "equals":
+                    return p==args[0];
+                case "toString":
+                    return clazz.getSimpleName();
+                default:
+                    return handler.invoke(method.getName(), args);
+            }
+        });
+    }
+}
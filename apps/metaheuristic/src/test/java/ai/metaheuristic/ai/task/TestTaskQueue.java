@@ -25,6 +25,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -350,8 +351,61 @@ public class TestTaskQueue {
 
     }
 
-//    @Test
-//    public void test_3_1() {
-//
-//    }
+    @Test
+    public void test_3_assignByRequirements() {
+        final TaskQueue taskQueue = new TaskQueue(1);
+
+        TaskQueue.QueuedTask task_1_1 = createTask(1L, 21L, 0);
+        TaskQueue.QueuedTask task_1_2 = createTask(1L, 22L, 0);
+        TaskQueue.QueuedTask task_2_1 = createTask(2L, 31L, 0);
+
+        taskQueue.addNewTask(task_1_1);
+        taskQueue.addNewTask(task_1_2);
+        taskQueue.addNewTask(task_2_1);
+
+        // tasks aren't available until their groups are locked
+        assertTrue(taskQueue.isQueueEmpty());
+        assertTrue(taskQueue.getAvailableRequirements().isEmpty());
+
+        taskQueue.lock(1L);
+        assertFalse(taskQueue.isQueueEmpty());
+
+        Set<TaskQueue.TaskRequirement> requirements = taskQueue.getAvailableRequirements();
+        assertEquals(1, requirements.size());
+        assertFalse(taskQueue.getIterator(Set.of()).hasNext());
+
+        TaskQueue.GroupIterator iter = taskQueue.getIterator(requirements);
+        assertTrue(iter.hasNext());
+        TaskQueue.AllocatedTask allocatedTask = iter.next();
+        assertEquals(task_1_1.taskId, allocatedTask.queuedTask.taskId);
+
+        assertTrue(taskQueue.assignTask(allocatedTask));
+        // the same task can't be reserved twice
+        assertFalse(taskQueue.assignTask(allocatedTask));
+
+        taskQueue.rollbackAssigning(allocatedTask);
+        assertFalse(allocatedTask.assigned);
+        assertTrue(taskQueue.assignTask(allocatedTask));
+
+        allocatedTask = iter.next();
+        assertEquals(task_1_2.taskId, allocatedTask.queuedTask.taskId);
+        assertTrue(taskQueue.assignTask(allocatedTask));
+        assertTrue(taskQueue.isQueueEmpty());
+
+        assertFalse(taskQueue.setTaskExecState(1L, task_1_1.taskId, EnumsApi.TaskExecState.OK));
+        assertTrue(taskQueue.setTaskExecState(1L, task_1_2.taskId, EnumsApi.TaskExecState.OK));
+
+        TaskQueue.TaskGroup taskGroup = taskQueue.getFinishedTaskGroup(1L);
+        assertNotNull(taskGroup);
+        taskQueue.resetTaskGroup(taskGroup);
+        assertNull(taskQueue.getFinishedTaskGroup(1L));
+        assertFalse(taskQueue.alreadyRegistered(task_1_1.taskId));
+        assertTrue(taskQueue.alreadyRegistered(task_2_1.taskId));
+
+        taskQueue.lock(2L);
+        assertFalse(taskQueue.isQueueEmpty());
+        taskQueue.deRegisterTask(task_2_1.execContextId, task_2_1.taskId);
+        assertTrue(taskQueue.isQueueEmpty());
+        assertFalse(taskQueue.alreadyRegistered(task_2_1.taskId));
+    }
 }
\ No newline at end of file
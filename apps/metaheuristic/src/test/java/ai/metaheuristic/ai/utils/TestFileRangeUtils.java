@@ -0,0 +1,126 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 11:05 PM
+ */
+public class TestFileRangeUtils {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @Test
+    public void testWholeFile(@TempDir File tempDir) throws Exception {
+        File file = createFile(tempDir);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeUtils.send(new MockHttpServletRequest(), response, file);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void testRange(@TempDir File tempDir) throws Exception {
+        File file = createFile(tempDir);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-14");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeUtils.send(request, response, file);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 10-14/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("abcde", response.getContentAsString());
+
+        // resuming from offset till the end of file
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=15-");
+        request.addHeader(HttpHeaders.IF_RANGE, FileRangeUtils.getETag(file, null));
+        response = new MockHttpServletResponse();
+        FileRangeUtils.send(request, response, file);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("fghij", response.getContentAsString());
+    }
+
+    @Test
+    public void testChangedFileAndWrongRange(@TempDir File tempDir) throws Exception {
+        File file = createFile(tempDir);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=15-");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"some-old-etag\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeUtils.send(request, response, file);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+        response = new MockHttpServletResponse();
+        FileRangeUtils.send(request, response, file);
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testETagOfRecreatedFile(@TempDir File tempDir) throws Exception {
+        File file = createFile(tempDir);
+        final String etag = FileRangeUtils.getETag(file, null);
+        final String etagWithChecksum = FileRangeUtils.getETag(file, "123abc");
+        assertEquals("\"123abc\"", etagWithChecksum);
+
+        // the file was evicted from cache and was created again with the same content
+        assertTrue(file.delete());
+        file = createFile(tempDir);
+        assertTrue(file.setLastModified(file.lastModified() + 10_000));
+        assertEquals(etag, FileRangeUtils.getETag(file, null));
+        assertEquals(etagWithChecksum, FileRangeUtils.getETag(file, "123abc"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=15-");
+        request.addHeader(HttpHeaders.IF_RANGE, etagWithChecksum);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeUtils.send(request, response, file, false, "123abc");
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals(etagWithChecksum, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("fghij", response.getContentAsString());
+    }
+
+    private static File createFile(File tempDir) throws Exception {
+        File file = new File(tempDir, "data.bin");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -131,6 +131,48 @@ public class TestInlineVariableUtils {
         assertEquals(4, path1.params.size());
     }
 
+    @Test
+    public void testOrderOfVariants() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("key1", "[1, 2]");
+        map.put("key2", "");
+        map.put("key3", "[a, b, c]");
+        map.put("key4", "x");
+
+        List<InlineVariable> inlines = InlineVariableUtils.getAllInlineVariants(map);
+        assertEquals(6, inlines.size());
+        assertEquals(",key1:1,key3:a,key4:x", inlines.get(0).path);
+        assertEquals(",key1:2,key3:a,key4:x", inlines.get(1).path);
+        assertEquals(",key1:1,key3:b,key4:x", inlines.get(2).path);
+        assertEquals(",key1:2,key3:c,key4:x", inlines.get(5).path);
+        assertEquals(List.of("key1", "key3", "key4"), new ArrayList<>(inlines.get(5).params.keySet()));
+        assertEquals(6, new HashSet<>(inlines).size());
+    }
+
+    @Test
+    public void testDuplicatedValues() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("key1", "[1, 2, 1]");
+        map.put("key2", "[a, a]");
+
+        List<InlineVariable> inlines = InlineVariableUtils.getAllInlineVariants(map);
+        assertEquals(2, inlines.size());
+        assertEquals(",key1:1,key2:a", inlines.get(0).path);
+        assertEquals(",key1:2,key2:a", inlines.get(1).path);
+    }
+
+    @Test
+    public void testHugeNumberOfVariants() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            map.put("key" + i, "range(0, 100, 1)");
+        }
+        // variants aren't materialized
+        List<InlineVariable> inlines = InlineVariableUtils.getAllInlineVariants(map);
+        assertEquals(1_000_000, inlines.size());
+        assertEquals(",key0:99,key1:99,key2:99", inlines.get(999_999).path);
+    }
+
     @Test
     public void testHyperParams() {
         InlineVariable hp = new InlineVariable(new LinkedHashMap<>(), "abc");
@@ -74,4 +74,23 @@ public class TestEnvYaml {
         EnvParamsYaml envYaml1 = EnvParamsYamlUtils.BASE_YAML_UTILS.to(s);
         assertEquals(envYaml, envYaml1);
     }
+
+    @Test
+    public void testEnvYamlWithSlots() throws IOException {
+
+        String yaml = IOUtils.resourceToString("/yaml/env/env-slots.yaml", StandardCharsets.UTF_8);
+        EnvParamsYaml envYaml = EnvParamsYamlUtils.BASE_YAML_UTILS.to(yaml);
+
+        assertEquals(2, envYaml.processors.size());
+        assertEquals("proc-01", envYaml.processors.get(0).code);
+        assertEquals(8, envYaml.processors.get(0).slots);
+        assertNull(envYaml.processors.get(1).slots);
+        assertEquals(1, envYaml.envSlots.size());
+        assertEquals(1, envYaml.envSlots.get("gpu-python"));
+
+        String s = EnvParamsYamlUtils.BASE_YAML_UTILS.toString(envYaml);
+
+        EnvParamsYaml envYaml1 = EnvParamsYamlUtils.BASE_YAML_UTILS.to(s);
+        assertEquals(envYaml, envYaml1);
+    }
 }
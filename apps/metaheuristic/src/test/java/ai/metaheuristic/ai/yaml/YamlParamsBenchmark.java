@@ -0,0 +1,117 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml;
+
+import ai.metaheuristic.ai.Consts;
+import ai.metaheuristic.ai.yaml.exec_context.ExecContextParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYaml;
+import ai.metaheuristic.ai.yaml.processor_status.ProcessorStatusYamlUtils;
+import ai.metaheuristic.api.EnumsApi;
+import ai.metaheuristic.api.data.exec_context.ExecContextParamsYaml;
+import ai.metaheuristic.api.data.task.TaskParamsYaml;
+import ai.metaheuristic.commons.CommonConsts;
+import ai.metaheuristic.commons.utils.TaskParamsUtils;
+import ai.metaheuristic.commons.yaml.function.FunctionConfigYaml;
+import ai.metaheuristic.commons.yaml.task.TaskParamsYamlUtils;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip benchmarks for the most frequently (un)marshalled params.
+ * Isn't a part of unit tests, run with main() from IDE or with
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=ai.metaheuristic.ai.yaml.YamlParamsBenchmark
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 7:40 PM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class YamlParamsBenchmark {
+
+    private String taskParams;
+    private String execContextParams;
+    private String processorStatus;
+
+    @Setup
+    public void setup() throws IOException {
+        TaskParamsYaml tpy = new TaskParamsYaml();
+        tpy.task.execContextId = 42L;
+        tpy.task.taskContextId = "1,2,3";
+        tpy.task.processCode = "test-process";
+        tpy.task.context = EnumsApi.FunctionExecContext.external;
+        for (int i = 0; i < 10; i++) {
+            tpy.task.inputs.add(new TaskParamsYaml.InputVariable(
+                    (long) i, EnumsApi.VariableContext.local, "input-" + i, EnumsApi.DataSourcing.dispatcher, null, null, null, null, false, false));
+            tpy.task.outputs.add(new TaskParamsYaml.OutputVariable(
+                    (long) (i + 100), EnumsApi.VariableContext.local, "output-" + i, EnumsApi.DataSourcing.dispatcher, null, null, null, false, null, false, false, null));
+        }
+        tpy.task.setFunction(TaskParamsUtils.toFunctionConfig(new FunctionConfigYaml(
+                "test-function:1.0", CommonConsts.FIT_TYPE, "file.txt", "112233", "python",
+                EnumsApi.FunctionSourcing.dispatcher, Map.of(), null, false, List.of(), null)));
+        taskParams = TaskParamsYamlUtils.BASE_YAML_UTILS.toString(tpy);
+
+        ExecContextParamsYaml ecpy = new ExecContextParamsYaml();
+        for (int i = 0; i < 20; i++) {
+            ecpy.processes.add(new ExecContextParamsYaml.Process("process-" + i, "process-" + i, Consts.TOP_LEVEL_CONTEXT_ID,
+                    new ExecContextParamsYaml.FunctionDefinition("function-" + i)));
+        }
+        execContextParams = ExecContextParamsYamlUtils.BASE_YAML_UTILS.toString(ecpy);
+
+        try (InputStream is = YamlParamsBenchmark.class.getResourceAsStream("/yaml/processor/processor-status-01.yaml")) {
+            processorStatus = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String taskParamsRoundTrip() {
+        return TaskParamsYamlUtils.BASE_YAML_UTILS.toString(TaskParamsYamlUtils.BASE_YAML_UTILS.to(taskParams));
+    }
+
+    @Benchmark
+    public String execContextParamsRoundTrip() {
+        return ExecContextParamsYamlUtils.BASE_YAML_UTILS.toString(ExecContextParamsYamlUtils.BASE_YAML_UTILS.to(execContextParams));
+    }
+
+    @Benchmark
+    public String processorStatusRoundTrip() {
+        ProcessorStatusYaml psy = ProcessorStatusYamlUtils.BASE_YAML_UTILS.to(processorStatus);
+        return ProcessorStatusYamlUtils.BASE_YAML_UTILS.toString(psy);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(YamlParamsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
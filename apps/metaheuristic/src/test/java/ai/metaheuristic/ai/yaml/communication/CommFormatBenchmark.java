@@ -0,0 +1,115 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml.communication;
+
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.keep_alive.*;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYamlUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per exchange (decoding of request and encoding of response on the dispatcher's side) for yaml and json.
+ * Sizes of messages are printed by main() before running of benchmarks.
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 9:20 PM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommFormatBenchmark {
+
+    private String processorCommYaml;
+    private String processorCommJson;
+    private DispatcherCommParamsYaml dispatcherComm;
+
+    private String keepAliveRequestYaml;
+    private String keepAliveRequestJson;
+    private KeepAliveResponseParamYaml keepAliveResponse;
+
+    @Setup
+    public void setup() {
+        ProcessorCommParamsYaml pcpy = TestCommJson.getProcessorComm();
+        processorCommYaml = ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(pcpy);
+        processorCommJson = ProcessorCommParamsJsonUtils.BASE_UTILS.toString(pcpy);
+        dispatcherComm = TestCommJson.getDispatcherComm();
+
+        KeepAliveRequestParamYaml karpy = TestCommJson.getKeepAliveRequest();
+        keepAliveRequestYaml = KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.toString(karpy);
+        keepAliveRequestJson = KeepAliveRequestParamJsonUtils.BASE_UTILS.toString(karpy);
+        keepAliveResponse = TestCommJson.getKeepAliveResponse();
+    }
+
+    @Benchmark
+    public String requestExchangeYaml() {
+        ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.to(processorCommYaml);
+        return DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(dispatcherComm);
+    }
+
+    @Benchmark
+    public String requestExchangeJson() {
+        ProcessorCommParamsJsonUtils.BASE_UTILS.to(processorCommJson);
+        return DispatcherCommParamsJsonUtils.BASE_UTILS.toString(dispatcherComm);
+    }
+
+    @Benchmark
+    public String keepAliveExchangeYaml() {
+        KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.to(keepAliveRequestYaml);
+        return KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(keepAliveResponse);
+    }
+
+    @Benchmark
+    public String keepAliveExchangeJson() {
+        KeepAliveRequestParamJsonUtils.BASE_UTILS.to(keepAliveRequestJson);
+        return KeepAliveResponseParamJsonUtils.BASE_UTILS.toString(keepAliveResponse);
+    }
+
+    private static int size(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        CommFormatBenchmark b = new CommFormatBenchmark();
+        b.setup();
+        System.out.printf("request exchange, bytes: yaml %d/%d, json %d/%d%n",
+                size(b.processorCommYaml), size(DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(b.dispatcherComm)),
+                size(b.processorCommJson), size(DispatcherCommParamsJsonUtils.BASE_UTILS.toString(b.dispatcherComm)));
+        System.out.printf("keep-alive exchange, bytes: yaml %d/%d, json %d/%d%n",
+                size(b.keepAliveRequestYaml), size(KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(b.keepAliveResponse)),
+                size(b.keepAliveRequestJson), size(KeepAliveResponseParamJsonUtils.BASE_UTILS.toString(b.keepAliveResponse)));
+
+        Options opt = new OptionsBuilder()
+                .include(CommFormatBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
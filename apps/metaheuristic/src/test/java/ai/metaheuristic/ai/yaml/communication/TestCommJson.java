@@ -0,0 +1,140 @@
+/*
+ * Metaheuristic, Copyright (C) 2017-2021, Innovation platforms, LLC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ai.metaheuristic.ai.yaml.communication;
+
+import ai.metaheuristic.ai.Enums;
+import ai.metaheuristic.ai.processor.sourcing.git.GitSourcingService;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.dispatcher.DispatcherCommParamsYamlUtils;
+import ai.metaheuristic.ai.yaml.communication.keep_alive.*;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsJsonUtils;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYaml;
+import ai.metaheuristic.ai.yaml.communication.processor.ProcessorCommParamsYamlUtils;
+import ai.metaheuristic.api.EnumsApi;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Params which were transferred as json must be the same as transferred as yaml
+ *
+ * @author Serge
+ * Date: 10/18/2026
+ * Time: 9:05 PM
+ */
+public class TestCommJson {
+
+    public static ProcessorCommParamsYaml getProcessorComm() {
+        ProcessorCommParamsYaml pcpy = new ProcessorCommParamsYaml();
+        ProcessorCommParamsYaml.ProcessorRequest r = new ProcessorCommParamsYaml.ProcessorRequest("proc-1");
+        r.processorCommContext = new ProcessorCommParamsYaml.ProcessorCommContext("42", "session-42");
+        r.requestTask = new ProcessorCommParamsYaml.RequestTask(true, false);
+        r.reportTaskProcessingResult = new ProcessorCommParamsYaml.ReportTaskProcessingResult(
+                List.of(new ProcessorCommParamsYaml.ReportTaskProcessingResult.SimpleTaskExecResult(13L, "exec: {}")));
+        r.checkForMissingOutputResources = new ProcessorCommParamsYaml.CheckForMissingOutputResources();
+        r.resendTaskOutputResourceResult = new ProcessorCommParamsYaml.ResendTaskOutputResourceResult(
+                List.of(new ProcessorCommParamsYaml.ResendTaskOutputResourceResult.SimpleStatus(13L, 17L, Enums.ResendTaskOutputResourceStatus.SEND_SCHEDULED)));
+        pcpy.requests.add(r);
+        pcpy.requests.add(new ProcessorCommParamsYaml.ProcessorRequest("proc-2"));
+        return pcpy;
+    }
+
+    public static DispatcherCommParamsYaml getDispatcherComm() {
+        DispatcherCommParamsYaml dcpy = new DispatcherCommParamsYaml();
+        DispatcherCommParamsYaml.DispatcherResponse r = new DispatcherCommParamsYaml.DispatcherResponse("proc-1");
+        r.assignedTask = new DispatcherCommParamsYaml.AssignedTask("version: 1\ntask:\n  execContextId: 7\n", 13L, 7L, EnumsApi.ExecContextState.STARTED);
+        r.reportResultDelivering = new DispatcherCommParamsYaml.ReportResultDelivering(List.of(1L, 2L, 3L));
+        r.resendTaskOutputs = new DispatcherCommParamsYaml.ResendTaskOutputs();
+        r.resendTaskOutputs.resends.add(new DispatcherCommParamsYaml.ResendTaskOutput(13L, 17L));
+        dcpy.responses.add(r);
+        DispatcherCommParamsYaml.DispatcherResponse r1 = new DispatcherCommParamsYaml.DispatcherResponse("proc-2");
+        r1.reAssignedProcessorId = new DispatcherCommParamsYaml.ReAssignProcessorId(43L, "session-43");
+        r1.assignedTasks = List.of(
+                new DispatcherCommParamsYaml.AssignedTask("version: 1\ntask:\n  execContextId: 8\n", 21L, 8L, EnumsApi.ExecContextState.STARTED),
+                new DispatcherCommParamsYaml.AssignedTask("version: 1\ntask:\n  execContextId: 8\n", 22L, 8L, EnumsApi.ExecContextState.STARTED));
+        dcpy.responses.add(r1);
+        dcpy.requestLogFile = new DispatcherCommParamsYaml.RequestLogFile(12345L);
+        return dcpy;
+    }
+
+    public static KeepAliveRequestParamYaml getKeepAliveRequest() {
+        KeepAliveRequestParamYaml karpy = new KeepAliveRequestParamYaml();
+        KeepAliveRequestParamYaml.ProcessorRequest r = new KeepAliveRequestParamYaml.ProcessorRequest("proc-1");
+        r.processorCommContext = new KeepAliveRequestParamYaml.ProcessorCommContext(42L, "session-42");
+        KeepAliveRequestParamYaml.Env env = new KeepAliveRequestParamYaml.Env();
+        env.envs.put("python-3", "/usr/bin/python3");
+        env.mirrors.put("https://github.com/sergmain/metaheuristic.git", "/mirror/metaheuristic");
+        env.disk.add(new KeepAliveRequestParamYaml.DiskStorage("storage", "/storage"));
+        env.tags = "tag1, tag2";
+        r.processor = new KeepAliveRequestParamYaml.ReportProcessor(env, new GitSourcingService.GitStatusInfo(Enums.GitStatus.installed, "2.30.0", null),
+                "workingDay: 0:00-23:59", "session-42", 1558588131596L, "127.0.0.1", "host", null, true, 1, EnumsApi.OS.linux, "/mh");
+        r.taskIds = "1,2,3";
+        karpy.requests.add(r);
+        karpy.functions.statuses.add(new KeepAliveRequestParamYaml.FunctionDownloadStatuses.Status("function-1:1.0", Enums.FunctionState.ready));
+        return karpy;
+    }
+
+    public static KeepAliveResponseParamYaml getKeepAliveResponse() {
+        KeepAliveResponseParamYaml response = new KeepAliveResponseParamYaml();
+        KeepAliveResponseParamYaml.DispatcherResponse r = new KeepAliveResponseParamYaml.DispatcherResponse("proc-1");
+        r.assignedProcessorId = new KeepAliveResponseParamYaml.AssignedProcessorId(42L, "session-42");
+        r.requestLogFile = new KeepAliveResponseParamYaml.RequestLogFile(12345L);
+        response.responses.add(r);
+        response.functions.infos.add(new KeepAliveResponseParamYaml.Functions.Info("function-1:1.0", EnumsApi.FunctionSourcing.dispatcher));
+        response.execContextStatus = new KeepAliveResponseParamYaml.ExecContextStatus();
+        response.execContextStatus.statuses.add(new KeepAliveResponseParamYaml.ExecContextStatus.SimpleStatus(7L, EnumsApi.ExecContextState.STARTED));
+        response.dispatcherInfo = new KeepAliveResponseParamYaml.DispatcherInfo(10_000_000L, 1);
+        return response;
+    }
+
+    @Test
+    public void testProcessorComm() {
+        ProcessorCommParamsYaml pcpy = getProcessorComm();
+        String json = ProcessorCommParamsJsonUtils.BASE_UTILS.toString(pcpy);
+        assertTrue(json.startsWith("{"));
+        ProcessorCommParamsYaml pcpy1 = ProcessorCommParamsJsonUtils.BASE_UTILS.to(json);
+        assertEquals(ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(pcpy), ProcessorCommParamsYamlUtils.BASE_YAML_UTILS.toString(pcpy1));
+    }
+
+    @Test
+    public void testDispatcherComm() {
+        DispatcherCommParamsYaml dcpy = getDispatcherComm();
+        String json = DispatcherCommParamsJsonUtils.BASE_UTILS.toString(dcpy);
+        DispatcherCommParamsYaml dcpy1 = DispatcherCommParamsJsonUtils.BASE_UTILS.to(json);
+        assertEquals(DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(dcpy), DispatcherCommParamsYamlUtils.BASE_YAML_UTILS.toString(dcpy1));
+    }
+
+    @Test
+    public void testKeepAliveRequest() {
+        KeepAliveRequestParamYaml karpy = getKeepAliveRequest();
+        String json = KeepAliveRequestParamJsonUtils.BASE_UTILS.toString(karpy);
+        KeepAliveRequestParamYaml karpy1 = KeepAliveRequestParamJsonUtils.BASE_UTILS.to(json);
+        assertEquals(KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.toString(karpy), KeepAliveRequestParamYamlUtils.BASE_YAML_UTILS.toString(karpy1));
+    }
+
+    @Test
+    public void testKeepAliveResponse() {
+        KeepAliveResponseParamYaml response = getKeepAliveResponse();
+        String json = KeepAliveResponseParamJsonUtils.BASE_UTILS.toString(response);
+        KeepAliveResponseParamYaml response1 = KeepAliveResponseParamJsonUtils.BASE_UTILS.to(json);
+        assertEquals(KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(response), KeepAliveResponseParamYamlUtils.BASE_YAML_UTILS.toString(response1));
+    }
+}
@@ -0,0 +1,10 @@
+CREATE TABLE mh_exec_context_task_state_change
+(
+    ID                          INT UNSIGNED    NOT NULL AUTO_INCREMENT  PRIMARY KEY,
+    EXEC_CONTEXT_TASK_STATE_ID  INT UNSIGNED    NOT NULL,
+    TASK_ID                     INT UNSIGNED    NOT NULL,
+    EXEC_STATE                  tinyint(1) NOT NULL
+);
+
+CREATE INDEX mh_exec_context_task_state_change_ects_id_idx
+    ON mh_exec_context_task_state_change (EXEC_CONTEXT_TASK_STATE_ID);
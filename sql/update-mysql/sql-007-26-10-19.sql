@@ -0,0 +1,9 @@
+alter table mh_variable add STORAGE_REF VARCHAR(100);
+
+alter table mh_variable_global add STORAGE_REF VARCHAR(100);
+
+alter table mh_variable_global modify DATA LONGBLOB;
+
+alter table mh_function_data add STORAGE_REF VARCHAR(100);
+
+alter table mh_cache_variable add STORAGE_REF VARCHAR(100);
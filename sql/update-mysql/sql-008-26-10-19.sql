@@ -0,0 +1,7 @@
+alter table mh_variable add CONTENT_SHA256 VARCHAR(64);
+
+alter table mh_variable add CONTENT_LENGTH BIGINT;
+
+alter table mh_variable_global add CONTENT_SHA256 VARCHAR(64);
+
+alter table mh_variable_global add CONTENT_LENGTH BIGINT;
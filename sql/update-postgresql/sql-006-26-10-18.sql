@@ -0,0 +1,10 @@
+CREATE TABLE MH_EXEC_CONTEXT_TASK_STATE_CHANGE
+(
+    ID                          SERIAL PRIMARY KEY,
+    EXEC_CONTEXT_TASK_STATE_ID  NUMERIC(10, 0) NOT NULL,
+    TASK_ID                     NUMERIC(10, 0) NOT NULL,
+    EXEC_STATE                  smallint NOT NULL
+);
+
+CREATE INDEX MH_EXEC_CONTEXT_TASK_STATE_CHANGE_ECTS_ID_IDX
+    ON MH_EXEC_CONTEXT_TASK_STATE_CHANGE (EXEC_CONTEXT_TASK_STATE_ID);
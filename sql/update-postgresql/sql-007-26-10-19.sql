@@ -0,0 +1,9 @@
+ALTER TABLE MH_VARIABLE ADD STORAGE_REF VARCHAR(100);
+
+ALTER TABLE MH_VARIABLE_GLOBAL ADD STORAGE_REF VARCHAR(100);
+
+ALTER TABLE MH_VARIABLE_GLOBAL ALTER COLUMN DATA DROP NOT NULL;
+
+ALTER TABLE MH_FUNCTION_DATA ADD STORAGE_REF VARCHAR(100);
+
+ALTER TABLE MH_CACHE_VARIABLE ADD STORAGE_REF VARCHAR(100);
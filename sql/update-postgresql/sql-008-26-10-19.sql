@@ -0,0 +1,7 @@
+ALTER TABLE MH_VARIABLE ADD CONTENT_SHA256 VARCHAR(64);
+
+ALTER TABLE MH_VARIABLE ADD CONTENT_LENGTH BIGINT;
+
+ALTER TABLE MH_VARIABLE_GLOBAL ADD CONTENT_SHA256 VARCHAR(64);
+
+ALTER TABLE MH_VARIABLE_GLOBAL ADD CONTENT_LENGTH BIGINT;